@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Security;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link MetacardImpl} and {@link CompactMetacardImpl} when building and reading a page
+ * of results. The {@code gc.alloc.rate.norm} reported by the GC profiler is the number of bytes
+ * allocated per page.
+ *
+ * <p>This is not compiled or run by the default build. It is added to the test sources by the
+ * {@code benchmark} profile, for example: {@code mvn test-compile exec:java -Dbenchmark
+ * -Dexec.classpathScope=test -Dexec.mainClass=ddf.catalog.data.impl.MetacardImplBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetacardImplBenchmark {
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final String[] READ_ATTRIBUTES = {
+    Core.ID, Core.TITLE, Core.MODIFIED, Core.LOCATION, Security.ACCESS_GROUPS, "ext.not-set"
+  };
+
+  @Param({"MetacardImpl", "CompactMetacardImpl"})
+  private String implementation;
+
+  private List<Metacard> page;
+
+  @Setup
+  public void setUp() {
+    page = createPage();
+  }
+
+  @Benchmark
+  public List<Metacard> createResultPage() {
+    return createPage();
+  }
+
+  @Benchmark
+  public void readResultPage(Blackhole blackhole) {
+    for (Metacard metacard : page) {
+      for (String attribute : READ_ATTRIBUTES) {
+        blackhole.consume(metacard.getAttribute(attribute));
+      }
+    }
+  }
+
+  private List<Metacard> createPage() {
+    List<Metacard> metacards = new ArrayList<>(PAGE_SIZE);
+    Date now = new Date();
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      MetacardImpl metacard =
+          "CompactMetacardImpl".equals(implementation)
+              ? new CompactMetacardImpl()
+              : new MetacardImpl();
+      metacard.setId(Integer.toString(i));
+      metacard.setTitle("Result " + i);
+      metacard.setDescription("Description of result " + i);
+      metacard.setCreatedDate(now);
+      metacard.setModifiedDate(now);
+      metacard.setEffectiveDate(now);
+      metacard.setLocation("POINT (" + (i % 180) + " 10)");
+      metacard.setContentTypeName("image");
+      metacard.setMetadata("<metadata/>");
+      metacard.setSourceId("ddf.distribution");
+      metacard.setAttribute(Core.METACARD_TAGS, new ArrayList<>(Arrays.asList("resource")));
+      metacard.setAttribute(
+          Security.ACCESS_GROUPS, new ArrayList<Serializable>(Arrays.asList("guest", "admin")));
+      metacards.add(metacard);
+    }
+    return metacards;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(MetacardImplBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import ddf.catalog.data.Attribute;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An {@link Attribute} implementation that uses less memory than {@link AttributeImpl}.
+ *
+ * <p>A single value is stored inline and multiple values are stored in an array sized to fit, so
+ * no list is allocated per attribute. {@link #getValues()} returns a new list of the values, which
+ * callers may modify without changing the attribute; use {@link #addValue(Serializable)} and {@link
+ * #clearValues()} to change the values.
+ *
+ * <p>Instances are serialized as {@link AttributeImpl}s, so the serialized form is the same as the
+ * existing implementation's and can be read by systems that do not have this class.
+ */
+public class CompactAttributeImpl implements Attribute {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Serializable[] NO_VALUES = new Serializable[0];
+
+  private final String name;
+
+  /** The value of a single valued attribute; unused when {@link #values} is set. */
+  private Serializable value;
+
+  /** The values of an attribute that does not have exactly one value, otherwise {@code null}. */
+  private Serializable[] values;
+
+  /**
+   * @param name the name of this {@link Attribute}
+   * @param value the value of this {@link Attribute}. A {@link List} value is stored as multiple
+   *     values, the same as {@link AttributeImpl#AttributeImpl(String, Serializable)}.
+   */
+  public CompactAttributeImpl(String name, Serializable value) {
+    this.name = name;
+    if (value instanceof List) {
+      setValues((List<?>) value);
+    } else {
+      this.value = value;
+    }
+  }
+
+  /**
+   * @param name the name of this {@link Attribute}
+   * @param values the values of this {@link Attribute}
+   */
+  public CompactAttributeImpl(String name, List<? extends Serializable> values) {
+    this.name = name;
+    setValues(values);
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param attribute the {@link Attribute} to copy
+   */
+  public CompactAttributeImpl(Attribute attribute) {
+    this(attribute.getName(), attribute.getValues());
+  }
+
+  /**
+   * Static factory method to avoid ambiguous constructor references when passing a value that
+   * implements both {@link List} and {@link Serializable}. See {@link
+   * #CompactAttributeImpl(String, Serializable)}.
+   */
+  public static CompactAttributeImpl fromSingleValue(String name, Serializable value) {
+    return new CompactAttributeImpl(name, value);
+  }
+
+  /**
+   * Static factory method to avoid ambiguous constructor references when passing a value that
+   * implements both {@link List} and {@link Serializable}. See {@link
+   * #CompactAttributeImpl(String, List)}.
+   */
+  public static CompactAttributeImpl fromMultipleValues(
+      String name, List<? extends Serializable> values) {
+    return new CompactAttributeImpl(name, values);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Serializable getValue() {
+    if (values == null) {
+      return value;
+    }
+    return values.length > 0 ? values[0] : null;
+  }
+
+  @Override
+  public List<Serializable> getValues() {
+    if (values == null) {
+      List<Serializable> singleValue = new ArrayList<>(1);
+      singleValue.add(value);
+      return singleValue;
+    }
+    return new ArrayList<>(Arrays.asList(values));
+  }
+
+  /**
+   * Adds a value to this {@link Attribute}
+   *
+   * @param newValue the value to add
+   */
+  public void addValue(Serializable newValue) {
+    if (values == null) {
+      values = new Serializable[] {value, newValue};
+      value = null;
+    } else if (values.length == 0) {
+      values = null;
+      value = newValue;
+    } else {
+      values = Arrays.copyOf(values, values.length + 1);
+      values[values.length - 1] = newValue;
+    }
+  }
+
+  /** Clears all {@link Attribute} values */
+  public void clearValues() {
+    value = null;
+    values = NO_VALUES;
+  }
+
+  private void setValues(List<?> newValues) {
+    if (newValues.size() == 1) {
+      value = (Serializable) newValues.get(0);
+    } else {
+      values = newValues.isEmpty() ? NO_VALUES : newValues.toArray(new Serializable[0]);
+    }
+  }
+
+  /**
+   * Replaces this instance with an equal {@link AttributeImpl} when serialized.
+   *
+   * @return the {@link AttributeImpl} to serialize in place of this instance
+   * @throws ObjectStreamException never
+   */
+  protected Object writeReplace() throws ObjectStreamException {
+    return new AttributeImpl(name, getValues());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof Attribute)) {
+      return false;
+    }
+
+    Attribute attribute = (Attribute) o;
+
+    return Objects.equals(name, attribute.getName())
+        && Objects.equals(getValues(), attribute.getValues());
+  }
+
+  @Override
+  public int hashCode() {
+    // Same as AttributeImpl so that equal attributes of either class have equal hash codes
+    return Objects.hash(name, getValues());
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getName() + " {name=" + name + ", values=" + getValues() + "}";
+  }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link MetacardImpl} that uses less memory to hold its {@link Attribute}s.
+ *
+ * <p>Instead of a map entry per attribute, the attributes defined by the {@link MetacardType} are
+ * held in an array with one slot per {@link AttributeDescriptor}, in the type's descriptor order.
+ * The slot layout is computed once per {@link MetacardType} instance and shared by every metacard
+ * of that type. Attributes that are not defined by the type are kept in a map that is only created
+ * when the first such attribute is set. No map is allocated by {@link MetacardImpl}. Attributes set
+ * by name are stored as {@link CompactAttributeImpl}s and, when defined by the type, share the name
+ * {@link String} of the type's {@link AttributeDescriptor}.
+ *
+ * <p>Instances are serialized as {@link MetacardImpl}s, so the serialized form is the same as the
+ * existing implementation's and can be read by systems that do not have this class.
+ */
+public class CompactMetacardImpl extends MetacardImpl {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final LoadingCache<MetacardType, SlotLayout> LAYOUTS =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(SlotLayout::new));
+
+  private transient SlotLayout layout;
+
+  private transient Attribute[] slots;
+
+  private transient Map<String, Attribute> otherAttributes;
+
+  /** Creates a {@link Metacard} with a type of BASIC_METACARD and empty {@link Attribute}s. */
+  public CompactMetacardImpl() {
+    this(BASIC_METACARD);
+  }
+
+  /**
+   * Creates a {@link Metacard} with the provided {@link MetacardType} and empty {@link Attribute}
+   * s.
+   *
+   * @param type the {@link MetacardType}
+   */
+  public CompactMetacardImpl(MetacardType type) {
+    super(type, null);
+    layout = LAYOUTS.getUnchecked(type);
+    slots = new Attribute[layout.size()];
+  }
+
+  /**
+   * Creates a {@link Metacard} with the type, source id and {@link Attribute}s of the provided
+   * {@link Metacard}. Unlike {@link MetacardImpl#MetacardImpl(Metacard)}, the attributes are copied
+   * rather than the metacard being wrapped. Every attribute of a {@link MetacardImpl} is copied,
+   * including those not defined by its type; only the attributes defined by the type can be copied
+   * from other {@link Metacard} implementations.
+   *
+   * @param metacard the {@link Metacard} to copy
+   */
+  public CompactMetacardImpl(Metacard metacard) {
+    this(metacard.getMetacardType());
+    setSourceId(metacard.getSourceId());
+    if (metacard instanceof MetacardImpl) {
+      ((MetacardImpl) metacard).getAttributes().forEach(this::setAttribute);
+    } else if (metacard.getMetacardType().getAttributeDescriptors() != null) {
+      for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+        setAttribute(metacard.getAttribute(descriptor.getName()));
+      }
+    }
+  }
+
+  @Override
+  public Attribute getAttribute(String name) {
+    int index = layout.indexOf(name);
+    if (index >= 0) {
+      return slots[index];
+    }
+    return otherAttributes == null ? null : otherAttributes.get(name);
+  }
+
+  /**
+   * Set an attribute via a name/value pair.
+   *
+   * @param name the name of the {@link Attribute}
+   * @param value the value of the {@link Attribute}
+   */
+  @Override
+  public void setAttribute(String name, Serializable value) {
+    int index = layout.indexOf(name);
+    setAttribute(new CompactAttributeImpl(index >= 0 ? layout.nameAt(index) : name, value));
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) {
+    if (attribute == null || attribute.getName() == null) {
+      return;
+    }
+
+    String name = attribute.getName();
+    Attribute newAttribute = attribute.getValue() != null ? attribute : null;
+
+    int index = layout.indexOf(name);
+    if (index >= 0) {
+      slots[index] = newAttribute;
+    } else if (newAttribute != null) {
+      if (otherAttributes == null) {
+        otherAttributes = new HashMap<>();
+      }
+      otherAttributes.put(name, newAttribute);
+    } else if (otherAttributes != null) {
+      otherAttributes.remove(name);
+    }
+  }
+
+  /**
+   * Sets the {@link MetacardType} of the {@link Metacard}. The existing {@link Attribute}s are
+   * kept.
+   *
+   * @param type {@link MetacardType} of the {@link Metacard}
+   */
+  @Override
+  public void setType(MetacardType type) {
+    List<Attribute> attributes = getAttributes();
+    super.setType(type);
+    layout = LAYOUTS.getUnchecked(type);
+    slots = new Attribute[layout.size()];
+    otherAttributes = null;
+    attributes.forEach(this::setAttribute);
+  }
+
+  @Override
+  List<Attribute> getAttributes() {
+    List<Attribute> attributes = new ArrayList<>(slots.length);
+    for (Attribute attribute : slots) {
+      if (attribute != null) {
+        attributes.add(attribute);
+      }
+    }
+    if (otherAttributes != null) {
+      attributes.addAll(otherAttributes.values());
+    }
+    return attributes;
+  }
+
+  /**
+   * Replaces this instance with an equal {@link MetacardImpl} when serialized.
+   *
+   * @return the {@link MetacardImpl} to serialize in place of this instance
+   * @throws ObjectStreamException never
+   */
+  protected Object writeReplace() throws ObjectStreamException {
+    MetacardImpl metacard = new MetacardImpl(getMetacardType());
+    metacard.setSourceId(getSourceId());
+    getAttributes().forEach(metacard::setAttribute);
+    return metacard;
+  }
+
+  /** Maps the names of the attributes defined by a {@link MetacardType} to slot indexes. */
+  private static class SlotLayout {
+
+    private final Map<String, Integer> indexes;
+
+    private final String[] names;
+
+    SlotLayout(MetacardType type) {
+      Set<AttributeDescriptor> descriptors = type.getAttributeDescriptors();
+      if (descriptors == null || descriptors.isEmpty()) {
+        indexes = Collections.emptyMap();
+        names = new String[0];
+        return;
+      }
+
+      Map<String, Integer> slotIndexes = new HashMap<>();
+      List<String> slotNames = new ArrayList<>(descriptors.size());
+      for (AttributeDescriptor descriptor : descriptors) {
+        if (descriptor != null
+            && descriptor.getName() != null
+            && slotIndexes.putIfAbsent(descriptor.getName(), slotIndexes.size()) == null) {
+          slotNames.add(descriptor.getName());
+        }
+      }
+      indexes = slotIndexes;
+      names = slotNames.toArray(new String[0]);
+    }
+
+    int indexOf(String name) {
+      Integer index = indexes.get(name);
+      return index == null ? -1 : index;
+    }
+
+    String nameAt(int index) {
+      return names[index];
+    }
+
+    int size() {
+      return names.length;
+    }
+  }
+}
@@ -34,6 +34,7 @@
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -163,7 +164,20 @@ public MetacardImpl(MetacardType type) {
      * serialized object is maintained. For instance, if a null check is added in the
      * constructor, the same check should be added in the readObject() method.
      */
-    map = new HashMap<>();
+    this(type, new HashMap<>());
+  }
+
+  /**
+   * Creates a {@link Metacard} with the provided {@link MetacardType} that keeps its {@link
+   * Attribute}s in the provided map. Subclasses that hold their {@link Attribute}s themselves pass
+   * a {@code null} map and must override {@link #getAttribute(String)} and {@link
+   * #setAttribute(Attribute)}.
+   *
+   * @param type the {@link MetacardType}
+   * @param attributes the map to keep the {@link Attribute}s in, or {@code null}
+   */
+  protected MetacardImpl(MetacardType type, Map<String, Attribute> attributes) {
+    map = attributes;
     if (type != null) {
       this.type = type;
     } else {
@@ -768,6 +782,33 @@ public void setAttribute(Attribute attribute) {
     }
   }
 
+  /**
+   * Returns the {@link Attribute}s of this metacard: those defined by its {@link MetacardType} and
+   * any others that were set on it.
+   *
+   * @return the {@link Attribute}s of this metacard
+   */
+  List<Attribute> getAttributes() {
+    if (wrappedMetacard instanceof MetacardImpl) {
+      return ((MetacardImpl) wrappedMetacard).getAttributes();
+    }
+
+    Map<String, Attribute> attributes = new LinkedHashMap<>();
+    Set<AttributeDescriptor> descriptors = getMetacardType().getAttributeDescriptors();
+    if (descriptors != null) {
+      for (AttributeDescriptor descriptor : descriptors) {
+        Attribute attribute = getAttribute(descriptor.getName());
+        if (attribute != null) {
+          attributes.put(descriptor.getName(), attribute);
+        }
+      }
+    }
+    if (map != null) {
+      map.forEach(attributes::putIfAbsent);
+    }
+    return new ArrayList<>(attributes.values());
+  }
+
   /**
    * Serializes this {@link MetacardImpl} instance.
    *
@@ -14,13 +14,38 @@
 package ddf.catalog.util.impl;
 
 import ddf.catalog.Constants;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Security;
+import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.Request;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.opengis.filter.sort.SortBy;
 
 /** Class for static request helper method */
 public class Requests {
 
+  private static final Set<String> ALWAYS_REQUESTED_ATTRIBUTES =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  Core.ID,
+                  Core.METACARD_TAGS,
+                  Metacard.SECURITY,
+                  Security.ACCESS_GROUPS,
+                  Security.ACCESS_GROUPS_READ,
+                  Security.ACCESS_INDIVIDUALS,
+                  Security.ACCESS_INDIVIDUALS_READ,
+                  Security.ACCESS_ADMINISTRATORS)));
+
   private Requests() {}
 
   /**
@@ -65,4 +90,62 @@ public static boolean isLocal(Map<String, Serializable> props) {
         || props.get(Constants.LOCAL_DESTINATION_KEY) == null
         || (boolean) props.get(Constants.LOCAL_DESTINATION_KEY);
   }
+
+  /**
+   * Returns the attributes requested with {@link Constants#REQUESTED_ATTRIBUTES_KEY}. The metacard
+   * id and tags, the security attributes and the attributes the query is sorted on are always
+   * included since they are needed to filter and merge the results.
+   *
+   * @param request the query request
+   * @return the requested attributes, or an empty set if all attributes are requested
+   */
+  public static Set<String> getRequestedAttributes(QueryRequest request) {
+    if (request == null) {
+      return Collections.emptySet();
+    }
+
+    Serializable value = request.getPropertyValue(Constants.REQUESTED_ATTRIBUTES_KEY);
+    Set<String> requested;
+    if (value instanceof Collection) {
+      requested =
+          ((Collection<?>) value)
+              .stream().filter(String.class::isInstance).map(String.class::cast)
+              .collect(Collectors.toSet());
+    } else if (value instanceof String[]) {
+      requested = new HashSet<>(Arrays.asList((String[]) value));
+    } else {
+      return Collections.emptySet();
+    }
+
+    if (requested.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    requested.addAll(ALWAYS_REQUESTED_ATTRIBUTES);
+    if (request.getQuery() != null) {
+      addSortAttribute(requested, request.getQuery().getSortBy());
+    }
+    Serializable additionalSortBys = request.getPropertyValue(Constants.ADDITIONAL_SORT_BYS);
+    if (additionalSortBys instanceof SortBy[]) {
+      for (SortBy sortBy : (SortBy[]) additionalSortBys) {
+        addSortAttribute(requested, sortBy);
+      }
+    }
+    return requested;
+  }
+
+  private static void addSortAttribute(Set<String> attributes, SortBy sortBy) {
+    if (sortBy == null || sortBy.getPropertyName() == null) {
+      return;
+    }
+
+    String propertyName = sortBy.getPropertyName().getPropertyName();
+    if (Result.TEMPORAL.equals(propertyName)) {
+      attributes.add(Metacard.EFFECTIVE);
+    } else if (propertyName != null
+        && !Result.RELEVANCE.equals(propertyName)
+        && !Result.DISTANCE.equals(propertyName)) {
+      attributes.add(propertyName);
+    }
+  }
 }
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import ddf.catalog.data.Attribute;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class CompactAttributeImplTest {
+
+  private static final String SERIALIZATION_FILE_LOCATION = "target/compactAttribute.ser";
+
+  @Test
+  public void testSingleValue() {
+    CompactAttributeImpl attribute = new CompactAttributeImpl("id", "value");
+
+    assertEquals("id", attribute.getName());
+    assertEquals("value", attribute.getValue());
+    assertEquals(Collections.singletonList("value"), attribute.getValues());
+  }
+
+  @Test
+  public void testListValueIsMultivalued() {
+    CompactAttributeImpl attribute =
+        CompactAttributeImpl.fromSingleValue("id", new ArrayList<>(Arrays.asList("a", "b")));
+
+    assertEquals("a", attribute.getValue());
+    assertEquals(Arrays.asList("a", "b"), attribute.getValues());
+  }
+
+  @Test
+  public void testAddAndClearValues() {
+    CompactAttributeImpl attribute = CompactAttributeImpl.fromSingleValue("id", "a");
+    attribute.addValue("b");
+    attribute.addValue("c");
+    assertEquals(Arrays.asList("a", "b", "c"), attribute.getValues());
+
+    attribute.clearValues();
+    assertNull(attribute.getValue());
+    assertTrue(attribute.getValues().isEmpty());
+
+    attribute.addValue(1);
+    assertEquals(1, attribute.getValue());
+    assertEquals(Collections.singletonList(1), attribute.getValues());
+  }
+
+  @Test
+  public void testGetValuesIsModifiableCopy() {
+    CompactAttributeImpl attribute = CompactAttributeImpl.fromSingleValue("id", "a");
+    List<Serializable> values = attribute.getValues();
+    values.add("b");
+    assertEquals(Collections.singletonList("a"), attribute.getValues());
+
+    attribute.addValue("b");
+    values = attribute.getValues();
+    values.remove("a");
+    assertEquals(Arrays.asList("a", "b"), attribute.getValues());
+  }
+
+  @Test
+  public void testEqualToAttributeImpl() {
+    AttributeImpl expected = AttributeImpl.fromMultipleValues("id", Arrays.asList("a", "b"));
+    CompactAttributeImpl attribute = new CompactAttributeImpl(expected);
+
+    assertEquals(expected, attribute);
+    assertEquals(attribute, expected);
+    assertEquals(expected.hashCode(), attribute.hashCode());
+  }
+
+  @Test
+  public void testSerializedAsAttributeImpl() throws IOException, ClassNotFoundException {
+    CompactAttributeImpl attribute =
+        CompactAttributeImpl.fromMultipleValues("id", Arrays.<Serializable>asList("a", 1));
+
+    Serializer<Attribute> serializer = new Serializer<>();
+    serializer.serialize(attribute, SERIALIZATION_FILE_LOCATION);
+    Attribute read = serializer.deserialize(SERIALIZATION_FILE_LOCATION);
+
+    assertEquals(AttributeImpl.class, read.getClass());
+    assertEquals(attribute, read);
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import org.junit.Test;
+
+public class CompactMetacardImplTest {
+
+  private static final String SERIALIZATION_FILE_LOCATION = "target/compactMetacard.ser";
+
+  @Test
+  public void testConvenienceAccessors() {
+    Date now = new Date();
+    CompactMetacardImpl metacard = new CompactMetacardImpl();
+    metacard.setId("id");
+    metacard.setTitle("title");
+    metacard.setCreatedDate(now);
+
+    assertEquals("id", metacard.getId());
+    assertEquals("title", metacard.getTitle());
+    assertEquals(now, metacard.getCreatedDate());
+    assertEquals(MetacardImpl.BASIC_METACARD, metacard.getMetacardType());
+    assertTrue(metacard.getAttribute(Metacard.TITLE) instanceof CompactAttributeImpl);
+  }
+
+  @Test
+  public void testSetAttributeKeepsInstance() {
+    CompactMetacardImpl metacard = new CompactMetacardImpl();
+    AttributeImpl attribute = new AttributeImpl(Metacard.TITLE, "title");
+    metacard.setAttribute(attribute);
+
+    assertSame(attribute, metacard.getAttribute(Metacard.TITLE));
+  }
+
+  @Test
+  public void testNullValueRemovesAttribute() {
+    CompactMetacardImpl metacard = new CompactMetacardImpl();
+    metacard.setTitle("title");
+    metacard.setAttribute("other", "value");
+
+    metacard.setTitle(null);
+    metacard.setAttribute("other", null);
+
+    assertNull(metacard.getAttribute(Metacard.TITLE));
+    assertNull(metacard.getAttribute("other"));
+    assertTrue(metacard.getAttributes().isEmpty());
+  }
+
+  @Test
+  public void testAttributeNotDefinedByType() {
+    CompactMetacardImpl metacard = new CompactMetacardImpl(new EmptyMetacardType());
+    metacard.setAttribute("other", "value");
+
+    assertEquals("value", metacard.getAttribute("other").getValue());
+  }
+
+  @Test
+  public void testSetTypeKeepsAttributes() {
+    CompactMetacardImpl metacard = new CompactMetacardImpl(new EmptyMetacardType());
+    metacard.setTitle("title");
+    metacard.setAttribute("other", "value");
+
+    metacard.setType(MetacardImpl.BASIC_METACARD);
+
+    assertEquals("title", metacard.getTitle());
+    assertEquals("value", metacard.getAttribute("other").getValue());
+  }
+
+  @Test
+  public void testCopyConstructor() {
+    MetacardImpl original = new MetacardImpl();
+    original.setId("id");
+    original.setSourceId("source");
+    original.setAttribute(
+        AttributeImpl.fromMultipleValues(Metacard.TAGS, Arrays.asList("resource", "other")));
+
+    CompactMetacardImpl copy = new CompactMetacardImpl(original);
+    original.setId("changed");
+
+    assertEquals("id", copy.getId());
+    assertEquals("source", copy.getSourceId());
+    assertEquals(
+        original.getAttribute(Metacard.TAGS).getValues(),
+        copy.getAttribute(Metacard.TAGS).getValues());
+    assertEquals(original.getMetacardType(), copy.getMetacardType());
+  }
+
+  @Test
+  public void testCopyConstructorCopiesAttributesNotDefinedByType() {
+    MetacardImpl original = new MetacardImpl();
+    original.setId("id");
+    original.setAttribute("other", "value");
+    CompactMetacardImpl compact = new CompactMetacardImpl();
+    compact.setAttribute("compact", "value");
+
+    assertEquals("value", new CompactMetacardImpl(original).getAttribute("other").getValue());
+    assertEquals("id", new CompactMetacardImpl(new MetacardImpl(original)).getId());
+    assertEquals("value", new CompactMetacardImpl(compact).getAttribute("compact").getValue());
+  }
+
+  @Test
+  public void testAttributeNameSharedWithDescriptor() {
+    CompactMetacardImpl metacard = new CompactMetacardImpl();
+    metacard.setAttribute(new String(Metacard.TITLE), "title");
+
+    assertSame(
+        MetacardImpl.BASIC_METACARD.getAttributeDescriptor(Metacard.TITLE).getName(),
+        metacard.getAttribute(Metacard.TITLE).getName());
+  }
+
+  @Test
+  public void testSerializedAsMetacardImpl() throws IOException, ClassNotFoundException {
+    CompactMetacardImpl metacard = new CompactMetacardImpl();
+    metacard.setId("id");
+    metacard.setTitle("title");
+    metacard.setSourceId("source");
+    metacard.setAttribute("other", "value");
+
+    Serializer<Metacard> serializer = new Serializer<>();
+    serializer.serialize(metacard, SERIALIZATION_FILE_LOCATION);
+    Metacard read = serializer.deserialize(SERIALIZATION_FILE_LOCATION);
+
+    assertEquals(MetacardImpl.class, read.getClass());
+    assertEquals("id", read.getId());
+    assertEquals("title", read.getTitle());
+    assertEquals("source", read.getSourceId());
+    assertEquals("value", read.getAttribute("other").getValue());
+    assertEquals(metacard.getMetacardType(), read.getMetacardType());
+    assertEquals(AttributeImpl.class, read.getAttribute(Metacard.TITLE).getClass());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMetacardTypeAsNull() {
+    new CompactMetacardImpl((MetacardType) null);
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import ddf.catalog.Constants;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Security;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+public class RequestsTest {
+
+  private static final Filter FILTER = Filter.INCLUDE;
+
+  @Test
+  public void testNoRequestedAttributes() {
+    QueryRequest request = new QueryRequestImpl(new QueryImpl(FILTER));
+
+    assertThat(Requests.getRequestedAttributes(request), is(empty()));
+  }
+
+  @Test
+  public void testEmptyRequestedAttributes() {
+    QueryRequest request = getRequest(new ArrayList<>(), null, null);
+
+    assertThat(Requests.getRequestedAttributes(request), is(empty()));
+  }
+
+  @Test
+  public void testRequestedAttributesIncludeSecurityAttributes() {
+    QueryRequest request = getRequest(new ArrayList<>(List.of(Core.TITLE)), null, null);
+
+    Set<String> attributes = Requests.getRequestedAttributes(request);
+
+    assertThat(
+        attributes,
+        hasItems(
+            Core.TITLE,
+            Core.ID,
+            Core.METACARD_TAGS,
+            Metacard.SECURITY,
+            Security.ACCESS_GROUPS,
+            Security.ACCESS_INDIVIDUALS));
+  }
+
+  @Test
+  public void testRequestedAttributesArray() {
+    QueryRequest request = getRequest(new String[] {Core.TITLE}, null, null);
+
+    assertThat(Requests.getRequestedAttributes(request), hasItems(Core.TITLE, Core.ID));
+  }
+
+  @Test
+  public void testRequestedAttributesIncludeSortAttributes() {
+    QueryRequest request =
+        getRequest(
+            new ArrayList<>(List.of(Core.TITLE)),
+            new SortByImpl(Result.TEMPORAL, SortOrder.DESCENDING),
+            new SortBy[] {new SortByImpl(Core.MODIFIED, SortOrder.ASCENDING)});
+
+    Set<String> attributes = Requests.getRequestedAttributes(request);
+
+    assertThat(attributes, hasItems(Core.TITLE, Metacard.EFFECTIVE, Core.MODIFIED));
+    assertThat(attributes, not(hasItem(Result.TEMPORAL)));
+  }
+
+  @Test
+  public void testRelevanceSortIsNotRequested() {
+    QueryRequest request =
+        getRequest(
+            new ArrayList<>(List.of(Core.TITLE)),
+            new SortByImpl(Result.RELEVANCE, SortOrder.DESCENDING),
+            null);
+
+    assertThat(Requests.getRequestedAttributes(request), not(hasItem(Result.RELEVANCE)));
+  }
+
+  private QueryRequest getRequest(
+      Serializable requestedAttributes, SortBy sortBy, SortBy[] additionalSortBys) {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.REQUESTED_ATTRIBUTES_KEY, requestedAttributes);
+    if (additionalSortBys != null) {
+      properties.put(Constants.ADDITIONAL_SORT_BYS, additionalSortBys);
+    }
+    return new QueryRequestImpl(new QueryImpl(FILTER, 0, 10, sortBy, false, 0), properties);
+  }
+}
@@ -135,6 +135,12 @@ public final class Constants {
 
   public static final String CONTENT_PATHS = "content-paths";
 
+  /**
+   * The content items the framework created for the temporary files in {@link #CONTENT_PATHS}. A
+   * content item that is not one of these instances may no longer hold the content of its file.
+   */
+  public static final String CONTENT_PATH_ITEMS = "content-path-items";
+
   public static final String ATTRIBUTE_OVERRIDES_KEY = "attributeOverrides";
 
   public static final String ATTRIBUTE_UPDATE_MAP_KEY = "attributeUpdateMap";
@@ -159,5 +165,52 @@ public final class Constants {
 
   public static final String ADDITIONAL_SORT_BYS = "additional-sort-bys";
 
+  /**
+   * Response property set to {@link Boolean#TRUE} by sources whose results are already ordered by
+   * the query's sort policy, allowing federation to merge them without re-sorting.
+   */
+  public static final String SORTED_RESULTS_KEY = "sorted-results";
+
+  /**
+   * Query request property that, when {@link Boolean#TRUE} on a query for all records (a negative
+   * page size) sent to a catalog provider, asks the provider to read the results from its index as
+   * they are consumed instead of retrieving them all before responding. The results of the response
+   * should then be read in order, once.
+   */
+  public static final String STREAM_RESULTS_KEY = "stream-results";
+
+  /**
+   * Property holding an opaque paging token. Federated query responses return the token for the
+   * next page; passing it back on the request for that page lets each source continue where the
+   * previous page ended instead of re-reading every earlier result. The token is only returned when
+   * every source responded with results sorted as requested, see {@link #SORTED_RESULTS_KEY}.
+   */
+  public static final String PAGING_TOKEN_KEY = "paging-token";
+
+  /**
+   * Query request property holding the names of the attributes the caller needs, as a collection
+   * of strings. Sources that support it only retrieve and return those attributes, so the returned
+   * metacards may be partial. All attributes are returned when the property is absent.
+   */
+  public static final String REQUESTED_ATTRIBUTES_KEY = "requested-attributes";
+
+  /**
+   * Query request property holding security constraints every permitted result satisfies, as an
+   * {@code ArrayList} of {@code HashMap}s from metacard attribute names to {@code HashSet}s of
+   * values in lower case. A metacard satisfies a constraint if it has no value for any of the
+   * constraint's attributes, or if at least one of its values, compared ignoring case, is in the
+   * values of the attribute. Sources that support it only return metacards that satisfy all of the
+   * constraints; the results must still be filtered by the subject's permissions.
+   */
+  public static final String SECURITY_CONSTRAINTS_KEY = "security-constraints";
+
+  /**
+   * Create storage request property holding a {@code HashMap} from the URIs of the content items
+   * being created to the URIs of stored content with the same bytes, such as the content a version
+   * is made from. Storage providers that support it can share the stored bytes instead of writing
+   * them again.
+   */
+  public static final String CONTENT_SOURCE_URIS_KEY = "content-source-uris";
+
   private Constants() {}
 }
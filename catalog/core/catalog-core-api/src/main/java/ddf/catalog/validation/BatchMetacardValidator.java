@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.validation;
+
+import ddf.catalog.data.Metacard;
+import java.util.List;
+
+/**
+ * A {@link MetacardValidator} that can validate the {@link Metacard}s of a request together, for
+ * example to check all of them against the catalog with one query instead of one query per {@link
+ * Metacard}.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface BatchMetacardValidator extends MetacardValidator {
+
+  /**
+   * Validates {@link Metacard}s together. The result for each {@link Metacard} is the same as, or
+   * includes, the result of {@link #validate(Metacard)} for it.
+   *
+   * @param metacards the {@link Metacard}s to validate, cannot be null
+   * @return a list the size of {@code metacards} containing, at the position of each {@link
+   *     Metacard}, the {@link ValidationException} describing its violations, or {@code null} if it
+   *     is valid
+   * @throws IllegalArgumentException if {@code metacards} is null
+   */
+  List<ValidationException> validateBatch(List<Metacard> metacards);
+}
@@ -22,6 +22,7 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.types.Core;
+import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.ResourceRequest;
@@ -34,6 +35,8 @@
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.ResourceNotFoundException;
 import ddf.catalog.resource.ResourceNotSupportedException;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.util.impl.ResultIterable;
@@ -65,6 +68,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import javax.annotation.Nullable;
@@ -140,7 +144,7 @@ public class DumpCommand extends CqlCommands {
   @Argument(
       name = "Batch size",
       description =
-          "Number of Metacards to retrieve and export at a time until completion. Change this argument based on system memory and CatalogProvider limits.",
+          "Number of Metacards to retrieve and export at a time until completion. Change this argument based on system memory and CatalogProvider limits. Not used with --provider, where the provider streams the Metacards.",
       index = 1,
       multiValued = false,
       required = false)
@@ -249,7 +253,9 @@ protected final Object executeWithSubject() throws Exception {
 
     QueryImpl query = new QueryImpl(getFilter());
     query.setRequestsTotalResultsCount(true);
-    query.setPageSize(pageSize);
+    // The provider is asked for all Metacards at once so that it can stream them from its index
+    // instead of being paged by offset, which reads every earlier Metacard again for each page
+    query.setPageSize(isProvider ? -1 : pageSize);
     query.setSortBy(sort);
 
     final AtomicLong resultCount = new AtomicLong(0);
@@ -268,13 +274,16 @@ protected final Object executeWithSubject() throws Exception {
             rejectedExecutionHandler);
 
     QueryRequest queryRequest = new QueryRequestImpl(query);
+    if (isProvider) {
+      queryRequest.getProperties().put(Constants.STREAM_RESULTS_KEY, true);
+    }
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Hits for Search: {}", catalog.query(queryRequest).getHits());
     }
 
     if (StringUtils.isNotBlank(zipFileName)) {
       File outputFile = new File(dirPath + zipFileName);
-      createZip(catalog, queryRequest, outputFile, resultCount);
+      createZip(queryAll(catalog, queryRequest), outputFile, resultCount);
 
       String alias =
           AccessController.doPrivileged(
@@ -295,7 +304,7 @@ protected final Object executeWithSubject() throws Exception {
         }
       }
     } else {
-      ResultIterable.resultIterable(catalog::query, queryRequest).stream()
+      queryAll(catalog, queryRequest)
           .map(Collections::singletonList)
           .map(result -> new SourceResponseImpl(queryRequest, result))
           .forEach(response -> handleResult(response, executorService, dumpDir, resultCount));
@@ -436,14 +445,22 @@ protected List<MetacardTransformer> getTransformers() {
     return metacardTransformerList;
   }
 
-  private void createZip(
-      CatalogFacade catalog, QueryRequest queryRequest, File outputFile, AtomicLong resultCount)
+  /** @return every result of the query, streamed by the provider or paged through the catalog */
+  private Stream<Result> queryAll(CatalogFacade catalog, QueryRequest queryRequest)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    if (isProvider) {
+      return catalog.query(queryRequest).getResults().stream();
+    }
+    return ResultIterable.resultIterable(catalog::query, queryRequest).stream();
+  }
+
+  private void createZip(Stream<Result> results, File outputFile, AtomicLong resultCount)
       throws CatalogTransformerException {
     try (FileOutputStream fileOutputStream = new FileOutputStream(outputFile);
         ZipOutputStream zipOutputStream = new ZipOutputStream(fileOutputStream)) {
 
       // write the metacards to the zip
-      ResultIterable.resultIterable(catalog::query, queryRequest).stream()
+      results
           .map(Result::getMetacard)
           .forEach(
               metacard -> {
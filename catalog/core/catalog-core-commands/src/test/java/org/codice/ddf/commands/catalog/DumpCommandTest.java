@@ -22,14 +22,19 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.source.CatalogProvider;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.security.audit.SecurityLogger;
@@ -49,6 +54,7 @@
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 
 /** Tests the {@link DumpCommand} output. */
 public class DumpCommandTest extends CommandCatalogFrameworkCommon {
@@ -146,6 +152,34 @@ public void testNormalOperation() throws Exception {
     assertThat(consoleOutput.getOutput(), containsString(" 2 file(s) dumped in "));
   }
 
+  @Test
+  public void testProviderStreamsAllResults() throws Exception {
+    // given
+    CatalogProvider catalogProvider = mock(CatalogProvider.class);
+    SourceResponse response = mock(SourceResponse.class);
+    when(response.getResults()).thenReturn(getResultList("id1", "id2", "id3"));
+    when(catalogProvider.query(any(QueryRequest.class))).thenReturn(response);
+
+    DumpCommand dumpCommand = new DumpCommand(signer);
+    dumpCommand.securityLogger = mock(SecurityLogger.class);
+    dumpCommand.catalogProvider = catalogProvider;
+    dumpCommand.isProvider = true;
+    dumpCommand.filterBuilder = new GeotoolsFilterBuilder();
+    dumpCommand.dirPath = testFolder.newFolder("somedirectory").getAbsolutePath();
+    dumpCommand.transformerId = CatalogCommands.SERIALIZED_OBJECT_ID;
+
+    // when
+    dumpCommand.executeWithSubject();
+
+    // then
+    ArgumentCaptor<QueryRequest> request = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(catalogProvider).query(request.capture());
+    assertThat(request.getValue().getQuery().getPageSize(), is(-1));
+    assertThat(
+        (Boolean) request.getValue().getPropertyValue(Constants.STREAM_RESULTS_KEY), is(true));
+    assertThat(consoleOutput.getOutput(), containsString(" 3 file(s) dumped in "));
+  }
+
   /**
    * Check for normal operation without any files
    *
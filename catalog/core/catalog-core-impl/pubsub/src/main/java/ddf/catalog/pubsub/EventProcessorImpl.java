@@ -31,19 +31,23 @@
 import ddf.catalog.plugin.PreSubscriptionPlugin;
 import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
 import ddf.catalog.pubsub.internal.PubSubConstants;
-import ddf.catalog.pubsub.internal.PubSubThread;
+import ddf.catalog.pubsub.internal.EntryEventProcessor;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
+import ddf.catalog.pubsub.internal.SubscriptionMatcher;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
-import java.net.URI;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import org.apache.commons.lang.math.NumberUtils;
 import org.apache.lucene.store.Directory;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.osgi.framework.BundleContext;
@@ -64,6 +68,18 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
   public static final String EXITING = "EXITING: {}";
 
+  private static final String WORKER_THREADS_PROPERTY = "catalog.pubsub.workerThreads";
+
+  private static final String QUEUE_CAPACITY_PROPERTY = "catalog.pubsub.queueCapacity";
+
+  private static final String MAX_BATCH_SIZE_PROPERTY = "catalog.pubsub.maxBatchSize";
+
+  private static final int DEFAULT_WORKER_THREADS = 4;
+
+  private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+  private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
   protected EventAdmin eventAdmin;
 
   protected BundleContext bundleContext;
@@ -74,7 +90,14 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
   protected CatalogFramework catalog;
 
-  private Map<String, ServiceRegistration> existingSubscriptions;
+  private final SubscriptionIndex<PublishedEventHandler> existingSubscriptions =
+      new SubscriptionIndex<>();
+
+  private ServiceRegistration subscriptionMatcherRegistration;
+
+  private final Set<String> defaultContextualIndexSubscriptions = ConcurrentHashMap.newKeySet();
+
+  private EntryEventProcessor entryEventProcessor;
 
   private final ExecutorService threadPool =
       Executors.newCachedThreadPool(
@@ -97,7 +120,13 @@ public EventProcessorImpl(
     this.preSubscription = preSubscription;
     this.preDelivery = preDelivery;
     this.catalog = catalog;
-    this.existingSubscriptions = new HashMap<>();
+    this.entryEventProcessor =
+        new EntryEventProcessor(
+            eventAdmin,
+            () -> !defaultContextualIndexSubscriptions.isEmpty(),
+            NumberUtils.toInt(System.getProperty(WORKER_THREADS_PROPERTY), DEFAULT_WORKER_THREADS),
+            NumberUtils.toInt(System.getProperty(QUEUE_CAPACITY_PROPERTY), DEFAULT_QUEUE_CAPACITY),
+            NumberUtils.toInt(System.getProperty(MAX_BATCH_SIZE_PROPERTY), DEFAULT_MAX_BATCH_SIZE));
 
     if (this.preSubscription == null) {
       LOGGER.debug("preSubscription plugins list is NULL");
@@ -127,50 +156,8 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
     LOGGER.trace(ENTERING, methodName);
 
     if (metacard != null) {
-      LOGGER.debug("Input Metacard:{}\n", metacard);
-      LOGGER.debug("catalog ID = {}", metacard.getId());
-      LOGGER.debug("operation = {}", operation);
-
-      HashMap<String, Object> properties = new HashMap<>(3, 1);
-
-      // Common headers
-      properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
-      properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
-
-      // ENTRY ID INFORMATION
-      // TODO: probably don't need to pass this through since they can get the metacard
-      properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
-
-      try {
-        URI uri = metacard.getResourceURI();
-        if (uri != null) {
-          String productUri = uri.toString();
-          LOGGER.debug(
-              "Processing incoming entry.  Adding DAD URI to event properties: {}", productUri);
-          // TODO: probably just get this info from the Metacard, Probably don't need to
-          // create new property for this
-          properties.put(PubSubConstants.HEADER_DAD_KEY, productUri);
-        }
-      } catch (Exception e) {
-        LOGGER.debug("Unable to obtain resource URL, will not be considered in subscription", e);
-      }
-
-      // CONTENT TYPE INFORMATION
-      String type = metacard.getContentTypeName();
-      String contentType = "UNKNOWN";
-      if (type != null) {
-        contentType = type;
-      } else {
-        LOGGER.debug("contentType is null");
-      }
-
-      String version = metacard.getContentTypeVersion();
-
-      contentType = contentType + "," + (version == null ? "" : version);
-
-      LOGGER.debug("contentType = {}", contentType);
-
-      properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY, contentType);
+      Map<String, Object> properties =
+          EntryEventProcessor.createEventProperties(metacard, operation);
 
       // CONTEXTUAL INFORMATION
       if (metacard.getMetadata() != null) {
@@ -215,6 +202,10 @@ public void init() {
     String methodName = "init";
     LOGGER.trace(ENTERING, methodName);
 
+    if (entryEventProcessor != null) {
+      entryEventProcessor.init();
+    }
+
     LOGGER.trace(EXITING, methodName);
   }
 
@@ -222,14 +213,25 @@ public void destroy() {
     String methodName = "destroy";
     LOGGER.trace(ENTERING, methodName);
 
+    synchronized (existingSubscriptions) {
+      if (subscriptionMatcherRegistration != null) {
+        subscriptionMatcherRegistration.unregister();
+        subscriptionMatcherRegistration = null;
+      }
+    }
+
+    if (entryEventProcessor != null) {
+      entryEventProcessor.shutdown();
+    }
+
     LOGGER.trace(EXITING, methodName);
   }
 
   /**
    * By default the Felix EventAdmin implementation has a timeout of 5000 ms. Your event handler has
    * to return from the handle event method in this time frame. If it does not, it gets Blacklisted.
-   * Therefore, this method processes its events in a separate thread than the EventAdmin who called
-   * it.
+   * Therefore, this method queues its events to be processed by the worker threads of an {@link
+   * EntryEventProcessor} rather than the EventAdmin thread who called it.
    */
   @Override
   public void handleEvent(Event event) {
@@ -243,7 +245,13 @@ public void handleEvent(Event event) {
       Metacard entry = (Metacard) event.getProperty(EventProcessor.EVENT_METACARD);
       LOGGER.debug("metacard ID = {}", entry.getId());
 
-      new PubSubThread(entry, topic, eventAdmin).start();
+      if (topic.equals(EventProcessor.EVENTS_TOPIC_CREATED)) {
+        entryEventProcessor.process(entry, PubSubConstants.CREATE);
+      } else if (topic.equals(EventProcessor.EVENTS_TOPIC_UPDATED)) {
+        entryEventProcessor.process(entry, PubSubConstants.UPDATE);
+      } else if (topic.equals(EventProcessor.EVENTS_TOPIC_DELETED)) {
+        entryEventProcessor.process(entry, PubSubConstants.DELETE);
+      }
     } else {
       LOGGER.debug(
           "No existing subscriptions, so no need to handle event since there is no one listening ...");
@@ -285,18 +293,15 @@ public void createSubscription(Subscription subscription, String subscriptionId)
       Predicate finalPredicate = (Predicate) subscription.accept(visitor, null);
       LOGGER.debug("predicate from filter visitor: {}", finalPredicate);
 
-      String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
-
-      Dictionary<String, String[]> props = new Hashtable<>(1, 1);
-      props.put(EventConstants.EVENT_TOPIC, topics);
-      ServiceRegistration serviceRegistration =
-          bundleContext.registerService(
-              EventHandler.class.getName(),
-              new PublishedEventHandler(
-                  finalPredicate, subscription, preDelivery, catalog, threadPool),
-              props);
-
-      existingSubscriptions.put(subscriptionId, serviceRegistration);
+      PublishedEventHandler handler =
+          new PublishedEventHandler(finalPredicate, subscription, preDelivery, catalog, threadPool);
+      existingSubscriptions.put(subscriptionId, finalPredicate, handler);
+      if (visitor.usesDefaultContextualIndex()) {
+        defaultContextualIndexSubscriptions.add(subscriptionId);
+      } else {
+        defaultContextualIndexSubscriptions.remove(subscriptionId);
+      }
+      registerSubscriptionMatcher();
 
       LOGGER.debug("Subscription {} created.", subscriptionId);
     } catch (Exception e) {
@@ -307,6 +312,25 @@ public void createSubscription(Subscription subscription, String subscriptionId)
     LOGGER.trace(EXITING, methodName);
   }
 
+  /**
+   * Registers the single {@link EventHandler} that matches published events against the indexed
+   * subscriptions, instead of registering a handler per subscription that every event is passed to.
+   */
+  private void registerSubscriptionMatcher() {
+    synchronized (existingSubscriptions) {
+      if (subscriptionMatcherRegistration == null) {
+        Dictionary<String, String[]> props = new Hashtable<>(1, 1);
+        props.put(
+            EventConstants.EVENT_TOPIC, new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME});
+        subscriptionMatcherRegistration =
+            bundleContext.registerService(
+                EventHandler.class.getName(),
+                new SubscriptionMatcher(existingSubscriptions),
+                props);
+      }
+    }
+  }
+
   @Override
   public void updateSubscription(Subscription subscription, String subscriptionId)
       throws SubscriptionNotFoundException {
@@ -334,11 +358,9 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
 
     try {
       LOGGER.debug("Removing subscription: {}", subscriptionId);
-      ServiceRegistration sr = (ServiceRegistration) existingSubscriptions.get(subscriptionId);
-      if (sr != null) {
-        sr.unregister();
+      defaultContextualIndexSubscriptions.remove(subscriptionId);
+      if (existingSubscriptions.remove(subscriptionId) != null) {
         LOGGER.debug("Removal complete");
-        existingSubscriptions.remove(subscriptionId);
       } else {
         LOGGER.debug(
             "Unable to find existing subscription: {}.  May already be deleted.", subscriptionId);
@@ -56,6 +56,8 @@ public void destroy() {
     String methodName = "destroy";
     LOGGER.debug(ENTERING_STR, methodName);
 
+    super.destroy();
+
     LOGGER.debug(EXITING_STR, methodName);
   }
 
@@ -38,4 +38,12 @@ public interface ContextualEvaluationCriteria {
   public String getMetadata();
 
   public String[] getTextPaths();
+
+  /**
+   * The entry of the index whose text is searched, when the index contains the text of several
+   * entries.
+   *
+   * @return the entry, or {@code null} to search the whole index
+   */
+  public String getIndexEntry();
 }
@@ -36,8 +36,19 @@ public class ContextualEvaluationCriteriaImpl implements ContextualEvaluationCri
 
   private Directory index;
 
+  private String indexEntry;
+
   public ContextualEvaluationCriteriaImpl(
       String criteria, boolean fuzzy, boolean caseSensitiveSearch, Directory index) {
+    this(criteria, fuzzy, caseSensitiveSearch, index, null);
+  }
+
+  public ContextualEvaluationCriteriaImpl(
+      String criteria,
+      boolean fuzzy,
+      boolean caseSensitiveSearch,
+      Directory index,
+      String indexEntry) {
     super();
     this.criteria = criteria;
     this.fuzzy = fuzzy;
@@ -45,6 +56,7 @@ public ContextualEvaluationCriteriaImpl(
     this.textPaths = null;
     this.metadata = null;
     this.index = index;
+    this.indexEntry = indexEntry;
   }
 
   public ContextualEvaluationCriteriaImpl(
@@ -109,6 +121,11 @@ public String getMetadata() {
     return metadata;
   }
 
+  @Override
+  public String getIndexEntry() {
+    return indexEntry;
+  }
+
   @Override
   public void close() throws IOException {
     index.close();
@@ -17,6 +17,7 @@
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
@@ -26,10 +27,13 @@
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.queryParser.ParseException;
 import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RAMDirectory;
@@ -46,6 +50,8 @@ public final class ContextualEvaluator {
 
   private static final String CASE_SENSITIVE_FIELD_NAME = "cs_Resource";
 
+  private static final String ENTRY_FIELD_NAME = "entry";
+
   private static final Logger LOGGER = LoggerFactory.getLogger(ContextualEvaluator.class);
 
   private static final String DEFAULT_XPATH_1 =
@@ -132,7 +138,15 @@ public static boolean evaluate(ContextualEvaluationCriteria cec)
     // b. search
     int hitsPerPage = 1;
     IndexSearcher searcher = new IndexSearcher(index, true);
-    TopDocs topDocs = searcher.search(q, hitsPerPage);
+    TopDocs topDocs;
+    if (cec.getIndexEntry() != null) {
+      // Only search the indexed text of the entry being evaluated in an index of several entries
+      QueryWrapperFilter entryFilter =
+          new QueryWrapperFilter(new TermQuery(new Term(ENTRY_FIELD_NAME, cec.getIndexEntry())));
+      topDocs = searcher.search(q, entryFilter, hitsPerPage);
+    } else {
+      topDocs = searcher.search(q, hitsPerPage);
+    }
 
     // c. display results
     LOGGER.debug("Found {} hits.", topDocs.totalHits);
@@ -151,11 +165,13 @@ public static boolean evaluate(ContextualEvaluationCriteria cec)
    * @param indexWriter
    * @param fieldName
    * @param value
+   * @param entry the entry the value was extracted from
    * @throws IOException
    */
-  private static void addDoc(IndexWriter indexWriter, String fieldName, String value)
+  private static void addDoc(IndexWriter indexWriter, String fieldName, String value, String entry)
       throws IOException {
     Document doc = new Document();
+    doc.add(new Field(ENTRY_FIELD_NAME, entry, Field.Store.NO, Field.Index.NOT_ANALYZED));
     doc.add(
         new Field(
             fieldName,
@@ -179,6 +195,20 @@ public static Directory buildIndex(String fullDocument) throws IOException {
     return buildIndex(fullDocument, DEFAULT_XPATH_SELECTORS);
   }
 
+  /**
+   * Build one Lucene index for several XML Documents, using the default XPath selectors to extract
+   * the indexable text from each document. The text of the document at index {@code i} of the list
+   * is searched by evaluating criteria whose {@link ContextualEvaluationCriteria#getIndexEntry()}
+   * is {@code Integer.toString(i)}.
+   *
+   * @param fullDocuments the XML documents to be indexed
+   * @return the Lucene index for the indexed text from the XML documents
+   * @throws IOException
+   */
+  public static Directory buildIndex(List<String> fullDocuments) throws IOException {
+    return buildIndex(fullDocuments, DEFAULT_XPATH_SELECTORS);
+  }
+
   /**
    * Build one Lucene index for the specified XML Document that contains both case-insensitive and
    * case-sensitive indexed text. Use the provided XPath selectors to extract the indexable text
@@ -190,32 +220,42 @@ public static Directory buildIndex(String fullDocument) throws IOException {
    * @return the Lucene index for the indexed text from the XML document
    * @throws IOException
    */
+  public static Directory buildIndex(String fullDocument, String[] xpathSelectors)
+      throws IOException {
+    return buildIndex(Collections.singletonList(fullDocument), xpathSelectors);
+  }
+
   // No need for try-with-resource handled by calling method
   @SuppressWarnings("squid:S2095")
-  public static Directory buildIndex(String fullDocument, String[] xpathSelectors)
+  private static Directory buildIndex(List<String> fullDocuments, String[] xpathSelectors)
       throws IOException {
     // 0. Specify the analyzer for tokenizing text.
     // The same analyzer should be used for indexing and searching
     // 1. create the index
     Directory index = new RAMDirectory();
-    String indexableText;
+    List<String> indexableTexts = new ArrayList<>(fullDocuments.size());
     CaseSensitiveContextualAnalyzer caseSensitiveStandardAnalyzer;
 
     try (ContextualAnalyzer contextualAnalyzer = new ContextualAnalyzer(Version.LUCENE_30)) {
-      // Retrieve the text from the document that can be indexed using the specified XPath
+      // Retrieve the text from the documents that can be indexed using the specified XPath
       // selectors
-      indexableText = getIndexableText(fullDocument, xpathSelectors);
+      for (String fullDocument : fullDocuments) {
+        indexableTexts.add(getIndexableText(fullDocument, xpathSelectors));
+      }
 
       // Create an IndexWriter using the case-insensitive StandardAnalyzer
       // NOTE: the boolean arg in the IndexWriter constructor means to create a new index,
       // overwriting any existing index
       try (IndexWriter indexWriter =
           new IndexWriter(index, contextualAnalyzer, true, IndexWriter.MaxFieldLength.UNLIMITED)) {
-        logTokens(indexWriter.getAnalyzer(), FIELD_NAME, fullDocument, "ContextualAnalyzer");
+        for (int i = 0; i < indexableTexts.size(); i++) {
+          logTokens(
+              indexWriter.getAnalyzer(), FIELD_NAME, fullDocuments.get(i), "ContextualAnalyzer");
 
-        // Add the indexable text to the case-insensitive index writer, assigning it the
-        // "case-insensitive" field name
-        addDoc(indexWriter, FIELD_NAME, indexableText);
+          // Add the indexable text to the case-insensitive index writer, assigning it the
+          // "case-insensitive" field name
+          addDoc(indexWriter, FIELD_NAME, indexableTexts.get(i), Integer.toString(i));
+        }
       }
 
       caseSensitiveStandardAnalyzer = new CaseSensitiveContextualAnalyzer(Version.LUCENE_30);
@@ -229,7 +269,10 @@ public static Directory buildIndex(String fullDocument, String[] xpathSelectors)
 
         // Add the indexable text to the case-sensitive index writer, assigning it the
         // "case-sensitive" field name
-        addDoc(csIndexWriter, CASE_SENSITIVE_FIELD_NAME, indexableText);
+        for (int i = 0; i < indexableTexts.size(); i++) {
+          addDoc(
+              csIndexWriter, CASE_SENSITIVE_FIELD_NAME, indexableTexts.get(i), Integer.toString(i));
+        }
       }
     }
     return index;
@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.apache.lucene.store.Directory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes the events of created, updated and deleted entries to the subscriptions on a bounded
+ * pool of worker threads.
+ *
+ * <p>Entries are queued and each worker takes all of the entries that are waiting, up to the
+ * maximum batch size, when it becomes free. The contextual index searched by contextual
+ * subscriptions is built once for the entries of a batch, and only when there are subscriptions
+ * that search it. When the queue stays full, the entry is published on the thread that delivered
+ * it instead, so that no event is lost, and counted in the {@code
+ * ddf.catalog.pubsub.entries.overflow} metric.
+ *
+ * <p>The metrics of each processor are tagged with its own {@code processor} tag, so that
+ * stopping one processor does not remove the metrics of another.
+ */
+public class EntryEventProcessor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EntryEventProcessor.class);
+
+  private static final String METRICS_PREFIX = "ddf.catalog.pubsub.entries";
+
+  private static final long QUEUE_TIMEOUT_MILLIS = 100;
+
+  private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+  private final EventAdmin eventAdmin;
+
+  private final BooleanSupplier contextualIndexRequired;
+
+  private final int maxBatchSize;
+
+  private final BlockingQueue<EntryEvent> queue;
+
+  private final int workerCount;
+
+  private final List<Meter> meters = new ArrayList<>();
+
+  private final Counter overflow;
+
+  private final DistributionSummary batchSizes;
+
+  private ExecutorService workers;
+
+  /**
+   * @param eventAdmin the {@link EventAdmin} used to post the published events
+   * @param contextualIndexRequired whether there are subscriptions that search the contextual index
+   * @param workerCount the number of worker threads
+   * @param queueCapacity the maximum number of entries waiting to be published
+   * @param maxBatchSize the maximum number of entries published together
+   */
+  public EntryEventProcessor(
+      EventAdmin eventAdmin,
+      BooleanSupplier contextualIndexRequired,
+      int workerCount,
+      int queueCapacity,
+      int maxBatchSize) {
+    this.eventAdmin = eventAdmin;
+    this.contextualIndexRequired = contextualIndexRequired;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    this.workerCount = Math.max(1, workerCount);
+
+    Tags tags = Tags.of("processor", String.valueOf(INSTANCES.incrementAndGet()));
+    meters.add(
+        Gauge.builder(METRICS_PREFIX + ".queued", queue, Collection::size)
+            .description("Entries waiting to be published.")
+            .tags(tags)
+            .register(Metrics.globalRegistry));
+    this.overflow =
+        Counter.builder(METRICS_PREFIX + ".overflow")
+            .description("Entries published on the delivering thread because the queue was full.")
+            .tags(tags)
+            .register(Metrics.globalRegistry);
+    meters.add(overflow);
+    this.batchSizes =
+        DistributionSummary.builder(METRICS_PREFIX + ".batch")
+            .description("Number of entries published together.")
+            .tags(tags)
+            .register(Metrics.globalRegistry);
+    meters.add(batchSizes);
+  }
+
+  /** Starts the worker threads. Entries queued before are published once the workers start. */
+  public synchronized void init() {
+    if (workers != null) {
+      return;
+    }
+
+    workers =
+        Executors.newFixedThreadPool(
+            workerCount,
+            StandardThreadFactoryBuilder.newThreadFactory("pubSubEntryProcessorThread"));
+    for (int i = 0; i < workerCount; i++) {
+      workers.execute(this::publishQueuedEntries);
+    }
+  }
+
+  /**
+   * Queues the event of an entry to be published. If the queue stays full, the event is published
+   * on the calling thread instead.
+   *
+   * @param entry the created, updated or deleted entry
+   * @param operation the operation on the entry, as defined in {@link PubSubConstants}
+   */
+  public void process(Metacard entry, String operation) {
+    EntryEvent event = new EntryEvent(entry, operation);
+    try {
+      if (queue.offer(event, QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    LOGGER.debug("Entry queue is full, publishing entry {} on the calling thread", entry.getId());
+    overflow.increment();
+    publish(Collections.singletonList(event));
+  }
+
+  /**
+   * Stops the worker threads and removes the metrics of this processor. Queued entries that have
+   * not been published are discarded.
+   */
+  public synchronized void shutdown() {
+    if (workers != null) {
+      workers.shutdownNow();
+      workers = null;
+    }
+    meters.forEach(Metrics.globalRegistry::remove);
+    meters.clear();
+  }
+
+  /**
+   * Creates the properties of the published event of an entry, without the contextual information.
+   *
+   * @param metacard the entry
+   * @param operation the operation on the entry, as defined in {@link PubSubConstants}
+   * @return the event properties
+   */
+  public static Map<String, Object> createEventProperties(Metacard metacard, String operation) {
+    LOGGER.debug("Input Metacard:{}\n", metacard);
+    LOGGER.debug("catalog ID = {}", metacard.getId());
+    LOGGER.debug("operation = {}", operation);
+
+    HashMap<String, Object> properties = new HashMap<>(4, 1);
+
+    // Common headers
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+
+    // ENTRY ID INFORMATION
+    // TODO: probably don't need to pass this through since they can get the metacard
+    properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
+
+    try {
+      URI uri = metacard.getResourceURI();
+      if (uri != null) {
+        String productUri = uri.toString();
+        LOGGER.debug(
+            "Processing incoming entry.  Adding DAD URI to event properties: {}", productUri);
+        // TODO: probably just get this info from the Metacard, Probably don't need to
+        // create new property for this
+        properties.put(PubSubConstants.HEADER_DAD_KEY, productUri);
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Unable to obtain resource URL, will not be considered in subscription", e);
+    }
+
+    // CONTENT TYPE INFORMATION
+    String type = metacard.getContentTypeName();
+    String contentType = "UNKNOWN";
+    if (type != null) {
+      contentType = type;
+    } else {
+      LOGGER.debug("contentType is null");
+    }
+
+    String version = metacard.getContentTypeVersion();
+
+    contentType = contentType + "," + (version == null ? "" : version);
+
+    LOGGER.debug("contentType = {}", contentType);
+
+    properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY, contentType);
+
+    return properties;
+  }
+
+  private void publishQueuedEntries() {
+    List<EntryEvent> batch = new ArrayList<>(maxBatchSize);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        batch.add(queue.take());
+        queue.drainTo(batch, maxBatchSize - 1);
+        publish(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void publish(List<EntryEvent> batch) {
+    batchSizes.record(batch.size());
+
+    List<String> metadata = new ArrayList<>(batch.size());
+    for (EntryEvent event : batch) {
+      if (event.entry.getMetadata() != null) {
+        metadata.add(event.entry.getMetadata());
+      }
+    }
+
+    // Build one Lucene search index on the metadata of all of the batch's entries using the
+    // default XPaths (specified in ContextualEvaluator). It is used by all contextual predicates
+    // that do *NOT* specify any textPaths, so it is only built when there are such predicates.
+    Directory index = null;
+    if (!metadata.isEmpty() && contextualIndexRequired.getAsBoolean()) {
+      try {
+        index = ContextualEvaluator.buildIndex(metadata);
+      } catch (Exception e) {
+        LOGGER.info("Exception building contextual index", e);
+      }
+    }
+
+    int indexEntry = 0;
+    for (EntryEvent event : batch) {
+      try {
+        Map<String, Object> properties = createEventProperties(event.entry, event.operation);
+
+        // CONTEXTUAL INFORMATION
+        if (event.entry.getMetadata() != null) {
+          // Include the entry's metadata (in case a subscription has textPaths, then it can
+          // create Lucene search indices on the metadata using its textPaths) and the entry's
+          // document in the default Lucene search index
+          Map<String, Object> contextualMap = new HashMap<>(3, 1);
+          contextualMap.put("METADATA", event.entry.getMetadata());
+          if (index != null) {
+            contextualMap.put("DEFAULT_INDEX", index);
+            contextualMap.put("DEFAULT_INDEX_ENTRY", Integer.toString(indexEntry));
+          }
+          indexEntry++;
+          properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
+        }
+
+        eventAdmin.postEvent(new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties));
+      } catch (RuntimeException e) {
+        LOGGER.info("Unable to publish entry {}", event.entry.getId(), e);
+      }
+    }
+  }
+
+  private static class EntryEvent {
+
+    private final Metacard entry;
+
+    private final String operation;
+
+    EntryEvent(Metacard entry, String operation) {
+      this.entry = entry;
+      this.operation = operation;
+    }
+  }
+}
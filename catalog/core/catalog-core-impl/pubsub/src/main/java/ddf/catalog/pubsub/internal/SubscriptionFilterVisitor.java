@@ -17,6 +17,7 @@
 import ddf.catalog.impl.filter.FuzzyFunction;
 import ddf.catalog.pubsub.EventProcessorImpl.DateType;
 import ddf.catalog.pubsub.criteria.geospatial.SpatialOperator;
+import ddf.catalog.pubsub.predicate.AndPredicate;
 import ddf.catalog.pubsub.predicate.ContentTypePredicate;
 import ddf.catalog.pubsub.predicate.ContextualPredicate;
 import ddf.catalog.pubsub.predicate.EntryPredicate;
@@ -70,24 +71,24 @@ public class SubscriptionFilterVisitor extends DefaultFilterVisitor {
 
   // private static final String FUZZY_FUNCTION_NAME = "fuzzy";
 
+  private boolean usesDefaultContextualIndex;
+
   public SubscriptionFilterVisitor() {}
 
+  /**
+   * @return {@code true} if a visited filter was a contextual filter that is evaluated against the
+   *     default contextual index of the published events
+   */
+  public boolean usesDefaultContextualIndex() {
+    return usesDefaultContextualIndex;
+  }
+
   /** A helper method to combine multiple predicates by a logical AND */
   public static Predicate and(final Predicate left, final Predicate right) {
     notNull(left, "left");
     notNull(right, "right");
 
-    return new Predicate() {
-      @Override
-      public boolean matches(Event properties) {
-        return left.matches(properties) && right.matches(properties);
-      }
-
-      @Override
-      public String toString() {
-        return "(" + left + ") AND (" + right + ")";
-      }
-    };
+    return new AndPredicate(left, right);
   }
 
   /** A helper method to combine multiple predicates by a logical OR */
@@ -461,6 +462,7 @@ public Object visit(PropertyIsLike filter, Object data) {
     ContextualPredicate contextPred =
         new ContextualPredicate(
             sterilizedSearchPhrase, isFuzzy, likeFilter.isMatchingCase(), textPathList);
+    usesDefaultContextualIndex |= !contextPred.hasTextPaths();
 
     LOGGER.debug("EXITING: PropertyIsLike filter");
 
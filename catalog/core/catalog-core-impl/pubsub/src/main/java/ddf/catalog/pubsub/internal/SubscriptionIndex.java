@@ -0,0 +1,363 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.geospatial.SpatialOperator;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.EntryPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.geotools.geometry.jts.WKTReader2;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.intervalrtree.SortedPackedIntervalRTree;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexes subscriptions by a condition that every event they match must meet, so that an event
+ * only has to be evaluated against the subscriptions that could match it.
+ *
+ * <p>Each subscription is indexed by one of the predicates that its predicate requires to match,
+ * the first found of: a metacard id, a content type without wildcards, a geometry (in an STR-tree
+ * of the geometries' envelopes, widened by the distance for point-radius criteria) and an absolute
+ * temporal window (in an interval tree per date type). Subscriptions whose predicate requires none
+ * of these, such as contextual only or {@code OR} subscriptions, are candidates for every event.
+ *
+ * <p>The candidates for an event are a superset of the subscriptions whose predicate matches it,
+ * so their predicates must still be evaluated. Delete events without metadata match every
+ * predicate, so all subscriptions are candidates for them.
+ *
+ * <p>The indexes are rebuilt on the first event after subscriptions change. This class is thread
+ * safe.
+ *
+ * @param <T> the type of the values returned for the candidate subscriptions
+ */
+public class SubscriptionIndex<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+  private static final double DISTANCE_THRESHOLD = .000001;
+
+  private static final Pattern REGEX_CHARACTERS = Pattern.compile("[\\\\.\\[\\]{}()*+?^$|]");
+
+  private final Map<String, IndexedSubscription<T>> subscriptions = new LinkedHashMap<>();
+
+  private volatile Snapshot<T> snapshot;
+
+  /**
+   * Adds a subscription, replacing any subscription with the same id.
+   *
+   * @param subscriptionId the id of the subscription
+   * @param predicate the predicate of the subscription, {@code null} if it matches every event
+   * @param value the value to return when the subscription is a candidate
+   */
+  public synchronized void put(String subscriptionId, Predicate predicate, T value) {
+    subscriptions.put(subscriptionId, new IndexedSubscription<>(predicate, value));
+    snapshot = null;
+  }
+
+  /**
+   * @param subscriptionId the id of the subscription to remove
+   * @return the value of the removed subscription, {@code null} if there was no such subscription
+   */
+  public synchronized T remove(String subscriptionId) {
+    IndexedSubscription<T> removed = subscriptions.remove(subscriptionId);
+    snapshot = null;
+    return removed == null ? null : removed.value;
+  }
+
+  public synchronized boolean isEmpty() {
+    return subscriptions.isEmpty();
+  }
+
+  public synchronized int size() {
+    return subscriptions.size();
+  }
+
+  /**
+   * @param event a published event, as created by {@link
+   *     ddf.catalog.pubsub.EventProcessorImpl#processEntry}
+   * @return the values of the subscriptions that could match the event
+   */
+  public List<T> getCandidates(Event event) {
+    Snapshot<T> current = snapshot;
+    if (current == null) {
+      current = rebuild();
+    }
+
+    if (isDeleteWithoutMetadata(event)) {
+      return current.all;
+    }
+
+    List<T> candidates = new ArrayList<>(current.unindexed);
+
+    Object id = event.getProperty(PubSubConstants.HEADER_ID_KEY);
+    if (id != null) {
+      candidates.addAll(current.byId.getOrDefault(id.toString(), Collections.emptyList()));
+    }
+
+    Object contentType = event.getProperty(PubSubConstants.HEADER_CONTENT_TYPE_KEY);
+    if (contentType != null) {
+      candidates.addAll(
+          current.byContentType.getOrDefault(
+              getContentType(contentType.toString()), Collections.emptyList()));
+    }
+
+    Metacard metacard = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+    if (metacard != null) {
+      addGeospatialCandidates(current, metacard, candidates);
+      addTemporalCandidates(current, metacard, candidates);
+    }
+
+    LOGGER.debug(
+        "{} of {} subscriptions are candidates for the event",
+        candidates.size(),
+        current.all.size());
+    return candidates;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addGeospatialCandidates(Snapshot<T> current, Metacard metacard, List<T> candidates) {
+    if (current.geospatial == null || metacard.getLocation() == null) {
+      return;
+    }
+
+    try {
+      Envelope envelope = new WKTReader2().read(metacard.getLocation()).getEnvelopeInternal();
+      candidates.addAll(current.geospatial.query(envelope));
+    } catch (ParseException e) {
+      LOGGER.debug("Unable to parse the location of metacard {}", metacard.getId(), e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addTemporalCandidates(Snapshot<T> current, Metacard metacard, List<T> candidates) {
+    for (Map.Entry<DateType, SortedPackedIntervalRTree> entry : current.temporal.entrySet()) {
+      Date date = getDate(metacard, entry.getKey());
+      if (date != null) {
+        double time = date.getTime();
+        entry.getValue().query(time, time, item -> candidates.add((T) item));
+      }
+    }
+  }
+
+  private synchronized Snapshot<T> rebuild() {
+    if (snapshot == null) {
+      snapshot = new Snapshot<>(subscriptions.values());
+    }
+    return snapshot;
+  }
+
+  private static boolean isDeleteWithoutMetadata(Event event) {
+    if (!PubSubConstants.DELETE.equals(event.getProperty(PubSubConstants.HEADER_OPERATION_KEY))) {
+      return false;
+    }
+    Object contextualMap = event.getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+    return contextualMap instanceof Map
+        && PubSubConstants.METADATA_DELETED.equals(((Map<?, ?>) contextualMap).get("METADATA"));
+  }
+
+  /** Returns the type part of an event's content type the same way as the evaluator does. */
+  private static String getContentType(String contentType) {
+    String type = contentType.split(",", -1)[0];
+    return type.isEmpty() ? "null" : type;
+  }
+
+  /** Returns the date of the entry the same way as {@link TemporalPredicate} does. */
+  private static Date getDate(Metacard metacard, DateType type) {
+    switch (type) {
+      case MODIFIED:
+        return metacard.getModifiedDate();
+      case EFFECTIVE:
+        return metacard.getEffectiveDate();
+      case EXPIRATION:
+        return metacard.getExpirationDate();
+      case CREATED:
+        return metacard.getCreatedDate();
+      case METACARD_CREATED:
+        return getDate(metacard.getAttribute(Core.METACARD_CREATED));
+      case METACARD_MODIFIED:
+        return getDate(metacard.getAttribute(Core.METACARD_MODIFIED));
+      default:
+        return null;
+    }
+  }
+
+  private static Date getDate(Attribute attribute) {
+    if (attribute == null) {
+      return null;
+    }
+    Serializable value = attribute.getValue();
+    return value instanceof Date ? (Date) value : null;
+  }
+
+  private static boolean isIndexable(Predicate predicate) {
+    if (predicate instanceof EntryPredicate) {
+      return ((EntryPredicate) predicate).getCatalogId() != null;
+    }
+    if (predicate instanceof ContentTypePredicate) {
+      String type = ((ContentTypePredicate) predicate).getType();
+      return type != null && !REGEX_CHARACTERS.matcher(type).find();
+    }
+    if (predicate instanceof GeospatialPredicate) {
+      GeospatialPredicate geospatial = (GeospatialPredicate) predicate;
+      if (geospatial.getGeoCriteria() == null) {
+        return false;
+      }
+      String operation = geospatial.getGeoOperation();
+      return Math.abs(geospatial.getDistance()) >= DISTANCE_THRESHOLD
+          || SpatialOperator.CONTAINS.name().equalsIgnoreCase(operation)
+          || SpatialOperator.OVERLAPS.name().equalsIgnoreCase(operation);
+    }
+    if (predicate instanceof TemporalPredicate) {
+      TemporalPredicate temporal = (TemporalPredicate) predicate;
+      return temporal.getOffset() == 0
+          && temporal.getStart() != null
+          && temporal.getEnd() != null
+          && temporal.getType() != null;
+    }
+    return false;
+  }
+
+  /**
+   * @return the most selective indexable predicate that the predicate requires to match, {@code
+   *     null} if there is none
+   */
+  private static Predicate getIndexedPredicate(Predicate predicate) {
+    List<Predicate> required = new ArrayList<>();
+    addRequired(predicate, required);
+
+    Predicate best = null;
+    for (Predicate candidate : required) {
+      if (isIndexable(candidate) && (best == null || rank(candidate) < rank(best))) {
+        best = candidate;
+      }
+    }
+    return best;
+  }
+
+  private static void addRequired(Predicate predicate, List<Predicate> required) {
+    if (predicate instanceof AndPredicate) {
+      addRequired(((AndPredicate) predicate).getLeft(), required);
+      addRequired(((AndPredicate) predicate).getRight(), required);
+    } else if (predicate != null) {
+      required.add(predicate);
+    }
+  }
+
+  private static int rank(Predicate predicate) {
+    if (predicate instanceof EntryPredicate) {
+      return 0;
+    }
+    if (predicate instanceof ContentTypePredicate) {
+      return 1;
+    }
+    if (predicate instanceof GeospatialPredicate) {
+      return 2;
+    }
+    return 3;
+  }
+
+  private static <V> void addTo(Map<String, List<V>> index, String key, V value) {
+    index.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+  }
+
+  private static class IndexedSubscription<T> {
+
+    private final Predicate predicate;
+
+    private final T value;
+
+    IndexedSubscription(Predicate predicate, T value) {
+      this.predicate = predicate;
+      this.value = value;
+    }
+  }
+
+  /** Immutable indexes over the subscriptions at a point in time. */
+  private static class Snapshot<T> {
+
+    private final List<T> all = new ArrayList<>();
+
+    private final List<T> unindexed = new ArrayList<>();
+
+    private final Map<String, List<T>> byId = new HashMap<>();
+
+    private final Map<String, List<T>> byContentType = new HashMap<>();
+
+    private final STRtree geospatial;
+
+    private final Map<DateType, SortedPackedIntervalRTree> temporal =
+        new EnumMap<>(DateType.class);
+
+    Snapshot(Collection<IndexedSubscription<T>> subscriptions) {
+      STRtree tree = new STRtree();
+      boolean hasGeospatial = false;
+
+      for (IndexedSubscription<T> subscription : subscriptions) {
+        all.add(subscription.value);
+
+        Predicate indexed = getIndexedPredicate(subscription.predicate);
+        if (indexed instanceof EntryPredicate) {
+          addTo(byId, ((EntryPredicate) indexed).getCatalogId(), subscription.value);
+        } else if (indexed instanceof ContentTypePredicate) {
+          addTo(byContentType, ((ContentTypePredicate) indexed).getType(), subscription.value);
+        } else if (indexed instanceof GeospatialPredicate) {
+          GeospatialPredicate geospatial = (GeospatialPredicate) indexed;
+          Geometry geometry = geospatial.getGeoCriteria();
+          Envelope envelope = new Envelope(geometry.getEnvelopeInternal());
+          envelope.expandBy(Math.abs(geospatial.getDistance()));
+          tree.insert(envelope, subscription.value);
+          hasGeospatial = true;
+        } else if (indexed instanceof TemporalPredicate) {
+          TemporalPredicate window = (TemporalPredicate) indexed;
+          temporal
+              .computeIfAbsent(window.getType(), type -> new SortedPackedIntervalRTree())
+              .insert(
+                  window.getStart().getTime(), window.getEnd().getTime(), subscription.value);
+        } else {
+          unindexed.add(subscription.value);
+        }
+      }
+
+      if (hasGeospatial) {
+        tree.build();
+        geospatial = tree;
+      } else {
+        geospatial = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import java.util.List;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Handles published events for all subscriptions by passing each event to the handlers of only the
+ * subscriptions that could match it, as found by a {@link SubscriptionIndex}.
+ */
+public class SubscriptionMatcher implements EventHandler {
+
+  private final SubscriptionIndex<? extends EventHandler> index;
+
+  public SubscriptionMatcher(SubscriptionIndex<? extends EventHandler> index) {
+    this.index = index;
+  }
+
+  @Override
+  public void handleEvent(Event event) {
+    List<? extends EventHandler> candidates = index.getCandidates(event);
+    for (EventHandler handler : candidates) {
+      handler.handleEvent(event);
+    }
+  }
+}
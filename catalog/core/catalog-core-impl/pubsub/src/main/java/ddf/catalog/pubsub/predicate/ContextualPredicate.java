@@ -261,12 +261,24 @@ public boolean matches(Event properties) {
       // data
     } else {
       LOGGER.debug("using default Lucene search index for metadata");
+      Directory index = (Directory) contextualMap.get("DEFAULT_INDEX");
+      String indexEntry = (String) contextualMap.get("DEFAULT_INDEX_ENTRY");
+
+      // The default index is only built when there are contextual subscriptions, so build it
+      // if this subscription was created after the entry was processed
+      if (index == null) {
+        LOGGER.debug("building default Lucene search index for metadata");
+        try {
+          index = ContextualEvaluator.buildIndex(metadata);
+        } catch (IOException e) {
+          LOGGER.debug("IO exception during context evaluation", e);
+          return false;
+        }
+      }
+
       cec =
           new ContextualEvaluationCriteriaImpl(
-              searchPhrase,
-              fuzzy,
-              caseSensitiveSearch,
-              (Directory) contextualMap.get("DEFAULT_INDEX"));
+              searchPhrase, fuzzy, caseSensitiveSearch, index, indexEntry);
     }
 
     try {
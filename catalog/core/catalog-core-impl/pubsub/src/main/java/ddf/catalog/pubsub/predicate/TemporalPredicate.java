@@ -157,6 +157,10 @@ public DateType getType() {
     return type;
   }
 
+  public long getOffset() {
+    return offset;
+  }
+
   public String toString() {
     StringBuilder sb = new StringBuilder();
 
@@ -1689,6 +1689,28 @@ private List<MockTypeVersionsExtension> createContentTypeVersionList(String type
     return extensions;
   }
 
+  @Test
+  public void testContextualQueryOnBatchIndex() throws Exception {
+    Predicate predicate = getPredicate("brown");
+
+    String matching = String.format(METADATA_FORMAT, "lazy brown fox");
+    String unmatching = String.format(METADATA_FORMAT, "quick red hen");
+    Directory index = ContextualEvaluator.buildIndex(Arrays.asList(unmatching, matching));
+
+    assertFalse(predicate.matches(getEvent(unmatching, index, "0")));
+    assertTrue(predicate.matches(getEvent(matching, index, "1")));
+  }
+
+  @Test
+  public void testContextualQueryWithoutDefaultIndex() throws Exception {
+    Predicate predicate = getPredicate("brown");
+
+    assertTrue(
+        predicate.matches(getEvent(String.format(METADATA_FORMAT, "lazy brown fox"), null, null)));
+    assertFalse(
+        predicate.matches(getEvent(String.format(METADATA_FORMAT, "quick red hen"), null, null)));
+  }
+
   private Predicate getPredicate(String searchPhrase) {
     return getPredicate(searchPhrase, null, false);
   }
@@ -1722,6 +1744,26 @@ private Event getEvent(String metadata) throws IOException {
     return new Event("topic", properties);
   }
 
+  private Event getEvent(String metadata, Directory index, String indexEntry) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("ABC123");
+    metacard.setMetadata(metadata);
+    HashMap<String, Object> properties = new HashMap<>();
+    properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, PubSubConstants.CREATE);
+
+    Map<String, Object> contextualMap = new HashMap<>();
+    contextualMap.put("METADATA", metadata);
+    if (index != null) {
+      contextualMap.put("DEFAULT_INDEX", index);
+      contextualMap.put("DEFAULT_INDEX_ENTRY", indexEntry);
+    }
+    properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
+
+    return new Event("topic", properties);
+  }
+
   // private static void analyze( String fieldName, String text ) throws IOException
   // {
   // System.out.println("Analzying \"" + text + "\"");
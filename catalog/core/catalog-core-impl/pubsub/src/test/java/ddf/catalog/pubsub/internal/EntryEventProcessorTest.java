@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+public class EntryEventProcessorTest {
+
+  private static final String METADATA_FORMAT =
+      "<Resource><title>%s</title><creator>Donna Miffles</creator></Resource>";
+
+  private EventAdmin eventAdmin;
+
+  private EntryEventProcessor processor;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  @Before
+  public void setUp() {
+    eventAdmin = mock(EventAdmin.class);
+    meterRegistry = new SimpleMeterRegistry();
+    Metrics.addRegistry(meterRegistry);
+  }
+
+  @After
+  public void tearDown() {
+    processor.shutdown();
+    Metrics.removeRegistry(meterRegistry);
+  }
+
+  @Test
+  public void testPublishWithContextualIndex() {
+    processor = new EntryEventProcessor(eventAdmin, () -> true, 1, 10, 10);
+    processor.init();
+
+    processor.process(createMetacard("1", "lazy brown fox"), PubSubConstants.CREATE);
+    processor.process(createMetacard("2", "quick red hen"), PubSubConstants.UPDATE);
+
+    Map<String, Event> events = getPublishedEvents(2);
+    Predicate predicate = new ContextualPredicate("brown", false, false, null);
+
+    assertThat(getContextualMap(events.get("1")), hasKey("DEFAULT_INDEX"));
+    assertThat(
+        events.get("1").getProperty(PubSubConstants.HEADER_OPERATION_KEY),
+        is(PubSubConstants.CREATE));
+    assertThat(predicate.matches(events.get("1")), is(true));
+
+    assertThat(getContextualMap(events.get("2")), hasKey("DEFAULT_INDEX"));
+    assertThat(
+        events.get("2").getProperty(PubSubConstants.HEADER_OPERATION_KEY),
+        is(PubSubConstants.UPDATE));
+    assertThat(predicate.matches(events.get("2")), is(false));
+  }
+
+  @Test
+  public void testPublishWithoutContextualIndex() {
+    processor = new EntryEventProcessor(eventAdmin, () -> false, 1, 10, 10);
+    processor.init();
+
+    processor.process(createMetacard("1", "lazy brown fox"), PubSubConstants.CREATE);
+
+    Event event = getPublishedEvents(1).get("1");
+    Map<String, Object> contextualMap = getContextualMap(event);
+    assertThat(contextualMap, not(hasKey("DEFAULT_INDEX")));
+    assertThat(contextualMap.get("METADATA"), is(String.format(METADATA_FORMAT, "lazy brown fox")));
+    assertThat(event.getProperty(PubSubConstants.HEADER_CONTENT_TYPE_KEY), is("nitf,2.1"));
+  }
+
+  @Test
+  public void testPublishWithoutMetadata() {
+    processor = new EntryEventProcessor(eventAdmin, () -> true, 1, 10, 10);
+    processor.init();
+
+    MetacardImpl metacard = createMetacard("1", null);
+    metacard.setMetadata(null);
+    processor.process(metacard, PubSubConstants.DELETE);
+
+    assertThat(
+        getPublishedEvents(1).get("1").containsProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY),
+        is(false));
+  }
+
+  @Test
+  public void testPublishOnCallingThreadWhenQueueIsFull() {
+    processor = new EntryEventProcessor(eventAdmin, () -> true, 1, 1, 10);
+
+    processor.process(createMetacard("1", "lazy brown fox"), PubSubConstants.CREATE);
+    processor.process(createMetacard("2", "quick red hen"), PubSubConstants.CREATE);
+
+    // The first entry waits in the queue for the workers, the second cannot wait
+    Map<String, Event> events = getPublishedEvents(1);
+    assertThat(events.keySet(), contains("2"));
+    assertThat(meterRegistry.get("ddf.catalog.pubsub.entries.overflow").counter().count(), is(1.0));
+  }
+
+  @Test
+  public void testShutdownRemovesOnlyItsOwnMetrics() {
+    EntryEventProcessor other = new EntryEventProcessor(eventAdmin, () -> true, 1, 10, 10);
+    try {
+      processor = new EntryEventProcessor(eventAdmin, () -> true, 1, 10, 10);
+      processor.init();
+
+      processor.shutdown();
+
+      assertThat(meterRegistry.find("ddf.catalog.pubsub.entries.queued").gauges(), hasSize(1));
+      assertThat(meterRegistry.find("ddf.catalog.pubsub.entries.overflow").counters(), hasSize(1));
+    } finally {
+      other.shutdown();
+    }
+    assertThat(meterRegistry.find("ddf.catalog.pubsub.entries.queued").gauge(), is(nullValue()));
+  }
+
+  private MetacardImpl createMetacard(String id, String title) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setContentTypeName("nitf");
+    metacard.setContentTypeVersion("2.1");
+    metacard.setMetadata(String.format(METADATA_FORMAT, title));
+    return metacard;
+  }
+
+  private Map<String, Event> getPublishedEvents(int count) {
+    ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+    verify(eventAdmin, timeout(5000).times(count)).postEvent(captor.capture());
+
+    List<Event> events = captor.getAllValues();
+    Map<String, Event> eventsById = new HashMap<>();
+    for (Event event : events) {
+      assertThat(event.getTopic(), is(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME));
+      Metacard metacard = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+      eventsById.put(metacard.getId(), event);
+    }
+    return eventsById;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> getContextualMap(Event event) {
+    return (Map<String, Object>) event.getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.EntryPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+
+public class SubscriptionIndexTest {
+
+  private static final long HOUR = 3600000L;
+
+  private static final String SQUARE = "POLYGON ((0 0, 0 20, 20 20, 20 0, 0 0))";
+
+  private SubscriptionIndex<String> index;
+
+  private MetacardImpl metacard;
+
+  @Before
+  public void setUp() {
+    index = new SubscriptionIndex<>();
+
+    metacard = new MetacardImpl();
+    metacard.setId("metacard-1");
+    metacard.setContentTypeName("nitf");
+    metacard.setContentTypeVersion("2.1");
+    metacard.setLocation("POINT (10 10)");
+    metacard.setModifiedDate(new Date(10 * HOUR));
+  }
+
+  @Test
+  public void testEmpty() {
+    assertThat(index.isEmpty(), is(true));
+    assertThat(index.getCandidates(createEvent(PubSubConstants.CREATE)), is(empty()));
+  }
+
+  @Test
+  public void testIdIndex() {
+    index.put("match", new EntryPredicate("metacard-1"), "match");
+    index.put("other", new EntryPredicate("metacard-2"), "other");
+
+    assertThat(index.getCandidates(createEvent(PubSubConstants.CREATE)), contains("match"));
+  }
+
+  @Test
+  public void testContentTypeIndex() {
+    index.put("match", new ContentTypePredicate("nitf", "2.1"), "match");
+    index.put("other", new ContentTypePredicate("pdf", null), "other");
+    index.put("wildcard", new ContentTypePredicate("ni*", null), "wildcard");
+
+    assertThat(
+        index.getCandidates(createEvent(PubSubConstants.CREATE)),
+        containsInAnyOrder("match", "wildcard"));
+  }
+
+  @Test
+  public void testGeospatialIndex() {
+    index.put("contains", new GeospatialPredicate(SQUARE, "contains", 0), "contains");
+    index.put(
+        "outside",
+        new GeospatialPredicate("POLYGON ((30 30, 30 40, 40 40, 40 30, 30 30))", "overlaps", 0),
+        "outside");
+    index.put("nearby", new GeospatialPredicate("POINT (12 10)", "overlaps", 2.5), "nearby");
+    index.put("far", new GeospatialPredicate("POINT (50 10)", "overlaps", 2.5), "far");
+
+    assertThat(
+        index.getCandidates(createEvent(PubSubConstants.CREATE)),
+        containsInAnyOrder("contains", "nearby"));
+  }
+
+  @Test
+  public void testGeospatialIndexWithoutLocation() {
+    metacard.setLocation(null);
+    index.put("contains", new GeospatialPredicate(SQUARE, "contains", 0), "contains");
+
+    assertThat(index.getCandidates(createEvent(PubSubConstants.CREATE)), is(empty()));
+  }
+
+  @Test
+  public void testTemporalIndex() {
+    index.put(
+        "during",
+        new TemporalPredicate(new Date(9 * HOUR), new Date(11 * HOUR), DateType.MODIFIED),
+        "during");
+    index.put(
+        "before",
+        new TemporalPredicate(new Date(HOUR), new Date(2 * HOUR), DateType.MODIFIED),
+        "before");
+    index.put(
+        "created",
+        new TemporalPredicate(new Date(9 * HOUR), new Date(11 * HOUR), DateType.CREATED),
+        "created");
+
+    assertThat(index.getCandidates(createEvent(PubSubConstants.CREATE)), contains("during"));
+  }
+
+  @Test
+  public void testUnindexedPredicatesAreAlwaysCandidates() {
+    index.put("filterless", null, "filterless");
+    index.put("relative", new TemporalPredicate(HOUR, DateType.MODIFIED), "relative");
+    index.put("version", new ContentTypePredicate(null, "2.1"), "version");
+    index.put("other", new EntryPredicate("metacard-2"), "other");
+
+    assertThat(
+        index.getCandidates(createEvent(PubSubConstants.CREATE)),
+        containsInAnyOrder("filterless", "relative", "version"));
+  }
+
+  @Test
+  public void testAndIndexedByMostSelectivePredicate() {
+    Predicate geospatial = new GeospatialPredicate(SQUARE, "contains", 0);
+    Predicate contentType = new ContentTypePredicate("nitf", null);
+    index.put(
+        "match",
+        new AndPredicate(
+            geospatial, new AndPredicate(contentType, new EntryPredicate("metacard-1"))),
+        "match");
+    index.put("other", new AndPredicate(geospatial, new EntryPredicate("metacard-2")), "other");
+
+    assertThat(index.getCandidates(createEvent(PubSubConstants.CREATE)), contains("match"));
+  }
+
+  @Test
+  public void testDeleteWithoutMetadataReturnsAll() {
+    index.put("id", new EntryPredicate("metacard-2"), "id");
+    index.put("type", new ContentTypePredicate("pdf", null), "type");
+
+    Event event =
+        createEvent(
+            PubSubConstants.DELETE,
+            Collections.<String, Object>singletonMap("METADATA", PubSubConstants.METADATA_DELETED));
+
+    assertThat(index.getCandidates(event), containsInAnyOrder("id", "type"));
+  }
+
+  @Test
+  public void testRemove() {
+    index.put("match", new EntryPredicate("metacard-1"), "match");
+    assertThat(index.getCandidates(createEvent(PubSubConstants.CREATE)), contains("match"));
+
+    assertThat(index.remove("match"), is("match"));
+    assertThat(index.remove("match"), is(nullValue()));
+    assertThat(index.isEmpty(), is(true));
+    assertThat(index.getCandidates(createEvent(PubSubConstants.CREATE)), is(empty()));
+  }
+
+  private Event createEvent(String operation) {
+    return createEvent(operation, null);
+  }
+
+  private Event createEvent(String operation, Map<String, Object> contextualMap) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+    properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
+    properties.put(
+        PubSubConstants.HEADER_CONTENT_TYPE_KEY,
+        metacard.getContentTypeName() + "," + metacard.getContentTypeVersion());
+    if (contextualMap != null) {
+      properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
+    }
+    return new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the bytes of content files once, keyed by the digest of their plain content. Each stored
+ * blob is a hard link to the same file as the content files that share it, so the link count of
+ * the blob is the number of content files, plus one, that reference it. Content files need no
+ * change to be read and a blob is never removed while a content file still uses its bytes: when
+ * the blob is the last link left it can be deleted by {@link #collectGarbage()}.
+ */
+class ContentBlobStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContentBlobStore.class);
+
+  private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+  private static final String LINK_EXT = ".link";
+
+  private static final int MAX_SHARE_ATTEMPTS = 3;
+
+  private final Path blobDirectory;
+
+  ContentBlobStore(Path blobDirectory) {
+    this.blobDirectory = blobDirectory;
+  }
+
+  /**
+   * @return true if the file system of the store can report link counts, which {@link
+   *     #collectGarbage()} needs to find the blobs that are no longer used
+   */
+  boolean isSupported() {
+    return blobDirectory.getFileSystem().supportedFileAttributeViews().contains("unix");
+  }
+
+  /**
+   * Shares the bytes of a content file with the other content files of the same digest. If a blob
+   * of the digest already exists, the content file is replaced by a link to it; otherwise the
+   * content file becomes the blob. The content file is left as it is if it cannot be shared.
+   *
+   * @param file content file that was just written
+   * @param digest hex digest of the plain content of the file
+   */
+  void share(Path file, String digest) {
+    Path blob = getBlobPath(digest);
+    try {
+      Files.createDirectories(blob.getParent());
+      for (int attempt = 0; attempt < MAX_SHARE_ATTEMPTS; attempt++) {
+        try {
+          Files.createLink(blob, file);
+          return;
+        } catch (FileAlreadyExistsException e) {
+          if (replaceWithLink(file, blob)) {
+            return;
+          }
+        }
+      }
+      LOGGER.debug("Unable to share content file {} with blob {}", file, blob);
+    } catch (IOException | UnsupportedOperationException e) {
+      LOGGER.debug("Unable to share content file {}, keeping its own copy.", file, e);
+    }
+  }
+
+  /**
+   * Creates a content file that shares the bytes of another content file.
+   *
+   * @return true if the link was created, false if the content has to be written instead
+   */
+  boolean link(Path source, Path target) {
+    try {
+      Files.createLink(target, source);
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      LOGGER.debug("Unable to link content file {} to {}", target, source, e);
+      return false;
+    }
+  }
+
+  /**
+   * Deletes the blobs that are no longer shared by any content file. A blob that gets linked to
+   * while it is deleted keeps its bytes through that link, so the worst a race can do is keep a
+   * content file from being shared later.
+   */
+  void collectGarbage() {
+    if (!isSupported() || !Files.isDirectory(blobDirectory)) {
+      return;
+    }
+
+    try (Stream<Path> blobs = Files.walk(blobDirectory)) {
+      blobs.filter(Files::isRegularFile).forEach(this::deleteIfUnused);
+    } catch (IOException | UncheckedIOException e) {
+      LOGGER.debug("Unable to collect unused blobs in {}", blobDirectory, e);
+    }
+  }
+
+  Path getBlobPath(String digest) {
+    return blobDirectory
+        .resolve(digest.substring(0, 2))
+        .resolve(digest.substring(2, 4))
+        .resolve(digest);
+  }
+
+  private boolean replaceWithLink(Path file, Path blob) throws IOException {
+    Path link = file.resolveSibling(file.getFileName() + LINK_EXT);
+    try {
+      Files.deleteIfExists(link);
+      Files.createLink(link, blob);
+    } catch (NoSuchFileException e) {
+      LOGGER.trace("Blob {} was collected before it could be linked to", blob, e);
+      return false;
+    }
+
+    try {
+      Files.move(link, file, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(link, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return true;
+  }
+
+  private void deleteIfUnused(Path blob) {
+    try {
+      if (((Number) Files.getAttribute(blob, LINK_COUNT_ATTRIBUTE)).intValue() == 1) {
+        LOGGER.trace("Deleting unused blob {}", blob);
+        Files.deleteIfExists(blob);
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Unable to check whether blob {} is still used", blob, e);
+    }
+  }
+}
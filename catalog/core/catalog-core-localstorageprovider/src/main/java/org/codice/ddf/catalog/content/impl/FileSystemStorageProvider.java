@@ -14,6 +14,8 @@
 package org.codice.ddf.catalog.content.impl;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteSource;
 import com.google.common.io.FileBackedOutputStream;
 import ddf.catalog.Constants;
@@ -62,6 +64,10 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import javax.activation.MimeType;
 import org.apache.commons.io.FileUtils;
@@ -69,6 +75,7 @@
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.log.sanitizer.LogSanitizer;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,6 +88,8 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   public static final String DEFAULT_TMP = "tmp";
 
+  public static final String DEFAULT_BLOBS = "blobs";
+
   public static final String KARAF_HOME = "karaf.home";
 
   private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
@@ -105,6 +114,17 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   private Crypter crypter;
 
+  /** Shares the bytes of content files with the same content, when content addressable. */
+  private ContentBlobStore blobStore;
+
+  private boolean contentAddressable = false;
+
+  private final AtomicBoolean garbageCollectionPending = new AtomicBoolean();
+
+  private final ExecutorService garbageCollectionExecutor =
+      Executors.newSingleThreadExecutor(
+          StandardThreadFactoryBuilder.newThreadFactory("contentBlobGarbageCollectionThread"));
+
   /** Default constructor, invoked by blueprint. */
   public FileSystemStorageProvider() {
     LOGGER.debug("File System Provider initializing...");
@@ -135,7 +155,8 @@ public CreateStorageResponse create(CreateStorageRequest createRequest) throws S
             generateContentFile(
                 contentItem,
                 contentDirectory,
-                (String) createRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY)));
+                (String) createRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY),
+                getSourceContentFile(createRequest, contentItem)));
       } catch (IOException | URISyntaxException | IllegalArgumentException e) {
         throw new StorageException(e);
       }
@@ -194,7 +215,8 @@ public UpdateStorageResponse update(UpdateStorageRequest updateRequest) throws S
             generateContentFile(
                 updateItem,
                 contentIdDir,
-                (String) updateRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY)));
+                (String) updateRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY),
+                getSourceContentFile(updateRequest, updateItem)));
       } catch (IOException | URISyntaxException | IllegalArgumentException e) {
         throw new StorageException(e);
       }
@@ -326,6 +348,7 @@ private void commitDeletes(StorageRequest request) throws StorageException {
       }
     } finally {
       rollback(request);
+      scheduleGarbageCollection();
     }
   }
 
@@ -385,6 +408,7 @@ private void commitUpdates(StorageRequest request) throws StorageException {
       throw new StorageException(e);
     } finally {
       rollback(request);
+      scheduleGarbageCollection();
     }
   }
 
@@ -614,8 +638,38 @@ private Path getContentFilePath(URI uri) throws StorageException {
     return null;
   }
 
+  /**
+   * @return the stored content file the request says has the same content as the item, or null if
+   *     there is none or the store is not content addressable
+   */
+  private Path getSourceContentFile(StorageRequest request, ContentItem item) {
+    if (!contentAddressable
+        || !(request.getPropertyValue(Constants.CONTENT_SOURCE_URIS_KEY) instanceof Map)) {
+      return null;
+    }
+
+    Object sourceUri =
+        ((Map<?, ?>) request.getPropertyValue(Constants.CONTENT_SOURCE_URIS_KEY))
+            .get(item.getUri());
+    if (!(sourceUri instanceof String)) {
+      return null;
+    }
+
+    try {
+      Path sourceFile = getContentFilePath(new URI((String) sourceUri));
+      if (sourceFile == null || REF_EXT.equals(FilenameUtils.getExtension(sourceFile.toString()))) {
+        return null;
+      }
+      return sourceFile;
+    } catch (StorageException | URISyntaxException e) {
+      LOGGER.debug("Unable to find the stored content of {}", sourceUri, e);
+      return null;
+    }
+  }
+
   private ContentItem generateContentFile(
-      ContentItem item, Path contentDirectory, String storeReference) throws IOException {
+      ContentItem item, Path contentDirectory, String storeReference, Path sourceContentFile)
+      throws IOException {
     LOGGER.trace("ENTERING: generateContentFile");
 
     if (!contentDirectory.toFile().exists()) {
@@ -642,9 +696,22 @@ public InputStream openStream() throws IOException {
             }
           };
     } else {
-      try (InputStream plainInputStream = item.getInputStream();
-          InputStream encryptedInputStream = crypter.encrypt(plainInputStream)) {
-        copySize = Files.copy(encryptedInputStream, contentItemPath);
+      if (sourceContentFile != null && blobStore.link(sourceContentFile, contentItemPath)) {
+        copySize = Files.size(contentItemPath);
+      } else if (contentAddressable) {
+        HashingInputStream plainInputStream =
+            new HashingInputStream(Hashing.sha256(), item.getInputStream());
+        try (InputStream encryptedInputStream = crypter.encrypt(plainInputStream)) {
+          copySize = Files.copy(encryptedInputStream, contentItemPath);
+        } finally {
+          plainInputStream.close();
+        }
+        blobStore.share(contentItemPath, plainInputStream.hash().toString());
+      } else {
+        try (InputStream plainInputStream = item.getInputStream();
+            InputStream encryptedInputStream = crypter.encrypt(plainInputStream)) {
+          copySize = Files.copy(encryptedInputStream, contentItemPath);
+        }
       }
       byteSource =
           new ByteSource() {
@@ -729,6 +796,57 @@ public void setBaseContentDirectory(final String baseDirectory) throws IOExcepti
 
     this.baseContentDirectory = directories;
     this.baseContentTmpDirectory = tmpDirectories;
+    this.blobStore = new ContentBlobStore(directories.resolve(DEFAULT_BLOBS));
+    scheduleGarbageCollection();
+  }
+
+  /**
+   * Sets whether content with the same bytes is stored once. Stored content files are then hard
+   * links to a blob named after the digest of their content, and blobs that are no longer linked
+   * to are deleted after content is deleted or updated.
+   */
+  public void setContentAddressable(boolean contentAddressable) {
+    if (contentAddressable && blobStore != null && !blobStore.isSupported()) {
+      LOGGER.warn(
+          "The file system of the content store cannot count links to stored content. "
+              + "Storing content without sharing content with the same bytes.");
+      this.contentAddressable = false;
+      return;
+    }
+    this.contentAddressable = contentAddressable;
+    scheduleGarbageCollection();
+  }
+
+  public void destroy() {
+    garbageCollectionExecutor.shutdownNow();
+  }
+
+  /**
+   * Deletes the blobs that are no longer used in the background. Requests made while a collection
+   * is pending are covered by it, so deletes that come in bursts only walk the blobs once.
+   */
+  private void scheduleGarbageCollection() {
+    if (!contentAddressable || blobStore == null) {
+      return;
+    }
+
+    if (garbageCollectionPending.compareAndSet(false, true)) {
+      try {
+        garbageCollectionExecutor.execute(
+            () -> {
+              garbageCollectionPending.set(false);
+              blobStore.collectGarbage();
+            });
+      } catch (RejectedExecutionException e) {
+        garbageCollectionPending.set(false);
+        LOGGER.debug("Unable to collect unused content blobs", e);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  ContentBlobStore getBlobStore() {
+    return blobStore;
   }
 
   private String tryCanonicalizeDirectory(String directory) {
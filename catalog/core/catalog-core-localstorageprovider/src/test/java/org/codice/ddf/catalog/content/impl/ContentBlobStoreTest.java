@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContentBlobStoreTest {
+
+  private static final String DIGEST = "0123456789abcdef";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ContentBlobStore blobStore;
+
+  @Before
+  public void setUp() throws IOException {
+    blobStore = new ContentBlobStore(temporaryFolder.newFolder("blobs").toPath());
+    assumeTrue(blobStore.isSupported());
+  }
+
+  @Test
+  public void testFirstFileBecomesTheBlob() throws IOException {
+    Path file = write("first", "content");
+
+    blobStore.share(file, DIGEST);
+
+    Path blob = blobStore.getBlobPath(DIGEST);
+    assertThat(blob.getParent().getFileName().toString(), is("23"));
+    assertThat(Files.isSameFile(file, blob), is(true));
+  }
+
+  @Test
+  public void testFilesWithTheSameDigestAreShared() throws IOException {
+    Path first = write("first", "content");
+    Path second = write("second", "content");
+
+    blobStore.share(first, DIGEST);
+    blobStore.share(second, DIGEST);
+
+    assertThat(Files.isSameFile(first, second), is(true));
+    assertThat(read(second), is("content"));
+    assertThat(Files.exists(second.resolveSibling("second.link")), is(false));
+  }
+
+  @Test
+  public void testLink() throws IOException {
+    Path source = write("source", "content");
+    Path target = temporaryFolder.getRoot().toPath().resolve("target");
+
+    assertThat(blobStore.link(source, target), is(true));
+    assertThat(Files.isSameFile(source, target), is(true));
+    assertThat(blobStore.link(source, target), is(false));
+  }
+
+  @Test
+  public void testCollectGarbageKeepsSharedBlobs() throws IOException {
+    Path file = write("first", "content");
+    blobStore.share(file, DIGEST);
+
+    blobStore.collectGarbage();
+
+    assertThat(Files.exists(blobStore.getBlobPath(DIGEST)), is(true));
+  }
+
+  @Test
+  public void testCollectGarbageDeletesUnusedBlobs() throws IOException {
+    Path file = write("first", "content");
+    blobStore.share(file, DIGEST);
+    Files.delete(file);
+
+    blobStore.collectGarbage();
+
+    assertThat(Files.exists(blobStore.getBlobPath(DIGEST)), is(false));
+  }
+
+  private Path write(String name, String content) throws IOException {
+    return Files.write(
+        temporaryFolder.getRoot().toPath().resolve(name),
+        content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(Path path) throws IOException {
+    return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+  }
+}
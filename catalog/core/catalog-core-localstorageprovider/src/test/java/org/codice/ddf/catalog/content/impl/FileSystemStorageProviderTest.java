@@ -23,6 +23,7 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -75,6 +76,7 @@
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -628,6 +630,110 @@ public void testCreateAndReadReference() throws Exception {
     assertReadRequest(uriString, NITF_MIME_TYPE);
   }
 
+  @Test
+  public void testContentAddressableSharesIdenticalContent() throws Exception {
+    provider.setContentAddressable(true);
+    assumeTrue(provider.getBlobStore().isSupported());
+
+    String first =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME)
+            .getCreatedContentItems()
+            .get(0)
+            .getUri();
+    String second =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, "other.nitf")
+            .getCreatedContentItems()
+            .get(0)
+            .getUri();
+    String different =
+        assertContentItem("Different NITF", NITF_MIME_TYPE, TEST_INPUT_FILENAME)
+            .getCreatedContentItems()
+            .get(0)
+            .getUri();
+
+    assertTrue(Files.isSameFile(getStoredFile(first), getStoredFile(second)));
+    assertThat(Files.isSameFile(getStoredFile(first), getStoredFile(different)), is(false));
+    assertReadRequest(second, NITF_MIME_TYPE);
+  }
+
+  @Test
+  public void testContentAddressableLinksSourceContent() throws Exception {
+    provider.setContentAddressable(true);
+    assumeTrue(provider.getBlobStore().isSupported());
+    String sourceUri =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME)
+            .getCreatedContentItems()
+            .get(0)
+            .getUri();
+
+    ByteSource unreadable =
+        new ByteSource() {
+          @Override
+          public InputStream openStream() throws IOException {
+            throw new IOException("The content of the source should not be read again");
+          }
+        };
+    ContentItem version =
+        new ContentItemImpl(
+            UUID.randomUUID().toString().replaceAll("-", ""),
+            "",
+            unreadable,
+            NITF_MIME_TYPE,
+            TEST_INPUT_FILENAME,
+            TEST_INPUT_CONTENTS.length(),
+            mock(Metacard.class));
+    HashMap<String, String> sourceUris = new HashMap<>();
+    sourceUris.put(version.getUri(), sourceUri);
+    CreateStorageRequest createRequest =
+        new CreateStorageRequestImpl(
+            Collections.singletonList(version),
+            Collections.singletonMap(Constants.CONTENT_SOURCE_URIS_KEY, sourceUris));
+
+    provider.create(createRequest);
+    provider.commit(createRequest);
+
+    assertTrue(Files.isSameFile(getStoredFile(sourceUri), getStoredFile(version.getUri())));
+    assertReadRequest(version.getUri(), NITF_MIME_TYPE);
+  }
+
+  @Test
+  public void testContentAddressableKeepsSharedContentAfterDelete() throws Exception {
+    provider.setContentAddressable(true);
+    assumeTrue(provider.getBlobStore().isSupported());
+    CreateStorageResponse createResponse =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME);
+    String remaining =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME)
+            .getCreatedContentItems()
+            .get(0)
+            .getUri();
+
+    Metacard metacard = createResponse.getCreatedContentItems().get(0).getMetacard();
+    when(metacard.getId()).thenReturn(createResponse.getCreatedContentItems().get(0).getId());
+    DeleteStorageRequest deleteRequest =
+        new DeleteStorageRequestImpl(Collections.singletonList(metacard), null);
+    provider.delete(deleteRequest);
+    provider.commit(deleteRequest);
+    provider.getBlobStore().collectGarbage();
+
+    assertReadRequest(remaining, NITF_MIME_TYPE);
+  }
+
+  private Path getStoredFile(String uriString) throws Exception {
+    URI uri = new URI(uriString);
+    List<String> parts =
+        provider.getContentFilePathParts(uri.getSchemeSpecificPart(), uri.getFragment());
+    Path contentIdDir =
+        Paths.get(
+            baseDir,
+            FileSystemStorageProvider.DEFAULT_CONTENT_REPOSITORY,
+            FileSystemStorageProvider.DEFAULT_CONTENT_STORE,
+            parts.toArray(new String[parts.size()]));
+    try (Stream<Path> files = Files.list(contentIdDir)) {
+      return files.filter(Files::isRegularFile).findFirst().orElse(null);
+    }
+  }
+
   /** ******************************************************************************* */
   private CreateStorageResponse assertContentItem(
       String data, String mimeTypeRawData, String filename, Map<String, Serializable> properties)
@@ -14,24 +14,183 @@
 package ddf.catalog.cache.impl;
 
 import ddf.catalog.cache.ResourceCacheInterface;
+import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.data.ReliableResource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.activation.MimeType;
+import javax.activation.MimeTypeParseException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Bounded, disk-backed cache of retrieved products.
+ *
+ * <p>Product files are written to the product cache directory by the {@code
+ * ReliableResourceDownloader} and are added to this cache once they have been completely written.
+ * Entries are kept in least-recently-used order and the least-recently-used entries (and their
+ * files) are evicted whenever the total size of the cached products exceeds the configured
+ * maximum.
+ *
+ * <p>Cached entries survive a restart through a journal in the product cache directory. Each put
+ * and removal appends a small record holding the cache key, product file, size and the metacard
+ * fields used to validate the entry, and the journal is rewritten as a snapshot of the current
+ * entries once it holds more removed than live records.
+ */
 public class ResourceCacheImpl implements ResourceCacheInterface {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCacheImpl.class);
+
+  static final String JOURNAL_FILE_NAME = "ddf-resource-cache.journal";
+
+  private static final int JOURNAL_VERSION = 1;
+
+  private static final byte PUT_RECORD = 1;
+
+  private static final byte REMOVE_RECORD = 2;
+
+  /** Journals with fewer records are never compacted. */
+  private static final int MIN_COMPACTION_RECORDS = 1000;
+
+  private static final String DEFAULT_PRODUCT_CACHE_DIRECTORY =
+      "data" + File.separator + "Product_Cache";
+
+  private static final long DEFAULT_MAX_CACHE_DIR_SIZE_MEGABYTES = 10240;
+
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+  private static final long DEFAULT_PENDING_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  /** Cached entries in least-recently-used order, guarded by {@code this}. */
+  private final LinkedHashMap<String, ReliableResource> cache =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<String, PendingEntry> pendingCache = new ConcurrentHashMap<>();
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  private String productCacheDirectory;
+
+  private long maxCacheDirSizeBytes = DEFAULT_MAX_CACHE_DIR_SIZE_MEGABYTES * BYTES_PER_MEGABYTE;
+
+  private long pendingWaitMillis = DEFAULT_PENDING_WAIT_MILLIS;
+
+  private long cacheDirSizeBytes = 0L;
+
+  private boolean indexLoaded = false;
+
+  private int journalRecords = 0;
+
   public ResourceCacheImpl() {}
 
-  public void teardownCache() {
-    // no-op
+  public synchronized void teardownCache() {
+    if (indexLoaded) {
+      compactJournal();
+    }
+    pendingCache.values().forEach(pendingEntry -> pendingEntry.latch.countDown());
+    pendingCache.clear();
+  }
+
+  public synchronized String getProductCacheDirectory() {
+    if (productCacheDirectory == null) {
+      productCacheDirectory = resolveDirectory(DEFAULT_PRODUCT_CACHE_DIRECTORY);
+    }
+    return productCacheDirectory;
+  }
+
+  /**
+   * Sets the directory products are cached in. A relative path is resolved against {@code
+   * ddf.home}. Entries cached in a previous directory are no longer served once the directory
+   * changes, but their files are left in place.
+   *
+   * @param productCacheDirectory the product cache directory
+   */
+  public synchronized void setProductCacheDirectory(String productCacheDirectory) {
+    String directory =
+        StringUtils.isBlank(productCacheDirectory)
+            ? resolveDirectory(DEFAULT_PRODUCT_CACHE_DIRECTORY)
+            : resolveDirectory(productCacheDirectory);
+
+    if (directory.equals(this.productCacheDirectory) && indexLoaded) {
+      return;
+    }
+
+    if (indexLoaded) {
+      compactJournal();
+    }
+
+    this.productCacheDirectory = directory;
+    cache.clear();
+    cacheDirSizeBytes = 0L;
+    journalRecords = 0;
+    indexLoaded = false;
+    LOGGER.debug("Product cache directory set to {}", directory);
+  }
+
+  /**
+   * Sets the maximum total size of the cached products. Least-recently-used products are evicted
+   * once the limit is exceeded.
+   *
+   * @param maxCacheDirSizeMegabytes maximum size in megabytes, must be positive
+   */
+  public synchronized void setMaxCacheDirSizeMegabytes(long maxCacheDirSizeMegabytes) {
+    if (maxCacheDirSizeMegabytes <= 0) {
+      LOGGER.debug(
+          "Invalid max cache directory size {}. Keeping {} bytes.",
+          maxCacheDirSizeMegabytes,
+          maxCacheDirSizeBytes);
+      return;
+    }
+    this.maxCacheDirSizeBytes = maxCacheDirSizeMegabytes * BYTES_PER_MEGABYTE;
+    if (indexLoaded) {
+      evictIfNeeded();
+    }
   }
 
-  public String getProductCacheDirectory() {
-    return null;
+  public synchronized long getMaxCacheDirSizeMegabytes() {
+    return maxCacheDirSizeBytes / BYTES_PER_MEGABYTE;
   }
 
-  public void setProductCacheDirectory(String productCacheDirectory) {
-    // no-op
+  /**
+   * Sets how long a request for a product that is currently being cached by another download waits
+   * for that download to make progress before retrieving the product itself. The request keeps
+   * waiting for as long as the other download keeps writing to the product file, so large products
+   * are only retrieved once.
+   *
+   * @param pendingWaitSeconds wait time in seconds, {@code 0} to never wait
+   */
+  public void setPendingWaitSeconds(long pendingWaitSeconds) {
+    this.pendingWaitMillis = TimeUnit.SECONDS.toMillis(Math.max(pendingWaitSeconds, 0));
   }
 
   /**
@@ -43,7 +202,43 @@ public void setProductCacheDirectory(String productCacheDirectory) {
    */
   @Override
   public boolean isPending(String key) {
-    return false;
+    return key != null && pendingCache.containsKey(key);
+  }
+
+  /**
+   * Waits for the resource with the specified cache key to finish being cached. Lets concurrent
+   * requests for the same product share a single download instead of each retrieving it from the
+   * source. The wait ends early if the download writes nothing to the product file for the
+   * configured pending wait time.
+   *
+   * @param key the cache key
+   * @return {@code true} if the resource is no longer pending
+   */
+  public boolean awaitPending(String key) {
+    PendingEntry pendingEntry = key == null ? null : pendingCache.get(key);
+    if (pendingEntry == null) {
+      return true;
+    }
+    if (pendingWaitMillis <= 0) {
+      return pendingEntry.latch.getCount() == 0;
+    }
+
+    try {
+      long written = pendingEntry.getBytesWritten();
+      LOGGER.debug("Waiting for pending cache entry {} while it makes progress", key);
+      while (!pendingEntry.latch.await(pendingWaitMillis, TimeUnit.MILLISECONDS)) {
+        long nowWritten = pendingEntry.getBytesWritten();
+        if (nowWritten <= written) {
+          LOGGER.debug("Pending cache entry {} made no progress in {} ms", key, pendingWaitMillis);
+          return false;
+        }
+        written = nowWritten;
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   /**
@@ -54,17 +249,68 @@ public boolean isPending(String key) {
    */
   @Override
   public void put(ReliableResource reliableResource) {
-    // no-op
+    if (reliableResource == null || reliableResource.getKey() == null) {
+      return;
+    }
+
+    try {
+      synchronized (this) {
+        ensureIndexLoaded();
+        if (!reliableResource.hasProduct()) {
+          LOGGER.debug(
+              "Product file {} does not exist. Not caching {}.",
+              reliableResource.getFilePath(),
+              reliableResource.getKey());
+          return;
+        }
+
+        long size = getEntrySize(reliableResource);
+        if (size > maxCacheDirSizeBytes) {
+          LOGGER.debug(
+              "Product {} of {} bytes exceeds the cache size limit. Not caching it.",
+              reliableResource.getKey(),
+              size);
+          deleteProductFile(reliableResource);
+          return;
+        }
+
+        reliableResource.setSize(size);
+        reliableResource.setLastTouchedMillis(System.currentTimeMillis());
+        ReliableResource replaced = cache.put(reliableResource.getKey(), reliableResource);
+        if (replaced != null) {
+          cacheDirSizeBytes -= getEntrySize(replaced);
+          if (!Objects.equals(replaced.getFilePath(), reliableResource.getFilePath())) {
+            deleteProductFile(replaced);
+          }
+        }
+        cacheDirSizeBytes += size;
+        appendPutRecord(reliableResource);
+
+        evictIfNeeded();
+        compactJournalIfNeeded();
+      }
+    } finally {
+      removePendingCacheEntry(reliableResource.getKey());
+    }
   }
 
   @Override
   public void removePendingCacheEntry(String cacheKey) {
-    // no-op
+    if (cacheKey == null) {
+      return;
+    }
+    PendingEntry pendingEntry = pendingCache.remove(cacheKey);
+    if (pendingEntry != null) {
+      pendingEntry.latch.countDown();
+    }
   }
 
   @Override
   public void addPendingCacheEntry(ReliableResource reliableResource) {
-    // no-op
+    if (reliableResource != null && reliableResource.getKey() != null) {
+      pendingCache.putIfAbsent(
+          reliableResource.getKey(), new PendingEntry(reliableResource.getFilePath()));
+    }
   }
 
   /**
@@ -79,7 +325,15 @@ public Resource getValid(String key, Metacard latestMetacard) {
     if (latestMetacard == null) {
       throw new IllegalArgumentException("Must specify non-null metacard");
     }
-    return null;
+
+    ReliableResource cachedResource = getValidEntry(key, latestMetacard);
+    if (cachedResource == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+
+    hits.incrementAndGet();
+    return cachedResource;
   }
 
   /**
@@ -90,7 +344,10 @@ public Resource getValid(String key, Metacard latestMetacard) {
    */
   @Override
   public boolean containsValid(String key, Metacard latestMetacard) {
-    return false;
+    if (key == null || latestMetacard == null) {
+      return false;
+    }
+    return getValidEntry(key, latestMetacard) != null;
   }
 
   /**
@@ -108,6 +365,368 @@ protected boolean validateCacheEntry(ReliableResource cachedResource, Metacard l
       throw new IllegalArgumentException(
           "Neither the cachedResource nor the metacard retrieved from the catalog can be null.");
     }
-    return false;
+
+    Metacard cachedMetacard = cachedResource.getMetacard();
+    if (cachedMetacard == null || !Objects.equals(cachedMetacard.getId(), latestMetacard.getId())) {
+      return false;
+    }
+
+    if (!Objects.equals(getModified(cachedMetacard), getModified(latestMetacard))) {
+      LOGGER.debug(
+          "Cached product for metacard {} is out of date with the catalog.",
+          latestMetacard.getId());
+      return false;
+    }
+
+    Serializable cachedChecksum = getValue(cachedMetacard, Metacard.CHECKSUM);
+    Serializable latestChecksum = getValue(latestMetacard, Metacard.CHECKSUM);
+    return cachedChecksum == null
+        || latestChecksum == null
+        || cachedChecksum.equals(latestChecksum);
+  }
+
+  /** @return the number of lookups that returned a valid cached product */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /** @return the number of lookups that did not find a valid cached product */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** @return the number of products evicted to keep the cache within its size limit */
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  /** @return the total size in bytes of the cached products */
+  public synchronized long getCacheDirSizeBytes() {
+    ensureIndexLoaded();
+    return cacheDirSizeBytes;
+  }
+
+  /** @return the number of cached products */
+  public synchronized int getEntryCount() {
+    ensureIndexLoaded();
+    return cache.size();
+  }
+
+  private synchronized ReliableResource getValidEntry(String key, Metacard latestMetacard) {
+    ensureIndexLoaded();
+    ReliableResource cachedResource = cache.get(key);
+    if (cachedResource == null) {
+      return null;
+    }
+
+    if (!cachedResource.hasProduct()) {
+      LOGGER.debug("Product file for cache entry {} is missing. Removing entry.", key);
+      removeEntry(key);
+      compactJournalIfNeeded();
+      return null;
+    }
+
+    if (!validateCacheEntry(cachedResource, latestMetacard)) {
+      LOGGER.debug("Cache entry {} is no longer valid. Removing it.", key);
+      deleteProductFile(removeEntry(key));
+      compactJournalIfNeeded();
+      return null;
+    }
+
+    cachedResource.setLastTouchedMillis(System.currentTimeMillis());
+    return cachedResource;
+  }
+
+  private ReliableResource removeEntry(String key) {
+    ReliableResource removed = cache.remove(key);
+    if (removed != null) {
+      cacheDirSizeBytes -= getEntrySize(removed);
+      appendRemoveRecord(key);
+    }
+    return removed;
+  }
+
+  private void evictIfNeeded() {
+    Iterator<Map.Entry<String, ReliableResource>> eldest = cache.entrySet().iterator();
+    while (cacheDirSizeBytes > maxCacheDirSizeBytes && eldest.hasNext()) {
+      ReliableResource evicted = eldest.next().getValue();
+      eldest.remove();
+      cacheDirSizeBytes -= getEntrySize(evicted);
+      deleteProductFile(evicted);
+      appendRemoveRecord(evicted.getKey());
+      evictions.incrementAndGet();
+      LOGGER.debug("Evicted {} from the product cache", evicted.getKey());
+    }
+  }
+
+  private void ensureIndexLoaded() {
+    if (indexLoaded) {
+      return;
+    }
+    indexLoaded = true;
+
+    Path journalFile = getJournalFile();
+    if (!journalFile.toFile().exists()) {
+      return;
+    }
+
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+      if (input.readInt() != JOURNAL_VERSION) {
+        throw new IOException("Unsupported product cache journal version");
+      }
+      readJournalRecords(input);
+    } catch (IOException e) {
+      LOGGER.info(
+          "Unable to read product cache journal {}. Starting with an empty product cache.",
+          journalFile);
+      LOGGER.debug("Unable to read product cache journal.", e);
+      cache.clear();
+    }
+
+    cache.values().removeIf(reliableResource -> !reliableResource.hasProduct());
+    cacheDirSizeBytes = cache.values().stream().mapToLong(this::getEntrySize).sum();
+    LOGGER.debug("Loaded {} product cache entries from {}", cache.size(), journalFile);
+
+    // Drops the removed entries and any incomplete last record
+    compactJournal();
+    evictIfNeeded();
+  }
+
+  private void readJournalRecords(DataInputStream input) throws IOException {
+    while (true) {
+      byte recordType;
+      try {
+        recordType = input.readByte();
+      } catch (EOFException e) {
+        return;
+      }
+
+      try {
+        String key = input.readUTF();
+        if (recordType == PUT_RECORD) {
+          ReliableResource reliableResource = readPutRecord(key, input);
+          cache.put(key, reliableResource);
+        } else if (recordType == REMOVE_RECORD) {
+          cache.remove(key);
+        } else {
+          throw new IOException("Unknown product cache journal record type " + recordType);
+        }
+      } catch (EOFException e) {
+        LOGGER.debug("Ignoring incomplete last record of the product cache journal.");
+        return;
+      }
+    }
+  }
+
+  private ReliableResource readPutRecord(String key, DataInputStream input) throws IOException {
+    String filePath = readNullableString(input);
+    long size = input.readLong();
+    long lastTouchedMillis = input.readLong();
+    String mimeType = readNullableString(input);
+    String name = readNullableString(input);
+    String metacardId = readNullableString(input);
+    long modifiedMillis = input.readLong();
+    String checksum = readNullableString(input);
+
+    // Only the fields used to validate the entry against the catalog are kept
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(metacardId);
+    if (modifiedMillis >= 0) {
+      metacard.setAttribute(Core.METACARD_MODIFIED, new Date(modifiedMillis));
+    }
+    if (checksum != null) {
+      metacard.setAttribute(Metacard.CHECKSUM, checksum);
+    }
+
+    ReliableResource reliableResource =
+        new ReliableResource(key, filePath, parseMimeType(mimeType), name, metacard);
+    reliableResource.setSize(size);
+    reliableResource.setLastTouchedMillis(lastTouchedMillis);
+    return reliableResource;
+  }
+
+  private void writePutRecord(DataOutputStream output, ReliableResource reliableResource)
+      throws IOException {
+    Metacard metacard = reliableResource.getMetacard();
+    Date modified = metacard == null ? null : getModified(metacard);
+    Serializable checksum = metacard == null ? null : getValue(metacard, Metacard.CHECKSUM);
+
+    output.writeByte(PUT_RECORD);
+    output.writeUTF(reliableResource.getKey());
+    writeNullableString(output, reliableResource.getFilePath());
+    output.writeLong(getEntrySize(reliableResource));
+    output.writeLong(reliableResource.getLastTouchedMillis());
+    writeNullableString(output, reliableResource.getMimeTypeValue());
+    writeNullableString(output, reliableResource.getName());
+    writeNullableString(output, metacard == null ? null : metacard.getId());
+    output.writeLong(modified == null ? -1L : modified.getTime());
+    writeNullableString(output, checksum == null ? null : checksum.toString());
+  }
+
+  private void appendPutRecord(ReliableResource reliableResource) {
+    appendRecord(output -> writePutRecord(output, reliableResource));
+  }
+
+  private void appendRemoveRecord(String key) {
+    appendRecord(
+        output -> {
+          output.writeByte(REMOVE_RECORD);
+          output.writeUTF(key);
+        });
+  }
+
+  private void appendRecord(JournalRecord record) {
+    Path journalFile = getJournalFile();
+    try {
+      boolean newJournal = !journalFile.toFile().exists();
+      if (newJournal) {
+        Files.createDirectories(journalFile.getParent());
+      }
+      try (DataOutputStream output =
+          openJournal(journalFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+        if (newJournal) {
+          output.writeInt(JOURNAL_VERSION);
+        }
+        record.write(output);
+      }
+      journalRecords++;
+    } catch (IOException e) {
+      LOGGER.info("Unable to write to product cache journal {}", journalFile);
+      LOGGER.debug("Unable to write to product cache journal.", e);
+    }
+  }
+
+  private void compactJournalIfNeeded() {
+    if (journalRecords > MIN_COMPACTION_RECORDS && journalRecords > 2 * cache.size()) {
+      compactJournal();
+    }
+  }
+
+  /** Rewrites the journal with one record per cached entry, in least-recently-used order. */
+  private void compactJournal() {
+    Path journalFile = getJournalFile();
+    Path tempFile = journalFile.resolveSibling(JOURNAL_FILE_NAME + ".tmp");
+    try {
+      Files.createDirectories(journalFile.getParent());
+      try (DataOutputStream output = openJournal(tempFile)) {
+        output.writeInt(JOURNAL_VERSION);
+        for (ReliableResource reliableResource : cache.values()) {
+          writePutRecord(output, reliableResource);
+        }
+      }
+      Files.move(
+          tempFile,
+          journalFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      journalRecords = cache.size();
+    } catch (IOException e) {
+      LOGGER.info("Unable to write product cache journal {}", journalFile);
+      LOGGER.debug("Unable to write product cache journal.", e);
+    }
+  }
+
+  private DataOutputStream openJournal(Path file, OpenOption... options) throws IOException {
+    return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, options)));
+  }
+
+  private static void writeNullableString(DataOutputStream output, String value)
+      throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      output.writeUTF(value);
+    }
+  }
+
+  private static String readNullableString(DataInputStream input) throws IOException {
+    return input.readBoolean() ? input.readUTF() : null;
+  }
+
+  private static MimeType parseMimeType(String mimeType) {
+    if (mimeType == null) {
+      return null;
+    }
+    try {
+      return new MimeType(mimeType);
+    } catch (MimeTypeParseException e) {
+      LOGGER.debug("Ignoring invalid mime type {} of cached product.", mimeType, e);
+      return null;
+    }
+  }
+
+  private Path getJournalFile() {
+    return Paths.get(getProductCacheDirectory(), JOURNAL_FILE_NAME);
+  }
+
+  private void deleteProductFile(ReliableResource reliableResource) {
+    if (reliableResource == null || reliableResource.getFilePath() == null) {
+      return;
+    }
+
+    Path productFile = Paths.get(reliableResource.getFilePath()).toAbsolutePath().normalize();
+    if (!productFile.startsWith(Paths.get(getProductCacheDirectory()))) {
+      // Only files written to the product cache directory are owned by the cache
+      return;
+    }
+
+    try {
+      Files.deleteIfExists(productFile);
+    } catch (IOException e) {
+      LOGGER.info("Unable to delete cached product file {}", reliableResource.getFilePath());
+      LOGGER.debug("Unable to delete cached product file.", e);
+    }
+  }
+
+  private long getEntrySize(ReliableResource reliableResource) {
+    if (reliableResource.getSize() >= 0) {
+      return reliableResource.getSize();
+    }
+    return reliableResource.getFilePath() == null
+        ? 0L
+        : new File(reliableResource.getFilePath()).length();
+  }
+
+  private Date getModified(Metacard metacard) {
+    Serializable modified = getValue(metacard, Core.METACARD_MODIFIED);
+    if (modified == null) {
+      modified = getValue(metacard, Metacard.MODIFIED);
+    }
+    return modified instanceof Date ? (Date) modified : null;
+  }
+
+  private Serializable getValue(Metacard metacard, String attributeName) {
+    Attribute attribute = metacard.getAttribute(attributeName);
+    return attribute == null ? null : attribute.getValue();
+  }
+
+  private static String resolveDirectory(String directory) {
+    Path path = Paths.get(directory);
+    if (!path.isAbsolute()) {
+      String ddfHome = System.getProperty("ddf.home");
+      if (ddfHome != null) {
+        path = Paths.get(ddfHome).resolve(path);
+      }
+    }
+    return path.toAbsolutePath().normalize().toString();
+  }
+
+  private interface JournalRecord {
+    void write(DataOutputStream output) throws IOException;
+  }
+
+  private static class PendingEntry {
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    private final String filePath;
+
+    PendingEntry(String filePath) {
+      this.filePath = filePath;
+    }
+
+    long getBytesWritten() {
+      return filePath == null ? 0L : new File(filePath).length();
+    }
   }
 }
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.operation.Query;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opaque token that lets a multi-source query continue where the previous page ended.
+ *
+ * <p>The token records, for each source, how many of that source's results were consumed by the
+ * merged pages up to and including the page that produced the token. When the next page is
+ * requested with the token, each source is queried starting right after its consumed results for
+ * only a single page, instead of every source being asked for {@code offset + pageSize - 1}
+ * results that are then merged and mostly discarded.
+ *
+ * <p>A token is only honored if it was produced for the same query, for the same set of sources
+ * and if the requested start index is the one directly following the page that produced it. The
+ * query is identified by the SHA-256 digest of a canonical text form of its filter and sort
+ * policy. In every other case the query falls back to regular offset paging.
+ */
+final class PagingToken {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PagingToken.class);
+
+  private static final String VERSION = "1";
+
+  private static final String FIELD_SEPARATOR = ";";
+
+  private static final String ENTRY_SEPARATOR = ",";
+
+  private static final String VALUE_SEPARATOR = "=";
+
+  private final String queryFingerprint;
+
+  private final int startIndex;
+
+  private final Map<String, Integer> sourceOffsets;
+
+  PagingToken(String queryFingerprint, int startIndex, Map<String, Integer> sourceOffsets) {
+    this.queryFingerprint = queryFingerprint;
+    this.startIndex = startIndex;
+    this.sourceOffsets = Collections.unmodifiableMap(new HashMap<>(sourceOffsets));
+  }
+
+  /**
+   * Creates a token for a query whose merged results start at the first result of every source.
+   *
+   * @param canonicalQuery the canonical text form of the filter and sort policy being paged
+   * @param nextStartIndex the start index of the page following the results that will be consumed
+   * @param sourceIds the ids of the sources being queried
+   */
+  static PagingToken start(String canonicalQuery, int nextStartIndex, Set<String> sourceIds) {
+    return new PagingToken(
+        fingerprint(canonicalQuery),
+        nextStartIndex,
+        sourceIds.stream().collect(Collectors.toMap(Function.identity(), sourceId -> 0)));
+  }
+
+  /**
+   * Parses an encoded token.
+   *
+   * @return the token, or {@code null} if the value is not a valid token
+   */
+  static PagingToken parse(String encoded) {
+    if (StringUtils.isBlank(encoded)) {
+      return null;
+    }
+
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+      String[] fields = decoded.split(FIELD_SEPARATOR, -1);
+      if (fields.length != 4 || !VERSION.equals(fields[0])) {
+        LOGGER.debug("Ignoring paging token with unsupported format.");
+        return null;
+      }
+
+      Map<String, Integer> offsets = new HashMap<>();
+      if (!fields[3].isEmpty()) {
+        for (String entry : fields[3].split(ENTRY_SEPARATOR)) {
+          String[] keyValue = entry.split(VALUE_SEPARATOR, 2);
+          offsets.put(
+              URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8.name()),
+              Integer.parseInt(keyValue[1]));
+        }
+      }
+
+      return new PagingToken(fields[1], Integer.parseInt(fields[2]), offsets);
+    } catch (IllegalArgumentException
+        | ArrayIndexOutOfBoundsException
+        | UnsupportedEncodingException e) {
+      LOGGER.debug("Ignoring invalid paging token.", e);
+      return null;
+    }
+  }
+
+  /** @return the encoded, URL-safe representation of this token */
+  String encode() {
+    String offsets =
+        sourceOffsets.entrySet().stream()
+            .map(entry -> encodeSourceId(entry.getKey()) + VALUE_SEPARATOR + entry.getValue())
+            .collect(Collectors.joining(ENTRY_SEPARATOR));
+
+    String decoded =
+        String.join(
+            FIELD_SEPARATOR, VERSION, queryFingerprint, String.valueOf(startIndex), offsets);
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param canonicalQuery the canonical text form of the filter and sort policy of {@code query}
+   * @return {@code true} if this token can be used to page {@code query} over {@code sourceIds}
+   */
+  boolean continues(Query query, String canonicalQuery, Set<String> sourceIds) {
+    return query.getStartIndex() == startIndex
+        && sourceOffsets.keySet().containsAll(sourceIds)
+        && sourceIds.containsAll(sourceOffsets.keySet())
+        && queryFingerprint.equals(fingerprint(canonicalQuery));
+  }
+
+  /**
+   * @return the number of results of the source that were consumed before the page this token
+   *     leads to
+   */
+  int getSourceOffset(String sourceId) {
+    return sourceOffsets.getOrDefault(sourceId, 0);
+  }
+
+  int getStartIndex() {
+    return startIndex;
+  }
+
+  /**
+   * Creates the token that leads to the page after the one this token leads to.
+   *
+   * @param nextStartIndex the start index of the page the new token leads to
+   * @param consumed the number of results consumed from each source for the current page
+   */
+  PagingToken advance(int nextStartIndex, Map<String, Integer> consumed) {
+    Map<String, Integer> offsets = new HashMap<>(sourceOffsets);
+    consumed.forEach((sourceId, count) -> offsets.merge(sourceId, count, Integer::sum));
+    return new PagingToken(queryFingerprint, nextStartIndex, offsets);
+  }
+
+  private static String encodeSourceId(String sourceId) {
+    try {
+      return URLEncoder.encode(sourceId, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String fingerprint(String canonicalQuery) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256")
+              .digest(canonicalQuery.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -13,10 +13,17 @@
  */
 package ddf.catalog.federation.impl;
 
+import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+import static ddf.catalog.Constants.PAGING_TOKEN_KEY;
+import static ddf.catalog.Constants.REQUESTED_ATTRIBUTES_KEY;
+
 import com.google.common.annotations.VisibleForTesting;
 import ddf.catalog.data.Result;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.federation.FederationStrategy;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.delegate.FilterToTextDelegate;
+import ddf.catalog.impl.CatalogTracing;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
@@ -30,18 +37,29 @@
 import ddf.catalog.plugin.PreFederatedQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.source.Source;
+import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.util.impl.RelevanceResultComparator;
+import ddf.catalog.util.impl.Requests;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
+import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -98,6 +116,8 @@ public class SortedFederationStrategy implements FederationStrategy {
 
   private int maxStartIndex;
 
+  private FilterAdapter filterAdapter;
+
   /**
    * Instantiates an {@code AbstractFederationStrategy} with the provided {@link ExecutorService}.
    *
@@ -150,9 +170,34 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
     int offset = originalQuery.getStartIndex();
     final int pageSize = originalQuery.getPageSize();
 
-    // limit offset to max value
-    if (offset > this.maxStartIndex) {
+    Set<String> sourceIds =
+        sources.stream().filter(Objects::nonNull).map(Source::getId).collect(Collectors.toSet());
+    boolean pageable =
+        pageSize > 0
+            && sourceIds.size() > 1
+            && !sourceIds.contains(null)
+            && sourceIds.size() == sources.stream().filter(Objects::nonNull).count();
+    String canonicalQuery = pageable ? getCanonicalQuery(queryRequest) : null;
+    pageable = canonicalQuery != null;
+    PagingToken previousToken = pageable ? getPagingToken(queryRequest) : null;
+    boolean continuePaging =
+        previousToken != null
+            && previousToken.continues(originalQuery, canonicalQuery, sourceIds);
+
+    // limit offset to max value, unless the sources continue from a paging token
+    if (offset > this.maxStartIndex && !continuePaging) {
       offset = this.maxStartIndex;
+      // The page no longer starts at the requested index, so the next request cannot continue it
+      LOGGER.debug("Start index limited to {}, not returning paging token", offset);
+      pageable = false;
+    }
+
+    PagingToken pagingToken = null;
+    if (continuePaging) {
+      LOGGER.debug("Continuing query on {} sources from paging token", sourceIds.size());
+      pagingToken = previousToken.advance(offset + pageSize, Collections.emptyMap());
+    } else if (pageable) {
+      pagingToken = PagingToken.start(canonicalQuery, offset + pageSize, sourceIds);
     }
 
     final Map<String, Serializable> properties = Collections.synchronizedMap(new HashMap<>());
@@ -160,7 +205,10 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
 
     Map<Future<SourceResponse>, QueryRequest> futures = new HashMap<>();
 
-    Query modifiedQuery = getModifiedQuery(originalQuery, sources.size(), offset, pageSize);
+    Query modifiedQuery =
+        continuePaging
+            ? getPageQuery(originalQuery, 1, pageSize)
+            : getModifiedQuery(originalQuery, sources.size(), offset, pageSize);
     QueryRequest modifiedQueryRequest =
         new QueryRequestImpl(
             modifiedQuery,
@@ -171,57 +219,106 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
     CompletionService<SourceResponse> queryCompletion =
         new ExecutorCompletionService<>(queryExecutorService);
 
-    // Do NOT call source.isAvailable() when checking sources
-    for (final Source source : sources) {
-      if (source != null) {
-        LOGGER.debug("running query on source: {}", source.getId());
-
-        QueryRequest sourceQueryRequest =
-            new QueryRequestImpl(
-                modifiedQuery,
-                queryRequest.isEnterprise(),
-                Collections.singleton(source.getId()),
-                new HashMap<>(queryRequest.getProperties()));
-        try {
-          for (PreFederatedQueryPlugin service : preQuery) {
-            try {
-              sourceQueryRequest = service.process(source, sourceQueryRequest);
-            } catch (PluginExecutionException e) {
-              LOGGER.info("Error executing PreFederatedQueryPlugin", e);
-            }
-          }
-        } catch (StopProcessingException e) {
-          LOGGER.info("Plugin stopped processing", e);
-        }
-
-        QueryRequest finalSourceQueryRequest = sourceQueryRequest;
-        futures.put(
-            queryCompletion.submit(() -> new TimedSource(source).query(finalSourceQueryRequest)),
-            sourceQueryRequest);
-      }
-    }
+    // The span ends when the monitor has collected the responses of the sources, or here if the
+    // queries could not be handed to the executor
+    Span federationSpan =
+        CatalogTracing.getTracer()
+            .spanBuilder(CatalogTracing.FEDERATION_SPAN)
+            .setAttribute(CatalogTracing.SOURCE_COUNT, (long) sourceIds.size())
+            .startSpan();
+    Context federationContext = Context.current().with(federationSpan);
 
     QueryResponseImpl offsetResults = null;
     // If there are offsets and more than one source, we have to get all the
     // results back and then
     // transfer them into a different Queue. That is what the
-    // OffsetResultHandler does.
-    if (offset > 1 && sources.size() > 1) {
+    // OffsetResultHandler does. Sources continuing from a paging token already
+    // start after the results of the previous pages.
+    boolean applyOffset = offset > 1 && sources.size() > 1 && !continuePaging;
+    if (applyOffset) {
       offsetResults = new QueryResponseImpl(queryRequest, properties);
-      queryExecutorService.submit(
-          new QueryResponseRunnableMonitor(
-              new OffsetResultHandler(queryResponseQueue, offsetResults, pageSize, offset),
-              offsetResults));
     }
 
-    queryExecutorService.submit(
-        new QueryResponseRunnableMonitor(
-            sortedQueryMonitorFactory.createMonitor(
-                queryCompletion, futures, queryResponseQueue, modifiedQueryRequest, postQuery),
-            queryResponseQueue));
+    try {
+      Set<String> requestedAttributes = Requests.getRequestedAttributes(queryRequest);
+
+      // Do NOT call source.isAvailable() when checking sources
+      for (final Source source : sources) {
+        if (source != null) {
+          LOGGER.debug("running query on source: {}", source.getId());
+
+          Query sourceQuery =
+              continuePaging
+                  ? getPageQuery(
+                      originalQuery, previousToken.getSourceOffset(source.getId()) + 1, pageSize)
+                  : modifiedQuery;
+          Map<String, Serializable> sourceProperties = new HashMap<>(queryRequest.getProperties());
+          sourceProperties.remove(PAGING_TOKEN_KEY);
+          if (!requestedAttributes.isEmpty()) {
+            // Sources must also return the attributes needed to merge and filter the results
+            sourceProperties.put(REQUESTED_ATTRIBUTES_KEY, new HashSet<>(requestedAttributes));
+          }
+          QueryRequest sourceQueryRequest =
+              new QueryRequestImpl(
+                  sourceQuery,
+                  queryRequest.isEnterprise(),
+                  Collections.singleton(source.getId()),
+                  sourceProperties);
+          try {
+            for (PreFederatedQueryPlugin service : preQuery) {
+              try {
+                sourceQueryRequest = service.process(source, sourceQueryRequest);
+              } catch (PluginExecutionException e) {
+                LOGGER.info("Error executing PreFederatedQueryPlugin", e);
+              }
+            }
+          } catch (StopProcessingException e) {
+            LOGGER.info("Plugin stopped processing", e);
+          }
+
+          QueryRequest finalSourceQueryRequest = sourceQueryRequest;
+          futures.put(
+              queryCompletion.submit(
+                  federationContext.wrap(
+                      () -> new TimedSource(source).query(finalSourceQueryRequest))),
+              sourceQueryRequest);
+        }
+      }
+
+      if (applyOffset) {
+        queryExecutorService.submit(
+            new QueryResponseRunnableMonitor(
+                new OffsetResultHandler(queryResponseQueue, offsetResults, pageSize, offset),
+                offsetResults));
+      }
+
+      Runnable monitor =
+          new QueryResponseRunnableMonitor(
+              sortedQueryMonitorFactory.createMonitor(
+                  queryCompletion,
+                  futures,
+                  queryResponseQueue,
+                  modifiedQueryRequest,
+                  postQuery,
+                  pagingToken),
+              queryResponseQueue);
+      queryExecutorService.submit(
+          federationContext.wrap(
+              () -> {
+                try {
+                  monitor.run();
+                } finally {
+                  federationSpan.end();
+                }
+              }));
+    } catch (RuntimeException e) {
+      CatalogTracing.recordFailure(federationSpan, e);
+      federationSpan.end();
+      throw e;
+    }
 
     QueryResponse queryResponse;
-    if (offset > 1 && sources.size() > 1) {
+    if (applyOffset) {
       queryResponse = offsetResults;
       LOGGER.debug("returning offsetResults");
     } else {
@@ -272,6 +369,62 @@ private Query getModifiedQuery(
     return query;
   }
 
+  private Query getPageQuery(Query originalQuery, int startIndex, int pageSize) {
+    return new QueryImpl(
+        originalQuery,
+        startIndex,
+        pageSize,
+        originalQuery.getSortBy(),
+        originalQuery.requestsTotalResultsCount(),
+        originalQuery.getTimeoutMillis());
+  }
+
+  private PagingToken getPagingToken(QueryRequest queryRequest) {
+    Serializable token = queryRequest.getPropertyValue(PAGING_TOKEN_KEY);
+    return token instanceof String ? PagingToken.parse((String) token) : null;
+  }
+
+  /**
+   * Builds the text that identifies a query across the pages of a paging token: the filter as
+   * rendered by the {@link FilterToTextDelegate}, followed by every sort property and order.
+   *
+   * @return the canonical text, or {@code null} if the query cannot be rendered, in which case no
+   *     paging token is used
+   */
+  private String getCanonicalQuery(QueryRequest queryRequest) {
+    if (filterAdapter == null) {
+      return null;
+    }
+
+    StringBuilder canonicalQuery = new StringBuilder();
+    try {
+      canonicalQuery.append(
+          filterAdapter.adapt(queryRequest.getQuery(), new FilterToTextDelegate()));
+    } catch (UnsupportedQueryException | RuntimeException e) {
+      LOGGER.debug("Unable to identify query for paging token, paging by offset instead.", e);
+      return null;
+    }
+
+    List<SortBy> sortBys = new ArrayList<>();
+    sortBys.add(queryRequest.getQuery().getSortBy());
+    Serializable additionalSortBys = queryRequest.getPropertyValue(ADDITIONAL_SORT_BYS);
+    if (additionalSortBys instanceof SortBy[]) {
+      sortBys.addAll(Arrays.asList((SortBy[]) additionalSortBys));
+    }
+    for (SortBy sortBy : sortBys) {
+      if (sortBy != null && sortBy.getPropertyName() != null) {
+        SortOrder sortOrder =
+            sortBy.getSortOrder() == null ? SortOrder.DESCENDING : sortBy.getSortOrder();
+        canonicalQuery
+            .append('\n')
+            .append(sortBy.getPropertyName().getPropertyName())
+            .append(' ')
+            .append(sortOrder.toSQL());
+      }
+    }
+    return canonicalQuery.toString();
+  }
+
   /** Base 1 offset, hence page size is one less. */
   private int computeModifiedPageSize(int offset, int pageSize) {
     return offset + pageSize - 1;
@@ -296,6 +449,29 @@ public void setMaxStartIndex(int maxStartIndex) {
     }
   }
 
+  /**
+   * To be set via Spring/Blueprint
+   *
+   * @param filterAdapter the adapter used to identify queries for paging tokens. Paging tokens are
+   *     neither honored nor returned without it.
+   */
+  public void setFilterAdapter(FilterAdapter filterAdapter) {
+    this.filterAdapter = filterAdapter;
+  }
+
+  /**
+   * To be set via Spring/Blueprint
+   *
+   * @param sortedRunMergeEnabled {@code true} to merge the sorted results of each source as soon
+   *     as it responds instead of collecting and sorting all results at once. This only reduces
+   *     the cost of merging; results are still returned once every source has responded or timed
+   *     out.
+   */
+  public void setSortedRunMergeEnabled(boolean sortedRunMergeEnabled) {
+    LOGGER.debug("Setting sorted run merge enabled to {}", sortedRunMergeEnabled);
+    sortedQueryMonitorFactory.setSortedRunMergeEnabled(sortedRunMergeEnabled);
+  }
+
   static class OffsetResultHandler implements Runnable {
 
     private QueryResponseImpl originalResults = null;
@@ -360,6 +536,7 @@ public void run() {
         wrapped.run();
       } catch (Throwable t) {
         LOGGER.debug("Unhandled exception while watching query response runnable.", t);
+        CatalogTracing.recordFailure(Span.current(), t);
         queryResponse
             .getProcessingDetails()
             .add(
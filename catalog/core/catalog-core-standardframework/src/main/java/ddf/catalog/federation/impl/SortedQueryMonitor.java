@@ -14,11 +14,14 @@
 package ddf.catalog.federation.impl;
 
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+import static ddf.catalog.Constants.PAGING_TOKEN_KEY;
+import static ddf.catalog.Constants.SORTED_RESULTS_KEY;
 
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.federation.Federatable;
+import ddf.catalog.impl.CatalogTracing;
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
@@ -36,6 +39,8 @@
 import ddf.catalog.util.impl.DistanceResultComparator;
 import ddf.catalog.util.impl.RelevanceResultComparator;
 import ddf.catalog.util.impl.TemporalResultComparator;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -44,6 +49,7 @@
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -80,12 +86,39 @@ class SortedQueryMonitor implements Runnable {
 
   private final long deadline;
 
+  private final boolean sortedRunMerge;
+
+  private final PagingToken pagingToken;
+
   public SortedQueryMonitor(
       CompletionService<SourceResponse> completionService,
       Map<Future<SourceResponse>, QueryRequest> futures,
       QueryResponseImpl returnResults,
       QueryRequest request,
       List<PostFederatedQueryPlugin> postQuery) {
+    this(completionService, futures, returnResults, request, postQuery, false, null);
+  }
+
+  /**
+   * @param sortedRunMerge if {@code true}, each source's results are treated as a sorted run and
+   *     merged with the results of the sources that responded before it as soon as it responds,
+   *     instead of all results being collected and sorted as a whole. Either way, results are only
+   *     returned once every source has responded or timed out.
+   * @param pagingToken the paging state before the first result this monitor returns, advanced by
+   *     the results each source returned up to its last result on the page and added to the
+   *     response properties if every source responded with sorted results, or {@code null} if no
+   *     paging token should be returned
+   */
+  public SortedQueryMonitor(
+      CompletionService<SourceResponse> completionService,
+      Map<Future<SourceResponse>, QueryRequest> futures,
+      QueryResponseImpl returnResults,
+      QueryRequest request,
+      List<PostFederatedQueryPlugin> postQuery,
+      boolean sortedRunMerge,
+      PagingToken pagingToken) {
+    this.sortedRunMerge = sortedRunMerge;
+    this.pagingToken = pagingToken;
     this.completionService = completionService;
     this.returnResults = returnResults;
     this.request = request;
@@ -147,6 +180,10 @@ public void run() {
     }
 
     List<Result> resultList = new ArrayList<>();
+    SortedResultMerger merger =
+        sortedRunMerge ? new SortedResultMerger(resultComparator, getMaxResults()) : null;
+    Map<Result, SourcePosition> resultPositions = new IdentityHashMap<>();
+    boolean pageable = pagingToken != null;
     long totalHits = 0;
     Set<ProcessingDetails> detailsOfReturnResults = returnResults.getProcessingDetails();
 
@@ -159,6 +196,7 @@ public void run() {
       String sourceId = "Unknown Source";
       QueryRequest queryRequest = null;
       SourceResponse sourceResponse = null;
+      List<Result> sourceResults = null;
       try {
         Future<SourceResponse> future;
         if (query.getTimeoutMillis() < 1) {
@@ -167,6 +205,7 @@ public void run() {
           future = completionService.poll(getTimeRemaining(deadline), TimeUnit.MILLISECONDS);
           if (future == null) {
             timeoutRemainingSources(detailsOfReturnResults);
+            pageable = false;
             break;
           }
         }
@@ -185,6 +224,7 @@ public void run() {
               executePostFederationQueryPluginsWithSourceError(
                   queryRequest, sourceId, new NullPointerException());
         } else {
+          sourceResults = sourceResponse.getResults();
           sourceResponse =
               executePostFederationQueryPlugins(sourceResponse, queryRequest, sourceId);
         }
@@ -199,6 +239,7 @@ public void run() {
         // Then add the interrupted exception for the remaining sources
         interruptRemainingSources(detailsOfReturnResults, e);
         Thread.currentThread().interrupt();
+        pageable = false;
         break;
       } catch (ExecutionException e) {
         LOGGER.info(
@@ -206,7 +247,22 @@ public void run() {
         sourceResponse =
             executePostFederationQueryPluginsWithSourceError(queryRequest, sourceId, e);
       }
-      resultList.addAll(sourceResponse.getResults());
+      if (merger != null) {
+        merger.addRun(sourceResponse.getResults(), isDeclaredSorted(sourceResponse));
+      } else {
+        resultList.addAll(sourceResponse.getResults());
+      }
+      if (pageable) {
+        // Sources continue from the results they returned, not from what the plugins left of them,
+        // and only a source that returned its results in the order of the merge can continue from
+        // a position: otherwise results before its last consumed position were never returned
+        pageable =
+            sourceResults != null
+                && isDeclaredSorted(sourceResponse)
+                && isMergeOrdered(sourceId, sourceResults, resultComparator)
+                && addResultPositions(
+                    sourceId, sourceResults, sourceResponse.getResults(), resultPositions);
+      }
       long hits = sourceResponse.getHits();
       totalHits += hits;
       hitsPerSource.merge(sourceId, hits, (l1, l2) -> l1 + l2);
@@ -219,13 +275,116 @@ public void run() {
           sourceProcessingDetailsToProcessingDetails(sourceId, sourceResponse));
     }
 
+    Span span = Span.current();
+    span.setAttribute(CatalogTracing.HITS, totalHits);
     returnProperties.put("hitsPerSource", hitsPerSource);
     returnProperties.put(
         ORIGINAL_SOURCE_PROPERTIES, (Serializable) Collections.unmodifiableMap(sourceProperties));
-    LOGGER.debug("All sources finished returning results: {}", resultList.size());
-
     returnResults.setHits(totalHits);
-    returnResults.addResults(sortedResults(resultList, resultComparator), true);
+
+    Map<String, Integer> consumedPerSource = new HashMap<>();
+    if (merger != null) {
+      int merged =
+          merger.merge(
+              getMaxResults(),
+              result -> {
+                countConsumed(result, resultPositions, consumedPerSource);
+                returnResults.addResult(result, false);
+              });
+      LOGGER.debug("All sources finished returning results: {}", merged);
+      span.setAttribute(CatalogTracing.RESULT_COUNT, (long) merged);
+      addPagingToken(returnProperties, pageable, consumedPerSource);
+      returnResults.closeResultQueue();
+    } else {
+      LOGGER.debug("All sources finished returning results: {}", resultList.size());
+      List<Result> page = sortedResults(resultList, resultComparator);
+      span.setAttribute(CatalogTracing.RESULT_COUNT, (long) page.size());
+      page.forEach(result -> countConsumed(result, resultPositions, consumedPerSource));
+      addPagingToken(returnProperties, pageable, consumedPerSource);
+      returnResults.addResults(page, true);
+    }
+  }
+
+  /**
+   * Records the source of every result that is left after the post-federated query plugins ran,
+   * together with its position in the results the source itself returned.
+   *
+   * @return {@code false} if a result cannot be traced back to the results of the source
+   */
+  private boolean addResultPositions(
+      String sourceId,
+      List<Result> sourceResults,
+      List<Result> results,
+      Map<Result, SourcePosition> resultPositions) {
+    Map<Result, Integer> positions = new IdentityHashMap<>();
+    Map<String, Integer> idPositions = new HashMap<>();
+    for (int i = 0; i < sourceResults.size(); i++) {
+      Result sourceResult = sourceResults.get(i);
+      positions.put(sourceResult, i + 1);
+      String id = getMetacardId(sourceResult);
+      if (id != null) {
+        idPositions.putIfAbsent(id, i + 1);
+      }
+    }
+
+    for (Result result : results) {
+      Integer position = positions.get(result);
+      if (position == null) {
+        position = idPositions.get(getMetacardId(result));
+      }
+      if (position == null) {
+        LOGGER.debug("Result of {} was added by a plugin, not returning paging token", sourceId);
+        return false;
+      }
+      resultPositions.put(result, new SourcePosition(sourceId, position));
+    }
+    return true;
+  }
+
+  private String getMetacardId(Result result) {
+    return result != null && result.getMetacard() != null ? result.getMetacard().getId() : null;
+  }
+
+  private void countConsumed(
+      Result result,
+      Map<Result, SourcePosition> resultPositions,
+      Map<String, Integer> consumedPerSource) {
+    SourcePosition sourcePosition = resultPositions.get(result);
+    if (sourcePosition != null) {
+      // Results the plugins removed before the last consumed result are skipped as well
+      consumedPerSource.merge(sourcePosition.sourceId, sourcePosition.position, Math::max);
+    }
+  }
+
+  private void addPagingToken(
+      Map<String, Serializable> returnProperties,
+      boolean pageable,
+      Map<String, Integer> consumedPerSource) {
+    if (pageable) {
+      returnProperties.put(
+          PAGING_TOKEN_KEY,
+          pagingToken.advance(pagingToken.getStartIndex(), consumedPerSource).encode());
+    } else if (pagingToken != null) {
+      LOGGER.debug("Not every source can continue from its results, not returning paging token");
+    }
+  }
+
+  private boolean isMergeOrdered(
+      String sourceId, List<Result> sourceResults, Comparator<? super Result> comparator) {
+    if (SortedResultMerger.isSorted(sourceResults, comparator)) {
+      return true;
+    }
+    LOGGER.debug("Results of {} are out of the merge order, not returning paging token", sourceId);
+    return false;
+  }
+
+  private boolean isDeclaredSorted(SourceResponse sourceResponse) {
+    Map<String, Serializable> properties = sourceResponse.getProperties();
+    return properties != null && Boolean.TRUE.equals(properties.get(SORTED_RESULTS_KEY));
+  }
+
+  private int getMaxResults() {
+    return query.getPageSize() > 0 ? query.getPageSize() : Integer.MAX_VALUE;
   }
 
   private Set<ProcessingDetails> sourceProcessingDetailsToProcessingDetails(
@@ -245,10 +404,7 @@ private Set<ProcessingDetails> sourceProcessingDetailsToProcessingDetails(
   List<Result> sortedResults(List<Result> results, Comparator<? super Result> comparator) {
     Collections.sort(results, comparator);
 
-    int maxResults = Integer.MAX_VALUE;
-    if (query.getPageSize() > 0) {
-      maxResults = query.getPageSize();
-    }
+    int maxResults = getMaxResults();
 
     return results.size() > maxResults ? results.subList(0, maxResults) : results;
   }
@@ -263,13 +419,18 @@ private static Comparable getAttributeValue(Result r, String attributeName) {
   }
 
   private void timeoutRemainingSources(Set<ProcessingDetails> processingDetails) {
+    Span span = Span.current();
+    long timedOut = 0;
     for (QueryRequest expiredSource : futures.values()) {
       if (expiredSource != null) {
         String sourceId = getSourceIdFromRequest(expiredSource);
         LOGGER.info("Search timed out for {}", sourceId);
         processingDetails.add(new ProcessingDetailsImpl(sourceId, new TimeoutException()));
+        span.addEvent("source timed out", Attributes.of(CatalogTracing.SOURCE_ID, sourceId));
+        timedOut++;
       }
     }
+    span.setAttribute(CatalogTracing.TIMED_OUT_SOURCES, timedOut);
   }
 
   private void interruptRemainingSources(
@@ -279,6 +440,8 @@ private void interruptRemainingSources(
         String sourceId = getSourceIdFromRequest(interruptedSource);
         LOGGER.info("Search interrupted for {}", sourceId);
         processingDetails.add(new ProcessingDetailsImpl(sourceId, interruptedException));
+        Span.current()
+            .addEvent("source interrupted", Attributes.of(CatalogTracing.SOURCE_ID, sourceId));
       }
     }
   }
@@ -373,4 +536,16 @@ private SourceResponse executePostFederationQueryPlugins(
         queryResponse.getHits(),
         detailsOfResponseAfterPlugins);
   }
+
+  private static class SourcePosition {
+
+    private final String sourceId;
+
+    private final int position;
+
+    SourcePosition(String sourceId, int position) {
+      this.sourceId = sourceId;
+      this.position = position;
+    }
+  }
 }
@@ -24,13 +24,27 @@
 
 class SortedQueryMonitorFactory {
 
+  private volatile boolean sortedRunMergeEnabled = false;
+
   public Runnable createMonitor(
       final CompletionService<SourceResponse> completionService,
       final Map<Future<SourceResponse>, QueryRequest> futures,
       final QueryResponseImpl returnResults,
       final QueryRequest request,
-      List<PostFederatedQueryPlugin> postQuery) {
+      List<PostFederatedQueryPlugin> postQuery,
+      final PagingToken pagingToken) {
+
+    return new SortedQueryMonitor(
+        completionService,
+        futures,
+        returnResults,
+        request,
+        postQuery,
+        sortedRunMergeEnabled,
+        pagingToken);
+  }
 
-    return new SortedQueryMonitor(completionService, futures, returnResults, request, postQuery);
+  public void setSortedRunMergeEnabled(boolean sortedRunMergeEnabled) {
+    this.sortedRunMergeEnabled = sortedRunMergeEnabled;
   }
 }
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.data.Result;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges the results of several federated sources by treating each source's results as a sorted
+ * run and merging each run into the results merged so far as soon as its source responds.
+ *
+ * <p>Runs from sources that declared sorted output are only verified with a linear scan, all other
+ * runs are sorted on arrival. Each run is then merged with the results of the runs added before
+ * it, and only the first {@code maxResults} merged results are kept. This moves the sorting and
+ * merging work into the time spent waiting on slower sources, so that once the last source has
+ * responded only its own run remains to be merged, and the memory held does not grow with the
+ * number of sources. Results are still only handed out once every run has been added, since a
+ * source that has not responded yet may have the first result; this reduces the cost of merging,
+ * not the time to the first result.
+ *
+ * <p>Ties are broken by the order in which runs were added and then by position within a run,
+ * which yields exactly the same ordering as a stable sort of the concatenated runs.
+ */
+class SortedResultMerger {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SortedResultMerger.class);
+
+  private final Comparator<? super Result> comparator;
+
+  private final int maxResults;
+
+  private List<Result> merged = new ArrayList<>();
+
+  private int runCount = 0;
+
+  SortedResultMerger(Comparator<? super Result> comparator) {
+    this(comparator, Integer.MAX_VALUE);
+  }
+
+  /** @param maxResults the number of merged results kept, which is the most that can be merged */
+  SortedResultMerger(Comparator<? super Result> comparator, int maxResults) {
+    this.comparator = comparator;
+    this.maxResults = maxResults;
+  }
+
+  /**
+   * Adds the results of a single source as a run and merges it with the runs added before it.
+   *
+   * @param results the source's results
+   * @param declaredSorted {@code true} if the source declared its results as already sorted
+   */
+  void addRun(List<Result> results, boolean declaredSorted) {
+    if (results == null || results.isEmpty()) {
+      return;
+    }
+
+    List<Result> run = new ArrayList<>(results);
+    if (!declaredSorted || !isSorted(run, comparator)) {
+      if (declaredSorted) {
+        LOGGER.debug("Results declared as sorted are out of order. Falling back to full sort.");
+      }
+      run.sort(comparator);
+    }
+    merged = merge(merged, run);
+    runCount++;
+  }
+
+  /**
+   * Hands the merged results to {@code consumer} in order.
+   *
+   * @param maxResults the maximum number of results to emit
+   * @param consumer receives the merged results in order
+   * @return the number of results emitted
+   */
+  int merge(int maxResults, Consumer<Result> consumer) {
+    int emitted = Math.min(maxResults, merged.size());
+    merged.subList(0, emitted).forEach(consumer);
+
+    LOGGER.debug("Merged {} results from {} sorted runs", emitted, runCount);
+    return emitted;
+  }
+
+  /** Merges two sorted runs, taking ties from the earlier one, up to {@link #maxResults}. */
+  private List<Result> merge(List<Result> earlier, List<Result> later) {
+    int size = (int) Math.min(maxResults, (long) earlier.size() + later.size());
+    List<Result> result = new ArrayList<>(size);
+    int i = 0;
+    int j = 0;
+    while (result.size() < size) {
+      if (j >= later.size()
+          || (i < earlier.size() && comparator.compare(earlier.get(i), later.get(j)) <= 0)) {
+        result.add(earlier.get(i++));
+      } else {
+        result.add(later.get(j++));
+      }
+    }
+    return result;
+  }
+
+  /** Checks that the results are in non-decreasing order under the comparator. */
+  static boolean isSorted(List<Result> run, Comparator<? super Result> comparator) {
+    Iterator<Result> results = run.iterator();
+    Result previous = results.hasNext() ? results.next() : null;
+    while (results.hasNext()) {
+      Result current = results.next();
+      if (comparator.compare(previous, current) > 0) {
+        return false;
+      }
+      previous = current;
+    }
+    return true;
+  }
+}
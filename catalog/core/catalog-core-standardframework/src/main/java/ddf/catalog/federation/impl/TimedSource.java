@@ -14,11 +14,15 @@
 package ddf.catalog.federation.impl;
 
 import ddf.catalog.data.ContentType;
+import ddf.catalog.impl.CatalogTracing;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.source.Source;
 import ddf.catalog.source.SourceMonitor;
 import ddf.catalog.source.UnsupportedQueryException;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Scope;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,8 +56,26 @@ public boolean isAvailable(SourceMonitor callback) {
 
   @Override
   public SourceResponse query(QueryRequest request) throws UnsupportedQueryException {
+    Span span =
+        CatalogTracing.getTracer()
+            .spanBuilder(CatalogTracing.SOURCE_QUERY_SPAN)
+            .setSpanKind(SpanKind.CLIENT)
+            .setAttribute(CatalogTracing.SOURCE_ID, source.getId())
+            .startSpan();
     long startTime = System.currentTimeMillis();
-    SourceResponse result = source.query(request);
+    SourceResponse result;
+    try (Scope ignored = span.makeCurrent()) {
+      result = source.query(request);
+      if (result != null && result.getResults() != null) {
+        span.setAttribute(CatalogTracing.RESULT_COUNT, (long) result.getResults().size());
+        span.setAttribute(CatalogTracing.HITS, result.getHits());
+      }
+    } catch (UnsupportedQueryException | RuntimeException e) {
+      CatalogTracing.recordFailure(span, e);
+      throw e;
+    } finally {
+      span.end();
+    }
     long endTime = System.currentTimeMillis();
 
     int elapsedTime = Math.toIntExact(endTime - startTime);
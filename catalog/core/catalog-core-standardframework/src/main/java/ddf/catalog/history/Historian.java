@@ -17,6 +17,7 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.io.ByteSource;
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
@@ -56,6 +57,7 @@
 import ddf.security.audit.SecurityLogger;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -521,9 +523,11 @@ private ReadStorageResponse getStorageItem(ReadStorageRequest r) {
   private CreateStorageResponse versionContentItems(
       Map<String, List<ContentItem>> items, Map<String, Metacard> versionedMetacards)
       throws SourceUnavailableException, IngestException {
+    // [versioned content item URI: original content item URI]
+    HashMap<String, String> sourceUris = new HashMap<>();
     List<ContentItem> contentItems =
         items.entrySet().stream()
-            .map(e -> getVersionedContentItems(e.getValue(), versionedMetacards))
+            .map(e -> getVersionedContentItems(e.getValue(), versionedMetacards, sourceUris))
             .flatMap(Collection::stream)
             .collect(Collectors.toList());
 
@@ -532,11 +536,15 @@ private CreateStorageResponse versionContentItems(
       return null;
     }
 
+    // Lets storage providers share the stored content instead of writing the same bytes again
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.CONTENT_SOURCE_URIS_KEY, sourceUris);
+
     CreateStorageResponse createStorageResponse =
         executeAsSystem(
             () ->
                 storageProvider()
-                    .create(new CreateStorageRequestImpl(contentItems, new HashMap<>())));
+                    .create(new CreateStorageRequestImpl(contentItems, properties)));
     tryCommitStorage(createStorageResponse);
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace(
@@ -561,10 +569,16 @@ private void tryCommitStorage(CreateStorageResponse createStorageResponse)
   }
 
   private List<ContentItemImpl> getVersionedContentItems(
-      List<ContentItem> entry, Map<String, Metacard> versionedMetacards) {
-    return entry.stream()
-        .map(content -> createContentItem(content, versionedMetacards))
-        .collect(Collectors.toList());
+      List<ContentItem> entry,
+      Map<String, Metacard> versionedMetacards,
+      Map<String, String> sourceUris) {
+    List<ContentItemImpl> versionedContentItems = new ArrayList<>(entry.size());
+    for (ContentItem content : entry) {
+      ContentItemImpl versionedContentItem = createContentItem(content, versionedMetacards);
+      sourceUris.put(versionedContentItem.getUri(), content.getUri());
+      versionedContentItems.add(versionedContentItem);
+    }
+    return versionedContentItems;
   }
 
   private ContentItemImpl createContentItem(
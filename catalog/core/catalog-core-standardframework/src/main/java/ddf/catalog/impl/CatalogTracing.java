@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+
+/**
+ * OpenTelemetry span names and attributes of the catalog framework.
+ *
+ * <p>Spans are created with the global {@link io.opentelemetry.api.OpenTelemetry} instance, which
+ * does not record or export anything unless an OpenTelemetry SDK has been installed and configured.
+ */
+public final class CatalogTracing {
+
+  public static final String INSTRUMENTATION_NAME = "ddf.catalog";
+
+  public static final String QUERY_SPAN = "catalog query";
+
+  public static final String FEDERATION_SPAN = "catalog federate";
+
+  public static final String SOURCE_QUERY_SPAN = "source query";
+
+  public static final AttributeKey<String> SOURCE_ID = AttributeKey.stringKey("ddf.source.id");
+
+  public static final AttributeKey<Long> SOURCE_COUNT = AttributeKey.longKey("ddf.source.count");
+
+  public static final AttributeKey<Long> RESULT_COUNT = AttributeKey.longKey("ddf.result.count");
+
+  public static final AttributeKey<Long> HITS = AttributeKey.longKey("ddf.result.hits");
+
+  public static final AttributeKey<Long> TIMED_OUT_SOURCES =
+      AttributeKey.longKey("ddf.source.timeout.count");
+
+  public static final AttributeKey<Long> PROCESSING_ERRORS =
+      AttributeKey.longKey("ddf.processing.error.count");
+
+  private CatalogTracing() {}
+
+  public static Tracer getTracer() {
+    return GlobalOpenTelemetry.getTracer(INSTRUMENTATION_NAME);
+  }
+
+  /** Marks the span as failed because of the given exception. */
+  public static void recordFailure(Span span, Throwable throwable) {
+    span.recordException(throwable);
+    span.setStatus(StatusCode.ERROR, throwable.getClass().getSimpleName());
+  }
+}
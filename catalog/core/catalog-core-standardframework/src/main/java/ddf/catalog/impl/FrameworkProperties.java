@@ -23,6 +23,7 @@
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher;
 import ddf.catalog.federation.FederationStrategy;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.impl.operations.OperationMetrics;
 import ddf.catalog.plugin.AccessPlugin;
 import ddf.catalog.plugin.PolicyPlugin;
 import ddf.catalog.plugin.PostIngestPlugin;
@@ -119,6 +120,8 @@ public class FrameworkProperties {
 
   private List<DownloadManager> downloadManagers = new ArrayList<>();
 
+  private OperationMetrics operationMetrics = new OperationMetrics();
+
   public List<CatalogProvider> getCatalogProviders() {
     return catalogProviders;
   }
@@ -386,4 +389,12 @@ public List<DownloadManager> getDownloadManagers() {
   public void setDownloadManagers(List<DownloadManager> downloadManagers) {
     this.downloadManagers = downloadManagers;
   }
+
+  public OperationMetrics getOperationMetrics() {
+    return operationMetrics;
+  }
+
+  public void setOperationMetrics(OperationMetrics operationMetrics) {
+    this.operationMetrics = operationMetrics;
+  }
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Reads content from the head that was kept in memory while the content was copied to a file. The
+ * file is only opened if more than the head is read, so that MIME type detection, which usually
+ * only looks at the start of the content, does not read the file again.
+ */
+class ContentHeadInputStream extends InputStream {
+
+  private final byte[] head;
+
+  private final Path path;
+
+  private int position;
+
+  private InputStream remainder;
+
+  /**
+   * @param head the first bytes of the content
+   * @param path file containing all of the content, or null if the head is all of the content
+   */
+  ContentHeadInputStream(byte[] head, Path path) {
+    this.head = head;
+    this.path = path;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (position < head.length) {
+      return head[position++] & 0xff;
+    }
+    InputStream inputStream = remainder();
+    return inputStream == null ? -1 : inputStream.read();
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (position < head.length) {
+      int count = Math.min(length, head.length - position);
+      System.arraycopy(head, position, bytes, offset, count);
+      position += count;
+      return count;
+    }
+    InputStream inputStream = remainder();
+    return inputStream == null ? -1 : inputStream.read(bytes, offset, length);
+  }
+
+  @Override
+  public int available() throws IOException {
+    if (position < head.length) {
+      return head.length - position;
+    }
+    return remainder == null ? 0 : remainder.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (remainder != null) {
+      remainder.close();
+    }
+  }
+
+  private InputStream remainder() throws IOException {
+    if (remainder == null && path != null) {
+      remainder = Files.newInputStream(path);
+      IOUtils.skipFully(remainder, head.length);
+    }
+    return remainder;
+  }
+}
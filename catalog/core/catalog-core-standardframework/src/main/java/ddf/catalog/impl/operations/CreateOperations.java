@@ -14,6 +14,18 @@
 package ddf.catalog.impl.operations;
 
 import static ddf.catalog.Constants.CONTENT_PATHS;
+import static ddf.catalog.Constants.CONTENT_PATH_ITEMS;
+import static ddf.catalog.impl.operations.OperationMetrics.ACCESS;
+import static ddf.catalog.impl.operations.OperationMetrics.CREATE;
+import static ddf.catalog.impl.operations.OperationMetrics.POLICY;
+import static ddf.catalog.impl.operations.OperationMetrics.POST_INGEST;
+import static ddf.catalog.impl.operations.OperationMetrics.POST_STORAGE;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_AUTHORIZATION;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_INGEST;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_STORAGE;
+import static ddf.catalog.impl.operations.OperationMetrics.PROVIDER;
+import static ddf.catalog.impl.operations.OperationMetrics.STORAGE;
+import static ddf.catalog.impl.operations.OperationMetrics.VALIDATION;
 
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
@@ -165,6 +177,7 @@ public CreateResponse create(
     }
 
     streamCreateRequest.getProperties().put(CONTENT_PATHS, tmpContentPaths);
+    streamCreateRequest.getProperties().put(CONTENT_PATH_ITEMS, new ArrayList<>(contentItems));
 
     injectAttributes(metacardMap);
     setDefaultValues(metacardMap);
@@ -177,12 +190,16 @@ public CreateResponse create(
                 contentItems, streamCreateRequest.getId(), streamCreateRequest.getProperties());
         createStorageRequest = processPreCreateStoragePlugins(createStorageRequest);
 
+        OperationMetrics metrics = frameworkProperties.getOperationMetrics();
+        long start = metrics.start();
         try {
           createStorageResponse = sourceOperations.getStorage().create(createStorageRequest);
           createStorageResponse.getProperties().put(CONTENT_PATHS, tmpContentPaths);
         } catch (StorageException e) {
           INGEST_LOGGER.debug("Could not store content items: {}.", fileNames, e);
           throw new IngestException("Could not store content items.", e);
+        } finally {
+          metrics.stop(start, CREATE, STORAGE);
         }
 
         createStorageResponse = processPostCreateStoragePlugins(createStorageResponse);
@@ -241,10 +258,13 @@ private CreateResponse doCreate(CreateRequest createRequest)
     CreateResponse createResponse;
 
     Exception ingestError = null;
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
 
     createRequest = queryOperations.setFlagsOnRequest(createRequest);
+    long start = metrics.start();
     createRequest = validateCreateRequest(createRequest);
     createRequest = validateLocalSource(createRequest);
+    metrics.stop(start, CREATE, VALIDATION);
     String fileNames = "";
 
     if (createRequest != null) {
@@ -272,8 +292,12 @@ private CreateResponse doCreate(CreateRequest createRequest)
                   OperationTransaction.OperationType.CREATE, Collections.emptyList()));
 
       createRequest = processPreIngestPlugins(createRequest);
+      start = metrics.start();
       createRequest = validateCreateRequest(createRequest);
+      metrics.stop(start, CREATE, VALIDATION);
+      start = metrics.start();
       createResponse = getCreateResponse(createRequest);
+      metrics.stop(start, CREATE, PROVIDER);
       createResponse = performRemoteCreate(createRequest, createResponse);
 
     } catch (IngestException iee) {
@@ -487,11 +511,15 @@ private CreateResponse validateFixCreateResponse(
   }
 
   private CreateResponse processPostIngestPlugins(CreateResponse createResponse) {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      long start = metrics.start();
       try {
         createResponse = plugin.process(createResponse);
       } catch (PluginExecutionException e) {
         LOGGER.info(PROCESSING_ERROR, e);
+      } finally {
+        metrics.stop(start, CREATE, POST_INGEST, plugin);
       }
     }
     return createResponse;
@@ -525,11 +553,15 @@ private CreateResponse getCreateResponse(CreateRequest createRequest) throws Ing
 
   private CreateRequest processPreIngestPlugins(CreateRequest createRequest)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      long start = metrics.start();
       try {
         createRequest = plugin.process(createRequest);
       } catch (PluginExecutionException e) {
         LOGGER.info(PROCESSING_ERROR, e);
+      } finally {
+        metrics.stop(start, CREATE, PRE_INGEST, plugin);
       }
     }
     return createRequest;
@@ -537,16 +569,28 @@ private CreateRequest processPreIngestPlugins(CreateRequest createRequest)
 
   private CreateRequest processPrecreateAccessPlugins(CreateRequest createRequest)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      createRequest = plugin.processPreCreate(createRequest);
+      long start = metrics.start();
+      try {
+        createRequest = plugin.processPreCreate(createRequest);
+      } finally {
+        metrics.stop(start, CREATE, ACCESS, plugin);
+      }
     }
     return createRequest;
   }
 
   private CreateRequest processPreAuthorizationPlugins(CreateRequest createRequest)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      createRequest = plugin.processPreCreate(createRequest);
+      long start = metrics.start();
+      try {
+        createRequest = plugin.processPreCreate(createRequest);
+      } finally {
+        metrics.stop(start, CREATE, PRE_AUTHORIZATION, plugin);
+      }
     }
     return createRequest;
   }
@@ -556,11 +600,17 @@ private CreateRequest updateCreateRequestPolicyMap(CreateRequest createRequest)
     Map<String, Serializable> unmodifiablePropertiesMap =
         Collections.unmodifiableMap(createRequest.getProperties());
     HashMap<String, Set<String>> requestPolicyMap = new HashMap<>();
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (Metacard metacard : createRequest.getMetacards()) {
       HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
       for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-        PolicyResponse policyResponse =
-            plugin.processPreCreate(metacard, unmodifiablePropertiesMap);
+        long start = metrics.start();
+        PolicyResponse policyResponse;
+        try {
+          policyResponse = plugin.processPreCreate(metacard, unmodifiablePropertiesMap);
+        } finally {
+          metrics.stop(start, CREATE, POLICY, plugin);
+        }
         opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
         opsSecuritySupport.buildPolicyMap(
             requestPolicyMap, policyResponse.operationPolicy().entrySet());
@@ -617,11 +667,15 @@ private void populateMetacardMap(
 
   private CreateStorageResponse processPostCreateStoragePlugins(
       CreateStorageResponse createStorageResponse) {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (final PostCreateStoragePlugin plugin : frameworkProperties.getPostCreateStoragePlugins()) {
+      long start = metrics.start();
       try {
         createStorageResponse = plugin.process(createStorageResponse);
       } catch (PluginExecutionException e) {
         LOGGER.debug(PROCESSING_ERROR, e);
+      } finally {
+        metrics.stop(start, CREATE, POST_STORAGE, plugin);
       }
     }
     return createStorageResponse;
@@ -629,11 +683,15 @@ private CreateStorageResponse processPostCreateStoragePlugins(
 
   private CreateStorageRequest processPreCreateStoragePlugins(
       CreateStorageRequest createStorageRequest) {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (final PreCreateStoragePlugin plugin : frameworkProperties.getPreCreateStoragePlugins()) {
+      long start = metrics.start();
       try {
         createStorageRequest = plugin.process(createStorageRequest);
       } catch (PluginExecutionException e) {
         LOGGER.debug(PROCESSING_ERROR, e);
+      } finally {
+        metrics.stop(start, CREATE, PRE_STORAGE, plugin);
       }
     }
     return createStorageRequest;
@@ -13,6 +13,16 @@
  */
 package ddf.catalog.impl.operations;
 
+import static ddf.catalog.impl.operations.OperationMetrics.ACCESS;
+import static ddf.catalog.impl.operations.OperationMetrics.DELETE;
+import static ddf.catalog.impl.operations.OperationMetrics.POLICY;
+import static ddf.catalog.impl.operations.OperationMetrics.POST_INGEST;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_AUTHORIZATION;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_INGEST;
+import static ddf.catalog.impl.operations.OperationMetrics.PROVIDER;
+import static ddf.catalog.impl.operations.OperationMetrics.STORAGE;
+import static ddf.catalog.impl.operations.OperationMetrics.VALIDATION;
+
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
@@ -137,10 +147,13 @@ public DeleteResponse doDelete(DeleteRequest deleteRequest, List<String> fanoutT
     DeleteStorageRequest deleteStorageRequest = null;
 
     DeleteResponse deleteResponse = null;
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
 
     deleteRequest = queryOperations.setFlagsOnRequest(deleteRequest);
+    long start = metrics.start();
     deleteRequest = validateDeleteRequest(deleteRequest);
     deleteRequest = validateLocalSource(deleteRequest);
+    metrics.stop(start, DELETE, VALIDATION);
 
     try {
       deleteRequest = populateMetacards(deleteRequest, fanoutTagBlacklist);
@@ -154,7 +167,9 @@ public DeleteResponse doDelete(DeleteRequest deleteRequest, List<String> fanoutT
       deleteRequest = processPreDeleteAccessPlugins(deleteRequest);
 
       deleteRequest = processPreIngestPlugins(deleteRequest);
+      start = metrics.start();
       deleteRequest = validateDeleteRequest(deleteRequest);
+      metrics.stop(start, DELETE, VALIDATION);
 
       // Call the Provider delete method
       LOGGER.debug(
@@ -248,11 +263,15 @@ private String buildDeleteLog(DeleteResponse deleteResponse) {
   }
 
   private DeleteResponse processPostIngestPlugins(DeleteResponse deleteResponse) {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      long start = metrics.start();
       try {
         deleteResponse = plugin.process(deleteResponse);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin exception", e);
+      } finally {
+        metrics.stop(start, DELETE, POST_INGEST, plugin);
       }
     }
     return deleteResponse;
@@ -260,8 +279,14 @@ private DeleteResponse processPostIngestPlugins(DeleteResponse deleteResponse) {
 
   private DeleteResponse processPostDeleteAccessPlugins(DeleteResponse deleteResponse)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      deleteResponse = plugin.processPostDelete(deleteResponse);
+      long start = metrics.start();
+      try {
+        deleteResponse = plugin.processPostDelete(deleteResponse);
+      } finally {
+        metrics.stop(start, DELETE, ACCESS, plugin);
+      }
     }
     return deleteResponse;
   }
@@ -271,12 +296,18 @@ private DeleteRequest populateDeleteRequestPolicyMap(
     HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
     Map<String, Serializable> unmodifiableProperties =
         Collections.unmodifiableMap(deleteRequest.getProperties());
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     if (deleteResponse != null && deleteResponse.getDeletedMetacards() != null) {
       for (Metacard metacard : deleteResponse.getDeletedMetacards()) {
         HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
         for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-          PolicyResponse policyResponse =
-              plugin.processPostDelete(metacard, unmodifiableProperties);
+          long start = metrics.start();
+          PolicyResponse policyResponse;
+          try {
+            policyResponse = plugin.processPostDelete(metacard, unmodifiableProperties);
+          } finally {
+            metrics.stop(start, DELETE, POLICY, plugin);
+          }
           opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
           opsSecuritySupport.buildPolicyMap(
               responsePolicyMap, policyResponse.operationPolicy().entrySet());
@@ -296,14 +327,20 @@ private DeleteResponse performLocalDelete(
       return null;
     }
 
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
+    long start = metrics.start();
     try {
       sourceOperations.getStorage().delete(deleteStorageRequest);
     } catch (StorageException e) {
       LOGGER.info("Unable to delete stored content items. Not removing stored metacards", e);
       throw new InternalIngestException(
           "Unable to delete stored content items. Not removing stored metacards.", e);
+    } finally {
+      metrics.stop(start, DELETE, STORAGE);
     }
+    start = metrics.start();
     DeleteResponse deleteResponse = sourceOperations.getCatalog().delete(deleteRequest);
+    metrics.stop(start, DELETE, PROVIDER);
     deleteResponse = injectAttributes(deleteResponse);
     try {
       historian.version(deleteResponse);
@@ -355,11 +392,15 @@ private boolean foundAllDeleteRequestMetacards(
 
   private DeleteRequest processPreIngestPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      long start = metrics.start();
       try {
         deleteRequest = plugin.process(deleteRequest);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        metrics.stop(start, DELETE, PRE_INGEST, plugin);
       }
     }
     return deleteRequest;
@@ -367,8 +408,14 @@ private DeleteRequest processPreIngestPlugins(DeleteRequest deleteRequest)
 
   private DeleteRequest processPreDeleteAccessPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      deleteRequest = plugin.processPreDelete(deleteRequest);
+      long start = metrics.start();
+      try {
+        deleteRequest = plugin.processPreDelete(deleteRequest);
+      } finally {
+        metrics.stop(start, DELETE, ACCESS, plugin);
+      }
     }
     return deleteRequest;
   }
@@ -380,8 +427,15 @@ private DeleteRequest processPreDeletePolicyPlugins(DeleteRequest deleteRequest)
         Collections.unmodifiableMap(deleteRequest.getProperties());
 
     HashMap<String, Set<String>> requestPolicyMap = new HashMap<>();
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-      PolicyResponse policyResponse = plugin.processPreDelete(metacards, unmodifiableProperties);
+      long start = metrics.start();
+      PolicyResponse policyResponse;
+      try {
+        policyResponse = plugin.processPreDelete(metacards, unmodifiableProperties);
+      } finally {
+        metrics.stop(start, DELETE, POLICY, plugin);
+      }
       opsSecuritySupport.buildPolicyMap(
           requestPolicyMap, policyResponse.operationPolicy().entrySet());
     }
@@ -428,16 +482,28 @@ private DeleteRequest populateMetacards(
 
   private DeleteRequest preProcessPreAuthorizationPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      deleteRequest = plugin.processPreDelete(deleteRequest);
+      long start = metrics.start();
+      try {
+        deleteRequest = plugin.processPreDelete(deleteRequest);
+      } finally {
+        metrics.stop(start, DELETE, PRE_AUTHORIZATION, plugin);
+      }
     }
     return deleteRequest;
   }
 
   private DeleteResponse postProcessPreAuthorizationPlugins(DeleteResponse deleteResponse)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      deleteResponse = plugin.processPostDelete(deleteResponse);
+      long start = metrics.start();
+      try {
+        deleteResponse = plugin.processPostDelete(deleteResponse);
+      } finally {
+        metrics.stop(start, DELETE, PRE_AUTHORIZATION, plugin);
+      }
     }
     return deleteResponse;
   }
@@ -29,6 +29,7 @@
 import javax.activation.MimeTypeParseException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.exception.ExceptionUtils;
+import org.apache.tika.io.TikaInputStream;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,8 +71,9 @@ Metacard generateMetacard(String mimeTypeRaw, String id, String fileName, Path t
     LOGGER.debug("List of matches for mimeType [{}]: {}", mimeType, listOfCandidates);
 
     for (InputTransformer candidate : listOfCandidates) {
-      try (InputStream transformerStream =
-          com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream()) {
+      // A file backed stream lets transformers that need the content more than once use the
+      // temporary file instead of copying the stream
+      try (InputStream transformerStream = TikaInputStream.get(tmpContentPath)) {
         generatedMetacard = candidate.transform(transformerStream);
       } catch (RuntimeException | CatalogTransformerException | IOException e) {
         List<String> stackTraces = Arrays.asList(ExceptionUtils.getRootCauseStackTrace(e));
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the stages of the catalog operations and for each plugin they call, tagged by
+ * operation, stage and plugin class so that the time of a slow operation can be attributed.
+ *
+ * <p>Timing is disabled by default. While disabled, {@link #start()} does not read the clock and
+ * {@link #stop(long, String, String, Object)} does nothing.
+ *
+ * <p>Timers are keyed by the name of the plugin class rather than the class itself, so that they do
+ * not keep the classes of uninstalled plugin bundles loaded, and are removed from the registry by
+ * {@link #destroy()}.
+ */
+public class OperationMetrics {
+
+  static final String METRIC_NAME = "ddf.catalog.operation.stage";
+
+  static final String QUERY = "query";
+
+  static final String CREATE = "create";
+
+  static final String UPDATE = "update";
+
+  static final String DELETE = "delete";
+
+  static final String VALIDATION = "validation";
+
+  static final String PRE_AUTHORIZATION = "preAuthorization";
+
+  static final String POLICY = "policy";
+
+  static final String ACCESS = "access";
+
+  static final String PRE_QUERY = "preQuery";
+
+  static final String FEDERATION = "federation";
+
+  static final String POST_PROCESSING = "postProcessing";
+
+  static final String POST_QUERY = "postQuery";
+
+  static final String PRE_INGEST = "preIngest";
+
+  static final String PRE_STORAGE = "preStorage";
+
+  static final String STORAGE = "storage";
+
+  static final String POST_STORAGE = "postStorage";
+
+  static final String PROVIDER = "provider";
+
+  static final String POST_INGEST = "postIngest";
+
+  private static final String NO_PLUGIN = "none";
+
+  private static final long NOT_TIMED = Long.MIN_VALUE;
+
+  private final MeterRegistry meterRegistry;
+
+  private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+
+  private volatile boolean enabled = false;
+
+  public OperationMetrics() {
+    this(Metrics.globalRegistry);
+  }
+
+  OperationMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** @return the start time to pass to {@link #stop}, read only while timing is enabled */
+  long start() {
+    return enabled ? System.nanoTime() : NOT_TIMED;
+  }
+
+  void stop(long start, String operation, String stage) {
+    stop(start, operation, stage, null);
+  }
+
+  /**
+   * Records the time elapsed since {@code start} for a stage of an operation.
+   *
+   * @param start the value returned by {@link #start()}
+   * @param operation the catalog operation, such as {@link #QUERY}
+   * @param stage the stage of the operation, such as {@link #PRE_QUERY}
+   * @param plugin the plugin called by the stage, or null if the stage is not a plugin call
+   */
+  void stop(long start, String operation, String stage, Object plugin) {
+    if (start == NOT_TIMED) {
+      return;
+    }
+
+    long elapsed = System.nanoTime() - start;
+    String pluginName = plugin == null ? NO_PLUGIN : plugin.getClass().getName();
+    timers
+        .computeIfAbsent(new Key(operation, stage, pluginName), this::register)
+        .record(elapsed, TimeUnit.NANOSECONDS);
+  }
+
+  /** Removes the timers of this instance from the registry. */
+  public void destroy() {
+    timers.values().forEach(meterRegistry::remove);
+    timers.clear();
+  }
+
+  private Timer register(Key key) {
+    return Timer.builder(METRIC_NAME)
+        .description("Time spent in a stage or plugin of a catalog operation")
+        .tags(
+            "operation",
+            key.operation,
+            "stage",
+            key.stage,
+            "plugin",
+            key.pluginName)
+        .register(meterRegistry);
+  }
+
+  private static class Key {
+
+    private final String operation;
+
+    private final String stage;
+
+    private final String pluginName;
+
+    private Key(String operation, String stage, String pluginName) {
+      this.operation = operation;
+      this.stage = stage;
+      this.pluginName = pluginName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return operation.equals(key.operation)
+          && stage.equals(key.stage)
+          && pluginName.equals(key.pluginName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(operation, stage, pluginName);
+    }
+  }
+}
@@ -29,15 +29,17 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.tika.detect.DefaultProbDetector;
 import org.apache.tika.detect.Detector;
@@ -60,6 +62,9 @@ public class OperationsMetacardSupport {
 
   private static final String MIME_TYPE_MSG = "Unable to guess mime type for file.";
 
+  /** Number of bytes at the start of the content that are kept to guess its mime type. */
+  private static final int CONTENT_HEAD_SIZE = 64 * 1024;
+
   //
   // Injected properties
   //
@@ -99,6 +104,7 @@ void generateMetacardAndContentItems(
         Path tmpPath = null;
         String fileName;
         long size;
+        byte[] contentHead;
         try (InputStream inputStream = contentItem.getInputStream()) {
           fileName = contentItem.getFilename();
           if (inputStream == null) {
@@ -115,7 +121,7 @@ void generateMetacardAndContentItems(
               Files.createTempFile(
                   FilenameUtils.getBaseName(sanitizedFilename),
                   FilenameUtils.getExtension(sanitizedFilename));
-          Files.copy(inputStream, tmpPath, StandardCopyOption.REPLACE_EXISTING);
+          contentHead = copyContent(inputStream, tmpPath);
           size = Files.size(tmpPath);
 
           final String key = contentItem.getId();
@@ -136,7 +142,7 @@ void generateMetacardAndContentItems(
           throw new IngestException("Could not copy bytes of content message.", e);
         }
         String mimeTypeRaw = contentItem.getMimeTypeRawData();
-        mimeTypeRaw = guessMimeType(mimeTypeRaw, fileName, tmpPath);
+        mimeTypeRaw = guessMimeType(mimeTypeRaw, fileName, contentHead, tmpPath);
 
         if (!InputValidation.isMimeTypeClientSideSafe(mimeTypeRaw)) {
           throw new IngestException("Unsupported mime type.");
@@ -225,12 +231,30 @@ private String updateFileExtension(String mimeTypeRaw, String fileName) {
     return fileName;
   }
 
+  /**
+   * Copies incoming content to a temporary file. This is the only time the incoming stream is read;
+   * later steps read the temporary file, and its head is kept so that guessing the mime type does
+   * not need to read the file again.
+   *
+   * @return the first bytes of the content
+   */
+  private byte[] copyContent(InputStream inputStream, Path tmpPath) throws IOException {
+    byte[] head = new byte[CONTENT_HEAD_SIZE];
+    int headLength;
+    try (OutputStream outputStream = Files.newOutputStream(tmpPath)) {
+      headLength = IOUtils.read(inputStream, head);
+      outputStream.write(head, 0, headLength);
+      IOUtils.copyLarge(inputStream, outputStream);
+    }
+    return headLength < head.length ? Arrays.copyOf(head, headLength) : head;
+  }
+
   // package-private for unit testing
-  String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
+  String guessMimeType(String mimeTypeRaw, String fileName, byte[] contentHead, Path tmpContentPath)
       throws IOException {
     if (ContentItem.DEFAULT_MIME_TYPE.equals(mimeTypeRaw)) {
       try (InputStream inputStreamMessageCopy =
-          com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream()) {
+          new ContentHeadInputStream(contentHead, tmpContentPath)) {
         String mimeTypeGuess =
             frameworkProperties
                 .getMimeTypeMapper()
@@ -243,7 +267,8 @@ String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
       }
       if (ContentItem.DEFAULT_MIME_TYPE.equals(mimeTypeRaw)) {
         Detector detector = new DefaultProbDetector();
-        try (InputStream inputStreamMessageCopy = TikaInputStream.get(tmpContentPath)) {
+        try (InputStream inputStreamMessageCopy =
+            TikaInputStream.get(new ContentHeadInputStream(contentHead, tmpContentPath))) {
           MediaType mediaType = detector.detect(inputStreamMessageCopy, new Metadata());
           mimeTypeRaw = mediaType.toString();
         } catch (IOException e) {
@@ -252,7 +277,7 @@ String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
       }
       if (mimeTypeRaw.equals("text/plain")) {
         try (InputStream inputStreamMessageCopy =
-                com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream();
+                new ContentHeadInputStream(contentHead, tmpContentPath);
             BufferedReader bufferedReader =
                 new BufferedReader(
                     new InputStreamReader(inputStreamMessageCopy, Charset.forName("UTF-8")))) {
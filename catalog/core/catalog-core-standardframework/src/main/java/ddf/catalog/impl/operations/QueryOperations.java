@@ -13,6 +13,16 @@
  */
 package ddf.catalog.impl.operations;
 
+import static ddf.catalog.impl.operations.OperationMetrics.ACCESS;
+import static ddf.catalog.impl.operations.OperationMetrics.FEDERATION;
+import static ddf.catalog.impl.operations.OperationMetrics.POLICY;
+import static ddf.catalog.impl.operations.OperationMetrics.POST_PROCESSING;
+import static ddf.catalog.impl.operations.OperationMetrics.POST_QUERY;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_AUTHORIZATION;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_QUERY;
+import static ddf.catalog.impl.operations.OperationMetrics.QUERY;
+import static ddf.catalog.impl.operations.OperationMetrics.VALIDATION;
+
 import ddf.catalog.Constants;
 import ddf.catalog.core.versioning.DeletedMetacard;
 import ddf.catalog.core.versioning.MetacardVersion;
@@ -28,6 +38,7 @@
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.filter.FilterDelegate;
 import ddf.catalog.filter.delegate.TagsFilterDelegate;
+import ddf.catalog.impl.CatalogTracing;
 import ddf.catalog.impl.FrameworkProperties;
 import ddf.catalog.operation.Operation;
 import ddf.catalog.operation.ProcessingDetails;
@@ -62,6 +73,8 @@
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
 import ddf.security.permission.Permissions;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -181,20 +194,45 @@ QueryResponse query(
       boolean overrideFanoutRename,
       boolean fanoutEnabled)
       throws UnsupportedQueryException, FederationException {
+    Span span = CatalogTracing.getTracer().spanBuilder(CatalogTracing.QUERY_SPAN).startSpan();
+    try (Scope ignored = span.makeCurrent()) {
+      QueryResponse queryResponse =
+          executeQuery(queryRequest, strategy, overrideFanoutRename, fanoutEnabled);
+      addSpanAttributes(span, queryResponse);
+      return queryResponse;
+    } catch (UnsupportedQueryException | FederationException | RuntimeException e) {
+      CatalogTracing.recordFailure(span, e);
+      throw e;
+    } finally {
+      span.end();
+    }
+  }
+
+  private QueryResponse executeQuery(
+      QueryRequest queryRequest,
+      FederationStrategy strategy,
+      boolean overrideFanoutRename,
+      boolean fanoutEnabled)
+      throws UnsupportedQueryException, FederationException {
 
     FederationStrategy fedStrategy = strategy;
     QueryResponse queryResponse;
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
 
     queryRequest = setFlagsOnRequest(queryRequest);
 
     try {
+      long start = metrics.start();
       queryRequest = validateQueryRequest(queryRequest);
+      metrics.stop(start, QUERY, VALIDATION);
       queryRequest = getFanoutQuery(queryRequest, fanoutEnabled);
       queryRequest = preProcessPreAuthorizationPlugins(queryRequest);
       queryRequest = populateQueryRequestPolicyMap(queryRequest);
       queryRequest = processPreQueryAccessPlugins(queryRequest);
       queryRequest = processPreQueryPlugins(queryRequest);
+      start = metrics.start();
       queryRequest = validateQueryRequest(queryRequest);
+      metrics.stop(start, QUERY, VALIDATION);
 
       if (fedStrategy == null) {
         if (frameworkProperties.getFederationStrategy() == null) {
@@ -214,8 +252,10 @@ QueryResponse query(
       // may differ from the number of filtered results after processing plugins have been run.
       queryResponse.getProperties().put("actualResultSize", queryResponse.getResults().size());
       LOGGER.trace("BeforePostQueryFilter result size: {}", queryResponse.getResults().size());
+      start = metrics.start();
       queryResponse = injectAttributes(queryResponse);
       queryResponse = validateFixQueryResponse(queryResponse, overrideFanoutRename, fanoutEnabled);
+      metrics.stop(start, QUERY, POST_PROCESSING);
       queryResponse = postProcessPreAuthorizationPlugins(queryResponse);
       queryResponse = populateQueryResponsePolicyMap(queryResponse);
       queryResponse = processPostQueryAccessPlugins(queryResponse);
@@ -233,6 +273,18 @@ QueryResponse query(
     return queryResponse;
   }
 
+  private void addSpanAttributes(Span span, QueryResponse queryResponse) {
+    span.setAttribute(CatalogTracing.RESULT_COUNT, (long) queryResponse.getResults().size());
+    span.setAttribute(CatalogTracing.HITS, queryResponse.getHits());
+    if (queryResponse.getProcessingDetails() != null) {
+      span.setAttribute(
+          CatalogTracing.PROCESSING_ERRORS,
+          queryResponse.getProcessingDetails().stream()
+              .filter(details -> details.getException() != null)
+              .count());
+    }
+  }
+
   private void log(QueryResponse queryResponse) {
     LOGGER.trace("AfterPostQueryFilter result size: {}", queryResponse.getResults().size());
     LOGGER.trace("Total Hit count: {}", queryResponse.getHits());
@@ -305,8 +357,14 @@ QueryResponse doQuery(QueryRequest queryRequest, FederationStrategy strategy)
               queryRequest.getProperties());
     }
 
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
+    long start = metrics.start();
     QueryResponse response = strategy.federate(querySources.sourcesToQuery, queryRequest);
+    metrics.stop(start, QUERY, FEDERATION);
+
+    start = metrics.start();
     frameworkProperties.getQueryResponsePostProcessor().processResponse(response);
+    metrics.stop(start, QUERY, POST_PROCESSING);
     return addProcessingDetails(querySources.exceptions, response);
   }
 
@@ -426,13 +484,17 @@ boolean includesLocalSources(Set<String> sourceIds) {
 
   private QueryResponse processPostQueryPlugins(QueryResponse queryResponse)
       throws FederationException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PostQueryPlugin service : frameworkProperties.getPostQuery()) {
+      long start = metrics.start();
       try {
         queryResponse = service.process(queryResponse);
       } catch (PluginExecutionException see) {
         LOGGER.debug("Error executing PostQueryPlugin: {}", see.getMessage(), see);
       } catch (StopProcessingException e) {
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        metrics.stop(start, QUERY, POST_QUERY, service);
       }
     }
     return queryResponse;
@@ -440,11 +502,15 @@ private QueryResponse processPostQueryPlugins(QueryResponse queryResponse)
 
   private QueryResponse processPostQueryAccessPlugins(QueryResponse queryResponse)
       throws FederationException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = metrics.start();
       try {
         queryResponse = plugin.processPostQuery(queryResponse);
       } catch (StopProcessingException e) {
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        metrics.stop(start, QUERY, ACCESS, plugin);
       }
     }
     return queryResponse;
@@ -455,9 +521,11 @@ private QueryResponse populateQueryResponsePolicyMap(QueryResponse queryResponse
     HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
     Map<String, Serializable> unmodifiableProperties =
         Collections.unmodifiableMap(queryResponse.getProperties());
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (Result result : queryResponse.getResults()) {
       HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
       for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+        long start = metrics.start();
         try {
           PolicyResponse policyResponse = plugin.processPostQuery(result, unmodifiableProperties);
           opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
@@ -465,6 +533,8 @@ private QueryResponse populateQueryResponsePolicyMap(QueryResponse queryResponse
               responsePolicyMap, policyResponse.operationPolicy().entrySet());
         } catch (StopProcessingException e) {
           throw new FederationException(QUERY_FAILURE_MSG, e);
+        } finally {
+          metrics.stop(start, QUERY, POLICY, plugin);
         }
       }
       result.getMetacard().setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
@@ -475,13 +545,17 @@ private QueryResponse populateQueryResponsePolicyMap(QueryResponse queryResponse
   }
 
   private QueryRequest processPreQueryPlugins(QueryRequest queryReq) throws FederationException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreQueryPlugin service : frameworkProperties.getPreQuery()) {
+      long start = metrics.start();
       try {
         queryReq = service.process(queryReq);
       } catch (PluginExecutionException see) {
         LOGGER.debug("Error executing PreQueryPlugin: {}", see.getMessage(), see);
       } catch (StopProcessingException e) {
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        metrics.stop(start, QUERY, PRE_QUERY, service);
       }
     }
     return queryReq;
@@ -489,11 +563,15 @@ private QueryRequest processPreQueryPlugins(QueryRequest queryReq) throws Federa
 
   private QueryRequest processPreQueryAccessPlugins(QueryRequest queryReq)
       throws FederationException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = metrics.start();
       try {
         queryReq = plugin.processPreQuery(queryReq);
       } catch (StopProcessingException e) {
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        metrics.stop(start, QUERY, ACCESS, plugin);
       }
     }
     return queryReq;
@@ -501,11 +579,15 @@ private QueryRequest processPreQueryAccessPlugins(QueryRequest queryReq)
 
   private QueryRequest preProcessPreAuthorizationPlugins(QueryRequest queryRequest)
       throws FederationException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = metrics.start();
       try {
         queryRequest = plugin.processPreQuery(queryRequest);
       } catch (StopProcessingException e) {
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        metrics.stop(start, QUERY, PRE_AUTHORIZATION, plugin);
       }
     }
     return queryRequest;
@@ -513,11 +595,15 @@ private QueryRequest preProcessPreAuthorizationPlugins(QueryRequest queryRequest
 
   private QueryResponse postProcessPreAuthorizationPlugins(QueryResponse queryResponse)
       throws FederationException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = metrics.start();
       try {
         queryResponse = plugin.processPostQuery(queryResponse);
       } catch (StopProcessingException e) {
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        metrics.stop(start, QUERY, PRE_AUTHORIZATION, plugin);
       }
     }
     return queryResponse;
@@ -528,7 +614,9 @@ private QueryRequest populateQueryRequestPolicyMap(QueryRequest queryReq)
     HashMap<String, Set<String>> requestPolicyMap = new HashMap<>();
     Map<String, Serializable> unmodifiableProperties =
         Collections.unmodifiableMap(queryReq.getProperties());
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+      long start = metrics.start();
       try {
         PolicyResponse policyResponse =
             plugin.processPreQuery(queryReq.getQuery(), unmodifiableProperties);
@@ -536,6 +624,8 @@ private QueryRequest populateQueryRequestPolicyMap(QueryRequest queryReq)
             requestPolicyMap, policyResponse.operationPolicy().entrySet());
       } catch (StopProcessingException e) {
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        metrics.stop(start, QUERY, POLICY, plugin);
       }
     }
     queryReq.getProperties().put(PolicyPlugin.OPERATION_SECURITY, requestPolicyMap);
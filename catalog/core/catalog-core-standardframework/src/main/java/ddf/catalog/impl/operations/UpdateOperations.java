@@ -14,6 +14,18 @@
 package ddf.catalog.impl.operations;
 
 import static ddf.catalog.Constants.CONTENT_PATHS;
+import static ddf.catalog.Constants.CONTENT_PATH_ITEMS;
+import static ddf.catalog.impl.operations.OperationMetrics.ACCESS;
+import static ddf.catalog.impl.operations.OperationMetrics.POLICY;
+import static ddf.catalog.impl.operations.OperationMetrics.POST_INGEST;
+import static ddf.catalog.impl.operations.OperationMetrics.POST_STORAGE;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_AUTHORIZATION;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_INGEST;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_STORAGE;
+import static ddf.catalog.impl.operations.OperationMetrics.PROVIDER;
+import static ddf.catalog.impl.operations.OperationMetrics.STORAGE;
+import static ddf.catalog.impl.operations.OperationMetrics.UPDATE;
+import static ddf.catalog.impl.operations.OperationMetrics.VALIDATION;
 
 import com.google.common.collect.Iterables;
 import ddf.catalog.Constants;
@@ -171,6 +183,7 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
         streamUpdateRequest.getContentItems(), metacardMap, contentItems, tmpContentPaths);
 
     streamUpdateRequest.getProperties().put(CONTENT_PATHS, tmpContentPaths);
+    streamUpdateRequest.getProperties().put(CONTENT_PATH_ITEMS, new ArrayList<>(contentItems));
 
     streamUpdateRequest = applyAttributeOverrides(streamUpdateRequest, metacardMap);
 
@@ -181,11 +194,15 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
                 contentItems, streamUpdateRequest.getId(), streamUpdateRequest.getProperties());
         updateStorageRequest = processPreUpdateStoragePlugins(updateStorageRequest);
 
+        OperationMetrics metrics = frameworkProperties.getOperationMetrics();
+        long start = metrics.start();
         try {
           updateStorageResponse = sourceOperations.getStorage().update(updateStorageRequest);
           updateStorageResponse.getProperties().put(CONTENT_PATHS, tmpContentPaths);
         } catch (StorageException e) {
           throw new IngestException("Could not store content items. Removed created metacards.", e);
+        } finally {
+          metrics.stop(start, UPDATE, STORAGE);
         }
 
         updateStorageResponse = processPostUpdateStoragePlugins(updateStorageResponse);
@@ -243,9 +260,12 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
   //
   private UpdateResponse doUpdate(UpdateRequest updateRequest)
       throws IngestException, SourceUnavailableException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     updateRequest = queryOperations.setFlagsOnRequest(updateRequest);
+    long start = metrics.start();
     updateRequest = validateUpdateRequest(updateRequest);
     updateRequest = validateLocalSource(updateRequest);
+    metrics.stop(start, UPDATE, VALIDATION);
 
     try {
       updateRequest = injectAttributes(updateRequest);
@@ -258,12 +278,16 @@ private UpdateResponse doUpdate(UpdateRequest updateRequest)
       updateRequest = processPreUpdateAccessPlugins(updateRequest);
 
       updateRequest = processPreIngestPlugins(updateRequest);
+      start = metrics.start();
       updateRequest = validateUpdateRequest(updateRequest);
+      metrics.stop(start, UPDATE, VALIDATION);
 
       // Call the update on the catalog
       LOGGER.debug("Calling catalog.update() with {} updates.", updateRequest.getUpdates().size());
 
+      start = metrics.start();
       UpdateResponse updateResponse = performLocalUpdate(updateRequest);
+      metrics.stop(start, UPDATE, PROVIDER);
       updateResponse = performRemoteUpdate(updateRequest, updateResponse);
 
       // Handle the posting of messages to pubsub
@@ -473,11 +497,15 @@ private UpdateResponse validateFixUpdateResponse(
   }
 
   private UpdateResponse processPostIngestPlugins(UpdateResponse updateResponse) {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      long start = metrics.start();
       try {
         updateResponse = plugin.process(updateResponse);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin exception", e);
+      } finally {
+        metrics.stop(start, UPDATE, POST_INGEST, plugin);
       }
     }
     return updateResponse;
@@ -511,11 +539,15 @@ private UpdateResponse performLocalUpdate(UpdateRequest updateRequest)
 
   private UpdateRequest processPreIngestPlugins(UpdateRequest updateRequest)
       throws StopProcessingException {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      long start = metrics.start();
       try {
         updateRequest = plugin.process(updateRequest);
       } catch (PluginExecutionException e) {
         LOGGER.debug("error processing update in PreIngestPlugin", e);
+      } finally {
+        metrics.stop(start, UPDATE, PRE_INGEST, plugin);
       }
     }
     return updateRequest;
@@ -524,8 +556,14 @@ private UpdateRequest processPreIngestPlugins(UpdateRequest updateRequest)
   private UpdateRequest processPreUpdateAccessPlugins(UpdateRequest updateRequest)
       throws StopProcessingException {
     Map<String, Metacard> metacardMap = getUpdateMap(updateRequest);
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      long start = metrics.start();
+      try {
+        updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      } finally {
+        metrics.stop(start, UPDATE, ACCESS, plugin);
+      }
     }
     return updateRequest;
   }
@@ -534,18 +572,26 @@ private UpdateRequest populateUpdateRequestPolicyMap(UpdateRequest updateRequest
       throws StopProcessingException {
     Map<String, Metacard> metacardMap = getUpdateMap(updateRequest);
     HashMap<String, Set<String>> requestPolicyMap = new HashMap<>();
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (Map.Entry<Serializable, Metacard> update : updateRequest.getUpdates()) {
       HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
       HashMap<String, Set<String>> oldItemPolicyMap = new HashMap<>();
       Metacard oldMetacard = metacardMap.get(update.getKey().toString());
 
       for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-        PolicyResponse updatePolicyResponse =
-            plugin.processPreUpdate(
-                update.getValue(), Collections.unmodifiableMap(updateRequest.getProperties()));
-        PolicyResponse oldPolicyResponse =
-            plugin.processPreUpdate(
-                oldMetacard, Collections.unmodifiableMap(updateRequest.getProperties()));
+        long start = metrics.start();
+        PolicyResponse updatePolicyResponse;
+        PolicyResponse oldPolicyResponse;
+        try {
+          updatePolicyResponse =
+              plugin.processPreUpdate(
+                  update.getValue(), Collections.unmodifiableMap(updateRequest.getProperties()));
+          oldPolicyResponse =
+              plugin.processPreUpdate(
+                  oldMetacard, Collections.unmodifiableMap(updateRequest.getProperties()));
+        } finally {
+          metrics.stop(start, UPDATE, POLICY, plugin);
+        }
 
         opsSecuritySupport.buildPolicyMap(
             itemPolicyMap, updatePolicyResponse.itemPolicy().entrySet());
@@ -604,8 +650,14 @@ private UpdateRequest populateMetacards(UpdateRequest updateRequest) throws Inge
   private UpdateRequest processPreAuthorizationPlugins(UpdateRequest updateRequest)
       throws StopProcessingException {
     Map<String, Metacard> metacardMap = getUpdateMap(updateRequest);
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      long start = metrics.start();
+      try {
+        updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      } finally {
+        metrics.stop(start, UPDATE, PRE_AUTHORIZATION, plugin);
+      }
     }
     return updateRequest;
   }
@@ -650,11 +702,15 @@ private UpdateRequest validateLocalSource(UpdateRequest updateRequest)
 
   private UpdateStorageResponse processPostUpdateStoragePlugins(
       UpdateStorageResponse updateStorageResponse) {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (final PostUpdateStoragePlugin plugin : frameworkProperties.getPostUpdateStoragePlugins()) {
+      long start = metrics.start();
       try {
         updateStorageResponse = plugin.process(updateStorageResponse);
       } catch (PluginExecutionException e) {
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        metrics.stop(start, UPDATE, POST_STORAGE, plugin);
       }
     }
     return updateStorageResponse;
@@ -662,11 +718,15 @@ private UpdateStorageResponse processPostUpdateStoragePlugins(
 
   private UpdateStorageRequest processPreUpdateStoragePlugins(
       UpdateStorageRequest updateStorageRequest) {
+    OperationMetrics metrics = frameworkProperties.getOperationMetrics();
     for (final PreUpdateStoragePlugin plugin : frameworkProperties.getPreUpdateStoragePlugins()) {
+      long start = metrics.start();
       try {
         updateStorageRequest = plugin.process(updateStorageRequest);
       } catch (PluginExecutionException e) {
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        metrics.stop(start, UPDATE, PRE_STORAGE, plugin);
       }
     }
     return updateStorageRequest;
@@ -15,6 +15,7 @@
 
 import com.google.common.base.Stopwatch;
 import ddf.catalog.cache.impl.CacheKey;
+import ddf.catalog.cache.impl.ResourceCacheImpl;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.event.retrievestatus.DownloadStatusInfo;
 import ddf.catalog.operation.ResourceRequest;
@@ -108,10 +109,15 @@ public ResourceResponse download(
     }
 
     if (downloaderConfig.isCacheEnabled()) {
-      Resource cachedResource =
-          downloaderConfig
-              .getResourceCache()
-              .getValid(new CacheKey(metacard, resourceRequest).generateKey(), metacard);
+      ResourceCacheImpl resourceCache = downloaderConfig.getResourceCache();
+      String key = new CacheKey(metacard, resourceRequest).generateKey();
+      Resource cachedResource = resourceCache.getValid(key, metacard);
+      if (cachedResource == null
+          && resourceCache.isPending(key)
+          && resourceCache.awaitPending(key)) {
+        // Another request is already caching this product, use its copy once it is complete
+        cachedResource = resourceCache.getValid(key, metacard);
+      }
       if (cachedResource != null) {
         resourceResponse =
             new ResourceResponseImpl(
@@ -183,6 +189,14 @@ public void setProductCacheDirectory(String productCacheDirectory) {
     this.downloaderConfig.getResourceCache().setProductCacheDirectory(productCacheDirectory);
   }
 
+  public void setMaxCacheDirSizeMegabytes(long maxCacheDirSizeMegabytes) {
+    this.downloaderConfig.getResourceCache().setMaxCacheDirSizeMegabytes(maxCacheDirSizeMegabytes);
+  }
+
+  public void setPendingCacheWait(long pendingCacheWait) {
+    this.downloaderConfig.getResourceCache().setPendingWaitSeconds(pendingCacheWait);
+  }
+
   public List<DownloadInfo> getDownloadsInProgress() {
     List<DownloadInfo> downloadsInProgress = new ArrayList<>();
     for (String downloadIdentifier : downloadStatusInfo.getAllDownloads()) {
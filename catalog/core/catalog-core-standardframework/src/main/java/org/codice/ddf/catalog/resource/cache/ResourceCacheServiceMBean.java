@@ -47,4 +47,32 @@ public interface ResourceCacheServiceMBean {
    * @return {@code true} if the resource is in the cache, {@code false} otherwise.
    */
   boolean containsById(String metacardId);
+
+  /**
+   * Gets the number of product retrievals that were served from the resource cache.
+   *
+   * @return the number of cache hits
+   */
+  long getCacheHits();
+
+  /**
+   * Gets the number of product retrievals that could not be served from the resource cache.
+   *
+   * @return the number of cache misses
+   */
+  long getCacheMisses();
+
+  /**
+   * Gets the number of products removed from the resource cache to keep it within its size limit.
+   *
+   * @return the number of evictions
+   */
+  long getCacheEvictions();
+
+  /**
+   * Gets the total size of the products in the resource cache.
+   *
+   * @return the size of the cached products in bytes
+   */
+  long getCacheSizeBytes();
 }
@@ -58,6 +58,8 @@ public class ResourceCacheService implements ResourceCacheServiceMBean {
 
   private final CatalogFramework catalogFramework;
 
+  private final ddf.catalog.cache.impl.ResourceCacheImpl productCache;
+
   public ResourceCacheService(
       MBeanServer mBeanServer,
       ResourceCache resourceCache,
@@ -65,6 +67,18 @@ public ResourceCacheService(
       FrameworkProperties frameworkProperties,
       CatalogFramework catalogFramework)
       throws MalformedObjectNameException {
+    this(mBeanServer, resourceCache, downloadManager, frameworkProperties, catalogFramework, null);
+  }
+
+  public ResourceCacheService(
+      MBeanServer mBeanServer,
+      ResourceCache resourceCache,
+      ReliableResourceDownloadManager downloadManager,
+      FrameworkProperties frameworkProperties,
+      CatalogFramework catalogFramework,
+      ddf.catalog.cache.impl.ResourceCacheImpl productCache)
+      throws MalformedObjectNameException {
+    this.productCache = productCache;
     this.mBeanServer = mBeanServer;
     this.resourceCache = resourceCache;
     this.downloadManager = downloadManager;
@@ -103,6 +117,26 @@ public boolean containsById(String metacardId) {
         : false;
   }
 
+  @Override
+  public long getCacheHits() {
+    return productCache == null ? 0L : productCache.getHitCount();
+  }
+
+  @Override
+  public long getCacheMisses() {
+    return productCache == null ? 0L : productCache.getMissCount();
+  }
+
+  @Override
+  public long getCacheEvictions() {
+    return productCache == null ? 0L : productCache.getEvictionCount();
+  }
+
+  @Override
+  public long getCacheSizeBytes() {
+    return productCache == null ? 0L : productCache.getCacheDirSizeBytes();
+  }
+
   private Optional<Metacard> queryForMetacard(String metacardId) {
     Filter filter =
         frameworkProperties
@@ -29,9 +29,12 @@
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.Optional;
 import javax.activation.MimeType;
 import org.apache.commons.io.FileUtils;
@@ -76,6 +79,7 @@ public void setUp() throws IOException, URISyntaxException {
     defaultProductCacheDirectory.toFile().mkdirs();
 
     resourceCache = new ResourceCacheImpl();
+    resourceCache.setProductCacheDirectory(defaultProductCacheDirectory.toString());
 
     newResourceCache =
         new org.codice.ddf.catalog.resource.cache.impl.ResourceCacheImpl(resourceCache);
@@ -97,10 +101,12 @@ public void testPutThenGet() throws URISyntaxException {
     Metacard metacard = generateMetacard();
     ReliableResource reliableResource = createCachedResource(metacard);
     resourceCache.addPendingCacheEntry(reliableResource);
-    assertFalse("cache should be noop", resourceCache.isPending(CACHED_RESOURCE_KEY));
+    assertTrue(resourceCache.isPending(CACHED_RESOURCE_KEY));
     resourceCache.put(reliableResource);
-    assertNull("cache should be noop", resourceCache.getValid(CACHED_RESOURCE_KEY, metacard));
-    assertFalse("cache should be noop", resourceCache.isPending(CACHED_RESOURCE_KEY));
+    assertTrue(
+        assertReliableResourceEquals(
+            reliableResource, resourceCache.getValid(CACHED_RESOURCE_KEY, metacard)));
+    assertFalse(resourceCache.isPending(CACHED_RESOURCE_KEY));
   }
 
   /**
@@ -112,8 +118,10 @@ public void testPutThenGetNotPending() throws URISyntaxException {
     ReliableResource reliableResource = createCachedResource(metacard);
 
     resourceCache.put(reliableResource);
-    assertFalse("cache should be noop", resourceCache.isPending(CACHED_RESOURCE_KEY));
-    assertNull("cache should be noop", resourceCache.getValid(CACHED_RESOURCE_KEY, metacard));
+    assertFalse(resourceCache.isPending(CACHED_RESOURCE_KEY));
+    assertTrue(
+        assertReliableResourceEquals(
+            reliableResource, resourceCache.getValid(CACHED_RESOURCE_KEY, metacard)));
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -133,10 +141,181 @@ public void testGetValidWhenNoProductInCache() {
    * cache entry is removed.
    */
   @Test
-  public void testGetValidWhenNoProductInCacheDirectory() {
-    String key = CACHED_RESOURCE_KEY;
-    MetacardImpl metacard = new MetacardImpl();
-    assertNull(resourceCache.getValid(key, metacard));
+  public void testGetValidWhenNoProductInCacheDirectory() throws URISyntaxException, IOException {
+    MetacardImpl metacard = generateMetacard();
+    Path productFile = simulateAddFileToCacheDir("10bytes.txt");
+    resourceCache.put(
+        new ReliableResource(CACHED_RESOURCE_KEY, productFile.toString(), null, "name", metacard));
+    assertThat(resourceCache.getEntryCount(), is(1));
+
+    productFile.toFile().delete();
+
+    assertNull(resourceCache.getValid(CACHED_RESOURCE_KEY, metacard));
+    assertThat(resourceCache.getEntryCount(), is(0));
+  }
+
+  @Test
+  public void testGetValidWhenMetacardModified() throws URISyntaxException, IOException {
+    MetacardImpl metacard = generateMetacard();
+    Path productFile = simulateAddFileToCacheDir("10bytes.txt");
+    resourceCache.put(
+        new ReliableResource(CACHED_RESOURCE_KEY, productFile.toString(), null, "name", metacard));
+
+    MetacardImpl latestMetacard = generateMetacard();
+    latestMetacard.setModifiedDate(new Date());
+
+    assertNull(resourceCache.getValid(CACHED_RESOURCE_KEY, latestMetacard));
+    assertFalse(productFile.toFile().exists());
+  }
+
+  @Test
+  public void testGetValidWhenChecksumChanged() throws URISyntaxException, IOException {
+    MetacardImpl metacard = generateMetacard();
+    Path productFile = simulateAddFileToCacheDir("10bytes.txt");
+    resourceCache.put(
+        new ReliableResource(CACHED_RESOURCE_KEY, productFile.toString(), null, "name", metacard));
+
+    MetacardImpl latestMetacard = generateMetacard();
+    latestMetacard.setAttribute(Metacard.CHECKSUM, "2");
+
+    assertNull(resourceCache.getValid(CACHED_RESOURCE_KEY, latestMetacard));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryEvicted() throws URISyntaxException, IOException {
+    resourceCache.setMaxCacheDirSizeMegabytes(1);
+    MetacardImpl metacard = generateMetacard();
+    Path first = createCacheFile("first", 400 * 1024);
+    Path second = createCacheFile("second", 400 * 1024);
+    Path third = createCacheFile("third", 400 * 1024);
+
+    resourceCache.put(new ReliableResource("first", first.toString(), null, "first", metacard));
+    resourceCache.put(new ReliableResource("second", second.toString(), null, "second", metacard));
+    assertThat(resourceCache.containsValid("first", metacard), is(true));
+    resourceCache.put(new ReliableResource("third", third.toString(), null, "third", metacard));
+
+    assertThat(resourceCache.containsValid("first", metacard), is(true));
+    assertThat(resourceCache.containsValid("second", metacard), is(false));
+    assertThat(resourceCache.containsValid("third", metacard), is(true));
+    assertFalse(second.toFile().exists());
+    assertThat(resourceCache.getEvictionCount(), is(1L));
+    assertThat(resourceCache.getCacheDirSizeBytes(), is(800L * 1024));
+  }
+
+  @Test
+  public void testProductLargerThanCacheNotCached() throws URISyntaxException, IOException {
+    resourceCache.setMaxCacheDirSizeMegabytes(1);
+    MetacardImpl metacard = generateMetacard();
+    Path product = createCacheFile("large", 2 * 1024 * 1024);
+
+    resourceCache.put(new ReliableResource("large", product.toString(), null, "large", metacard));
+
+    assertThat(resourceCache.containsValid("large", metacard), is(false));
+    assertFalse(product.toFile().exists());
+  }
+
+  @Test
+  public void testCacheEntriesSurviveRestart() throws URISyntaxException, IOException {
+    MetacardImpl metacard = generateMetacard();
+    Path productFile = simulateAddFileToCacheDir("10bytes.txt");
+    resourceCache.put(
+        new ReliableResource(CACHED_RESOURCE_KEY, productFile.toString(), null, "name", metacard));
+    resourceCache.teardownCache();
+
+    ResourceCacheImpl restartedCache = new ResourceCacheImpl();
+    restartedCache.setProductCacheDirectory(defaultProductCacheDirectory.toString());
+
+    assertThat(restartedCache.containsValid(CACHED_RESOURCE_KEY, metacard), is(true));
+    assertThat(restartedCache.getCacheDirSizeBytes(), is(10L));
+  }
+
+  @Test
+  public void testCacheEntriesSurviveRestartWithoutTeardown()
+      throws URISyntaxException, IOException {
+    MetacardImpl metacard = generateMetacard();
+    resourceCache.put(
+        new ReliableResource(
+            "first", createCacheFile("first", 10).toString(), null, "first", metacard));
+    resourceCache.put(
+        new ReliableResource(
+            "second", createCacheFile("second", 20).toString(), null, "second", metacard));
+    MetacardImpl modifiedMetacard = generateMetacard();
+    modifiedMetacard.setModifiedDate(new Date());
+    assertThat(resourceCache.containsValid("first", modifiedMetacard), is(false));
+
+    ResourceCacheImpl restartedCache = new ResourceCacheImpl();
+    restartedCache.setProductCacheDirectory(defaultProductCacheDirectory.toString());
+
+    assertThat(restartedCache.containsValid("first", metacard), is(false));
+    assertThat(restartedCache.containsValid("second", metacard), is(true));
+    assertThat(restartedCache.getCacheDirSizeBytes(), is(20L));
+  }
+
+  @Test
+  public void testAwaitPendingWhileDownloadProgresses() throws Exception {
+    MetacardImpl metacard = generateMetacard();
+    Path productFile = createCacheFile(CACHED_RESOURCE_KEY, 0);
+    ReliableResource reliableResource =
+        new ReliableResource(CACHED_RESOURCE_KEY, productFile.toString(), null, "name", metacard);
+    resourceCache.setPendingWaitSeconds(1);
+    resourceCache.addPendingCacheEntry(reliableResource);
+
+    // Takes longer than the pending wait time, but keeps writing to the product file
+    Thread downloader =
+        new Thread(
+            () -> {
+              try {
+                for (int i = 0; i < 12; i++) {
+                  Files.write(productFile, new byte[10], StandardOpenOption.APPEND);
+                  Thread.sleep(250);
+                }
+              } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+              resourceCache.put(reliableResource);
+            });
+    downloader.start();
+
+    assertTrue(resourceCache.awaitPending(CACHED_RESOURCE_KEY));
+    assertTrue(resourceCache.containsValid(CACHED_RESOURCE_KEY, metacard));
+    downloader.join();
+  }
+
+  @Test
+  public void testHitAndMissCounts() throws URISyntaxException {
+    MetacardImpl metacard = generateMetacard();
+    resourceCache.put(createCachedResource(metacard));
+
+    resourceCache.getValid(CACHED_RESOURCE_KEY, metacard);
+    resourceCache.getValid(CACHED_RESOURCE_KEY, metacard);
+    resourceCache.getValid("not-cached", metacard);
+
+    assertThat(resourceCache.getHitCount(), is(2L));
+    assertThat(resourceCache.getMissCount(), is(1L));
+  }
+
+  @Test
+  public void testAwaitPendingReturnsWhenPutCompletes() throws Exception {
+    MetacardImpl metacard = generateMetacard();
+    ReliableResource reliableResource = createCachedResource(metacard);
+    resourceCache.setPendingWaitSeconds(30);
+    resourceCache.addPendingCacheEntry(reliableResource);
+
+    Thread downloader = new Thread(() -> resourceCache.put(reliableResource));
+    downloader.start();
+
+    assertTrue(resourceCache.awaitPending(CACHED_RESOURCE_KEY));
+    assertTrue(resourceCache.containsValid(CACHED_RESOURCE_KEY, metacard));
+    downloader.join();
+  }
+
+  @Test
+  public void testAwaitPendingTimesOut() throws URISyntaxException {
+    resourceCache.setPendingWaitSeconds(0);
+    resourceCache.addPendingCacheEntry(createCachedResource(generateMetacard()));
+
+    assertFalse(resourceCache.awaitPending(CACHED_RESOURCE_KEY));
+    assertTrue(resourceCache.isPending(CACHED_RESOURCE_KEY));
   }
 
   @Test
@@ -144,8 +323,7 @@ public void testValidationEqualMetacards() throws URISyntaxException {
     MetacardImpl metacard = generateMetacard();
     MetacardImpl metacard1 = generateMetacard();
     ReliableResource cachedResource = new ReliableResource("key", "", null, null, metacard);
-    assertFalse(
-        "cache should be noop", resourceCache.validateCacheEntry(cachedResource, metacard1));
+    assertTrue(resourceCache.validateCacheEntry(cachedResource, metacard1));
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -181,8 +359,8 @@ public void testValidationNotEqual() throws URISyntaxException, IOException {
     ReliableResource cachedResource =
         new ReliableResource(
             cachedResourceMetacardKey, cachedResourceFilePath.toString(), null, null, metacard);
-    resourceCache.validateCacheEntry(cachedResource, metacard1);
-    assertTrue("cache should be noop", cachedResourceFile.exists());
+    assertFalse(resourceCache.validateCacheEntry(cachedResource, metacard1));
+    assertTrue(cachedResourceFile.exists());
   }
 
   @Test
@@ -191,8 +369,9 @@ public void testContainsTrueValid() throws URISyntaxException {
     MetacardImpl latestMetacard = generateMetacard();
 
     String cacheKey = "cacheKey1";
-    resourceCache.put(new ReliableResource(cacheKey, "", null, "name", cachedMetacard));
-    assertFalse("cache should be noop", resourceCache.containsValid(cacheKey, latestMetacard));
+    String filePath = createCachedResource(cachedMetacard).getFilePath();
+    resourceCache.put(new ReliableResource(cacheKey, filePath, null, "name", cachedMetacard));
+    assertTrue(resourceCache.containsValid(cacheKey, latestMetacard));
   }
 
   @Test
@@ -223,10 +402,8 @@ public void testContainsTrueInvalid() throws URISyntaxException, IOException {
             null,
             "name",
             cachedMetacard));
-    assertFalse(
-        "cache should be noop",
-        resourceCache.containsValid(cachedResourceMetacardKey, latestMetacard));
-    assertTrue("cache should be noop", cachedResourceFile.exists());
+    assertFalse(resourceCache.containsValid(cachedResourceMetacardKey, latestMetacard));
+    assertFalse(cachedResourceFile.exists());
   }
 
   @Test
@@ -274,7 +451,8 @@ public void getDefaultResourceInCache() {
     ReliableResource cachedResource = createCachedResource(cachedMetacard);
     resourceCache.put(cachedResource);
     Optional<Resource> optionalResource = newResourceCache.get(cachedMetacard);
-    assertFalse("cache should be noop", optionalResource.isPresent());
+    assertTrue(optionalResource.isPresent());
+    assertTrue(assertReliableResourceEquals(cachedResource, optionalResource.get()));
   }
 
   @Test
@@ -283,7 +461,8 @@ public void getSpecificResourceInCache() {
     resourceCache.put(cachedResource);
     Optional<Resource> optionalResource =
         newResourceCache.get(cachedMetacard, new ResourceRequestById(METACARD_ID));
-    assertFalse("cache should be noop", optionalResource.isPresent());
+    assertTrue(optionalResource.isPresent());
+    assertTrue(assertReliableResourceEquals(cachedResource, optionalResource.get()));
   }
 
   @Test
@@ -305,7 +484,7 @@ public void getSpecificResourceNotInCache() {
   public void containsDefaultResourceInCache() {
     ReliableResource cachedResource = createCachedResource(cachedMetacard);
     resourceCache.put(cachedResource);
-    assertThat("cache should be noop", newResourceCache.contains(cachedMetacard), is(false));
+    assertThat(newResourceCache.contains(cachedMetacard), is(true));
   }
 
   @Test
@@ -313,9 +492,8 @@ public void containsSpecificResourceInCache() {
     ReliableResource cachedResource = createCachedResource(cachedMetacard);
     resourceCache.put(cachedResource);
     assertThat(
-        "cache should be noop",
         newResourceCache.contains(cachedMetacard, new ResourceRequestById(METACARD_ID)),
-        is(false));
+        is(true));
   }
 
   @Test
@@ -346,11 +524,17 @@ private ReliableResource createCachedResource(Metacard metacard) {
         CACHED_RESOURCE_KEY, rrCachedFile.getAbsolutePath(), new MimeType(), fileName, metacard);
   }
 
-  private void simulateAddFileToCacheDir(String fileName) throws IOException {
+  private Path simulateAddFileToCacheDir(String fileName) throws IOException {
     String originalFilePath = this.getClass().getResource("/" + fileName).getFile();
-    String destinationFilePath =
-        Paths.get(defaultProductCacheDirectory.toString(), fileName).toString();
-    FileUtils.copyFile(new File(originalFilePath), new File(destinationFilePath));
+    Path destinationFilePath = Paths.get(defaultProductCacheDirectory.toString(), fileName);
+    FileUtils.copyFile(new File(originalFilePath), destinationFilePath.toFile());
+    return destinationFilePath;
+  }
+
+  private Path createCacheFile(String fileName, int size) throws IOException {
+    Path file = Paths.get(defaultProductCacheDirectory.toString(), fileName);
+    Files.write(file, new byte[size]);
+    return file;
   }
 
   private MetacardImpl generateMetacard() throws URISyntaxException {
@@ -69,6 +69,7 @@ public void setUp() throws IOException {
     testDownloadStatusInfo = new DownloadStatusInfoImpl();
     testDownloadStatusInfo.setSubjectOperations(new SubjectUtils());
     ResourceCacheImpl testResourceCache = new ResourceCacheImpl();
+    testResourceCache.setProductCacheDirectory(productCacheDir);
     DownloadsStatusEventPublisher testEventPublisher = mock(DownloadsStatusEventPublisher.class);
     DownloadsStatusEventListener testEventListener = new DownloadsStatusEventListener();
     downloaderConfig.setResourceCache(testResourceCache);
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.impl.QueryImpl;
+import java.util.Set;
+import org.geotools.filter.NullFilterImpl;
+import org.junit.Test;
+import org.opengis.filter.sort.SortBy;
+
+public class PagingTokenTest {
+
+  private static final Set<String> SOURCE_IDS = ImmutableSet.of("source a", "source=b,c;");
+
+  private static final String CANONICAL_QUERY = "title like foo\nmodified DESC";
+
+  @Test
+  public void testEncodeAndParse() {
+    PagingToken token =
+        PagingToken.start(CANONICAL_QUERY, 11, SOURCE_IDS)
+            .advance(11, ImmutableMap.of("source a", 4, "source=b,c;", 6));
+
+    PagingToken parsed = PagingToken.parse(token.encode());
+
+    assertThat(parsed.getStartIndex(), is(11));
+    assertThat(parsed.getSourceOffset("source a"), is(4));
+    assertThat(parsed.getSourceOffset("source=b,c;"), is(6));
+    assertThat(parsed.continues(getQuery(11, 10), CANONICAL_QUERY, SOURCE_IDS), is(true));
+  }
+
+  @Test
+  public void testAdvanceAccumulatesOffsets() {
+    PagingToken token =
+        PagingToken.start(CANONICAL_QUERY, 11, SOURCE_IDS)
+            .advance(11, ImmutableMap.of("source a", 4))
+            .advance(21, ImmutableMap.of("source a", 3, "source=b,c;", 7));
+
+    assertThat(token.getStartIndex(), is(21));
+    assertThat(token.getSourceOffset("source a"), is(7));
+    assertThat(token.getSourceOffset("source=b,c;"), is(7));
+  }
+
+  @Test
+  public void testDoesNotContinueDifferentStartIndex() {
+    PagingToken token = PagingToken.start(CANONICAL_QUERY, 11, SOURCE_IDS);
+
+    assertThat(token.continues(getQuery(21, 10), CANONICAL_QUERY, SOURCE_IDS), is(false));
+  }
+
+  @Test
+  public void testDoesNotContinueDifferentSources() {
+    PagingToken token = PagingToken.start(CANONICAL_QUERY, 11, SOURCE_IDS);
+
+    assertThat(
+        token.continues(getQuery(11, 10), CANONICAL_QUERY, ImmutableSet.of("source a")),
+        is(false));
+    assertThat(
+        token.continues(
+            getQuery(11, 10),
+            CANONICAL_QUERY,
+            ImmutableSet.of("source a", "source=b,c;", "source d")),
+        is(false));
+  }
+
+  @Test
+  public void testDoesNotContinueDifferentFilter() {
+    PagingToken token = PagingToken.start(CANONICAL_QUERY, 11, SOURCE_IDS);
+
+    assertThat(
+        token.continues(getQuery(11, 10), "title like bar\nmodified DESC", SOURCE_IDS),
+        is(false));
+    assertThat(
+        token.continues(getQuery(11, 10), "title like foo\nmodified ASC", SOURCE_IDS),
+        is(false));
+  }
+
+  @Test
+  public void testParseInvalidToken() {
+    assertThat(PagingToken.parse(null), is(nullValue()));
+    assertThat(PagingToken.parse(""), is(nullValue()));
+    assertThat(PagingToken.parse("not a token!"), is(nullValue()));
+    assertThat(PagingToken.parse("bm90O2F0b2tlbg"), is(nullValue()));
+  }
+
+  private Query getQuery(int startIndex, int pageSize) {
+    return new QueryImpl(
+        mock(NullFilterImpl.class), startIndex, pageSize, SortBy.NATURAL_ORDER, true, 1000);
+  }
+}
@@ -14,23 +14,36 @@
 package ddf.catalog.federation.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.MoreExecutors;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.impl.CatalogTracing;
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
@@ -40,11 +53,18 @@
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PostFederatedQueryPlugin;
 import ddf.catalog.plugin.PreFederatedQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.source.Source;
 import ddf.catalog.source.UnsupportedQueryException;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.junit4.OpenTelemetryRule;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -56,25 +76,34 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import org.geotools.filter.NullFilterImpl;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SortedFederationStrategyTest {
 
   private static final long LONG_TIMEOUT = 1000;
 
+  private static final long SHORT_TIMEOUT = 100;
+
   /** Constant to test contract of source latency prefix. */
   private static final String METRICS_SOURCE_ELAPSED_PREFIX = "metrics.source.elapsed.";
 
+  @Rule public final OpenTelemetryRule openTelemetry = OpenTelemetryRule.create();
+
   private ExecutorService queryExecutor;
 
   @Mock private Query mockQuery;
@@ -239,7 +268,8 @@ public void testStartIndexGreaterThanMaxStartIndex() throws Exception {
             any(Map.class),
             responseArgumentCaptor.capture(),
             requestArgumentCaptor.capture(),
-            any(List.class)))
+            any(List.class),
+            any()))
         .thenReturn(mockSortedQueryMonitor);
 
     SortedFederationStrategy federateStrategy =
@@ -282,7 +312,8 @@ public void testStartIndexGreaterThanMaxStartIndex() throws Exception {
             any(Map.class),
             responseArgumentCaptor.capture(),
             requestArgumentCaptor.capture(),
-            any(List.class));
+            any(List.class),
+            any());
     assertThat(requestArgumentCaptor.getValue().getQuery().getStartIndex(), is(1));
   }
 
@@ -296,7 +327,8 @@ public void testSortedQueryMonitorException() throws Exception {
             any(Map.class),
             responseArgumentCaptor.capture(),
             requestArgumentCaptor.capture(),
-            any(List.class)))
+            any(List.class),
+            any()))
         .thenReturn(
             () -> {
               throw new RuntimeException("Unhandled sorted query monitor exception");
@@ -328,6 +360,207 @@ public void testSortedQueryMonitorException() throws Exception {
     assertThat(details.getSourceId(), is("unknown"));
   }
 
+  @Test
+  public void testPagingTokenContinuesEachSource() throws Exception {
+    enablePagingTokens();
+    Source sourceA = getMockSource("A", 0.9, 0.5);
+    Source sourceB = getMockSource("B", 0.8, 0.1);
+    List<Source> sources = ImmutableList.of(sourceA, sourceB);
+    NullFilterImpl filter = mock(NullFilterImpl.class);
+
+    QueryResponse firstPage =
+        strategy.federate(
+            sources,
+            new QueryRequestImpl(
+                new QueryImpl(filter, 1, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+                properties));
+    assertThat(firstPage.getResults().size(), is(2));
+    Serializable token = firstPage.getProperties().get(Constants.PAGING_TOKEN_KEY);
+    assertThat(token, instanceOf(String.class));
+
+    Map<String, Serializable> nextProperties = new HashMap<>(properties);
+    nextProperties.put(Constants.PAGING_TOKEN_KEY, token);
+    strategy.federate(
+        sources,
+        new QueryRequestImpl(
+            new QueryImpl(filter, 3, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+            nextProperties));
+
+    // Each source contributed one result to the first page, so each continues from its second
+    ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(sourceA, times(2)).query(captor.capture());
+    verify(sourceB, times(2)).query(captor.capture());
+    List<QueryRequest> requests = captor.getAllValues();
+    for (QueryRequest request : Arrays.asList(requests.get(1), requests.get(3))) {
+      assertThat(request.getQuery().getStartIndex(), is(2));
+      assertThat(request.getQuery().getPageSize(), is(2));
+      assertThat(request.getPropertyValue(Constants.PAGING_TOKEN_KEY), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void testRequestedAttributesIncludeSortAttributes() throws Exception {
+    Source source = getMockSource("A", 0.9, 0.5);
+    NullFilterImpl filter = mock(NullFilterImpl.class);
+    SortByImpl sortBy = new SortByImpl(Core.MODIFIED, SortOrder.DESCENDING);
+
+    Map<String, Serializable> requestProperties = new HashMap<>(properties);
+    requestProperties.put(
+        Constants.REQUESTED_ATTRIBUTES_KEY, new HashSet<>(Collections.singleton(Core.TITLE)));
+    strategy
+        .federate(
+            ImmutableList.of(source),
+            new QueryRequestImpl(
+                new QueryImpl(filter, 1, 2, sortBy, true, LONG_TIMEOUT), requestProperties))
+        .getResults();
+
+    ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(source).query(captor.capture());
+    Serializable requested = captor.getValue().getPropertyValue(Constants.REQUESTED_ATTRIBUTES_KEY);
+    assertThat(requested, instanceOf(Set.class));
+    assertThat((Set<?>) requested, hasItems(Core.TITLE, Core.MODIFIED, Core.ID));
+  }
+
+  @Test
+  public void testPagingTokenIgnoredForDifferentStartIndex() throws Exception {
+    enablePagingTokens();
+    Source sourceA = getMockSource("A", 0.9, 0.5);
+    Source sourceB = getMockSource("B", 0.8, 0.1);
+    List<Source> sources = ImmutableList.of(sourceA, sourceB);
+    NullFilterImpl filter = mock(NullFilterImpl.class);
+
+    QueryResponse firstPage =
+        strategy.federate(
+            sources,
+            new QueryRequestImpl(
+                new QueryImpl(filter, 1, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+                properties));
+    firstPage.getResults();
+
+    Map<String, Serializable> nextProperties = new HashMap<>(properties);
+    nextProperties.put(
+        Constants.PAGING_TOKEN_KEY, firstPage.getProperties().get(Constants.PAGING_TOKEN_KEY));
+    strategy.federate(
+        sources,
+        new QueryRequestImpl(
+            new QueryImpl(filter, 5, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+            nextProperties));
+
+    // Falls back to offset paging, which queries every source from its first result
+    ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(sourceA, times(2)).query(captor.capture());
+    assertThat(captor.getAllValues().get(1).getQuery().getStartIndex(), is(1));
+    assertThat(captor.getAllValues().get(1).getQuery().getPageSize(), is(6));
+  }
+
+  @Test
+  public void testPagingTokenNotReturnedForUnsortedSource() throws Exception {
+    enablePagingTokens();
+    List<Source> sources =
+        ImmutableList.of(getMockSource("A", 0.9, 0.5), getMockSource("B", false, 0.1, 0.8));
+
+    QueryResponse response =
+        strategy.federate(
+            sources,
+            new QueryRequestImpl(
+                new QueryImpl(
+                    mock(NullFilterImpl.class), 1, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+                properties));
+
+    assertThat(response.getResults().size(), is(2));
+    assertThat(response.getProperties().get(Constants.PAGING_TOKEN_KEY), is(nullValue()));
+  }
+
+  @Test
+  public void testPagingTokenNotReturnedForSourceOutOfMergeOrder() throws Exception {
+    enablePagingTokens();
+    // Source B declares its results as sorted, but not in the order of the merge
+    List<Source> sources =
+        ImmutableList.of(getMockSource("A", 0.9, 0.5), getMockSource("B", 0.1, 0.8));
+
+    QueryResponse response =
+        strategy.federate(
+            sources,
+            new QueryRequestImpl(
+                new QueryImpl(
+                    mock(NullFilterImpl.class), 1, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+                properties));
+
+    assertThat(response.getResults().size(), is(2));
+    assertThat(response.getProperties().get(Constants.PAGING_TOKEN_KEY), is(nullValue()));
+  }
+
+  @Test
+  public void testPagingTokenNotReturnedWhenStartIndexIsLimited() throws Exception {
+    enablePagingTokens();
+    strategy.setMaxStartIndex(2);
+    List<Source> sources =
+        ImmutableList.of(getMockSource("A", 0.9, 0.5, 0.4), getMockSource("B", 0.8, 0.1));
+
+    QueryResponse response =
+        strategy.federate(
+            sources,
+            new QueryRequestImpl(
+                new QueryImpl(
+                    mock(NullFilterImpl.class), 5, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+                properties));
+
+    assertThat(response.getResults().size(), is(2));
+    assertThat(response.getProperties().get(Constants.PAGING_TOKEN_KEY), is(nullValue()));
+  }
+
+  @Test
+  public void testPagingTokenCountsResultsBeforePlugins() throws Exception {
+    // The plugin removes the first result of source A, which must still count as consumed
+    PostFederatedQueryPlugin postQueryPlugin = mock(PostFederatedQueryPlugin.class);
+    when(postQueryPlugin.process(any()))
+        .thenAnswer(
+            invocation -> {
+              QueryResponse response = invocation.getArgument(0);
+              List<Result> results =
+                  response.getResults().stream()
+                      .filter(result -> result.getRelevanceScore() != 0.9)
+                      .collect(Collectors.toList());
+              return new QueryResponseImpl(
+                  response.getRequest(), results, true, response.getHits(), null);
+            });
+    strategy =
+        new SortedFederationStrategy(
+            queryExecutor,
+            Collections.singletonList(preQueryPlugin),
+            Collections.singletonList(postQueryPlugin));
+    enablePagingTokens();
+    Source sourceA = getMockSource("A", 0.9, 0.5, 0.4);
+    Source sourceB = getMockSource("B", 0.8, 0.1);
+    List<Source> sources = ImmutableList.of(sourceA, sourceB);
+    NullFilterImpl filter = mock(NullFilterImpl.class);
+
+    QueryResponse firstPage =
+        strategy.federate(
+            sources,
+            new QueryRequestImpl(
+                new QueryImpl(filter, 1, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+                properties));
+    assertThat(firstPage.getResults().size(), is(2));
+
+    Map<String, Serializable> nextProperties = new HashMap<>(properties);
+    nextProperties.put(
+        Constants.PAGING_TOKEN_KEY, firstPage.getProperties().get(Constants.PAGING_TOKEN_KEY));
+    strategy.federate(
+        sources,
+        new QueryRequestImpl(
+            new QueryImpl(filter, 3, 2, SortBy.NATURAL_ORDER, true, LONG_TIMEOUT),
+            nextProperties));
+
+    // The first page holds the second result of A and the first result of B
+    ArgumentCaptor<QueryRequest> captorA = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(sourceA, times(2)).query(captorA.capture());
+    assertThat(captorA.getAllValues().get(1).getQuery().getStartIndex(), is(3));
+    ArgumentCaptor<QueryRequest> captorB = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(sourceB, times(2)).query(captorB.capture());
+    assertThat(captorB.getAllValues().get(1).getQuery().getStartIndex(), is(2));
+  }
+
   @Test
   public void testOffsetResultHandler() throws Exception {
     QueryResponseImpl originalResults = mock(QueryResponseImpl.class);
@@ -488,6 +721,139 @@ public void testValidCollectionWithNullSource() throws Exception {
     strategy.federate(sources, fedQueryRequest);
   }
 
+  private void enablePagingTokens() throws UnsupportedQueryException {
+    FilterAdapter filterAdapter = mock(FilterAdapter.class);
+    doReturn("canonical query").when(filterAdapter).adapt(any(), any());
+    strategy.setFilterAdapter(filterAdapter);
+  }
+
+  @Test
+  public void testFederateTracesSources() throws Exception {
+    QueryRequest fedQueryRequest = new QueryRequestImpl(mockQuery, false, null, properties);
+
+    List<Source> sourceList = ImmutableList.of(getMockSource(), getMockSource());
+
+    strategy.federate(sourceList, fedQueryRequest).getResults();
+
+    SpanData federationSpan = awaitSpans(CatalogTracing.FEDERATION_SPAN, 1).get(0);
+    assertThat(federationSpan.getAttributes().get(CatalogTracing.SOURCE_COUNT), is(2L));
+
+    for (SpanData sourceSpan : awaitSpans(CatalogTracing.SOURCE_QUERY_SPAN, 2)) {
+      assertThat(sourceSpan.getKind(), is(SpanKind.CLIENT));
+      assertThat(sourceSpan.getTraceId(), is(federationSpan.getTraceId()));
+      assertThat(sourceSpan.getParentSpanId(), is(federationSpan.getSpanId()));
+      assertThat(sourceSpan.getAttributes().get(CatalogTracing.RESULT_COUNT), is(1L));
+      assertThat(sourceSpan.getStatus().getStatusCode(), is(StatusCode.UNSET));
+    }
+  }
+
+  @Test
+  public void testFederateTracesFailingSource() throws Exception {
+    QueryRequest fedQueryRequest = new QueryRequestImpl(mockQuery, false, null, properties);
+
+    Source failingSource = mock(Source.class);
+    when(failingSource.getId()).thenReturn("failing");
+    when(failingSource.query(any(QueryRequest.class)))
+        .thenThrow(new UnsupportedQueryException("test exception"));
+
+    strategy.federate(ImmutableList.of(failingSource), fedQueryRequest).getResults();
+
+    SpanData federationSpan = awaitSpans(CatalogTracing.FEDERATION_SPAN, 1).get(0);
+    SpanData sourceSpan = awaitSpans(CatalogTracing.SOURCE_QUERY_SPAN, 1).get(0);
+    assertThat(sourceSpan.getParentSpanId(), is(federationSpan.getSpanId()));
+    assertThat(sourceSpan.getAttributes().get(CatalogTracing.SOURCE_ID), is("failing"));
+    assertThat(sourceSpan.getStatus().getStatusCode(), is(StatusCode.ERROR));
+    assertThat(getEventNames(sourceSpan), contains("exception"));
+  }
+
+  @Test
+  public void testFederateTracesTimedOutSource() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      SortedFederationStrategy timedStrategy =
+          new SortedFederationStrategy(executor, new ArrayList<>(), new ArrayList<>());
+      when(mockQuery.getTimeoutMillis()).thenReturn(SHORT_TIMEOUT);
+      QueryRequest fedQueryRequest = new QueryRequestImpl(mockQuery, false, null, properties);
+
+      Source slowSource = mock(Source.class);
+      when(slowSource.getId()).thenReturn("slow");
+      when(slowSource.query(any(QueryRequest.class)))
+          .thenAnswer(
+              invocation -> {
+                release.await();
+                return mockResponse;
+              });
+
+      timedStrategy.federate(ImmutableList.of(slowSource), fedQueryRequest).getResults();
+
+      SpanData federationSpan = awaitSpans(CatalogTracing.FEDERATION_SPAN, 1).get(0);
+      assertThat(federationSpan.getAttributes().get(CatalogTracing.TIMED_OUT_SOURCES), is(1L));
+      assertThat(getEventNames(federationSpan), contains("source timed out"));
+      assertThat(
+          federationSpan.getEvents().get(0).getAttributes().get(CatalogTracing.SOURCE_ID),
+          is("slow"));
+
+      // The source span ends when the source returns, after the federation has given up on it
+      release.countDown();
+      SpanData sourceSpan = awaitSpans(CatalogTracing.SOURCE_QUERY_SPAN, 1).get(0);
+      assertThat(sourceSpan.getParentSpanId(), is(federationSpan.getSpanId()));
+      assertThat(sourceSpan.getEndEpochNanos(), greaterThan(federationSpan.getEndEpochNanos()));
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFederationSpanEndsWhenQueryIsRejected() throws Exception {
+    ExecutorService rejectingExecutor = mock(ExecutorService.class);
+    doThrow(new RejectedExecutionException("test exception"))
+        .when(rejectingExecutor)
+        .execute(any(Runnable.class));
+    SortedFederationStrategy rejectingStrategy =
+        new SortedFederationStrategy(rejectingExecutor, new ArrayList<>(), new ArrayList<>());
+    QueryRequest fedQueryRequest = new QueryRequestImpl(mockQuery, false, null, properties);
+
+    Source source = mock(Source.class);
+    when(source.getId()).thenReturn("rejected");
+
+    try {
+      rejectingStrategy.federate(ImmutableList.of(source), fedQueryRequest);
+      fail("Expected the rejected query to be thrown");
+    } catch (RejectedExecutionException e) {
+      SpanData federationSpan = awaitSpans(CatalogTracing.FEDERATION_SPAN, 1).get(0);
+      assertThat(federationSpan.hasEnded(), is(true));
+      assertThat(federationSpan.getStatus().getStatusCode(), is(StatusCode.ERROR));
+    }
+  }
+
+  private Source getMockSource(String id, Double... relevanceScores)
+      throws UnsupportedQueryException {
+    return getMockSource(id, true, relevanceScores);
+  }
+
+  private Source getMockSource(String id, boolean sorted, Double... relevanceScores)
+      throws UnsupportedQueryException {
+    List<Result> results = new ArrayList<>();
+    for (Double relevanceScore : relevanceScores) {
+      ResultImpl result = new ResultImpl(new MetacardImpl());
+      result.setRelevanceScore(relevanceScore);
+      results.add(result);
+    }
+
+    Source mockSource = mock(Source.class);
+    when(mockSource.getId()).thenReturn(id);
+    when(mockSource.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation ->
+                new SourceResponseImpl(
+                    invocation.getArgument(0),
+                    Collections.singletonMap(Constants.SORTED_RESULTS_KEY, sorted),
+                    results));
+    return mockSource;
+  }
+
   private Source getMockSource() throws UnsupportedQueryException {
     Source mockSource = mock(Source.class);
     when(mockSource.getId()).thenReturn(UUID.randomUUID().toString());
@@ -496,4 +862,25 @@ private Source getMockSource() throws UnsupportedQueryException {
 
     return mockSource;
   }
+
+  private List<SpanData> awaitSpans(String name, int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + LONG_TIMEOUT;
+    List<SpanData> spans = getSpans(name);
+    while (spans.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      spans = getSpans(name);
+    }
+    assertThat(spans, hasSize(count));
+    return spans;
+  }
+
+  private List<SpanData> getSpans(String name) {
+    return openTelemetry.getSpans().stream()
+        .filter(span -> span.getName().equals(name))
+        .collect(Collectors.toList());
+  }
+
+  private static List<String> getEventNames(SpanData span) {
+    return span.getEvents().stream().map(EventData::getName).collect(Collectors.toList());
+  }
 }
@@ -27,6 +27,7 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -435,6 +436,60 @@ private void testSorting(
     assertResults(queryResponse.getResults(), TEST_PROPERTY, outputArray);
   }
 
+  @Test
+  public void testSortedRunMergeOfSortedAndUnsortedSources() throws Exception {
+    PropertyName propertyName = mock(PropertyName.class);
+    when(propertyName.getPropertyName()).thenReturn(TEST_PROPERTY);
+
+    SortBy sortBy = mock(SortBy.class);
+    when(sortBy.getSortOrder()).thenReturn(SortOrder.ASCENDING);
+    when(sortBy.getPropertyName()).thenReturn(propertyName);
+
+    CompletionService completionService = mock(CompletionService.class);
+    QueryRequest queryRequest = mock(QueryRequest.class);
+    Query query = mock(Query.class);
+    when(query.getSortBy()).thenReturn(sortBy);
+    when(query.getTimeoutMillis()).thenReturn(0L);
+    when(query.getPageSize()).thenReturn(4);
+    when(queryRequest.getQuery()).thenReturn(query);
+    Map<Future<SourceResponse>, QueryRequest> futures = new LinkedHashMap<>();
+
+    Future sortedFuture = mock(Future.class);
+    QueryRequest sortedRequest = mock(QueryRequest.class);
+    when(sortedRequest.getSourceIds()).thenReturn(Collections.singleton("Sorted-Source"));
+    SourceResponse sortedResponse = getMockedResponse(getResults(TEST_PROPERTY, "a", "c", "e"));
+    when(sortedResponse.getProperties())
+        .thenReturn(ImmutableMap.of(Constants.SORTED_RESULTS_KEY, true));
+    when(sortedFuture.get()).thenReturn(sortedResponse);
+    futures.put(sortedFuture, sortedRequest);
+
+    Future unsortedFuture = mock(Future.class);
+    QueryRequest unsortedRequest = mock(QueryRequest.class);
+    when(unsortedRequest.getSourceIds()).thenReturn(Collections.singleton("Unsorted-Source"));
+    SourceResponse unsortedResponse = getMockedResponse(getResults(TEST_PROPERTY, "f", "b", "d"));
+    when(unsortedFuture.get()).thenReturn(unsortedResponse);
+    futures.put(unsortedFuture, unsortedRequest);
+
+    QueryResponseImpl queryResponse = new QueryResponseImpl(queryRequest);
+
+    SortedQueryMonitor queryMonitor =
+        new SortedQueryMonitor(
+            completionService,
+            futures,
+            queryResponse,
+            queryRequest,
+            new ArrayList<>(),
+            true,
+            null);
+
+    when(completionService.take()).thenReturn(sortedFuture, unsortedFuture);
+    queryMonitor.run();
+
+    assertThat(queryResponse.getHits()).isEqualTo(6);
+    assertResults(
+        queryResponse.getResults(), TEST_PROPERTY, new Serializable[] {"a", "b", "c", "d"});
+  }
+
   @Test
   public void testSourcePropertiesCollision() throws Exception {
     PropertyName propertyName = mock(PropertyName.class);
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SortedResultMergerTest {
+
+  private static final Comparator<Result> BY_TITLE =
+      Comparator.comparing(r -> r.getMetacard().getTitle());
+
+  private List<Result> merged;
+
+  private SortedResultMerger merger;
+
+  @Before
+  public void setUp() {
+    merged = new ArrayList<>();
+    merger = new SortedResultMerger(BY_TITLE);
+  }
+
+  @Test
+  public void testMergeSortedRuns() {
+    merger.addRun(getResults("a", "d", "g"), true);
+    merger.addRun(getResults("b", "e"), true);
+    merger.addRun(getResults("c", "f", "h"), true);
+
+    assertThat(merger.merge(Integer.MAX_VALUE, merged::add)).isEqualTo(8);
+
+    assertThat(getTitles(merged))
+        .containsExactly("a", "b", "c", "d", "e", "f", "g", "h");
+  }
+
+  @Test
+  public void testMergeStopsAtMaxResults() {
+    merger.addRun(getResults("a", "c", "e"), true);
+    merger.addRun(getResults("b", "d", "f"), true);
+
+    assertThat(merger.merge(3, merged::add)).isEqualTo(3);
+
+    assertThat(getTitles(merged)).containsExactly("a", "b", "c");
+  }
+
+  @Test
+  public void testRunsAreMergedAsTheyAreAdded() {
+    merger = new SortedResultMerger(BY_TITLE, 3);
+    merger.addRun(getResults("b", "d", "f", "h"), true);
+    merger.addRun(getResults("a", "c", "e"), true);
+    merger.addRun(getResults("g"), true);
+
+    assertThat(merger.merge(Integer.MAX_VALUE, merged::add)).isEqualTo(3);
+
+    assertThat(getTitles(merged)).containsExactly("a", "b", "c");
+  }
+
+  @Test
+  public void testUndeclaredRunIsSorted() {
+    merger.addRun(getResults("c", "a", "b"), false);
+    merger.addRun(getResults("d"), true);
+
+    merger.merge(Integer.MAX_VALUE, merged::add);
+
+    assertThat(getTitles(merged)).containsExactly("a", "b", "c", "d");
+  }
+
+  @Test
+  public void testIncorrectlyDeclaredRunIsSorted() {
+    merger.addRun(getResults("b", "a"), true);
+
+    merger.merge(Integer.MAX_VALUE, merged::add);
+
+    assertThat(getTitles(merged)).containsExactly("a", "b");
+  }
+
+  @Test
+  public void testTiesKeepRunOrder() {
+    List<Result> first = getResults("a", "b");
+    List<Result> second = getResults("a", "b");
+    merger.addRun(first, true);
+    merger.addRun(second, true);
+
+    merger.merge(Integer.MAX_VALUE, merged::add);
+
+    assertThat(merged)
+        .containsExactly(first.get(0), second.get(0), first.get(1), second.get(1));
+  }
+
+  @Test
+  public void testEmptyAndNullRuns() {
+    merger.addRun(null, true);
+    merger.addRun(Collections.emptyList(), false);
+
+    assertThat(merger.merge(Integer.MAX_VALUE, merged::add)).isEqualTo(0);
+    assertThat(merged).isEmpty();
+  }
+
+  private List<Result> getResults(String... titles) {
+    List<Result> results = new ArrayList<>();
+    for (String title : titles) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setTitle(title);
+      results.add(new ResultImpl(metacard));
+    }
+    return results;
+  }
+
+  private List<String> getTitles(List<Result> results) {
+    return results.stream().map(r -> r.getMetacard().getTitle()).collect(Collectors.toList());
+  }
+}
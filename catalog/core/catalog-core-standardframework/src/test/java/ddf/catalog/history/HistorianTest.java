@@ -16,20 +16,24 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasValue;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.CreateStorageResponse;
 import ddf.catalog.content.operation.DeleteStorageRequest;
 import ddf.catalog.content.operation.ReadStorageRequest;
@@ -375,6 +379,30 @@ public void testDeleteResponse()
     assertThat(storageProvider.storageMap.size(), equalTo(1));
   }
 
+  @Test
+  public void testDeleteResponseSharesContentWithVersion()
+      throws SourceUnavailableException, IngestException, StorageException {
+    storageProvider = spy(storageProvider);
+    historian.setStorageProviders(Collections.singletonList(storageProvider));
+    Metacard metacard = getMetacardUpdatePair().get(0);
+    storeMetacard(metacard);
+
+    storageProvider.delete(
+        new DeleteStorageRequestImpl(Collections.singletonList(metacard), new HashMap<>()));
+    historian.version(
+        new DeleteResponseImpl(
+            new DeleteRequestImpl("deleteRequest"),
+            new HashMap<>(),
+            Collections.singletonList(metacard)));
+
+    ArgumentCaptor<CreateStorageRequest> captor =
+        ArgumentCaptor.forClass(CreateStorageRequest.class);
+    verify(storageProvider).create(captor.capture());
+    Map<String, String> sourceUris =
+        (Map<String, String>) captor.getValue().getPropertyValue(Constants.CONTENT_SOURCE_URIS_KEY);
+    assertThat(sourceUris, hasValue(RESOURCE_URI));
+  }
+
   @Test
   public void testDeleteResponseNoContentItems()
       throws SourceUnavailableException, IngestException, StorageException {
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContentHeadInputStreamTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testReadsRemainderFromFile() throws IOException {
+    Path path = temporaryFolder.newFile().toPath();
+    Files.write(path, bytes("head and the rest of the content"));
+
+    try (InputStream inputStream = new ContentHeadInputStream(bytes("head"), path)) {
+      assertThat(
+          IOUtils.toString(inputStream, StandardCharsets.UTF_8),
+          is("head and the rest of the content"));
+    }
+  }
+
+  @Test
+  public void testHeadIsReadWithoutFile() throws IOException {
+    Path missing = temporaryFolder.getRoot().toPath().resolve("missing");
+
+    try (InputStream inputStream = new ContentHeadInputStream(bytes("head"), missing)) {
+      byte[] head = new byte[4];
+      assertThat(IOUtils.read(inputStream, head), is(4));
+      assertThat(new String(head, StandardCharsets.UTF_8), is("head"));
+    }
+  }
+
+  @Test
+  public void testHeadIsAllOfTheContent() throws IOException {
+    try (InputStream inputStream = new ContentHeadInputStream(bytes("content"), null)) {
+      assertThat(IOUtils.toString(inputStream, StandardCharsets.UTF_8), is("content"));
+      assertThat(inputStream.read(), is(-1));
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
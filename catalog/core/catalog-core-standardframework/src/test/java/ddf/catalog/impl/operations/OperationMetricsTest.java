@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static ddf.catalog.impl.operations.OperationMetrics.METRIC_NAME;
+import static ddf.catalog.impl.operations.OperationMetrics.PRE_QUERY;
+import static ddf.catalog.impl.operations.OperationMetrics.QUERY;
+import static ddf.catalog.impl.operations.OperationMetrics.VALIDATION;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OperationMetricsTest {
+
+  private MeterRegistry meterRegistry;
+
+  private OperationMetrics operationMetrics;
+
+  @Before
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    operationMetrics = new OperationMetrics(meterRegistry);
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    operationMetrics.stop(operationMetrics.start(), QUERY, VALIDATION);
+
+    assertThat(operationMetrics.isEnabled(), is(false));
+    assertThat(meterRegistry.getMeters(), is(empty()));
+  }
+
+  @Test
+  public void testStageWithoutPlugin() {
+    operationMetrics.setEnabled(true);
+
+    operationMetrics.stop(operationMetrics.start(), QUERY, VALIDATION);
+    operationMetrics.stop(operationMetrics.start(), QUERY, VALIDATION);
+
+    Timer timer =
+        meterRegistry
+            .find(METRIC_NAME)
+            .tags("operation", QUERY, "stage", VALIDATION, "plugin", "none")
+            .timer();
+    assertThat(timer, is(notNullValue()));
+    assertThat(timer.count(), is(2L));
+  }
+
+  @Test
+  public void testStageTaggedByPluginClass() {
+    operationMetrics.setEnabled(true);
+
+    operationMetrics.stop(operationMetrics.start(), QUERY, PRE_QUERY, new Object());
+    operationMetrics.stop(operationMetrics.start(), QUERY, PRE_QUERY, "plugin");
+
+    assertThat(
+        meterRegistry
+            .find(METRIC_NAME)
+            .tags("stage", PRE_QUERY, "plugin", Object.class.getName())
+            .timer()
+            .count(),
+        is(1L));
+    assertThat(
+        meterRegistry
+            .find(METRIC_NAME)
+            .tags("stage", PRE_QUERY, "plugin", String.class.getName())
+            .timer()
+            .count(),
+        is(1L));
+  }
+
+  @Test
+  public void testDestroyRemovesTimers() {
+    operationMetrics.setEnabled(true);
+    operationMetrics.stop(operationMetrics.start(), QUERY, VALIDATION);
+    operationMetrics.stop(operationMetrics.start(), QUERY, PRE_QUERY, new Object());
+
+    operationMetrics.destroy();
+
+    assertThat(meterRegistry.getMeters(), is(empty()));
+  }
+
+  @Test
+  public void testStartedWhileDisabled() {
+    long start = operationMetrics.start();
+    operationMetrics.setEnabled(true);
+
+    operationMetrics.stop(start, QUERY, VALIDATION);
+
+    assertThat(meterRegistry.getMeters(), is(empty()));
+  }
+}
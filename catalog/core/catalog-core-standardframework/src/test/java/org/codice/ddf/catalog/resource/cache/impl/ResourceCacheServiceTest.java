@@ -56,6 +56,8 @@ public class ResourceCacheServiceTest {
 
   @Mock private ResourceCache mockResourceCache;
 
+  @Mock private ddf.catalog.cache.impl.ResourceCacheImpl mockProductCache;
+
   @Mock private ResourceCacheServiceMBean mockResourceCacheServiceMBean;
 
   @Mock private MBeanServer mockMBeanServer;
@@ -130,6 +132,38 @@ public void testContainsResourceInCache() throws Exception {
     assertThat(isMetacardCached, is(true));
   }
 
+  @Test
+  public void testCacheStatistics() throws Exception {
+    // Setup
+    when(mockProductCache.getHitCount()).thenReturn(3L);
+    when(mockProductCache.getMissCount()).thenReturn(2L);
+    when(mockProductCache.getEvictionCount()).thenReturn(1L);
+    when(mockProductCache.getCacheDirSizeBytes()).thenReturn(1024L);
+
+    // Perform Test
+    ResourceCacheServiceMBean resourceCacheService =
+        new ResourceCacheService(
+            mockMBeanServer,
+            mockResourceCache,
+            mockDownloadManager,
+            mockFrameworkProperties,
+            mockCatalogFramework,
+            mockProductCache);
+
+    assertThat(resourceCacheService.getCacheHits(), is(3L));
+    assertThat(resourceCacheService.getCacheMisses(), is(2L));
+    assertThat(resourceCacheService.getCacheEvictions(), is(1L));
+    assertThat(resourceCacheService.getCacheSizeBytes(), is(1024L));
+  }
+
+  @Test
+  public void testCacheStatisticsWithoutProductCache() throws Exception {
+    ResourceCacheServiceMBean resourceCacheService = createResourceCacheServiceMBean();
+
+    assertThat(resourceCacheService.getCacheHits(), is(0L));
+    assertThat(resourceCacheService.getCacheSizeBytes(), is(0L));
+  }
+
   @Test
   public void testInit() throws Exception {
     // Setup
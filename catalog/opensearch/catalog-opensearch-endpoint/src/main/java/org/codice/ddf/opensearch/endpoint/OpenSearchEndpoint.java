@@ -72,6 +72,13 @@ public class OpenSearchEndpoint implements OpenSearch {
 
   private static final String DEFAULT_RADIUS = "5000";
 
+  /**
+   * Response header holding the paging token for the next page of a multi-source query. Clients
+   * pass it back in the {@value Constants#PAGING_TOKEN_KEY} query parameter with the start index
+   * of the next page.
+   */
+  static final String PAGING_TOKEN_HEADER = "X-Paging-Token";
+
   private static final Pattern SOURCES_PATTERN =
       Pattern.compile(OpenSearchConstants.SOURCES_DELIMITER);
 
@@ -135,6 +142,9 @@ public OpenSearchEndpoint(CatalogFramework framework, FilterBuilder filterBuilde
    * @param selectors Defines a comma-delimited list of XPath selectors to narrow the query.
    * @param type Specifies the type of data to search for. (example: nitf)
    * @param versions Specifies the versions in a comma-delimited list.
+   * @param request the HTTP request. All of its parameters are passed on as query request
+   *     properties, which includes the {@value Constants#PAGING_TOKEN_KEY} returned in the {@value
+   *     #PAGING_TOKEN_HEADER} header of the previous page.
    */
   @Override
   @GET
@@ -343,7 +353,13 @@ private Response executeQuery(
 
         // pass in the format for the transform
         BinaryContent content = framework.transform(queryResponse, queryFormat, arguments);
-        response = Response.ok(content.getInputStream(), content.getMimeTypeValue()).build();
+        Response.ResponseBuilder responseBuilder =
+            Response.ok(content.getInputStream(), content.getMimeTypeValue());
+        Serializable pagingToken = queryResponse.getPropertyValue(Constants.PAGING_TOKEN_KEY);
+        if (pagingToken != null) {
+          responseBuilder.header(PAGING_TOKEN_HEADER, pagingToken);
+        }
+        response = responseBuilder.build();
       } else {
         // No query was specified
         QueryRequest queryRequest =
@@ -13,6 +13,8 @@
  */
 package org.codice.ddf.opensearch.endpoint;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -20,6 +22,7 @@
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.AttributeBuilder;
@@ -34,11 +37,16 @@
 import ddf.catalog.transform.CatalogTransformerException;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import org.codice.ddf.configuration.SystemInfo;
 import org.codice.ddf.opensearch.endpoint.query.OpenSearchQuery;
@@ -152,4 +160,74 @@ public void testProcessQueryForProperHandlingOfSiteNameLOCAL()
         null,
         null);
   }
+
+  @Test
+  public void testProcessQueryPassesPagingToken() throws Exception {
+    CatalogFramework mockFramework = mock(CatalogFramework.class);
+    FilterBuilder mockFilterBuilder = mock(FilterBuilder.class);
+    AttributeBuilder mockAB = mock(AttributeBuilder.class);
+    ExpressionBuilder mockEB = mock(ExpressionBuilder.class);
+    ContextualExpressionBuilder mockCEB = mock(ContextualExpressionBuilder.class);
+    when(mockFilterBuilder.attribute(anyString())).thenReturn(mockAB);
+    when(mockAB.is()).thenReturn(mockEB);
+    when(mockEB.like()).thenReturn(mockCEB);
+    when(mockCEB.text(anyString())).thenReturn(mock(Filter.class));
+
+    UriInfo mockUriInfo = mock(UriInfo.class);
+    when(mockUriInfo.getRequestUri()).thenReturn(new URI("test"));
+    when(mockUriInfo.getQueryParameters()).thenReturn(mock(MultivaluedMap.class));
+
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getParameterMap())
+        .thenReturn(
+            Collections.singletonMap(Constants.PAGING_TOKEN_KEY, new String[] {"page-2-token"}));
+
+    when(mockFramework.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              QueryRequest queryRequest = invocation.getArgument(0);
+              assertThat(
+                  (String) queryRequest.getPropertyValue(Constants.PAGING_TOKEN_KEY),
+                  is("page-2-token"));
+              Map<String, Serializable> properties = new HashMap<>();
+              properties.put(Constants.PAGING_TOKEN_KEY, "page-3-token");
+              return new QueryResponseImpl(
+                  queryRequest, Collections.emptyList(), true, 0, properties);
+            });
+    BinaryContent mockBinaryContent = mock(BinaryContent.class);
+    when(mockBinaryContent.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+    when(mockBinaryContent.getMimeTypeValue()).thenReturn("text/plain");
+    when(mockFramework.transform(any(QueryResponse.class), anyString(), anyMap()))
+        .thenReturn(mockBinaryContent);
+
+    OpenSearchEndpoint osEndPoint = new OpenSearchEndpoint(mockFramework, mockFilterBuilder);
+    Response response =
+        osEndPoint.processQuery(
+            "searchForThis",
+            null,
+            null,
+            null,
+            "11",
+            "10",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            mockUriInfo,
+            null,
+            null,
+            request);
+
+    assertThat(response.getStatus(), is(200));
+    assertThat(
+        response.getHeaderString(OpenSearchEndpoint.PAGING_TOKEN_HEADER), is("page-3-token"));
+  }
 }
@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.opensearch.source;
+
+import com.rometools.rome.feed.synd.SyndCategory;
+import com.rometools.rome.feed.synd.SyndContent;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.io.FeedException;
+import com.rometools.rome.io.SyndFeedInput;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.Namespace;
+import org.jdom2.input.StAXStreamBuilder;
+import org.jdom2.output.XMLOutputter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the entries of an OpenSearch response one at a time. Atom feeds are pulled from an {@link
+ * XMLStreamReader}, so that only the entry being read is held in memory and the foreign markup of
+ * the feed is collected as it is found. Other feeds, such as RSS, are read with Rome.
+ */
+class OpenSearchResponseReader implements AutoCloseable {
+
+  static final String ATOM_NAMESPACE = "http://www.w3.org/2005/Atom";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OpenSearchResponseReader.class);
+
+  /** Namespaces of the modules Rome parses instead of reporting them as foreign markup. */
+  private static final Set<String> MODULE_NAMESPACES =
+      new HashSet<>(
+          Arrays.asList(
+              "http://purl.org/dc/elements/1.1/",
+              "http://purl.org/rss/1.0/modules/syndication/"));
+
+  private static final String TOTAL_RESULTS = "totalResults";
+
+  private static final String SCORE = "score";
+
+  private final XMLStreamReader reader;
+
+  private final Set<String> markUpSet;
+
+  private final StAXStreamBuilder builder = new StAXStreamBuilder();
+
+  private final List<Element> foreignMarkup = new ArrayList<>();
+
+  private Iterator<SyndEntry> syndEntries;
+
+  private long entryCount;
+
+  private boolean finished;
+
+  /**
+   * @param xmlInputFactory factory of the reader the response is read with
+   * @param markUpSet names of the foreign markup elements of the entries that contain metacards
+   * @param inputStream the response
+   */
+  OpenSearchResponseReader(
+      XMLInputFactory xmlInputFactory, Set<String> markUpSet, InputStream inputStream)
+      throws XMLStreamException, JDOMException, FeedException {
+    this.reader = xmlInputFactory.createXMLStreamReader(inputStream);
+    this.markUpSet = markUpSet != null ? markUpSet : Collections.emptySet();
+
+    while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+      // skips the prolog
+    }
+
+    if (isAtom("feed")) {
+      reader.next();
+    } else {
+      SyndFeed syndFeed =
+          new SyndFeedInput().build(new Document((Element) builder.fragment(reader)));
+      foreignMarkup.addAll(syndFeed.getForeignMarkup());
+      syndEntries = syndFeed.getEntries().iterator();
+    }
+  }
+
+  /** @return the next entry of the feed, or null when all of the entries have been read */
+  Entry nextEntry() throws XMLStreamException, JDOMException {
+    if (syndEntries != null) {
+      if (syndEntries.hasNext()) {
+        entryCount++;
+        return toEntry(syndEntries.next());
+      }
+      return null;
+    }
+
+    while (!finished) {
+      int event = reader.getEventType();
+      if (event == XMLStreamConstants.END_ELEMENT) {
+        finished = true;
+      } else if (event == XMLStreamConstants.START_ELEMENT) {
+        if (isAtom("entry")) {
+          entryCount++;
+          return readEntry();
+        } else if (ATOM_NAMESPACE.equals(reader.getNamespaceURI())
+            || MODULE_NAMESPACES.contains(reader.getNamespaceURI())) {
+          skipElement();
+        } else {
+          foreignMarkup.add(readElement());
+        }
+      } else {
+        reader.next();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the foreign markup of the feed. It is only complete once all of the entries have been
+   *     read.
+   */
+  List<Element> getForeignMarkup() {
+    return foreignMarkup;
+  }
+
+  /**
+   * @return the total number of results of the feed, or the number of entries read when the feed
+   *     does not have a valid total number of results
+   */
+  long getTotalResults() {
+    long totalResults = entryCount;
+    for (Element element : foreignMarkup) {
+      if (element.getName().equals(TOTAL_RESULTS)) {
+        try {
+          totalResults = Long.parseLong(element.getContent(0).getValue());
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+          // totalResults is already initialized to the correct value, so don't change it here.
+          LOGGER.debug("Received invalid number of results.", e);
+        }
+      }
+    }
+    return totalResults;
+  }
+
+  @Override
+  public void close() {
+    try {
+      reader.close();
+    } catch (XMLStreamException e) {
+      LOGGER.debug("Failed to close the OpenSearch response reader", e);
+    }
+  }
+
+  private Entry readEntry() throws XMLStreamException, JDOMException {
+    Entry entry = new Entry();
+
+    reader.next();
+    while (reader.getEventType() != XMLStreamConstants.END_ELEMENT) {
+      if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+        reader.next();
+      } else if (isAtom("id")) {
+        entry.id = readElement().getText();
+      } else if (isAtom("title")) {
+        entry.title = readElement().getText();
+      } else if (isAtom("category")) {
+        entry.categories.add(readElement().getAttributeValue("term"));
+      } else if (isAtom("content")) {
+        String content = readContent(readElement());
+        if (content != null) {
+          entry.contents.add(content);
+        }
+      } else if (ATOM_NAMESPACE.equals(reader.getNamespaceURI())
+          || (!SCORE.equals(reader.getLocalName())
+              && !markUpSet.contains(reader.getLocalName()))) {
+        skipElement();
+      } else {
+        addForeignMarkup(entry, readElement());
+      }
+    }
+    reader.next();
+
+    return entry;
+  }
+
+  private Entry toEntry(SyndEntry syndEntry) {
+    Entry entry = new Entry();
+    entry.id = syndEntry.getUri();
+    entry.title = syndEntry.getTitle();
+    for (SyndCategory category : syndEntry.getCategories()) {
+      entry.categories.add(category.getName());
+    }
+    for (SyndContent content : syndEntry.getContents()) {
+      entry.contents.add(content.getValue());
+    }
+    for (Element element : syndEntry.getForeignMarkup()) {
+      addForeignMarkup(entry, element);
+    }
+    return entry;
+  }
+
+  private void addForeignMarkup(Entry entry, Element element) {
+    if (element.getName().equals(SCORE)) {
+      entry.relevance = element.getContent(0).getValue();
+    }
+    if (markUpSet.contains(element.getName())) {
+      entry.markup.add(new XMLOutputter().outputString(element));
+    }
+  }
+
+  /** Gets the value of an Atom content element the way Rome does. */
+  private static String readContent(Element content) {
+    if (content.getAttribute("src") != null) {
+      return null;
+    }
+    String type = content.getAttributeValue("type");
+    if (type != null && (type.equals("xhtml") || type.contains("/xml") || type.contains("+xml"))) {
+      List<Content> children = content.getContent();
+      for (Content child : children) {
+        if (child instanceof Element) {
+          Element element = (Element) child;
+          if (ATOM_NAMESPACE.equals(element.getNamespaceURI())) {
+            element.setNamespace(Namespace.NO_NAMESPACE);
+          }
+        }
+      }
+      return new XMLOutputter().outputString(children);
+    }
+    return content.getText();
+  }
+
+  private boolean isAtom(String localName) {
+    return ATOM_NAMESPACE.equals(reader.getNamespaceURI())
+        && localName.equals(reader.getLocalName());
+  }
+
+  /** Reads the current element, leaving the reader at the event that follows it. */
+  private Element readElement() throws JDOMException {
+    return (Element) builder.fragment(reader);
+  }
+
+  /** Skips the current element, leaving the reader at the event that follows it. */
+  private void skipElement() throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+    reader.next();
+  }
+
+  /** The parts of an entry metacards are created from. */
+  static class Entry {
+
+    private String id;
+
+    private String title;
+
+    private String relevance = "";
+
+    private final List<String> categories = new ArrayList<>();
+
+    private final List<String> contents = new ArrayList<>();
+
+    private final List<String> markup = new ArrayList<>();
+
+    String getId() {
+      return id;
+    }
+
+    String getTitle() {
+      return title;
+    }
+
+    /** @return the relevance score of the entry, or an empty string when it has none */
+    String getRelevance() {
+      return relevance;
+    }
+
+    /** @return the names of the categories of the entry */
+    List<String> getCategories() {
+      return categories;
+    }
+
+    /** @return the values of the contents of the entry */
+    List<String> getContents() {
+      return contents;
+    }
+
+    /** @return the foreign markup elements of the entry that contain metacards, as XML */
+    List<String> getMarkup() {
+      return markup;
+    }
+  }
+}
@@ -14,12 +14,7 @@
 package org.codice.ddf.opensearch.source;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.rometools.rome.feed.synd.SyndCategory;
-import com.rometools.rome.feed.synd.SyndContent;
-import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.io.FeedException;
-import com.rometools.rome.io.SyndFeedInput;
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -48,15 +43,16 @@
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -64,8 +60,14 @@
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
@@ -92,7 +94,7 @@
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.geotools.xml.filter.FilterTransformer;
 import org.jdom2.Element;
-import org.jdom2.output.XMLOutputter;
+import org.jdom2.JDOMException;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Polygon;
@@ -150,6 +152,12 @@ public class OpenSearchSource implements OAuthFederatedSource, ConfiguredService
 
   private static final Logger LOGGER = LoggerFactory.getLogger(OpenSearchSource.class);
 
+  /**
+   * Maximum number of entries converted to metacards ahead of the entry whose results are added to
+   * the response.
+   */
+  private static final int MAX_IN_FLIGHT_ENTRIES = 64;
+
   protected final EncryptionService encryptionService;
 
   private final ClientBuilderFactory clientBuilderFactory;
@@ -216,6 +224,9 @@ public class OpenSearchSource implements OAuthFederatedSource, ConfiguredService
 
   private ScheduledExecutorService scheduler;
 
+  /** Converts the entries of the responses to metacards. */
+  private ExecutorService entryExecutor;
+
   protected Integer pollInterval = 5;
 
   /**
@@ -262,9 +273,24 @@ public OpenSearchSource(
    */
   public void init() {
     configureXmlInputFactory();
+    configureEntryExecutor();
     updateFactory();
   }
 
+  private void configureEntryExecutor() {
+    int threads = Runtime.getRuntime().availableProcessors();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            StandardThreadFactoryBuilder.newThreadFactory("openSearchEntryThread"));
+    executor.allowCoreThreadTimeOut(true);
+    entryExecutor = executor;
+  }
+
   private void updateFactory() {
     try {
       factory = createClientFactory(new URI(endpointUrl.getResolvedString()), username, password);
@@ -319,6 +345,9 @@ public void destroy(int code) {
       LOGGER.debug("Cancelling availability poll task on Source {}", getId());
       scheduler.shutdownNow();
     }
+    if (entryExecutor != null) {
+      entryExecutor.shutdownNow();
+    }
   }
 
   protected SecureCxfClientFactory<OpenSearch> createClientFactory(
@@ -608,35 +637,29 @@ void setForeignMarkupBiConsumer(
   private SourceResponseImpl processResponse(InputStream is, QueryRequest queryRequest)
       throws UnsupportedQueryException {
     List<Result> resultQueue = new ArrayList<>();
+    Deque<Future<List<Result>>> pendingResults = new ArrayDeque<>();
 
-    SyndFeedInput syndFeedInput = new SyndFeedInput();
-    SyndFeed syndFeed = null;
-    try {
-      syndFeed = syndFeedInput.build(new InputStreamReader(is, StandardCharsets.UTF_8));
-    } catch (FeedException e) {
-      LOGGER.debug("Unable to read RSS/Atom feed.", e);
-    }
-
-    List<SyndEntry> entries;
     long totalResults = 0;
     List<Element> foreignMarkup = null;
-    if (syndFeed != null) {
-      entries = syndFeed.getEntries();
-      for (SyndEntry entry : entries) {
-        resultQueue.addAll(createResponseFromEntry(entry));
-      }
-      totalResults = entries.size();
-      foreignMarkup = syndFeed.getForeignMarkup();
-      for (Element element : foreignMarkup) {
-        if (element.getName().equals("totalResults")) {
-          try {
-            totalResults = Long.parseLong(element.getContent(0).getValue());
-          } catch (NumberFormatException | IndexOutOfBoundsException e) {
-            // totalResults is already initialized to the correct value, so don't change it here.
-            LOGGER.debug("Received invalid number of results.", e);
-          }
+    try (OpenSearchResponseReader reader =
+        new OpenSearchResponseReader(xmlInputFactory, markUpSet, is)) {
+      OpenSearchResponseReader.Entry entry;
+      while ((entry = reader.nextEntry()) != null) {
+        if (pendingResults.size() >= MAX_IN_FLIGHT_ENTRIES) {
+          resultQueue.addAll(getResults(pendingResults.remove()));
         }
+        pendingResults.add(submit(entry));
       }
+      while (!pendingResults.isEmpty()) {
+        resultQueue.addAll(getResults(pendingResults.remove()));
+      }
+      totalResults = reader.getTotalResults();
+      foreignMarkup = reader.getForeignMarkup();
+    } catch (XMLStreamException | JDOMException | FeedException e) {
+      LOGGER.debug("Unable to read RSS/Atom feed.", e);
+      resultQueue.clear();
+    } finally {
+      pendingResults.forEach(pending -> pending.cancel(true));
     }
 
     SourceResponseImpl response = new SourceResponseImpl(queryRequest, resultQueue);
@@ -649,35 +672,58 @@ private SourceResponseImpl processResponse(InputStream is, QueryRequest queryReq
     return response;
   }
 
+  private Future<List<Result>> submit(OpenSearchResponseReader.Entry entry) {
+    FutureTask<List<Result>> task = new FutureTask<>(() -> createResponseFromEntry(entry));
+    if (entryExecutor != null) {
+      entryExecutor.execute(task);
+    } else {
+      task.run();
+    }
+    return task;
+  }
+
+  private List<Result> getResults(Future<List<Result>> pendingResults)
+      throws UnsupportedQueryException {
+    try {
+      return pendingResults.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UnsupportedQueryException("Interrupted while processing the feed entries.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UnsupportedQueryException) {
+        throw (UnsupportedQueryException) e.getCause();
+      }
+      throw new UnsupportedQueryException("Unable to process the feed entries.", e.getCause());
+    }
+  }
+
   /**
-   * Creates a single response from input parameters. Performs XPath operations on the document to
-   * retrieve data not passed in.
+   * Creates the results of a single entry.
    *
    * @param entry a single Atom entry
-   * @return single response
+   * @return results of the entry
    */
-  private List<Result> createResponseFromEntry(SyndEntry entry) throws UnsupportedQueryException {
-    String id = entry.getUri();
+  private List<Result> createResponseFromEntry(OpenSearchResponseReader.Entry entry)
+      throws UnsupportedQueryException {
+    String id = entry.getId();
     if (StringUtils.isNotEmpty(id)) {
       id = id.substring(id.lastIndexOf(':') + 1);
     }
 
-    List<SyndContent> contents = entry.getContents();
-    List<SyndCategory> categories = entry.getCategories();
+    List<String> categories = entry.getCategories();
     List<Metacard> metacards = new ArrayList<>();
-    List<Element> foreignMarkup = entry.getForeignMarkup();
-    String relevance = "";
+    String relevance = entry.getRelevance();
 
-    for (Element element : foreignMarkup) {
-      if (element.getName().equals("score")) {
-        relevance = element.getContent(0).getValue();
+    for (String markup : entry.getMarkup()) {
+      Metacard metacard = parseContent(markup, id);
+      if (metacard != null) {
+        metacards.add(metacard);
       }
-      metacards.addAll(processAdditionalForeignMarkups(element, id));
     }
     // we currently do not support downloading content via an RSS enclosure, this support can be
     // added at a later date if we decide to include it
-    for (SyndContent content : contents) {
-      Metacard metacard = parseContent(content.getValue(), id);
+    for (String content : entry.getContents()) {
+      Metacard metacard = parseContent(content, id);
       if (metacard != null) {
         metacard.setSourceId(this.shortname);
         String title = metacard.getTitle();
@@ -688,10 +734,9 @@ private List<Result> createResponseFromEntry(SyndEntry entry) throws Unsupported
       }
     }
     for (int i = 0; i < categories.size() && i < metacards.size(); i++) {
-      SyndCategory category = categories.get(i);
       Metacard metacard = metacards.get(i);
       if (StringUtils.isBlank(metacard.getContentTypeName())) {
-        metacard.setAttribute(new AttributeImpl(Metacard.CONTENT_TYPE, category.getName()));
+        metacard.setAttribute(new AttributeImpl(Metacard.CONTENT_TYPE, categories.get(i)));
       }
     }
 
@@ -712,12 +757,11 @@ private List<Result> createResponseFromEntry(SyndEntry entry) throws Unsupported
   @Nullable
   private Metacard parseContent(String content, String id) throws UnsupportedQueryException {
     if (StringUtils.isNotEmpty(content)) {
-      InputTransformer inputTransformer =
-          getInputTransformer(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+      byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+      InputTransformer inputTransformer = getInputTransformer(new ByteArrayInputStream(bytes));
       if (inputTransformer != null) {
         try {
-          return inputTransformer.transform(
-              new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), id);
+          return inputTransformer.transform(new ByteArrayInputStream(bytes), id);
         } catch (IOException e) {
           LOGGER.debug("Unable to read metacard content from Atom feed.", e);
         } catch (CatalogTransformerException e) {
@@ -1193,19 +1237,6 @@ private WebClient newOpenSearchClient(URI url, Subject subj) {
         : clientFactory.getWebClient();
   }
 
-  private List<Metacard> processAdditionalForeignMarkups(Element element, String id)
-      throws UnsupportedQueryException {
-    List<Metacard> metacards = new ArrayList<>();
-    if (CollectionUtils.isNotEmpty(markUpSet) && markUpSet.contains(element.getName())) {
-      XMLOutputter xmlOutputter = new XMLOutputter();
-      Metacard metacard = parseContent(xmlOutputter.outputString(element), id);
-      if (metacard != null) {
-        metacards.add(metacard);
-      }
-    }
-    return metacards;
-  }
-
   protected static class SpatialSearch {
 
     private final Geometry geometry;
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.opensearch.source;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLInputFactory;
+import org.jdom2.Element;
+import org.junit.Test;
+
+public class OpenSearchResponseReaderTest {
+
+  private static final String ATOM =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+          + "<feed xmlns=\"http://www.w3.org/2005/Atom\""
+          + " xmlns:os=\"http://a9.com/-/spec/opensearch/1.1/\""
+          + " xmlns:relevance=\"http://a9.com/-/opensearch/extensions/relevance/1.0/\">"
+          + "<title>Query Response</title>"
+          + "<os:totalResults>12</os:totalResults>"
+          + "<entry>"
+          + "<relevance:score>0.5</relevance:score>"
+          + "<id>urn:catalog:id:1</id>"
+          + "<title>first</title>"
+          + "<category term=\"Resource\"/>"
+          + "<other:ignored xmlns:other=\"urn:other\"><other:a/></other:ignored>"
+          + "<res:Resource xmlns:res=\"urn:resource\"><res:a>markup</res:a></res:Resource>"
+          + "<content type=\"application/xml\"><m:metacard xmlns:m=\"urn:metacard\">1</m:metacard>"
+          + "</content>"
+          + "</entry>"
+          + "<os:itemsPerPage>2</os:itemsPerPage>"
+          + "<entry>"
+          + "<id>urn:catalog:id:2</id>"
+          + "<title>second</title>"
+          + "<content type=\"text\">&lt;metacard&gt;2&lt;/metacard&gt;</content>"
+          + "</entry>"
+          + "</feed>";
+
+  private static final String RSS =
+      "<rss version=\"2.0\" xmlns:os=\"http://a9.com/-/spec/opensearch/1.1/\""
+          + " xmlns:content=\"http://purl.org/rss/1.0/modules/content/\"><channel>"
+          + "<title>Query Response</title>"
+          + "<os:startIndex>1</os:startIndex>"
+          + "<item><guid>urn:catalog:id:1</guid><title>first</title><category>Resource</category>"
+          + "<content:encoded><![CDATA[<metacard>1</metacard>]]></content:encoded></item>"
+          + "</channel></rss>";
+
+  private final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+  @Test
+  public void testAtomEntries() throws Exception {
+    try (OpenSearchResponseReader reader = createReader(ATOM)) {
+      OpenSearchResponseReader.Entry first = reader.nextEntry();
+      assertThat(first.getId(), is("urn:catalog:id:1"));
+      assertThat(first.getTitle(), is("first"));
+      assertThat(first.getRelevance(), is("0.5"));
+      assertThat(first.getCategories(), is(Collections.singletonList("Resource")));
+      assertThat(first.getMarkup().size(), is(1));
+      assertThat(first.getMarkup().get(0), containsString("markup</res:a>"));
+      assertThat(first.getContents().size(), is(1));
+      assertThat(first.getContents().get(0), containsString(">1</m:metacard>"));
+
+      OpenSearchResponseReader.Entry second = reader.nextEntry();
+      assertThat(second.getId(), is("urn:catalog:id:2"));
+      assertThat(second.getRelevance(), is(""));
+      assertThat(second.getContents(), is(Collections.singletonList("<metacard>2</metacard>")));
+
+      assertThat(reader.nextEntry(), nullValue());
+      assertThat(
+          names(reader.getForeignMarkup()), is(Arrays.asList("totalResults", "itemsPerPage")));
+      assertThat(reader.getTotalResults(), is(12L));
+    }
+  }
+
+  @Test
+  public void testXhtmlContentIsReadAsXml() throws Exception {
+    try (OpenSearchResponseReader reader =
+        createReader(
+            ATOM.replace(
+                "<content type=\"text\">&lt;metacard&gt;2&lt;/metacard&gt;</content>",
+                "<content type=\"xhtml\"><div xmlns=\"http://www.w3.org/1999/xhtml\">2</div>"
+                    + "</content>"))) {
+      reader.nextEntry();
+      OpenSearchResponseReader.Entry second = reader.nextEntry();
+      assertThat(second.getContents().size(), is(1));
+      assertThat(second.getContents().get(0), containsString(">2</div>"));
+    }
+  }
+
+  @Test
+  public void testTotalResultsDefaultsToNumberOfEntries() throws Exception {
+    try (OpenSearchResponseReader reader =
+        createReader(ATOM.replace("<os:totalResults>12</os:totalResults>", ""))) {
+      while (reader.nextEntry() != null) {
+        // reads all of the entries
+      }
+      assertThat(reader.getTotalResults(), is(2L));
+    }
+  }
+
+  @Test
+  public void testRssEntries() throws Exception {
+    try (OpenSearchResponseReader reader = createReader(RSS)) {
+      OpenSearchResponseReader.Entry entry = reader.nextEntry();
+      assertThat(entry.getTitle(), is("first"));
+      assertThat(entry.getCategories(), is(Collections.singletonList("Resource")));
+      assertThat(entry.getContents(), is(Collections.singletonList("<metacard>1</metacard>")));
+
+      assertThat(reader.nextEntry(), nullValue());
+      assertThat(names(reader.getForeignMarkup()), is(Collections.singletonList("startIndex")));
+      assertThat(reader.getTotalResults(), is(1L));
+    }
+  }
+
+  private OpenSearchResponseReader createReader(String feed) throws Exception {
+    return new OpenSearchResponseReader(
+        xmlInputFactory,
+        new HashSet<>(Collections.singletonList("Resource")),
+        new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static List<String> names(List<Element> elements) {
+    return elements.stream().map(Element::getName).collect(Collectors.toList());
+  }
+}
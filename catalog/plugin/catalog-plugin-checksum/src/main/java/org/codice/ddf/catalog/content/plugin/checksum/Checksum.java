@@ -13,6 +13,7 @@
  */
 package org.codice.ddf.catalog.content.plugin.checksum;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
@@ -23,8 +24,13 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.checksum.ChecksumProvider;
 import org.slf4j.Logger;
@@ -47,7 +53,7 @@ public CreateStorageRequest process(CreateStorageRequest input) throws PluginExe
     if (input == null) {
       throw new IllegalArgumentException("CreateStorageRequest cannot be null");
     }
-    runChecksum(input.getContentItems());
+    runChecksum(input.getContentItems(), input.getProperties());
 
     return input;
   }
@@ -57,12 +63,13 @@ public UpdateStorageRequest process(UpdateStorageRequest input) throws PluginExe
     if (input == null) {
       throw new IllegalArgumentException("UpdateStorageRequest cannot be null");
     }
-    runChecksum(input.getContentItems());
+    runChecksum(input.getContentItems(), input.getProperties());
 
     return input;
   }
 
-  private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionException {
+  private void runChecksum(List<ContentItem> contentItems, Map<String, Serializable> properties)
+      throws PluginExecutionException {
     if (checksumProvider == null) {
       LOGGER.debug(
           "Checksum provider was null, double check configuration is a valid checksum algorithm.");
@@ -76,24 +83,84 @@ private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionE
         continue;
       }
 
-      try (InputStream inputStream = contentItem.getInputStream()) {
-        // calculate checksum so that it can be added as an attribute on metacard
-        String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
-        String checksumValue;
-
-        try {
-          checksumValue = checksumProvider.calculateChecksum(inputStream);
+      // calculate checksum so that it can be added as an attribute on metacard
+      String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
+      String checksumValue;
+
+      Path contentPath = getContentPath(contentItem, properties);
+      if (contentPath != null) {
+        // The framework has already copied the content to a temporary file, so the checksum is
+        // calculated from that file instead of reading the content again through its stream
+        checksumValue = calculateChecksum(contentPath);
+      } else {
+        try (InputStream inputStream = contentItem.getInputStream()) {
+          checksumValue = calculateChecksum(inputStream);
         } catch (IOException e) {
-          throw new PluginExecutionException("Error calculating checksum", e);
-        } catch (NoSuchAlgorithmException e) {
-          throw new PluginExecutionException("Unsupported algorithm", e);
+          throw new PluginExecutionException("Unable to retrieve input stream for content item", e);
         }
-
-        addChecksumAttributes(contentItem.getMetacard(), checksumAlgorithm, checksumValue);
-      } catch (IOException e) {
-        throw new PluginExecutionException("Unable to retrieve input stream for content item", e);
       }
+
+      addChecksumAttributes(contentItem.getMetacard(), checksumAlgorithm, checksumValue);
+    }
+  }
+
+  private String calculateChecksum(InputStream inputStream) throws PluginExecutionException {
+    try {
+      return checksumProvider.calculateChecksum(inputStream);
+    } catch (IOException e) {
+      throw new PluginExecutionException("Error calculating checksum", e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new PluginExecutionException("Unsupported algorithm", e);
+    }
+  }
+
+  private String calculateChecksum(Path contentPath) throws PluginExecutionException {
+    try {
+      return checksumProvider.calculateFileChecksum(contentPath);
+    } catch (IOException e) {
+      throw new PluginExecutionException("Error calculating checksum", e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new PluginExecutionException("Unsupported algorithm", e);
+    }
+  }
+
+  /**
+   * Gets the temporary file the framework copied the content of an item to, as long as the item is
+   * the one the framework created for that file. A plugin that ran earlier could have replaced the
+   * item with one that has different content.
+   *
+   * @return the path of the file, or null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  private Path getContentPath(ContentItem contentItem, Map<String, Serializable> properties) {
+    if (properties == null
+        || !(properties.get(Constants.CONTENT_PATHS) instanceof Map)
+        || !isFrameworkContentItem(contentItem, properties)) {
+      return null;
     }
+
+    Map<String, Path> contentPaths =
+        ((Map<String, Map<String, Path>>) properties.get(Constants.CONTENT_PATHS))
+            .get(contentItem.getId());
+    if (contentPaths == null) {
+      return null;
+    }
+
+    Path contentPath =
+        contentPaths.entrySet().stream()
+            .filter(entry -> StringUtils.isEmpty(entry.getKey()))
+            .map(Map.Entry::getValue)
+            .findFirst()
+            .orElse(null);
+
+    return contentPath != null && Files.isRegularFile(contentPath) ? contentPath : null;
+  }
+
+  private static boolean isFrameworkContentItem(
+      ContentItem contentItem, Map<String, Serializable> properties) {
+    Serializable contentPathItems = properties.get(Constants.CONTENT_PATH_ITEMS);
+    return contentPathItems instanceof Collection
+        && ((Collection<?>) contentPathItems).stream().anyMatch(item -> item == contentItem);
   }
 
   private void addChecksumAttributes(
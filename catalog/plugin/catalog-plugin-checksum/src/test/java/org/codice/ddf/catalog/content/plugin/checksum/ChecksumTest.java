@@ -25,6 +25,7 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
@@ -34,15 +35,24 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.codice.ddf.checksum.ChecksumProvider;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class ChecksumTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private ChecksumProvider mockChecksumProvider;
 
   private Checksum checksum;
@@ -177,6 +187,47 @@ public void testProcessUpdateChecksumCalculationIOException() throws Exception {
     }
   }
 
+  @Test
+  public void testProcessCreateUsesTemporaryContentFile() throws Exception {
+    Path contentPath = temporaryFolder.newFile().toPath();
+    Files.write(contentPath, new byte[] {1, 2, 3});
+    when(mockChecksumProvider.calculateFileChecksum(contentPath)).thenReturn("file-checksum");
+
+    ContentItem contentItem = mockCreateRequest.getContentItems().get(0);
+    when(contentItem.getId()).thenReturn("id");
+    when(mockCreateRequest.getProperties())
+        .thenReturn(contentPaths("id", contentPath, contentItem));
+
+    checksum.process(mockCreateRequest);
+
+    assertThat(
+        contentItem.getMetacard().getAttribute(Metacard.CHECKSUM).getValue(), is("file-checksum"));
+    verify(contentItem, never()).getInputStream();
+  }
+
+  @Test
+  public void testProcessCreateReadsStreamWhenContentItemWasReplaced() throws Exception {
+    Path contentPath = temporaryFolder.newFile().toPath();
+    Files.write(contentPath, new byte[] {1, 2, 3});
+
+    // A plugin replaced the item the framework created, without changing the size of its content
+    ContentItem contentItem = mockCreateRequest.getContentItems().get(0);
+    when(contentItem.getId()).thenReturn("id");
+    when(contentItem.getSize()).thenReturn(3L);
+    ContentItem frameworkContentItem = mock(ContentItem.class);
+    when(frameworkContentItem.getId()).thenReturn("id");
+    when(frameworkContentItem.getSize()).thenReturn(3L);
+    when(mockCreateRequest.getProperties())
+        .thenReturn(contentPaths("id", contentPath, frameworkContentItem));
+
+    checksum.process(mockCreateRequest);
+
+    assertThat(
+        contentItem.getMetacard().getAttribute(Metacard.CHECKSUM).getValue(),
+        is(SAMPLE_CHECKSUM_VALUE));
+    verify(mockChecksumProvider, never()).calculateFileChecksum(any(Path.class));
+  }
+
   @Test
   public void testProcessCreateDerivedContentDoesNotSetAttribute() throws Exception {
     Metacard metacard = mock(Metacard.class);
@@ -212,4 +263,20 @@ public void testProcessUpdateDerivedContentDoesNotSetAttribute() throws Exceptio
 
     verify(metacard, never()).setAttribute(any(Attribute.class));
   }
+
+  private static Map<String, Serializable> contentPaths(
+      String id, Path contentPath, ContentItem contentItem) {
+    HashMap<String, Path> pathAndQualifiers = new HashMap<>();
+    pathAndQualifiers.put(null, contentPath);
+    HashMap<String, HashMap<String, Path>> tmpContentPaths = new HashMap<>();
+    tmpContentPaths.put(id, pathAndQualifiers);
+
+    ArrayList<ContentItem> contentPathItems = new ArrayList<>();
+    contentPathItems.add(contentItem);
+
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.CONTENT_PATHS, tmpContentPaths);
+    properties.put(Constants.CONTENT_PATH_ITEMS, contentPathItems);
+    return properties;
+  }
 }
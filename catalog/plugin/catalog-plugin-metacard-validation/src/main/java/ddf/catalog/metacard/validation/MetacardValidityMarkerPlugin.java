@@ -27,6 +27,7 @@
 import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
@@ -40,6 +41,7 @@
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -81,18 +83,52 @@ public UpdateRequest process(UpdateRequest input)
 
   private <T> List<T> validateList(List<T> requestItems, Function<T, Metacard> itemToMetacard) {
     Map<String, Integer> counter = new HashMap<>();
+    Map<MetacardValidator, List<ValidationException>> batchResults =
+        validateBatches(requestItems.stream().map(itemToMetacard).collect(Collectors.toList()));
 
     List<T> validated =
-        requestItems.stream()
-            .map(item -> validate(item, itemToMetacard, counter))
+        IntStream.range(0, requestItems.size())
+            .mapToObj(
+                index ->
+                    validate(
+                        requestItems.get(index), index, itemToMetacard, batchResults, counter))
             .filter(didNotFailEnforcedValidator)
             .collect(Collectors.toList());
 
     return validated;
   }
 
+  /**
+   * Validates all of the metacards of a request at once with each {@link BatchMetacardValidator}.
+   *
+   * @return the results of each {@link BatchMetacardValidator}, by validator
+   */
+  private Map<MetacardValidator, List<ValidationException>> validateBatches(
+      List<Metacard> metacards) {
+    Map<MetacardValidator, List<ValidationException>> batchResults = new HashMap<>();
+    for (MetacardValidator validator : metacardValidators) {
+      if (validator instanceof BatchMetacardValidator) {
+        List<ValidationException> results =
+            ((BatchMetacardValidator) validator).validateBatch(metacards);
+        if (results != null && results.size() == metacards.size()) {
+          batchResults.put(validator, results);
+        } else {
+          LOGGER.debug(
+              "Metacard validator {} did not return a result for each metacard of the batch."
+                  + " The metacards will be validated one at a time.",
+              getValidatorName(validator));
+        }
+      }
+    }
+    return batchResults;
+  }
+
   private <T> T validate(
-      T item, Function<T, Metacard> itemToMetacard, Map<String, Integer> counter) {
+      T item,
+      int index,
+      Function<T, Metacard> itemToMetacard,
+      Map<MetacardValidator, List<ValidationException>> batchResults,
+      Map<String, Integer> counter) {
     Set<Serializable> newErrors = new HashSet<>();
     Set<Serializable> newWarnings = new HashSet<>();
     Set<Serializable> errorValidators = new HashSet<>();
@@ -106,9 +142,8 @@ private <T> T validate(
     String valid = VALID_TAG;
 
     for (MetacardValidator validator : metacardValidators) {
-      try {
-        validator.validate(metacard);
-      } catch (ValidationException e) {
+      ValidationException e = getValidationException(validator, metacard, index, batchResults);
+      if (e != null) {
         String validatorName = getValidatorName(validator);
         boolean validationErrorsExist = CollectionUtils.isNotEmpty(e.getErrors());
         boolean validationWarningsExist = CollectionUtils.isNotEmpty(e.getWarnings());
@@ -195,6 +230,24 @@ private <T> T validate(
     return item;
   }
 
+  private ValidationException getValidationException(
+      MetacardValidator validator,
+      Metacard metacard,
+      int index,
+      Map<MetacardValidator, List<ValidationException>> batchResults) {
+    List<ValidationException> results = batchResults.get(validator);
+    if (results != null) {
+      return results.get(index);
+    }
+
+    try {
+      validator.validate(metacard);
+      return null;
+    } catch (ValidationException e) {
+      return e;
+    }
+  }
+
   private void getValidationProblems(
       String validatorName,
       ValidationException e,
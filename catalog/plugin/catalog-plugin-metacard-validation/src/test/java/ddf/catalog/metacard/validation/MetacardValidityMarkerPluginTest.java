@@ -26,6 +26,8 @@
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -46,11 +48,13 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -340,6 +344,30 @@ public void testMetacardFailsEnforcedValidator()
     verifyEnforcedUpdate(updateRequest, updatedMetacards.subList(1, updatedMetacards.size()));
   }
 
+  @Test
+  public void testMetacardFailsEnforcedBatchValidator()
+      throws ValidationException, StopProcessingException, PluginExecutionException {
+    ValidationException validationException = mock(ValidationException.class);
+    when(validationException.getErrors()).thenReturn(Collections.singletonList(SAMPLE_ERROR));
+    BatchMetacardValidator batchValidator =
+        mock(BatchMetacardValidator.class, withSettings().extraInterfaces(Describable.class));
+    when(batchValidator.validateBatch(any()))
+        .thenReturn(Arrays.asList(null, validationException));
+    when(((Describable) batchValidator).getId()).thenReturn(ID);
+    metacardValidators.add(batchValidator);
+    enforcedMetacardValidators.add(ID);
+
+    CreateRequest createRequest = getMockCreateRequest();
+    List<Metacard> createdMetacards = createRequest.getMetacards();
+    verifyEnforcedCreate(createRequest, createdMetacards.subList(0, 1));
+
+    UpdateRequest updateRequest = getMockUpdateRequest();
+    List<Metacard> updatedMetacards = getUpdatedMetacards(updateRequest);
+    verifyEnforcedUpdate(updateRequest, updatedMetacards.subList(0, 1));
+
+    verify(batchValidator, never()).validate(any(Metacard.class));
+  }
+
   @Test
   public void testMetacardPassesEnforcedValidatorsNoDescribable()
       throws StopProcessingException, PluginExecutionException {
@@ -43,11 +43,13 @@
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.TreeMap;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.subject.Subject;
 import org.codice.ddf.security.Security;
 import org.osgi.framework.Bundle;
@@ -59,6 +61,10 @@
 /**
  * This {@link AccessPlugin} performs redaction and filtering on {@link QueryResponse} objects as
  * they pass through the framework.
+ *
+ * <p>The permissions of the metacards of a response are checked together in a single check of the
+ * subject, with one permission for each distinct set of security markings, since the results of a
+ * response usually share a few sets of markings.
  */
 public class FilterPlugin implements AccessPlugin {
 
@@ -210,10 +216,12 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
     List<Metacard> newResults = new ArrayList<>(results.size());
     KeyValueCollectionPermission securityPermission =
         permissions.buildKeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    boolean[] permitted =
+        checkPermissions(results, securityPermission, subject, CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
-    for (Metacard metacard : results) {
-      Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+    for (int i = 0; i < results.size(); i++) {
+      Metacard metacard = results.get(i);
+      if (!permitted[i]) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -255,14 +263,19 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
 
     List<Result> results = input.getResults();
     List<Result> newResults = new ArrayList<>(results.size());
-    Metacard metacard;
+    List<Metacard> metacards = new ArrayList<>(results.size());
+    for (Result result : results) {
+      metacards.add(result.getMetacard());
+    }
     KeyValueCollectionPermission securityPermission =
         permissions.buildKeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    boolean[] permitted =
+        checkPermissions(metacards, securityPermission, subject, CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
-    for (Result result : results) {
-      metacard = result.getMetacard();
-      Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+    for (int i = 0; i < results.size(); i++) {
+      Result result = results.get(i);
+      Metacard metacard = metacards.get(i);
+      if (!permitted[i]) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -347,6 +360,48 @@ private Subject getSubject(Request input) throws StopProcessingException {
     return subject;
   }
 
+  /**
+   * Checks the permissions of the security markings of the metacards with a single check of the
+   * subject, which has one permission for each distinct set of markings.
+   *
+   * @return whether each metacard is permitted, in the order of {@code metacards}
+   */
+  private boolean[] checkPermissions(
+      List<Metacard> metacards,
+      KeyValueCollectionPermission securityPermission,
+      Subject subject,
+      String action) {
+    Map<Map<String, Set<String>>, Integer> permissionIndexes = new HashMap<>();
+    List<Permission> markingPermissions = new ArrayList<>();
+    int[] metacardPermissionIndexes = new int[metacards.size()];
+    for (int i = 0; i < metacards.size(); i++) {
+      Attribute attr = metacards.get(i).getAttribute(Metacard.SECURITY);
+      Map<String, Set<String>> map = null;
+      if (attr != null) {
+        map = (Map<String, Set<String>>) attr.getValue();
+      }
+
+      Integer index = permissionIndexes.get(map);
+      if (index == null) {
+        index = markingPermissions.size();
+        permissionIndexes.put(map, index);
+        markingPermissions.add(
+            map == null
+                ? securityPermission
+                : permissions.buildKeyValueCollectionPermission(action, map));
+      }
+      metacardPermissionIndexes[i] = index;
+    }
+
+    boolean[] decisions =
+        markingPermissions.isEmpty() ? new boolean[0] : subject.isPermitted(markingPermissions);
+    boolean[] permitted = new boolean[metacards.size()];
+    for (int i = 0; i < permitted.length; i++) {
+      permitted[i] = decisions[metacardPermissionIndexes[i]];
+    }
+    return permitted;
+  }
+
   private boolean checkPermissions(
       Attribute attr,
       KeyValueCollectionPermission securityPermission,
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.security.filter.plugin;
+
+import ddf.catalog.Constants;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.plugin.PreQueryPlugin;
+import ddf.catalog.security.FilterStrategy;
+import ddf.security.SecurityConstants;
+import ddf.security.permission.SecurityConstraintProvider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.shiro.subject.Subject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This {@link PreQueryPlugin} adds the security constraints of the query's subject to the query
+ * request, so that sources can exclude the metacards the subject is not permitted to read before
+ * returning them and the pages of results are not emptied by the {@link FilterPlugin}, which still
+ * checks the permissions of every result.
+ *
+ * <p>The constraints are only added for the configured metacard attributes. Every metacard
+ * attribute the values of a security attribute are taken from must be mapped to it, and the values
+ * must be their union. The constraints are only added when there is exactly one {@link
+ * SecurityConstraintProvider}, and they are not added when {@link FilterStrategy}s are registered,
+ * since those can return redacted versions of the metacards the subject is not permitted to read.
+ */
+public class SecurityConstraintPlugin implements PreQueryPlugin {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SecurityConstraintPlugin.class);
+
+  private final List<SecurityConstraintProvider> constraintProviders;
+
+  private final List<FilterStrategy> filterStrategies;
+
+  private Map<String, Set<String>> securityAttributes = Collections.emptyMap();
+
+  public SecurityConstraintPlugin(
+      List<SecurityConstraintProvider> constraintProviders, List<FilterStrategy> filterStrategies) {
+    this.constraintProviders = constraintProviders;
+    this.filterStrategies = filterStrategies;
+  }
+
+  /**
+   * Sets the metacard attributes the constraints are added for.
+   *
+   * @param metacardAttributes mappings in the format {@code metacardAttribute=securityAttribute},
+   *     or {@code metacardAttribute} when the security attribute has the same name
+   */
+  public void setMetacardAttributes(List<String> metacardAttributes) {
+    Map<String, Set<String>> attributes = new HashMap<>();
+    if (metacardAttributes != null) {
+      for (String mapping : metacardAttributes) {
+        String[] values = mapping.split("=");
+        String metacardAttribute = values[0].trim();
+        String securityAttribute = values.length == 2 ? values[1].trim() : metacardAttribute;
+        if (values.length > 2 || metacardAttribute.isEmpty() || securityAttribute.isEmpty()) {
+          LOGGER.debug(
+              "Metacard attribute ignored: {} doesn't match expected format of metacardAttribute=securityAttribute",
+              mapping);
+        } else {
+          attributes
+              .computeIfAbsent(securityAttribute, key -> new HashSet<>())
+              .add(metacardAttribute);
+        }
+      }
+    }
+    this.securityAttributes = attributes;
+  }
+
+  @Override
+  public QueryRequest process(QueryRequest input) {
+    Map<String, Set<String>> attributes = securityAttributes;
+    if (attributes.isEmpty() || !filterStrategies.isEmpty() || input.getProperties() == null) {
+      return input;
+    }
+
+    Object subject = input.getProperties().get(SecurityConstants.SECURITY_SUBJECT);
+    if (!(subject instanceof Subject)) {
+      LOGGER.debug("No subject on the query request, not adding security constraints.");
+      return input;
+    }
+
+    Map<String, Set<String>> constraints;
+    try {
+      // the subject can be permitted by any of the providers when there are several of them
+      List<SecurityConstraintProvider> providers = new ArrayList<>(constraintProviders);
+      constraints =
+          providers.size() == 1
+              ? providers.get(0).getSecurityConstraints(((Subject) subject).getPrincipals())
+              : null;
+    } catch (RuntimeException e) {
+      LOGGER.debug("Unable to get the security constraints of the subject.", e);
+      return input;
+    }
+    if (constraints == null) {
+      LOGGER.debug("The security constraints of the subject cannot be determined.");
+      return input;
+    }
+
+    ArrayList<HashMap<String, HashSet<String>>> queryConstraints = new ArrayList<>();
+    for (Map.Entry<String, Set<String>> constraint : constraints.entrySet()) {
+      Set<String> metacardAttributes = attributes.get(constraint.getKey());
+      if (metacardAttributes != null) {
+        HashMap<String, HashSet<String>> queryConstraint = new HashMap<>();
+        for (String metacardAttribute : metacardAttributes) {
+          queryConstraint.put(metacardAttribute, new HashSet<>(constraint.getValue()));
+        }
+        queryConstraints.add(queryConstraint);
+      }
+    }
+
+    if (!queryConstraints.isEmpty()) {
+      LOGGER.trace("Adding security constraints {} to the query request.", queryConstraints);
+      input.getProperties().put(Constants.SECURITY_CONSTRAINTS_KEY, queryConstraints);
+    }
+    return input;
+  }
+}
@@ -19,6 +19,8 @@
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.Metacard;
@@ -99,9 +101,15 @@ public class FilterPluginTest {
 
   DeleteResponse badDeleteResponse;
 
+  AuthorizingRealm realm;
+
+  DefaultSecurityManager manager;
+
+  SimplePrincipalCollection principalCollection;
+
   @Before
   public void setup() {
-    AuthorizingRealm realm = mock(AuthorizingRealm.class);
+    realm = mock(AuthorizingRealm.class);
 
     when(realm.getName()).thenReturn("mockRealm");
     when(realm.isPermitted(any(PrincipalCollection.class), any(Permission.class)))
@@ -110,9 +118,9 @@ public void setup() {
     Collection<org.apache.shiro.realm.Realm> realms = new ArrayList<>();
     realms.add(realm);
 
-    DefaultSecurityManager manager = new DefaultSecurityManager();
+    manager = new DefaultSecurityManager();
     manager.setRealms(realms);
-    SimplePrincipalCollection principalCollection =
+    principalCollection =
         new SimplePrincipalCollection(
             new Principal() {
               @Override
@@ -209,6 +217,46 @@ public void testPluginFilter() {
     }
   }
 
+  @Test
+  public void testPluginFilterChecksSameMarkingsOnce() throws StopProcessingException {
+    QueryResponseImpl response = new QueryResponseImpl(incomingResponse.getRequest());
+    for (int i = 0; i < 3; i++) {
+      response.addResult(new ResultImpl(getMoreRolesMetacard()), false);
+      response.addResult(new ResultImpl(getExactRolesMetacard()), false);
+    }
+    response.addResult(new ResultImpl(getNoSecurityAttributeMetacard()), true);
+
+    QueryResponse filteredResponse = plugin.processPostQuery(response);
+
+    assertEquals(4, filteredResponse.getResults().size());
+    verify(realm, times(3)).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+  }
+
+  @Test
+  public void testPluginFilterChecksResponseInOneCall() throws StopProcessingException {
+    List<List<Permission>> checks = new ArrayList<>();
+    Subject subject =
+        new MockSubject(manager, principalCollection) {
+          @Override
+          public boolean isPermitted(Permission permission) {
+            throw new AssertionError("Permissions must be checked together");
+          }
+
+          @Override
+          public boolean[] isPermitted(List<Permission> permissions) {
+            checks.add(permissions);
+            return super.isPermitted(permissions);
+          }
+        };
+    incomingResponse.getRequest().getProperties().put(SecurityConstants.SECURITY_SUBJECT, subject);
+
+    QueryResponse response = plugin.processPostQuery(incomingResponse);
+
+    verifyFilterResponse(response);
+    assertThat(checks.size(), is(1));
+    assertThat(checks.get(0).size(), is(5));
+  }
+
   @Test
   public void testPluginFilterNoStrategies() {
     plugin = new FilterPlugin(new Security());
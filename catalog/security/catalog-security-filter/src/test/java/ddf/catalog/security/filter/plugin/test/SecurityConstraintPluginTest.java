@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.security.filter.plugin.test;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.Constants;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.security.FilterStrategy;
+import ddf.catalog.security.filter.plugin.SecurityConstraintPlugin;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import ddf.security.permission.SecurityConstraintProvider;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SecurityConstraintPluginTest {
+
+  private PrincipalCollection principals;
+
+  private SecurityConstraintProvider provider;
+
+  private List<SecurityConstraintProvider> providers;
+
+  private List<FilterStrategy> filterStrategies;
+
+  private SecurityConstraintPlugin plugin;
+
+  private QueryRequest request;
+
+  @Before
+  public void setUp() {
+    principals = mock(PrincipalCollection.class);
+    Subject subject = mock(Subject.class);
+    when(subject.getPrincipals()).thenReturn(principals);
+
+    Map<String, Set<String>> constraints = new HashMap<>();
+    constraints.put("rule", new HashSet<>(Arrays.asList("a", "b")));
+    constraints.put("country", Collections.emptySet());
+    provider = mock(SecurityConstraintProvider.class);
+    when(provider.getSecurityConstraints(principals)).thenReturn(constraints);
+
+    providers = new ArrayList<>(Collections.singletonList(provider));
+    filterStrategies = new ArrayList<>();
+    plugin = new SecurityConstraintPlugin(providers, filterStrategies);
+    plugin.setMetacardAttributes(
+        Arrays.asList("security.rule=rule", "security.other-rule=rule", "invalid=a=b"));
+
+    request = new QueryRequestImpl(mock(Query.class));
+    request.getProperties().put(SecurityConstants.SECURITY_SUBJECT, subject);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testConstraintsAdded() {
+    plugin.process(request);
+
+    List<Map<String, Set<String>>> constraints =
+        (List<Map<String, Set<String>>>)
+            request.getPropertyValue(Constants.SECURITY_CONSTRAINTS_KEY);
+    assertThat(constraints.size(), is(1));
+    assertThat(
+        constraints.get(0).keySet(), containsInAnyOrder("security.rule", "security.other-rule"));
+    assertThat(constraints.get(0).get("security.rule"), containsInAnyOrder("a", "b"));
+    assertThat(constraints.get(0).get("security.other-rule"), containsInAnyOrder("a", "b"));
+  }
+
+  @Test
+  public void testNoConfiguredAttributes() {
+    plugin.setMetacardAttributes(null);
+
+    assertNoConstraints();
+  }
+
+  @Test
+  public void testNoSubject() {
+    request.getProperties().remove(SecurityConstants.SECURITY_SUBJECT);
+
+    assertNoConstraints();
+  }
+
+  @Test
+  public void testUnknownConstraints() {
+    when(provider.getSecurityConstraints(principals)).thenReturn(null);
+
+    assertNoConstraints();
+  }
+
+  @Test
+  public void testSeveralProviders() {
+    providers.add(mock(SecurityConstraintProvider.class));
+
+    assertNoConstraints();
+  }
+
+  @Test
+  public void testFilterStrategies() {
+    filterStrategies.add(mock(FilterStrategy.class));
+
+    assertNoConstraints();
+  }
+
+  private void assertNoConstraints() {
+    assertThat(
+        plugin.process(request).getProperties(),
+        not(hasKey(Constants.SECURITY_CONSTRAINTS_KEY)));
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest.METHOD;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-only list of {@link Result}s that pages through a Solr query with a {@code cursorMark} as
+ * it is read, only holding a single page of results in memory at a time.
+ *
+ * <p>The list is meant to be iterated once from start to end. Reading it in order costs one Solr
+ * request per page. Reading an element from a page that has already been left restarts paging from
+ * the first page. The size of the list is the number of matches reported by the first page;
+ * documents deleted while the list is being read shorten it.
+ */
+class CursorMarkResultList extends AbstractList<Result> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CursorMarkResultList.class);
+
+  /** Converts a single Solr document into a {@link Result}. */
+  @FunctionalInterface
+  interface ResultConverter {
+    Result convert(SolrDocument document) throws MetacardCreationException;
+  }
+
+  private final SolrClient client;
+
+  private final SolrQuery query;
+
+  private final ResultConverter converter;
+
+  private final int size;
+
+  private final List<Result> firstPage;
+
+  private final String firstPageNextCursorMark;
+
+  private List<Result> currentPage;
+
+  private int currentPageStart;
+
+  private String nextCursorMark;
+
+  /**
+   * @param client client used to query Solr
+   * @param query the query to page through. Must be sorted on the unique key and have the number
+   *     of rows per page set.
+   * @param converter converts Solr documents into results
+   * @throws UnsupportedQueryException if the first page could not be retrieved
+   */
+  CursorMarkResultList(SolrClient client, SolrQuery query, ResultConverter converter)
+      throws UnsupportedQueryException {
+    this.client = client;
+    this.query = query;
+    this.converter = converter;
+
+    try {
+      QueryResponse response = fetch(CursorMarkParams.CURSOR_MARK_START);
+      SolrDocumentList docs = response.getResults();
+      this.size = docs == null ? 0 : Math.toIntExact(docs.getNumFound());
+      this.firstPage = convert(docs);
+      this.firstPageNextCursorMark = response.getNextCursorMark();
+    } catch (SolrServerException | IOException | SolrException | ArithmeticException e) {
+      throw new UnsupportedQueryException("Could not complete solr query.", e);
+    }
+
+    resetToFirstPage();
+  }
+
+  @Override
+  public Result get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    if (index < currentPageStart) {
+      LOGGER.debug("Restarting cursor to read result {}", index);
+      resetToFirstPage();
+    }
+
+    while (index >= currentPageStart + currentPage.size()) {
+      if (!nextPage()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+    }
+
+    return currentPage.get(index - currentPageStart);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void resetToFirstPage() {
+    currentPage = firstPage;
+    currentPageStart = 0;
+    nextCursorMark = firstPageNextCursorMark;
+  }
+
+  private boolean nextPage() {
+    if (currentPage.isEmpty()) {
+      return false;
+    }
+
+    try {
+      QueryResponse response = fetch(nextCursorMark);
+      currentPageStart += currentPage.size();
+      currentPage = convert(response.getResults());
+      nextCursorMark = response.getNextCursorMark();
+    } catch (SolrServerException | IOException | SolrException | UnsupportedQueryException e) {
+      throw new IllegalStateException("Could not retrieve the next page of results.", e);
+    }
+
+    return !currentPage.isEmpty();
+  }
+
+  private QueryResponse fetch(String cursorMark) throws SolrServerException, IOException {
+    SolrQuery pageQuery = query.getCopy();
+    pageQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+    return client.query(pageQuery, METHOD.POST);
+  }
+
+  private List<Result> convert(SolrDocumentList docs) throws UnsupportedQueryException {
+    if (docs == null) {
+      return new ArrayList<>();
+    }
+
+    List<Result> results = new ArrayList<>(docs.size());
+    for (SolrDocument doc : docs) {
+      try {
+        results.add(converter.convert(doc));
+      } catch (MetacardCreationException e) {
+        throw new UnsupportedQueryException("Could not create result metacard(s).", e);
+      }
+    }
+    return results;
+  }
+}
@@ -28,11 +28,7 @@
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.experimental.Extracted;
 import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.security.AccessController;
@@ -124,6 +120,8 @@ public class DynamicSchemaResolver {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DynamicSchemaResolver.class);
 
+  private static final ObjectValueCodec OBJECT_VALUE_CODEC = new ObjectValueCodec();
+
   private static final ObjectMapper METACARD_TYPE_MAPPER =
       MetacardTypeMapperFactory.newObjectMapper();
 
@@ -296,14 +294,11 @@ void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
                     + getSpecialIndexSuffix(AttributeFormat.STRING),
                 attributeValues);
           } else if (AttributeFormat.OBJECT.equals(format)) {
-            ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
             List<Serializable> byteArrays = new ArrayList<>();
 
-            try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOS)) {
+            try {
               for (Serializable serializable : attributeValues) {
-                out.writeObject(serializable);
-                byteArrays.add(byteArrayOS.toByteArray());
-                out.reset();
+                byteArrays.add(OBJECT_VALUE_CODEC.encode(serializable));
               }
             } catch (IOException e) {
               throw new MetacardCreationException(COULD_NOT_SERIALIZE_OBJECT_MESSAGE, e);
@@ -490,8 +485,6 @@ List<Serializable> getDocValues(String solrFieldName, Collection<Object> docValu
     return values;
   }
 
-  @SuppressWarnings(
-      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
   private Serializable getDocValue(String solrFieldName, Object docValue) {
 
     AttributeFormat format = getType(solrFieldName);
@@ -504,22 +497,12 @@ private Serializable getDocValue(String solrFieldName, Object docValue) {
        */
       return Short.parseShort(docValue.toString());
     } else if (AttributeFormat.OBJECT.equals(format)) {
-
-      ByteArrayInputStream bais = null;
-      ObjectInputStream in = null;
-
       try {
-        bais = new ByteArrayInputStream((byte[]) docValue);
-        in = new ObjectInputStream(bais);
-        return (Serializable) in.readObject();
+        return OBJECT_VALUE_CODEC.decode((byte[]) docValue);
       } catch (IOException e) {
         LOGGER.info("IO exception loading input document", e);
       } catch (ClassNotFoundException e) {
         LOGGER.info("Could not create object to return.", e);
-        // TODO which exception to throw?
-      } finally {
-        IOUtils.closeQuietly(bais);
-        IOUtils.closeQuietly(in);
       }
 
       return null;
@@ -571,6 +554,22 @@ List<String> getAnonymousField(String field) {
     return list;
   }
 
+  /**
+   * Returns the names of every Solr field the value of an attribute can be stored in, whether or
+   * not such a field exists yet.
+   *
+   * @param attributeName the attribute name
+   * @return the possible stored Solr field names
+   */
+  List<String> getStoredFieldNames(String attributeName) {
+    return Arrays.stream(AttributeFormat.values())
+        .map(this::getFieldSuffix)
+        .filter(Objects::nonNull)
+        .distinct()
+        .map(suffix -> attributeName + suffix)
+        .collect(Collectors.toList());
+  }
+
   /**
    * Attempts to find the fieldName for the given propertyName value.
    *
@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Encodes the values of {@link ddf.catalog.data.AttributeType.AttributeFormat#OBJECT} attributes
+ * stored in Solr.
+ *
+ * <p>Common payloads (strings, boxed primitives, dates, byte arrays and {@code ArrayList}, {@code
+ * HashMap}, {@code LinkedHashMap}, {@code HashSet} and {@code LinkedHashSet} made of them, such as
+ * the security map) are written in a compact binary format made of a two byte header (a marker
+ * byte and a format version) followed by tagged values. Any other value is written with Java
+ * serialization.
+ *
+ * <p>Java serialization streams always start with {@code 0xACED}, so the marker byte tells the two
+ * formats apart on decode and values indexed before this codec existed can still be read.
+ */
+class ObjectValueCodec {
+
+  static final byte MARKER = (byte) 0xDD;
+
+  static final byte VERSION = 1;
+
+  private static final byte NULL = 0;
+
+  private static final byte STRING = 1;
+
+  private static final byte BOOLEAN = 2;
+
+  private static final byte INTEGER = 3;
+
+  private static final byte LONG = 4;
+
+  private static final byte DOUBLE = 5;
+
+  private static final byte FLOAT = 6;
+
+  private static final byte SHORT = 7;
+
+  private static final byte DATE = 8;
+
+  private static final byte BYTES = 9;
+
+  private static final byte ARRAY_LIST = 10;
+
+  private static final byte HASH_SET = 11;
+
+  private static final byte LINKED_HASH_SET = 12;
+
+  private static final byte HASH_MAP = 13;
+
+  private static final byte LINKED_HASH_MAP = 14;
+
+  private static final int MAX_DEPTH = 16;
+
+  /**
+   * @param value the value to encode
+   * @return the encoded value
+   * @throws IOException if the value could not be encoded
+   */
+  byte[] encode(Serializable value) throws IOException {
+    if (isSupported(value, 0)) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeByte(MARKER);
+        out.writeByte(VERSION);
+        write(out, value);
+      }
+      return bytes.toByteArray();
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @param bytes a value previously encoded with {@link #encode(Serializable)} or with Java
+   *     serialization
+   * @return the decoded value
+   * @throws IOException if the value could not be decoded
+   * @throws ClassNotFoundException if a Java serialized value is of an unknown class
+   */
+  Serializable decode(byte[] bytes) throws IOException, ClassNotFoundException {
+    if (bytes.length >= 2 && bytes[0] == MARKER) {
+      if (bytes[1] != VERSION) {
+        throw new IOException("Unsupported object value format version " + bytes[1]);
+      }
+      try (DataInputStream in =
+          new DataInputStream(new ByteArrayInputStream(bytes, 2, bytes.length - 2))) {
+        return read(in);
+      }
+    }
+
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (Serializable) in.readObject();
+    }
+  }
+
+  private boolean isSupported(Object value, int depth) {
+    if (depth > MAX_DEPTH) {
+      return false;
+    }
+
+    if (value == null || isSupportedScalar(value)) {
+      return true;
+    }
+
+    Class<?> type = value.getClass();
+    if (type == ArrayList.class || type == HashSet.class || type == LinkedHashSet.class) {
+      return ((Collection<?>) value).stream().allMatch(element -> isSupported(element, depth + 1));
+    }
+
+    if (type == HashMap.class || type == LinkedHashMap.class) {
+      return ((Map<?, ?>) value)
+          .entrySet().stream()
+              .allMatch(
+                  entry ->
+                      isSupported(entry.getKey(), depth + 1)
+                          && isSupported(entry.getValue(), depth + 1));
+    }
+
+    return false;
+  }
+
+  private boolean isSupportedScalar(Object value) {
+    Class<?> type = value.getClass();
+    return type == String.class
+        || type == Boolean.class
+        || type == Integer.class
+        || type == Long.class
+        || type == Double.class
+        || type == Float.class
+        || type == Short.class
+        || type == Date.class
+        || type == byte[].class;
+  }
+
+  private void write(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof String) {
+      writeString(out, (String) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Date) {
+      out.writeByte(DATE);
+      out.writeLong(((Date) value).getTime());
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      out.writeByte(BYTES);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    } else if (value instanceof Map) {
+      out.writeByte(value instanceof LinkedHashMap ? LINKED_HASH_MAP : HASH_MAP);
+      Map<?, ?> map = (Map<?, ?>) value;
+      out.writeInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        write(out, entry.getKey());
+        write(out, entry.getValue());
+      }
+    } else {
+      if (value instanceof LinkedHashSet) {
+        out.writeByte(LINKED_HASH_SET);
+      } else if (value instanceof HashSet) {
+        out.writeByte(HASH_SET);
+      } else {
+        out.writeByte(ARRAY_LIST);
+      }
+      Collection<?> collection = (Collection<?>) value;
+      out.writeInt(collection.size());
+      for (Object element : collection) {
+        write(out, element);
+      }
+    }
+  }
+
+  private void writeString(DataOutputStream out, String value) throws IOException {
+    // writeUTF is limited to 64KB, so the length is written separately
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeByte(STRING);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+
+  private Serializable read(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case STRING:
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+      case BOOLEAN:
+        return in.readBoolean();
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case FLOAT:
+        return in.readFloat();
+      case SHORT:
+        return in.readShort();
+      case DATE:
+        return new Date(in.readLong());
+      case BYTES:
+        return readBytes(in);
+      case ARRAY_LIST:
+        return readCollection(in, new ArrayList<>());
+      case HASH_SET:
+        return readCollection(in, new HashSet<>());
+      case LINKED_HASH_SET:
+        return readCollection(in, new LinkedHashSet<>());
+      case HASH_MAP:
+        return readMap(in, new HashMap<>());
+      case LINKED_HASH_MAP:
+        return readMap(in, new LinkedHashMap<>());
+      default:
+        throw new IOException("Unknown object value tag " + tag);
+    }
+  }
+
+  private byte[] readBytes(DataInputStream in) throws IOException {
+    int length = readSize(in);
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private <T extends Collection<Serializable> & Serializable> T readCollection(
+      DataInputStream in, T collection) throws IOException {
+    int size = readSize(in);
+    for (int i = 0; i < size; i++) {
+      collection.add(read(in));
+    }
+    return collection;
+  }
+
+  private <T extends Map<Serializable, Serializable> & Serializable> T readMap(
+      DataInputStream in, T map) throws IOException {
+    int size = readSize(in);
+    for (int i = 0; i < size; i++) {
+      Serializable key = read(in);
+      map.put(key, read(in));
+    }
+    return map;
+  }
+
+  private int readSize(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0 || size > in.available()) {
+      throw new IOException("Invalid object value length " + size);
+    }
+    return size;
+  }
+}
@@ -16,6 +16,9 @@
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.SECURITY_CONSTRAINTS_KEY;
+import static ddf.catalog.Constants.SORTED_RESULTS_KEY;
+import static ddf.catalog.Constants.STREAM_RESULTS_KEY;
 import static ddf.catalog.Constants.SUGGESTION_BUILD_KEY;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
@@ -32,7 +35,8 @@
 import ddf.catalog.data.MetacardCreationException;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.CompactAttributeImpl;
+import ddf.catalog.data.impl.CompactMetacardImpl;
 import ddf.catalog.data.impl.ContentTypeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
@@ -45,6 +49,7 @@
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.util.impl.Requests;
 import ddf.measure.Distance;
 import java.io.IOException;
 import java.io.Serializable;
@@ -57,10 +62,13 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
@@ -76,6 +84,7 @@
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.SpellCheckResponse.Collation;
 import org.apache.solr.client.solrj.response.SuggesterResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
@@ -155,6 +164,11 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
   private final int queryTimeAllowedMs =
       Math.max(NumberUtils.toInt(accessProperty(SOLR_QUERY_TIMEALLOWEDMS, "0")), 0);
 
+  private static final String SOLR_QUERY_STREAMING_PAGE_SIZE = "solr.query.streamingPageSize";
+
+  private final int streamingPageSize =
+      Math.max(NumberUtils.toInt(accessProperty(SOLR_QUERY_STREAMING_PAGE_SIZE, "1000")), 1);
+
   protected ResultHighlighter highlighter;
 
   public SolrMetacardClientImpl(
@@ -202,12 +216,15 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         LOGGER.debug("Performing real time query");
         SolrQuery realTimeQuery = getRealTimeQuery(query, solrFilterDelegate.getIds());
         solrResponse = client.query(realTimeQuery, METHOD.POST);
+      } else if (isStreamingQuery(request, solrFilterDelegate)) {
+        return streamResults(request, query);
       } else {
         if (userSpellcheckIsOn) {
           query.setParam(SPELLCHECK_KEY, true);
         }
         highlighter.processPreQuery(request, query);
         solrResponse = client.query(query, METHOD.POST);
+        responseProps.put(SORTED_RESULTS_KEY, true);
       }
 
       if (isFacetedQuery) {
@@ -232,6 +249,26 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     return new SourceResponseImpl(request, responseProps, results, totalHits);
   }
 
+  private SourceResponse streamResults(QueryRequest request, SolrQuery query)
+      throws UnsupportedQueryException {
+    LOGGER.debug("Streaming results {} at a time", streamingPageSize);
+    SolrQuery cursorQuery = query.getCopy();
+    cursorQuery.setStart(0);
+    cursorQuery.setRows(streamingPageSize);
+    // Cursors require a sort on the unique key to break ties and do not support partial results
+    String idField = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+    if (cursorQuery.getSorts().stream().noneMatch(sort -> idField.equals(sort.getItem()))) {
+      cursorQuery.addSort(idField, SolrQuery.ORDER.asc);
+    }
+    cursorQuery.remove(CommonParams.TIME_ALLOWED);
+
+    List<Result> results = new CursorMarkResultList(client, cursorQuery, this::createResult);
+
+    Map<String, Serializable> responseProps = new HashMap<>();
+    responseProps.put(SORTED_RESULTS_KEY, true);
+    return new SourceResponseImpl(request, responseProps, results, results.size());
+  }
+
   private List<SolrDocument> getSolrDocs(Set<String> ids) throws UnsupportedQueryException {
     List<SolrDocument> solrDocs = new ArrayList<>(ids.size());
     List<List<String>> partitions = Lists.partition(new ArrayList<>(ids), GET_BY_ID_LIMIT);
@@ -658,7 +695,10 @@ protected SolrQuery postAdapt(
     // Solr is 0-based
     query.setStart(request.getQuery().getStartIndex() - 1);
 
-    if (queryingForAllRecords(request)) {
+    if (isStreamingQuery(request, filterDelegate)) {
+      // Rows are set per page when the results are streamed
+      query.setRows(streamingPageSize);
+    } else if (queryingForAllRecords(request)) {
       try {
         query.setRows(queryForNumberOfRows(query));
       } catch (SolrServerException | IOException | SolrException | ArithmeticException exception) {
@@ -670,6 +710,10 @@ protected SolrQuery postAdapt(
 
     setSortProperty(request, query, filterDelegate);
 
+    setRequestedFields(request, query);
+
+    setSecurityConstraints(request, query);
+
     if (queryTimeAllowedMs > 0) {
       query.setTimeAllowed(queryTimeAllowedMs);
     }
@@ -685,6 +729,118 @@ private boolean queryingForAllRecords(QueryRequest request) {
     return request.getQuery().getPageSize() < 0;
   }
 
+  /**
+   * Limits the stored fields returned by Solr to the ones holding the requested attributes, keeping
+   * any pseudo-fields (relevance score, distance) already added for sorting.
+   */
+  private void setRequestedFields(QueryRequest request, SolrQuery query) {
+    Set<String> requestedAttributes = Requests.getRequestedAttributes(request);
+    if (requestedAttributes.isEmpty()) {
+      return;
+    }
+
+    Set<String> fields = new LinkedHashSet<>();
+    fields.add(SchemaFields.METACARD_TYPE_FIELD_NAME);
+    fields.add(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
+    // Custom security attributes are needed to filter the results as well
+    fields.add(Metacard.SECURITY + "*");
+    requestedAttributes.stream()
+        .map(resolver::getStoredFieldNames)
+        .flatMap(List::stream)
+        .forEach(fields::add);
+
+    String existingFields = query.getFields();
+    if (existingFields != null) {
+      Arrays.stream(existingFields.split(","))
+          .map(String::trim)
+          .filter(field -> !field.isEmpty() && !"*".equals(field))
+          .forEach(fields::add);
+    }
+
+    LOGGER.trace("Requesting fields {}", fields);
+    query.setFields(fields.toArray(new String[0]));
+  }
+
+  /**
+   * Adds a filter query for each security constraint of the request, so that only the documents
+   * that can be permitted are returned. The filter queries are built in a fixed order so that Solr
+   * caches one filter for all of the queries with the same constraints.
+   */
+  private void setSecurityConstraints(QueryRequest request, SolrQuery query) {
+    Serializable constraints = request.getPropertyValue(SECURITY_CONSTRAINTS_KEY);
+    if (!(constraints instanceof Collection)) {
+      return;
+    }
+
+    for (Object constraint : (Collection<?>) constraints) {
+      if (constraint instanceof Map && !((Map<?, ?>) constraint).isEmpty()) {
+        String filterQuery = getSecurityFilterQuery((Map<?, ?>) constraint);
+        LOGGER.trace("Adding security filter query {}", filterQuery);
+        query.addFilterQuery(filterQuery);
+      }
+    }
+  }
+
+  /**
+   * Returns a filter query matching the documents without a value for any of the attributes of the
+   * constraint, or with one of the attribute's permitted values. The values are matched on the
+   * tokenized fields since permissions are compared ignoring case.
+   */
+  private String getSecurityFilterQuery(Map<?, ?> constraint) {
+    Map<String, Set<String>> attributes = new TreeMap<>();
+    for (Map.Entry<?, ?> entry : constraint.entrySet()) {
+      Set<String> values = new TreeSet<>();
+      if (entry.getValue() instanceof Collection) {
+        for (Object value : (Collection<?>) entry.getValue()) {
+          if (value != null && !value.toString().trim().isEmpty()) {
+            values.add(value.toString().trim());
+          }
+        }
+      }
+      attributes.put(entry.getKey().toString(), values);
+    }
+
+    StringBuilder withoutValues = new StringBuilder("(*:*");
+    List<String> withPermittedValues = new ArrayList<>();
+    for (Map.Entry<String, Set<String>> attribute : attributes.entrySet()) {
+      withoutValues
+          .append(" -")
+          .append(getSecurityField(attribute.getKey(), true))
+          .append(":[* TO *]");
+      if (!attribute.getValue().isEmpty()) {
+        withPermittedValues.add(
+            attribute.getValue().stream()
+                .map(value -> "\"" + ClientUtils.escapeQueryChars(value) + "\"")
+                .collect(
+                    Collectors.joining(
+                        " OR ", getSecurityField(attribute.getKey(), false) + ":(", ")")));
+      }
+    }
+    withoutValues.append(')');
+
+    withPermittedValues.add(0, withoutValues.toString());
+    return String.join(" OR ", withPermittedValues);
+  }
+
+  private String getSecurityField(String attribute, boolean isSearchedAsExactValue) {
+    return resolver.getField(
+        attribute,
+        AttributeType.AttributeFormat.STRING,
+        isSearchedAsExactValue,
+        Collections.emptyMap());
+  }
+
+  private boolean isStreamingQuery(QueryRequest request, SolrFilterDelegate filterDelegate) {
+    return Boolean.TRUE.equals(request.getPropertyValue(STREAM_RESULTS_KEY))
+        && queryingForAllRecords(request)
+        && request.getQuery().getStartIndex() == 1
+        && !(request.getPropertyValue(EXPERIMENTAL_FACET_PROPERTIES_KEY)
+            instanceof TermFacetProperties)
+        && request.getPropertyValue(SUGGESTION_QUERY_KEY) == null
+        && !userSpellcheckIsOn(request)
+        && !filterDelegate.isSortedByDistance();
+  }
+
   private int queryForNumberOfRows(SolrQuery query) throws SolrServerException, IOException {
     int numRows;
     query.setRows(0);
@@ -792,13 +948,13 @@ private ResultImpl createResult(SolrDocument doc) throws MetacardCreationExcepti
 
   public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationException {
     MetacardType metacardType = resolver.getMetacardType(doc);
-    MetacardImpl metacard = new MetacardImpl(metacardType);
+    MetacardImpl metacard = new CompactMetacardImpl(metacardType);
 
     for (String solrFieldName : doc.getFieldNames()) {
       if (!resolver.isPrivateField(solrFieldName)) {
         Collection<Object> fieldValues = doc.getFieldValues(solrFieldName);
         Attribute attr =
-            new AttributeImpl(
+            new CompactAttributeImpl(
                 resolver.resolveFieldName(solrFieldName),
                 resolver.getDocValues(solrFieldName, fieldValues));
         metacard.setAttribute(attr);
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CursorMarkResultListTest {
+
+  private static final List<List<String>> PAGES =
+      List.of(List.of("a", "b"), List.of("c", "d"), List.of("e"), List.of());
+
+  private static final long TOTAL = 5;
+
+  private SolrClient client;
+
+  private CursorMarkResultList.ResultConverter converter;
+
+  @Before
+  public void setUp() throws Exception {
+    client = mock(SolrClient.class);
+    converter =
+        doc -> {
+          MetacardImpl metacard = new MetacardImpl();
+          metacard.setId((String) doc.getFieldValue("id_txt"));
+          return new ResultImpl(metacard);
+        };
+
+    when(client.query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST)))
+        .thenAnswer(
+            invocation -> {
+              SolrQuery query = invocation.getArgument(0);
+              String cursorMark = query.get(CursorMarkParams.CURSOR_MARK_PARAM);
+              int page =
+                  CursorMarkParams.CURSOR_MARK_START.equals(cursorMark)
+                      ? 0
+                      : Integer.parseInt(cursorMark);
+              return getPage(page, TOTAL);
+            });
+  }
+
+  @Test
+  public void testIterationPagesThroughResults() throws Exception {
+    List<Result> results = new CursorMarkResultList(client, new SolrQuery("*:*"), converter);
+
+    assertThat(results.size(), is(5));
+    assertThat(getIds(results), contains("a", "b", "c", "d", "e"));
+    verify(client, times(3)).query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST));
+  }
+
+  @Test
+  public void testReadingEarlierResultRestartsFromFirstPage() throws Exception {
+    List<Result> results = new CursorMarkResultList(client, new SolrQuery("*:*"), converter);
+
+    assertThat(results.get(4).getMetacard().getId(), is("e"));
+    assertThat(results.get(2).getMetacard().getId(), is("c"));
+    assertThat(results.get(0).getMetacard().getId(), is("a"));
+  }
+
+  @Test
+  public void testEmptyResults() throws Exception {
+    QueryResponse emptyPage = getPage(PAGES.size() - 1, 0);
+    doReturn(emptyPage).when(client).query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST));
+
+    List<Result> results = new CursorMarkResultList(client, new SolrQuery("*:*"), converter);
+
+    assertThat(results.isEmpty(), is(true));
+    assertThat(results.iterator().hasNext(), is(false));
+  }
+
+  @Test(expected = UnsupportedQueryException.class)
+  public void testFirstPageFails() throws Exception {
+    doThrow(new SolrServerException("failed"))
+        .when(client)
+        .query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST));
+
+    new CursorMarkResultList(client, new SolrQuery("*:*"), converter);
+  }
+
+  private QueryResponse getPage(int page, long numFound) {
+    SolrDocumentList docs = new SolrDocumentList();
+    docs.setNumFound(numFound);
+    for (String id : PAGES.get(page)) {
+      SolrDocument doc = new SolrDocument();
+      doc.setField("id_txt", id);
+      docs.add(doc);
+    }
+
+    QueryResponse response = mock(QueryResponse.class);
+    when(response.getResults()).thenReturn(docs);
+    when(response.getNextCursorMark())
+        .thenReturn(String.valueOf(Math.min(page + 1, PAGES.size() - 1)));
+    return response;
+  }
+
+  private List<String> getIds(List<Result> results) {
+    List<String> ids = new ArrayList<>();
+    for (Result result : results) {
+      ids.add(result.getMetacard().getId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeMap;
+import org.junit.Test;
+
+public class ObjectValueCodecTest {
+
+  private final ObjectValueCodec codec = new ObjectValueCodec();
+
+  @Test
+  public void testScalars() throws Exception {
+    for (Serializable value :
+        Arrays.<Serializable>asList(
+            "text", true, 42, 42L, 4.2d, 4.2f, (short) 4, new Date(1400673600000L))) {
+      byte[] encoded = codec.encode(value);
+      assertThat(encoded[0], is(ObjectValueCodec.MARKER));
+      assertThat(codec.decode(encoded), is(value));
+    }
+  }
+
+  @Test
+  public void testNull() throws Exception {
+    assertThat(codec.decode(codec.encode(null)), is(nullValue()));
+  }
+
+  @Test
+  public void testByteArray() throws Exception {
+    byte[] value = {1, 2, 3};
+    assertThat(codec.decode(codec.encode(value)), is(value));
+  }
+
+  @Test
+  public void testSecurityMap() throws Exception {
+    HashMap<String, List<String>> security = new HashMap<>();
+    security.put("classification", new ArrayList<>(Arrays.asList("U")));
+    security.put("releasability", new ArrayList<>(Arrays.asList("USA", "CAN", null)));
+
+    byte[] encoded = codec.encode(security);
+
+    assertThat(encoded[0], is(ObjectValueCodec.MARKER));
+    assertThat(codec.decode(encoded), is(security));
+    assertThat(encoded.length, lessThan(javaSerialize(security).length));
+  }
+
+  @Test
+  public void testCollectionTypesArePreserved() throws Exception {
+    LinkedHashMap<String, Serializable> map = new LinkedHashMap<>();
+    map.put("b", new LinkedHashSet<>(Arrays.asList("z", "y")));
+    map.put("a", new HashSet<>(Arrays.asList(1, 2)));
+
+    Serializable decoded = codec.decode(codec.encode(map));
+
+    assertThat(decoded, instanceOf(LinkedHashMap.class));
+    assertThat(decoded, is(map));
+    LinkedHashMap<?, ?> decodedMap = (LinkedHashMap<?, ?>) decoded;
+    assertThat(decodedMap.get("b"), instanceOf(LinkedHashSet.class));
+    assertThat(decodedMap.get("a"), instanceOf(HashSet.class));
+    assertThat(new ArrayList<>(decodedMap.keySet()), is(Arrays.asList("b", "a")));
+  }
+
+  @Test
+  public void testLongString() throws Exception {
+    char[] chars = new char[100_000];
+    Arrays.fill(chars, '\u00e9');
+    String value = new String(chars);
+
+    assertThat(codec.decode(codec.encode(value)), is(value));
+  }
+
+  @Test
+  public void testUnsupportedTypeFallsBackToJavaSerialization() throws Exception {
+    TreeMap<String, String> value = new TreeMap<>();
+    value.put("key", "value");
+
+    byte[] encoded = codec.encode(value);
+
+    assertThat(encoded[0], is((byte) 0xAC));
+    assertThat(codec.decode(encoded), instanceOf(TreeMap.class));
+    assertThat(codec.decode(encoded), is(value));
+  }
+
+  @Test
+  public void testUnsupportedNestedTypeFallsBackToJavaSerialization() throws Exception {
+    ArrayList<Serializable> value = new ArrayList<>();
+    value.add(new TreeMap<>());
+
+    byte[] encoded = codec.encode(value);
+
+    assertThat(encoded[0], is((byte) 0xAC));
+    assertThat(codec.decode(encoded), is(value));
+  }
+
+  @Test
+  public void testDecodesPreviouslyJavaSerializedValues() throws Exception {
+    ArrayList<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+
+    assertThat(codec.decode(javaSerialize(value)), is(value));
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnsupportedVersion() throws Exception {
+    byte[] encoded = codec.encode("text");
+    encoded[1] = (byte) (ObjectValueCodec.VERSION + 1);
+
+    codec.decode(encoded);
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedValue() throws Exception {
+    byte[] encoded = codec.encode(new ArrayList<>(Arrays.asList("a", "b")));
+
+    codec.decode(Arrays.copyOf(encoded, encoded.length - 1));
+  }
+
+  private byte[] javaSerialize(Serializable value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -14,11 +14,13 @@
 package ddf.catalog.source.solr;
 
 import static ddf.catalog.Constants.QUERY_HIGHLIGHT_KEY;
+import static ddf.catalog.Constants.SECURITY_CONSTRAINTS_KEY;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -208,6 +210,35 @@ public void testRealTimeQuery() throws Exception {
     assertThat(results.get(0).getMetacard().getAttribute("title").getValue(), is("normal"));
   }
 
+  @Test
+  public void testQuerySecurityConstraints() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    HashMap<String, HashSet<String>> rules = new HashMap<>();
+    rules.put("security.rule", new HashSet<>(Arrays.asList("b", "a c")));
+    rules.put("security.other-rule", new HashSet<>(Collections.singletonList("a")));
+    HashMap<String, HashSet<String>> countries = new HashMap<>();
+    countries.put("security.country", new HashSet<>());
+    request
+        .getProperties()
+        .put(SECURITY_CONSTRAINTS_KEY, new ArrayList<>(Arrays.asList(rules, countries)));
+
+    when(queryResponse.getResults()).thenReturn(new SolrDocumentList());
+    when(dynamicSchemaResolver.getField(anyString(), any(), anyBoolean(), any()))
+        .thenAnswer(
+            invocation ->
+                invocation.getArgument(0)
+                    + (invocation.<Boolean>getArgument(2) ? "_txt" : "_txt_tokenized"));
+
+    clientImpl.query(request);
+
+    verify(solrQuery)
+        .addFilterQuery(
+            "(*:* -security.other-rule_txt:[* TO *] -security.rule_txt:[* TO *])"
+                + " OR security.other-rule_txt_tokenized:(\"a\")"
+                + " OR security.rule_txt_tokenized:(\"a\\ c\" OR \"b\")");
+    verify(solrQuery).addFilterQuery("(*:* -security.country_txt:[* TO *])");
+  }
+
   @Test
   public void testQueryMultipleResults() throws Exception {
     QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
@@ -31,10 +31,13 @@
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
@@ -43,7 +46,6 @@
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -60,6 +62,7 @@
 import net.opengis.cat.csw.v_2_0_2.ResultType;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.codice.ddf.platform.util.OrderedChunkInputStream;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
@@ -128,6 +131,15 @@ public class CswQueryResponseTransformer implements QueryResponseTransformer {
 
   private static final int ACCUM_INITIAL_SIZE = 4096;
 
+  /**
+   * Maximum number of records transformed ahead of the record being written. Larger responses are
+   * streamed instead of being built in memory.
+   */
+  private static final int MAX_IN_FLIGHT_RECORDS = 256;
+
+  /** Marks where the records are written in the envelope. It cannot be part of valid XML. */
+  private static final String RECORDS_PLACEHOLDER = "\u0000";
+
   public CswQueryResponseTransformer(
       TransformerManager metacardTransformerManager, PrintWriterProvider writerProvider) {
     this.metacardTransformerManager = metacardTransformerManager;
@@ -147,6 +159,11 @@ public BinaryContent transform(SourceResponse sourceResponse, Map<String, Serial
     if (ResultType.VALIDATE.equals(recordCollection.getResultType())) {
       ByteArrayOutputStream baos = writeAcknowledgement(recordCollection.getRequest());
       bais = new ByteArrayInputStream(baos.toByteArray());
+    } else if (!ResultType.HITS.equals(recordCollection.getResultType())
+        && sourceResponse.getResults().size() > MAX_IN_FLIGHT_RECORDS) {
+      return new BinaryContentImpl(
+          stream(recordCollection, sourceResponse.getResults(), arguments),
+          CswRecordConverter.XML_MIME_TYPE);
     } else {
       // "catches" recordCollection.getResultType() == null
       List<Result> results = sourceResponse.getResults();
@@ -159,12 +176,88 @@ public BinaryContent transform(SourceResponse sourceResponse, Map<String, Serial
     return transformedContent;
   }
 
+  /**
+   * Streams the response of a large result set: the envelope header is written first, then each
+   * record as soon as it and all earlier records are transformed, then the footer. At most {@link
+   * #MAX_IN_FLIGHT_RECORDS} records are transformed ahead of the record being written, so the
+   * memory used does not depend on the number of results.
+   *
+   * <p>As when the response is built in memory, a record that fails to transform fails the
+   * response rather than being left out of it, so that the number of records returned is right.
+   * Since the header is already written, the stream fails with an {@link IOException}.
+   */
+  private InputStream stream(
+      CswRecordCollection cswRecordCollection,
+      List<Result> results,
+      Map<String, Serializable> arguments)
+      throws CatalogTransformerException {
+    arguments.put(CswConstants.OMIT_XML_DECLARATION, Boolean.TRUE);
+    MetacardTransformer transformer = getTransformer(cswRecordCollection.getOutputSchema());
+
+    String envelope =
+        writeEnvelope(
+                cswRecordCollection,
+                cswRecordCollection.getNumberOfRecordsReturned(),
+                RECORDS_PLACEHOLDER)
+            .makeString();
+    int recordsIndex = envelope.indexOf(RECORDS_PLACEHOLDER);
+    if (recordsIndex == -1) {
+      throw new CatalogTransformerException("Unable to write the response envelope");
+    }
+    byte[] header = envelope.substring(0, recordsIndex).getBytes(StandardCharsets.UTF_8);
+    byte[] footer =
+        envelope
+            .substring(recordsIndex + RECORDS_PLACEHOLDER.length())
+            .getBytes(StandardCharsets.UTF_8);
+
+    Iterator<Callable<byte[]>> producers =
+        results
+            .stream()
+            .map(Result::getMetacard)
+            .map(mc -> (Callable<byte[]>) () -> transform(transformer, mc, arguments))
+            .iterator();
+
+    return new OrderedChunkInputStream(
+        Collections.singletonList(header),
+        producers,
+        footer,
+        queryExecutor,
+        MAX_IN_FLIGHT_RECORDS);
+  }
+
+  private byte[] transform(
+      MetacardTransformer transformer, Metacard metacard, Map<String, Serializable> arguments)
+      throws IOException {
+    try (InputStream is = transformer.transform(metacard, arguments).getInputStream()) {
+      return IOUtils.toByteArray(is);
+    } catch (CatalogTransformerException | RuntimeException e) {
+      LOGGER.debug("Error transforming Metacard {}", metacard.getId(), e);
+      throw new IOException(
+          "Unable to transform Metacard " + metacard.getId() + ", the response is incomplete", e);
+    }
+  }
+
   private String convert(
       CswRecordCollection cswRecordCollection,
       List<Result> results,
       Map<String, Serializable> arguments)
       throws CatalogTransformerException {
 
+    String metacardsString = null;
+
+    if (!ResultType.HITS.equals(cswRecordCollection.getResultType())) {
+      arguments.put(CswConstants.OMIT_XML_DECLARATION, Boolean.TRUE);
+      metacardsString =
+          multiThreadedMarshal(results, cswRecordCollection.getOutputSchema(), arguments);
+    }
+
+    return writeEnvelope(
+            cswRecordCollection, cswRecordCollection.getNumberOfRecordsReturned(), metacardsString)
+        .makeString();
+  }
+
+  private PrintWriter writeEnvelope(
+      CswRecordCollection cswRecordCollection, long numReturned, String metacardsString) {
     PrintWriter writer = writerProvider.build(Metacard.class);
     writer.setRawValue(XML_DECL);
 
@@ -186,16 +279,6 @@ private String convert(
       nextRecord = 0;
     }
 
-    String metacardsString = null;
-    AtomicLong numReturned = new AtomicLong(cswRecordCollection.getNumberOfRecordsReturned());
-
-    if (!ResultType.HITS.equals(cswRecordCollection.getResultType())) {
-      arguments.put(CswConstants.OMIT_XML_DECLARATION, Boolean.TRUE);
-      metacardsString =
-          multiThreadedMarshal(
-              results, numReturned, cswRecordCollection.getOutputSchema(), arguments);
-    }
-
     if (!cswRecordCollection.isById()) {
       writer.addAttribute(VERSION_ATTRIBUTE, CswConstants.VERSION_2_0_2);
 
@@ -218,7 +301,7 @@ private String convert(
       if (ResultType.HITS.equals(cswRecordCollection.getResultType())) {
         writer.addAttribute(NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE, Long.toString(0));
       } else {
-        writer.addAttribute(NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE, numReturned.toString());
+        writer.addAttribute(NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE, Long.toString(numReturned));
         writer.addAttribute(NEXT_RECORD_ATTRIBUTE, Long.toString(nextRecord));
       }
 
@@ -240,7 +323,7 @@ private String convert(
 
     writer.endNode(); // RECORDS_RESPONSE_QNAME
 
-    return writer.makeString();
+    return writer;
   }
 
   /**
@@ -252,11 +335,10 @@ private String convert(
    * @param recordSchema - the schema
    * @param arguments - additional args
    * @return - the marshaled results
-   * @throws CatalogTransformerException
+   * @throws CatalogTransformerException if a result cannot be marshaled
    */
   private String multiThreadedMarshal(
       List<Result> results,
-      AtomicLong numResults,
       String recordSchema,
       final Map<String, Serializable> arguments)
       throws CatalogTransformerException {
@@ -264,13 +346,10 @@ private String multiThreadedMarshal(
     CompletionService<BinaryContent> completionService =
         new ExecutorCompletionService<>(queryExecutor);
 
-    final MetacardTransformer transformer =
-        metacardTransformerManager.getTransformerBySchema(recordSchema);
-    if (transformer == null) {
-      throw new CatalogTransformerException("Cannot find transformer for schema: " + recordSchema);
-    }
+    final MetacardTransformer transformer = getTransformer(recordSchema);
 
-    Map<Future<BinaryContent>, Result> futures = new HashMap<>(results.size());
+    Map<Future<BinaryContent>, Integer> futures = new HashMap<>(results.size());
+    int resultIndex = 0;
     for (Result result : results) {
       final Metacard mc = result.getMetacard();
 
@@ -282,7 +361,7 @@ private String multiThreadedMarshal(
                 BinaryContent content = transformer.transform(mc, arguments);
                 return content;
               }),
-          result);
+          resultIndex++);
     }
 
     InputStream[] contents = new InputStream[results.size()];
@@ -290,15 +369,15 @@ private String multiThreadedMarshal(
     while (!futures.isEmpty()) {
       try {
         Future<BinaryContent> completedFuture = completionService.take();
-        int index = results.indexOf(futures.get(completedFuture));
+        int index = futures.get(completedFuture);
         try {
           contents[index] = completedFuture.get().getInputStream();
         } catch (ExecutionException | CancellationException e) {
           LOGGER.debug("Error transforming Metacard", e);
-          numResults.decrementAndGet();
+          futures.keySet().forEach(future -> future.cancel(true));
+          throw new CatalogTransformerException(
+              "Unable to transform a Metacard of the response", e);
         } catch (InterruptedException e) {
-          numResults.decrementAndGet();
-
           Thread.currentThread().interrupt();
           throw new CatalogTransformerException("Metacard transform interrupted", e);
         } finally {
@@ -317,13 +396,23 @@ private String multiThreadedMarshal(
           IOUtils.copy(is, accum);
         }
       } catch (IOException e) {
-        LOGGER.debug("Error copying Metacard Binary content", e);
+        throw new CatalogTransformerException("Unable to copy Metacard Binary content", e);
       }
     }
 
     return accum.toString();
   } // end multiThreadedMarshal()
 
+  private MetacardTransformer getTransformer(String recordSchema)
+      throws CatalogTransformerException {
+    MetacardTransformer transformer =
+        metacardTransformerManager.getTransformerBySchema(recordSchema);
+    if (transformer == null) {
+      throw new CatalogTransformerException("Cannot find transformer for schema: " + recordSchema);
+    }
+    return transformer;
+  }
+
   private boolean isByIdQuery(Map<String, Serializable> arguments) {
     Serializable isByIdQuery = arguments.get(CswConstants.IS_BY_ID_QUERY);
     if (isByIdQuery instanceof Boolean) {
@@ -17,6 +17,7 @@
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -343,7 +344,7 @@ public void testMarshalAcknowledgement()
     assertThat(jaxB.getValue(), is(instanceOf(GetRecordsType.class)));
   }
 
-  @Test
+  @Test(expected = CatalogTransformerException.class)
   public void testMarshalAcknowledgementWithFailedTransforms()
       throws WebApplicationException, IOException, JAXBException, CatalogTransformerException {
 
@@ -383,17 +384,12 @@ public void testMarshalAcknowledgementWithFailedTransforms()
     CswQueryResponseTransformer cswQueryResponseTransformer =
         new CswQueryResponseTransformer(mockTransformerManager, mockPrintWriterProvider);
     cswQueryResponseTransformer.init();
-    BinaryContent content = cswQueryResponseTransformer.transform(sourceResponse, args);
-    cswQueryResponseTransformer.destroy();
-
-    String xml = new String(content.getByteArray());
-    assertThat(
-        xml,
-        containsString(CswQueryResponseTransformer.NUMBER_OF_RECORDS_MATCHED_ATTRIBUTE + " 6"));
-    assertThat(
-        xml,
-        containsString(CswQueryResponseTransformer.NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE + " 5"));
-    assertThat(xml, containsString(CswQueryResponseTransformer.NEXT_RECORD_ATTRIBUTE + " 0"));
+    try {
+      // like a streamed response, the response fails rather than leaving out the record
+      cswQueryResponseTransformer.transform(sourceResponse, args);
+    } finally {
+      cswQueryResponseTransformer.destroy();
+    }
   }
 
   @Test
@@ -442,6 +438,68 @@ public void verifyResultOrderIsMaintained() throws CatalogTransformerException,
     }
   }
 
+  @Test
+  public void verifyStreamedResultOrderIsMaintained()
+      throws CatalogTransformerException, IOException {
+    String xml = new String(transformStreamed(null), StandardCharsets.UTF_8);
+
+    StringBuilder records = new StringBuilder();
+    for (int i = 1; i <= 1000; i++) {
+      records.append("id_").append(i).append(',');
+    }
+    assertThat(xml, containsString(records.toString()));
+    assertThat(
+        xml,
+        containsString(CswQueryResponseTransformer.NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE + " 1000"));
+    assertThat(xml, not(containsString("\u0000")));
+  }
+
+  @Test(expected = IOException.class)
+  public void verifyStreamedResponseFailsWhenRecordFails()
+      throws CatalogTransformerException, IOException {
+    transformStreamed("id_2");
+  }
+
+  private byte[] transformStreamed(String failingId)
+      throws CatalogTransformerException, IOException {
+    GetRecordsType query = new GetRecordsType();
+    query.setResultType(ResultType.RESULTS);
+    query.setMaxRecords(BigInteger.valueOf(1000));
+    query.setStartPosition(BigInteger.valueOf(1));
+    SourceResponse sourceResponse = createSourceResponse(query, 1000);
+
+    Map<String, Serializable> args = new HashMap<>();
+    args.put(CswConstants.RESULT_TYPE_PARAMETER, ResultType.RESULTS);
+    args.put(CswConstants.GET_RECORDS, query);
+
+    MetacardTransformer mockMetacardTransformer = mock(MetacardTransformer.class);
+    when(mockMetacardTransformer.transform(any(Metacard.class), anyMap()))
+        .then(
+            invocationOnMock -> {
+              Metacard metacard = (Metacard) invocationOnMock.getArguments()[0];
+              if (metacard.getId().equals(failingId)) {
+                throw new CatalogTransformerException("");
+              }
+              return new BinaryContentImpl(
+                  IOUtils.toInputStream(metacard.getId() + ",", StandardCharsets.UTF_8),
+                  new MimeType("application/xml"));
+            });
+
+    when(mockPrintWriterProvider.build((Class<Metacard>) notNull()))
+        .thenReturn(getSimplePrintWriter());
+    when(mockTransformerManager.getTransformerBySchema(anyString()))
+        .thenReturn(mockMetacardTransformer);
+
+    CswQueryResponseTransformer cswQueryResponseTransformer =
+        new CswQueryResponseTransformer(mockTransformerManager, mockPrintWriterProvider);
+    cswQueryResponseTransformer.init();
+    try {
+      return cswQueryResponseTransformer.transform(sourceResponse, args).getByteArray();
+    } finally {
+      cswQueryResponseTransformer.destroy();
+    }
+  }
+
   private SourceResponse createSourceResponse(GetRecordsType request, int resultCount) {
     int first = 1;
     int last = 2;
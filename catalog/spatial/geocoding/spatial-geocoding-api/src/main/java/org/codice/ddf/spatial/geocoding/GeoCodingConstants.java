@@ -61,6 +61,13 @@ public final class GeoCodingConstants {
 
   public static final String GAZETTEER_METACARD_TAG = "gazetteer";
 
+  /**
+   * Topic of the event posted after gazetteer metacards are deleted without going through the
+   * catalog framework.
+   */
+  public static final String GAZETTEER_REMOVED_TOPIC =
+      "org/codice/ddf/spatial/geocoding/GAZETTEER_REMOVED";
+
   public static final String SUGGEST_PLACE_KEY = "suggestPlace";
 
   public static final int COUNTRY_GAZETTEER_SORT_VALUE = Integer.MAX_VALUE;
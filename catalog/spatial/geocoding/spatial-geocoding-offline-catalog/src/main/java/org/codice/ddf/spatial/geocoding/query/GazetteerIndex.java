@@ -0,0 +1,773 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Location;
+import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.plugin.PostIngestPlugin;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.security.service.SecurityServiceException;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.codice.ddf.security.Security;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
+import org.codice.ddf.spatial.geocoding.Suggestion;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.context.impl.NearbyLocationImpl;
+import org.codice.ddf.spatial.geocoding.context.impl.SuggestionImpl;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.operation.distance.DistanceOp;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.impl.PointImpl;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the gazetteer entries of the catalog in memory, so that name suggestions, nearest city and
+ * country code lookups do not have to query the catalog.
+ *
+ * <p>When enabled, the gazetteer metacards are read from the catalog once in the background and
+ * then kept up to date from the gazetteer metacards that are created, updated and deleted through
+ * the catalog framework. The GeoNames indexer deletes gazetteer metacards without going through the
+ * catalog framework, so the entries are read from the catalog again when it posts a {@link
+ * GeoCodingConstants#GAZETTEER_REMOVED_TOPIC} event. Entries with the same name, feature code and
+ * location are kept once, so that re-indexing a GeoNames file replaces the entries it created
+ * before.
+ *
+ * <p>Suggestions are the entries whose lower case names start with the query, like the place
+ * suggester of the catalog, ranked by gazetteer sort value and population. Spatial lookups use an
+ * STR-tree of the entries' locations and great circle distances.
+ *
+ * <p>The gazetteer metacards are read in order of creation, each page continuing from the last
+ * creation date read, so that the catalog does not have to skip over the metacards already read.
+ *
+ * <p>The lookup structures are rebuilt in the background shortly after entries change, so that the
+ * changes of an ingest are applied together. Until then, lookups use the previous structures. This
+ * class is thread safe.
+ */
+public class GazetteerIndex implements PostIngestPlugin, EventHandler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GazetteerIndex.class);
+
+  private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private static final ThreadLocal<WKTReader> WKT_READER_THREAD_LOCAL =
+      ThreadLocal.withInitial(WKTReader::new);
+
+  private static final double EARTH_RADIUS_KM = 6371.0088;
+
+  private static final double KM_PER_DEGREE = Math.toRadians(EARTH_RADIUS_KM);
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final long REBUILD_DELAY_MILLIS = 1000;
+
+  private static final SortBy[] ID_SORT = {new SortByImpl(Core.ID, SortOrder.ASCENDING)};
+
+  private static final String LOAD_ERROR =
+      "Unable to load the gazetteer into memory. Gazetteer lookups will query the catalog.";
+
+  /**
+   * Number of names matching a suggestion query above which the entries are scanned in rank order
+   * instead, since most of them then match and the scan ends early.
+   */
+  private static final int SCAN_THRESHOLD = 1024;
+
+  private static final Comparator<Entry> RANK =
+      Comparator.comparingInt((Entry entry) -> entry.sortValue)
+          .thenComparingLong(entry -> entry.population)
+          .reversed()
+          .thenComparing(entry -> entry.lowerCaseName);
+
+  private final CatalogFramework catalogFramework;
+
+  private final Security security;
+
+  private final FilterBuilder filterBuilder;
+
+  private final Filter gazetteerFilter;
+
+  private final ScheduledExecutorService executor;
+
+  /** Entries by their name, feature code and location. Guarded by this. */
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  /** Keys of the entries by metacard id. Guarded by this. */
+  private final Map<String, String> keys = new HashMap<>();
+
+  /** Ids deleted while the entries are loaded from the catalog. Guarded by this. */
+  private Set<String> deletedWhileLoading;
+
+  /**
+   * Incremented each time the index is enabled or disabled, so that an earlier load or rebuild
+   * cannot complete it. Guarded by this.
+   */
+  private int generation;
+
+  /** Incremented each time the entries change. Guarded by this. */
+  private int modifications;
+
+  /** Whether a rebuild of the snapshot is scheduled. Guarded by this. */
+  private boolean rebuildScheduled;
+
+  private volatile boolean enabled = false;
+
+  private volatile boolean loaded = false;
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  public GazetteerIndex(
+      CatalogFramework catalogFramework, FilterBuilder filterBuilder, Security security) {
+    this(
+        catalogFramework,
+        filterBuilder,
+        security,
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("gazetteerIndexThread")));
+  }
+
+  GazetteerIndex(
+      CatalogFramework catalogFramework,
+      FilterBuilder filterBuilder,
+      Security security,
+      ScheduledExecutorService executor) {
+    this.catalogFramework = catalogFramework;
+    this.security = security;
+    this.filterBuilder = filterBuilder;
+    this.executor = executor;
+    this.gazetteerFilter =
+        filterBuilder.attribute(Core.METACARD_TAGS).is().like().text(GAZETTEER_METACARD_TAG);
+  }
+
+  /**
+   * Enables or disables the index. Enabling it loads the gazetteer entries from the catalog in the
+   * background, disabling it releases them.
+   */
+  public synchronized void setEnabled(boolean enabled) {
+    if (enabled == this.enabled) {
+      return;
+    }
+
+    this.enabled = enabled;
+    reset();
+  }
+
+  /** @return true if the index is enabled and has loaded the gazetteer entries of the catalog */
+  public boolean isReady() {
+    return enabled && loaded;
+  }
+
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public CreateResponse process(CreateResponse input) {
+    if (enabled) {
+      put(input.getCreatedMetacards());
+    }
+    return input;
+  }
+
+  @Override
+  public UpdateResponse process(UpdateResponse input) {
+    if (enabled) {
+      put(
+          input.getUpdatedMetacards().stream()
+              .map(Update::getNewMetacard)
+              .collect(Collectors.toList()));
+    }
+    return input;
+  }
+
+  @Override
+  public DeleteResponse process(DeleteResponse input) {
+    if (enabled) {
+      remove(input.getDeletedMetacards());
+    }
+    return input;
+  }
+
+  /** Reads the entries from the catalog again, since some were deleted without notifying it. */
+  @Override
+  public void handleEvent(Event event) {
+    if (enabled) {
+      LOGGER.debug("Gazetteer metacards were removed, reloading the gazetteer into memory");
+      reset();
+    }
+  }
+
+  /**
+   * @param queryString the start of the names to suggest
+   * @param maxResults the maximum number of suggestions
+   * @return the highest ranked entries whose names start with the query, ignoring case
+   */
+  public List<Suggestion> getSuggestedNames(String queryString, int maxResults) {
+    if (StringUtils.isBlank(queryString) || maxResults <= 0) {
+      return new ArrayList<>();
+    }
+
+    Snapshot current = snapshot;
+    String prefix = queryString.toLowerCase(Locale.ROOT);
+    int from = lowerBound(current.names, prefix);
+    int to = lowerBound(current.names, prefix + Character.MAX_VALUE);
+
+    List<Entry> matches = new ArrayList<>();
+    if (to - from > SCAN_THRESHOLD) {
+      for (int rank = 0; rank < current.ranked.length && matches.size() < maxResults; rank++) {
+        if (current.ranked[rank].lowerCaseName.startsWith(prefix)) {
+          matches.add(current.ranked[rank]);
+        }
+      }
+    } else {
+      int[] ranks = Arrays.copyOfRange(current.nameRanks, from, to);
+      Arrays.sort(ranks);
+      for (int i = 0; i < ranks.length && i < maxResults; i++) {
+        matches.add(current.ranked[ranks[i]]);
+      }
+    }
+
+    return matches.stream()
+        .map(entry -> new SuggestionImpl(entry.id, entry.name))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @param location the location to find the cities around
+   * @param radiusInKm the maximum distance of the cities from the location
+   * @param maxResults the maximum number of cities
+   * @return the nearest cities within the radius of the location, nearest first
+   */
+  public List<NearbyLocation> getNearestCities(
+      Geometry location, int radiusInKm, int maxResults) {
+    Point center = location.getCentroid();
+    PointImpl centerPoint = new PointImpl(center.getY(), center.getX(), SPATIAL_CONTEXT);
+
+    return getEntriesWithin(location, radiusInKm).stream()
+        .filter(entry -> GeoCodingConstants.CITY_FEATURE_CODES.contains(entry.featureCode))
+        .limit(maxResults)
+        .map(
+            entry ->
+                new NearbyLocationImpl(
+                    centerPoint,
+                    new PointImpl(entry.latitude, entry.longitude, SPATIAL_CONTEXT),
+                    entry.name))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @param center the point to find the country of
+   * @param radiusInKm the maximum distance of the entry the country is taken from
+   * @return the country code of the nearest entry with one within the radius of the point
+   */
+  public Optional<String> getCountryCode(Point center, int radiusInKm) {
+    return getEntriesWithin(center, radiusInKm).stream()
+        .map(entry -> entry.countryCode)
+        .filter(StringUtils::isNotBlank)
+        .findFirst();
+  }
+
+  /** @return the entries with a location within the radius of the geometry, nearest first */
+  private List<Entry> getEntriesWithin(Geometry geometry, double radiusInKm) {
+    Snapshot current = snapshot;
+    Envelope envelope = geometry.getEnvelopeInternal();
+    double latitudeDegrees = radiusInKm / KM_PER_DEGREE;
+    double maxLatitude =
+        Math.max(Math.abs(envelope.getMinY()), Math.abs(envelope.getMaxY())) + latitudeDegrees;
+    double longitudeDegrees =
+        maxLatitude >= 90 ? 360 : latitudeDegrees / Math.cos(Math.toRadians(maxLatitude));
+
+    Envelope searchEnvelope = new Envelope(envelope);
+    searchEnvelope.expandBy(longitudeDegrees, latitudeDegrees);
+    Set<Entry> candidates = new HashSet<>(query(current.tree, searchEnvelope, 0));
+    if (searchEnvelope.getMinX() < -180) {
+      candidates.addAll(query(current.tree, searchEnvelope, 360));
+    }
+    if (searchEnvelope.getMaxX() > 180) {
+      candidates.addAll(query(current.tree, searchEnvelope, -360));
+    }
+
+    Map<Entry, Double> distances = new HashMap<>();
+    for (Entry candidate : candidates) {
+      double distance = getDistanceInKm(geometry, candidate);
+      if (distance <= radiusInKm) {
+        distances.put(candidate, distance);
+      }
+    }
+
+    return distances.entrySet().stream()
+        .sorted(Map.Entry.<Entry, Double>comparingByValue().thenComparing(Map.Entry::getKey, RANK))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toList());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Entry> query(STRtree tree, Envelope envelope, double shift) {
+    return tree.query(
+        new Envelope(
+            envelope.getMinX() + shift,
+            envelope.getMaxX() + shift,
+            envelope.getMinY(),
+            envelope.getMaxY()));
+  }
+
+  private static double getDistanceInKm(Geometry geometry, Entry entry) {
+    Coordinate coordinate = new Coordinate(entry.longitude, entry.latitude);
+    Coordinate nearest;
+    if (geometry instanceof Point) {
+      nearest = geometry.getCoordinate();
+    } else {
+      Point point = GEOMETRY_FACTORY.createPoint(coordinate);
+      if (geometry.intersects(point)) {
+        return 0;
+      }
+      nearest = DistanceOp.nearestPoints(geometry, point)[0];
+    }
+
+    double latitude1 = Math.toRadians(nearest.y);
+    double latitude2 = Math.toRadians(coordinate.y);
+    double sinLatitude = Math.sin((latitude2 - latitude1) / 2);
+    double sinLongitude = Math.sin(Math.toRadians(coordinate.x - nearest.x) / 2);
+    double a =
+        sinLatitude * sinLatitude
+            + Math.cos(latitude1) * Math.cos(latitude2) * sinLongitude * sinLongitude;
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  private static int lowerBound(String[] names, String key) {
+    int low = 0;
+    int high = names.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (names[middle].compareTo(key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /** Rebuilds the snapshot in the background after a delay, unless a rebuild is scheduled. */
+  private void scheduleRebuild() {
+    if (!loaded || rebuildScheduled) {
+      return;
+    }
+
+    rebuildScheduled = true;
+    int rebuildGeneration = generation;
+    executor.schedule(
+        () -> rebuildSnapshot(rebuildGeneration), REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Builds a snapshot of the entries without holding the lock, so that lookups and ingest are not
+   * blocked meanwhile, then makes it the one used by lookups.
+   */
+  private void rebuildSnapshot(int rebuildGeneration) {
+    int rebuildModifications;
+    List<Entry> current;
+    synchronized (this) {
+      if (rebuildGeneration != generation) {
+        return;
+      }
+      rebuildScheduled = false;
+      rebuildModifications = modifications;
+      current = new ArrayList<>(entries.values());
+    }
+
+    Snapshot rebuilt = new Snapshot(current);
+
+    synchronized (this) {
+      if (rebuildGeneration != generation) {
+        return;
+      }
+      snapshot = rebuilt;
+      loaded = true;
+      if (rebuildModifications != modifications) {
+        scheduleRebuild();
+      }
+    }
+  }
+
+  /** Discards the entries and, if the index is enabled, loads them from the catalog. */
+  private synchronized void reset() {
+    clear();
+    int loadGeneration = ++generation;
+    if (enabled) {
+      deletedWhileLoading = new HashSet<>();
+      executor.execute(() -> loadAsSystem(loadGeneration));
+    }
+  }
+
+  private synchronized void clear() {
+    entries.clear();
+    keys.clear();
+    deletedWhileLoading = null;
+    loaded = false;
+    rebuildScheduled = false;
+    snapshot = Snapshot.EMPTY;
+  }
+
+  private synchronized void put(Collection<Metacard> metacards) {
+    int previousModifications = modifications;
+    for (Metacard metacard : metacards) {
+      if (metacard == null) {
+        continue;
+      }
+
+      removeById(metacard.getId());
+      if (!metacard.getTags().contains(GAZETTEER_METACARD_TAG)) {
+        continue;
+      }
+
+      Entry entry = Entry.from(metacard);
+      if (entry == null) {
+        continue;
+      }
+
+      Entry replaced = entries.put(entry.key, entry);
+      if (replaced != null) {
+        keys.remove(replaced.id);
+      }
+      keys.put(entry.id, entry.key);
+      modifications++;
+    }
+    if (modifications != previousModifications) {
+      scheduleRebuild();
+    }
+  }
+
+  private synchronized void remove(Collection<Metacard> metacards) {
+    int previousModifications = modifications;
+    for (Metacard metacard : metacards) {
+      if (metacard != null) {
+        removeById(metacard.getId());
+        if (deletedWhileLoading != null) {
+          deletedWhileLoading.add(metacard.getId());
+        }
+      }
+    }
+    if (modifications != previousModifications) {
+      scheduleRebuild();
+    }
+  }
+
+  private void removeById(String id) {
+    String key = keys.remove(id);
+    if (key != null) {
+      entries.remove(key);
+      modifications++;
+    }
+  }
+
+  /** Adds entries read from the catalog, unless they were deleted or replaced meanwhile. */
+  private synchronized void putLoaded(int loadGeneration, List<Metacard> metacards) {
+    if (loadGeneration != generation || deletedWhileLoading == null) {
+      return;
+    }
+
+    put(
+        metacards.stream()
+            .filter(metacard -> !deletedWhileLoading.contains(metacard.getId()))
+            .filter(metacard -> !keys.containsKey(metacard.getId()))
+            .collect(Collectors.toList()));
+  }
+
+  /** @return true if the load is still current, in which case its entries are complete */
+  private synchronized boolean finishLoading(int loadGeneration) {
+    if (loadGeneration != generation || deletedWhileLoading == null) {
+      return false;
+    }
+
+    deletedWhileLoading = null;
+    LOGGER.debug("Loaded {} gazetteer entries into memory", entries.size());
+    return true;
+  }
+
+  private void loadAsSystem(int loadGeneration) {
+    security.runAsAdmin(
+        () -> {
+          try {
+            security.runWithSubjectOrElevate(() -> load(loadGeneration));
+          } catch (SecurityServiceException | InvocationTargetException e) {
+            LOGGER.info(LOAD_ERROR, e);
+          }
+          return null;
+        });
+  }
+
+  private Void load(int loadGeneration) {
+    try {
+      loadByCreationDate(loadGeneration);
+      loadWithoutCreationDate(loadGeneration);
+      if (finishLoading(loadGeneration)) {
+        rebuildSnapshot(loadGeneration);
+      }
+    } catch (UnsupportedQueryException | SourceUnavailableException | FederationException e) {
+      LOGGER.info(LOAD_ERROR, e);
+    }
+    return null;
+  }
+
+  /**
+   * Reads the gazetteer metacards that have a creation date, oldest first. Each page starts at the
+   * last creation date read and only skips the metacards already read with that date.
+   */
+  private void loadByCreationDate(int loadGeneration)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    Filter createdFilter =
+        filterBuilder.not(filterBuilder.attribute(Core.METACARD_CREATED).is().empty());
+    Date createdFrom = null;
+    int readWithCreatedFrom = 0;
+    List<Result> results;
+    do {
+      if (createdFrom != null) {
+        createdFilter =
+            filterBuilder.anyOf(
+                filterBuilder.attribute(Core.METACARD_CREATED).is().after().date(createdFrom),
+                filterBuilder.attribute(Core.METACARD_CREATED).is().equalTo().date(createdFrom));
+      }
+      results =
+          loadPage(
+              loadGeneration,
+              filterBuilder.allOf(gazetteerFilter, createdFilter),
+              readWithCreatedFrom + 1,
+              Core.METACARD_CREATED);
+
+      for (Result result : results) {
+        Date created = getCreated(result.getMetacard());
+        if (created == null || created.equals(createdFrom)) {
+          readWithCreatedFrom++;
+        } else {
+          createdFrom = created;
+          readWithCreatedFrom = 1;
+        }
+      }
+    } while (results.size() == PAGE_SIZE && enabled);
+  }
+
+  /** Reads the gazetteer metacards without a creation date, of which there are usually none. */
+  private void loadWithoutCreationDate(int loadGeneration)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    Filter filter =
+        filterBuilder.allOf(
+            gazetteerFilter, filterBuilder.attribute(Core.METACARD_CREATED).is().empty());
+    int startIndex = 1;
+    List<Result> results;
+    do {
+      results = loadPage(loadGeneration, filter, startIndex, Core.ID);
+      startIndex += PAGE_SIZE;
+    } while (results.size() == PAGE_SIZE && enabled);
+  }
+
+  private List<Result> loadPage(
+      int loadGeneration, Filter filter, int startIndex, String sortAttribute)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    QueryImpl query =
+        new QueryImpl(
+            filter,
+            startIndex,
+            PAGE_SIZE,
+            new SortByImpl(sortAttribute, SortOrder.ASCENDING),
+            false,
+            TimeUnit.MINUTES.toMillis(1));
+    QueryRequest request = new QueryRequestImpl(query);
+    if (!Core.ID.equals(sortAttribute)) {
+      request.getProperties().put(Constants.ADDITIONAL_SORT_BYS, ID_SORT);
+    }
+
+    List<Result> results = catalogFramework.query(request).getResults();
+    putLoaded(
+        loadGeneration, results.stream().map(Result::getMetacard).collect(Collectors.toList()));
+    return results;
+  }
+
+  private static Date getCreated(Metacard metacard) {
+    Attribute created = metacard.getAttribute(Core.METACARD_CREATED);
+    return created != null && created.getValue() instanceof Date
+        ? (Date) created.getValue()
+        : null;
+  }
+
+  /** The lookup structures built from the entries at one point in time. */
+  private static class Snapshot {
+
+    private static final Snapshot EMPTY = new Snapshot(Collections.emptyList());
+
+    /** The entries, highest ranked first. */
+    private final Entry[] ranked;
+
+    /** The lower case names of the entries, sorted. */
+    private final String[] names;
+
+    /** The positions in {@link #ranked} of the entries of {@link #names}. */
+    private final int[] nameRanks;
+
+    private final STRtree tree = new STRtree();
+
+    private Snapshot(Collection<Entry> entries) {
+      ranked = entries.toArray(new Entry[0]);
+      Arrays.sort(ranked, RANK);
+
+      Integer[] byName = new Integer[ranked.length];
+      for (int rank = 0; rank < ranked.length; rank++) {
+        byName[rank] = rank;
+        if (ranked[rank].hasLocation) {
+          tree.insert(
+              new Envelope(new Coordinate(ranked[rank].longitude, ranked[rank].latitude)),
+              ranked[rank]);
+        }
+      }
+      Arrays.sort(byName, Comparator.comparing(rank -> ranked[rank].lowerCaseName));
+
+      names = new String[ranked.length];
+      nameRanks = new int[ranked.length];
+      for (int i = 0; i < byName.length; i++) {
+        names[i] = ranked[byName[i]].lowerCaseName;
+        nameRanks[i] = byName[i];
+      }
+      tree.build();
+    }
+  }
+
+  /** The parts of a gazetteer metacard the lookups need. */
+  private static class Entry {
+
+    private final String key;
+
+    private final String id;
+
+    private final String name;
+
+    private final String lowerCaseName;
+
+    private final String countryCode;
+
+    private final String featureCode;
+
+    private final long population;
+
+    private final int sortValue;
+
+    private final boolean hasLocation;
+
+    private final double latitude;
+
+    private final double longitude;
+
+    private Entry(Metacard metacard, String name, String location, Coordinate coordinate) {
+      this.id = metacard.getId();
+      this.name = name;
+      this.lowerCaseName = name.toLowerCase(Locale.ROOT);
+      this.countryCode = getString(metacard, Location.COUNTRY_CODE);
+      this.featureCode = getString(metacard, GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME);
+      this.population =
+          getValue(metacard, GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME, Long.class)
+              .orElse(0L);
+      this.sortValue =
+          getValue(metacard, GeoEntryAttributes.GAZETTEER_SORT_VALUE, Integer.class).orElse(0);
+      this.hasLocation = coordinate != null;
+      this.latitude = hasLocation ? coordinate.y : 0;
+      this.longitude = hasLocation ? coordinate.x : 0;
+      this.key = String.join("|", name, String.valueOf(featureCode), String.valueOf(location));
+    }
+
+    /** @return the entry of a gazetteer metacard, or null if it has no id or name */
+    private static Entry from(Metacard metacard) {
+      String name = getString(metacard, Core.TITLE);
+      if (StringUtils.isBlank(metacard.getId()) || StringUtils.isBlank(name)) {
+        return null;
+      }
+
+      String location = getString(metacard, Core.LOCATION);
+      Coordinate coordinate = null;
+      if (StringUtils.isNotBlank(location)) {
+        try {
+          Geometry geometry = WKT_READER_THREAD_LOCAL.get().read(location);
+          if (!geometry.isEmpty()) {
+            coordinate = geometry.getCoordinate();
+          }
+        } catch (ParseException e) {
+          LOGGER.debug("Gazetteer metacard {} has an invalid location.", metacard.getId());
+        }
+      }
+      return new Entry(metacard, name, location, coordinate);
+    }
+
+    private static String getString(Metacard metacard, String attributeName) {
+      return getValue(metacard, attributeName, String.class).orElse(null);
+    }
+
+    private static <T extends Serializable> Optional<T> getValue(
+        Metacard metacard, String attributeName, Class<T> type) {
+      return Optional.ofNullable(metacard.getAttribute(attributeName))
+          .map(Attribute::getValue)
+          .filter(type::isInstance)
+          .map(type::cast);
+    }
+  }
+}
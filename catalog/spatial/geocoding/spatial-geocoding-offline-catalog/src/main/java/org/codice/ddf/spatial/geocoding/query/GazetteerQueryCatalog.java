@@ -99,6 +99,8 @@ public class GazetteerQueryCatalog implements GeoEntryQueryable {
 
   private List<Filter> featureCodeFilters;
 
+  private GazetteerIndex gazetteerIndex;
+
   public GazetteerQueryCatalog(CatalogFramework catalogFramework, FilterBuilder filterBuilder) {
     this.catalogFramework = catalogFramework;
     this.filterBuilder = filterBuilder;
@@ -118,6 +120,14 @@ public GazetteerQueryCatalog(CatalogFramework catalogFramework, FilterBuilder fi
         filterBuilder.attribute(Core.METACARD_TAGS).is().like().text(GAZETTEER_METACARD_TAG);
   }
 
+  /**
+   * Sets the in-memory index used for suggestions, nearest cities and country codes instead of
+   * querying the catalog once it has loaded the gazetteer.
+   */
+  public void setGazetteerIndex(GazetteerIndex gazetteerIndex) {
+    this.gazetteerIndex = gazetteerIndex;
+  }
+
   @Override
   public List<GeoEntry> query(String queryString, int maxResults) throws GeoEntryQueryException {
     Filter textFilter = filterBuilder.attribute(Core.TITLE).is().like().text(queryString);
@@ -174,6 +184,10 @@ public GeoEntry queryById(String id) throws GeoEntryQueryException {
   @Override
   public List<Suggestion> getSuggestedNames(String queryString, int maxResults)
       throws GeoEntryQueryException {
+    if (isIndexReady()) {
+      return gazetteerIndex.getSuggestedNames(queryString, maxResults);
+    }
+
     Map<String, Serializable> suggestProps = new HashMap<>();
     suggestProps.put(SUGGESTION_QUERY_KEY, queryString);
     suggestProps.put(SUGGESTION_CONTEXT_KEY, GAZETTEER_METACARD_TAG);
@@ -266,6 +280,15 @@ private String getStringAttributeFromMetacard(Metacard metacard, String attribut
   @Override
   public List<NearbyLocation> getNearestCities(String location, int radiusInKm, int maxResults)
       throws ParseException, GeoEntryQueryException {
+    if (isIndexReady()) {
+      try {
+        Geometry geometry = WKT_READER_THREAD_LOCAL.get().read(location);
+        return gazetteerIndex.getNearestCities(geometry, radiusInKm, maxResults);
+      } catch (org.locationtech.jts.io.ParseException e) {
+        LOGGER.debug("Unable to parse location {}, querying the catalog instead.", location, e);
+      }
+    }
+
     Filter featureCodeFilter = filterBuilder.anyOf(featureCodeFilters);
     int radiusInMeters = radiusInKm * KM_TO_M;
 
@@ -326,6 +349,9 @@ public Optional<String> getCountryCode(String wktLocation, int radius)
 
     try {
       Point center = WKT_READER_THREAD_LOCAL.get().read(wktLocation).getCentroid();
+      if (isIndexReady()) {
+        return gazetteerIndex.getCountryCode(center, radius);
+      }
       Geometry geometry = GEOMETRY_FACTORY.createPoint(center.getCoordinate());
       wkt = WKT_WRITER_THREAD_LOCAL.get().write(geometry);
     } catch (org.locationtech.jts.io.ParseException e) {
@@ -353,4 +379,8 @@ public Optional<String> getCountryCode(String wktLocation, int radius)
     }
     return Optional.empty();
   }
+
+  private boolean isIndexReady() {
+    return gazetteerIndex != null && gazetteerIndex.isReady();
+  }
 }
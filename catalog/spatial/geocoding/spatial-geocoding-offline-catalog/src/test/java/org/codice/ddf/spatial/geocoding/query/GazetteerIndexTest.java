@@ -0,0 +1,378 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.impl.types.LocationAttributes;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Location;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.operation.impl.CreateResponseImpl;
+import ddf.catalog.operation.impl.DeleteResponseImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.operation.impl.UpdateImpl;
+import ddf.catalog.operation.impl.UpdateResponseImpl;
+import ddf.catalog.source.SourceUnavailableException;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.codice.ddf.security.Security;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
+import org.codice.ddf.spatial.geocoding.Suggestion;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.WKTReader;
+import org.osgi.service.event.Event;
+
+public class GazetteerIndexTest {
+
+  private static final MetacardType GEO_ENTRY_METACARD_TYPE =
+      new MetacardTypeImpl(
+          "GeoEntryAttributes", Arrays.asList(new LocationAttributes(), new GeoEntryAttributes()));
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private static final Point NEAR_BOSTON =
+      GEOMETRY_FACTORY.createPoint(new Coordinate(-71.07124328613281, 42.353671973455704));
+
+  private static final int RADIUS_IN_KM = 50;
+
+  private CatalogFramework catalogFramework;
+
+  private GazetteerIndex gazetteerIndex;
+
+  private ScheduledExecutorService executor;
+
+  private boolean runRebuilds = true;
+
+  private final List<Runnable> pendingRebuilds = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    catalogFramework = mock(CatalogFramework.class);
+    Security security = mock(Security.class);
+    when(security.runAsAdmin(any()))
+        .thenAnswer(invocation -> ((PrivilegedAction) invocation.getArgument(0)).run());
+    when(security.runWithSubjectOrElevate(any()))
+        .thenAnswer(invocation -> ((Callable) invocation.getArgument(0)).call());
+
+    executor = mock(ScheduledExecutorService.class);
+    doAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return null;
+            })
+        .when(executor)
+        .execute(any(Runnable.class));
+    doAnswer(
+            invocation -> {
+              Runnable rebuild = invocation.getArgument(0);
+              if (runRebuilds) {
+                rebuild.run();
+              } else {
+                pendingRebuilds.add(rebuild);
+              }
+              return null;
+            })
+        .when(executor)
+        .schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+    gazetteerIndex =
+        new GazetteerIndex(catalogFramework, new GeotoolsFilterBuilder(), security, executor);
+  }
+
+  @Test
+  public void testNotReadyUntilEnabled() throws Exception {
+    givenCatalogContains();
+    assertThat(gazetteerIndex.isReady(), is(false));
+
+    gazetteerIndex.setEnabled(true);
+    assertThat(gazetteerIndex.isReady(), is(true));
+
+    gazetteerIndex.setEnabled(false);
+    assertThat(gazetteerIndex.isReady(), is(false));
+  }
+
+  @Test
+  public void testNotReadyWhenLoadFails() throws Exception {
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenThrow(new SourceUnavailableException());
+
+    gazetteerIndex.setEnabled(true);
+
+    assertThat(gazetteerIndex.isReady(), is(false));
+  }
+
+  @Test
+  public void testSuggestionsAreRankedPrefixMatches() throws Exception {
+    givenCatalogContains(
+        gazetteerMetacard("1", "Boston", "PPLA", 617594L, "POINT (-71.0596 42.3577)"),
+        gazetteerMetacard("2", "Bostonia", "PPL", 15000L, "POINT (-116.9364 32.8076)"),
+        gazetteerMetacard("3", "Boston", "PPL", 64000L, "POINT (-0.0262 52.9769)"),
+        gazetteerMetacard("4", "Cambridge", "PPL", 105162L, "POINT (-71.1056 42.3751)"));
+    gazetteerIndex.setEnabled(true);
+
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("bos", 10)), contains("1", "3", "2"));
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("BOSTONI", 10)), contains("2"));
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("bos", 1)), contains("1"));
+    assertThat(gazetteerIndex.getSuggestedNames("ton", 10), is(empty()));
+  }
+
+  @Test
+  public void testNearestCities() throws Exception {
+    givenCatalogContains(
+        gazetteerMetacard("1", "Boston", "PPLA", 617594L, "POINT (-71.0596 42.3577)"),
+        gazetteerMetacard("2", "Cambridge", "PPL", 105162L, "POINT (-71.1056 42.3751)"),
+        gazetteerMetacard("3", "Boston Harbor", "BAY", 0L, "POINT (-70.95 42.33)"),
+        gazetteerMetacard("4", "Providence", "PPLA", 179207L, "POINT (-71.4128 41.824)"));
+    gazetteerIndex.setEnabled(true);
+
+    List<NearbyLocation> nearbyLocations =
+        gazetteerIndex.getNearestCities(NEAR_BOSTON, RADIUS_IN_KM, 10);
+
+    assertThat(
+        nearbyLocations.stream().map(NearbyLocation::getName).collect(Collectors.toList()),
+        contains("Boston", "Cambridge"));
+    assertThat(nearbyLocations.get(0).getCardinalDirection(), is("S"));
+    assertThat(gazetteerIndex.getNearestCities(NEAR_BOSTON, RADIUS_IN_KM, 1).size(), is(1));
+  }
+
+  @Test
+  public void testNearestCitiesOfPolygon() throws Exception {
+    givenCatalogContains(
+        gazetteerMetacard("1", "Boston", "PPLA", 617594L, "POINT (-71.0596 42.3577)"));
+    gazetteerIndex.setEnabled(true);
+
+    List<NearbyLocation> nearbyLocations =
+        gazetteerIndex.getNearestCities(
+            new WKTReader().read("POLYGON ((-72 42, -71.5 42, -71.5 43, -72 43, -72 42))"),
+            RADIUS_IN_KM,
+            10);
+
+    assertThat(nearbyLocations.size(), is(1));
+  }
+
+  @Test
+  public void testNearestCitiesAcrossAntimeridian() throws Exception {
+    givenCatalogContains(gazetteerMetacard("1", "Lambasa", "PPL", 24187L, "POINT (179.9 -16.4)"));
+    gazetteerIndex.setEnabled(true);
+
+    Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(-179.9, -16.4));
+
+    assertThat(gazetteerIndex.getNearestCities(point, RADIUS_IN_KM, 10).size(), is(1));
+  }
+
+  @Test
+  public void testCountryCodeOfNearestEntry() throws Exception {
+    Metacard ocean = gazetteerMetacard("1", "Atlantic", "OCN", 0L, "POINT (-71.06 42.35)");
+    ocean.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, ""));
+    givenCatalogContains(
+        ocean,
+        gazetteerMetacard("2", "Boston", "PPLA", 617594L, "POINT (-71.0596 42.3577)"),
+        gazetteerMetacard("3", "Saint John", "PPLA", 67575L, "POINT (-66.0633 45.2727)"));
+    gazetteerIndex.setEnabled(true);
+
+    assertThat(gazetteerIndex.getCountryCode(NEAR_BOSTON, RADIUS_IN_KM).get(), is("USA"));
+    assertThat(
+        gazetteerIndex
+            .getCountryCode(GEOMETRY_FACTORY.createPoint(new Coordinate(0, 0)), RADIUS_IN_KM)
+            .isPresent(),
+        is(false));
+  }
+
+  @Test
+  public void testIngestedEntriesAreIndexed() throws Exception {
+    givenCatalogContains();
+    gazetteerIndex.setEnabled(true);
+
+    Metacard boston = gazetteerMetacard("1", "Boston", "PPLA", 617594L, "POINT (-71 42)");
+    Metacard notGazetteer = gazetteerMetacard("2", "Bostonian", "PPL", 0L, "POINT (-71 42)");
+    notGazetteer.setAttribute(new AttributeImpl(Core.METACARD_TAGS, "resource"));
+    gazetteerIndex.process(createResponse(boston, notGazetteer));
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("bos", 10)), contains("1"));
+
+    Metacard renamed = gazetteerMetacard("1", "Beantown", "PPLA", 617594L, "POINT (-71 42)");
+    gazetteerIndex.process(updateResponse(renamed));
+    assertThat(gazetteerIndex.getSuggestedNames("bos", 10), is(empty()));
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("bean", 10)), contains("1"));
+
+    gazetteerIndex.process(deleteResponse(renamed));
+    assertThat(gazetteerIndex.getSuggestedNames("bean", 10), is(empty()));
+  }
+
+  @Test
+  public void testReindexedEntryReplacesEntry() throws Exception {
+    givenCatalogContains(
+        gazetteerMetacard("1", "Boston", "PPLA", 617594L, "POINT (-71.0596 42.3577)"));
+    gazetteerIndex.setEnabled(true);
+
+    gazetteerIndex.process(
+        createResponse(
+            gazetteerMetacard("2", "Boston", "PPLA", 617594L, "POINT (-71.0596 42.3577)")));
+
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("bos", 10)), contains("2"));
+  }
+
+  @Test
+  public void testLookupsUseSnapshotUntilRebuilt() throws Exception {
+    givenCatalogContains(
+        gazetteerMetacard("1", "Boston", "PPLA", 617594L, "POINT (-71.0596 42.3577)"));
+    gazetteerIndex.setEnabled(true);
+    runRebuilds = false;
+
+    gazetteerIndex.process(
+        createResponse(gazetteerMetacard("2", "Bostonia", "PPL", 15000L, "POINT (-117 33)")));
+    gazetteerIndex.process(
+        createResponse(gazetteerMetacard("3", "Bosworth", "PPL", 1000L, "POINT (-1.4 52.6)")));
+
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("bos", 10)), contains("1"));
+    assertThat(pendingRebuilds.size(), is(1));
+
+    pendingRebuilds.get(0).run();
+    assertThat(
+        suggestionIds(gazetteerIndex.getSuggestedNames("bos", 10)), contains("1", "2", "3"));
+  }
+
+  @Test
+  public void testLoadContinuesFromLastCreationDate() throws Exception {
+    List<Result> page = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      Metacard metacard =
+          gazetteerMetacard(String.valueOf(i), "Place " + i, "PPL", 0L, "POINT (0 0)");
+      metacard.setAttribute(
+          new AttributeImpl(Core.METACARD_CREATED, new Date(i < 997 ? i : 997)));
+      page.add(new ResultImpl(metacard));
+    }
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenReturn(new QueryResponseImpl(mock(QueryRequest.class), page, 1001))
+        .thenReturn(
+            new QueryResponseImpl(mock(QueryRequest.class), Collections.emptyList(), 1001));
+
+    gazetteerIndex.setEnabled(true);
+
+    ArgumentCaptor<QueryRequest> requests = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(catalogFramework, times(3)).query(requests.capture());
+    assertThat(requests.getAllValues().get(0).getQuery().getStartIndex(), is(1));
+    assertThat(requests.getAllValues().get(1).getQuery().getStartIndex(), is(4));
+    assertThat(requests.getAllValues().get(2).getQuery().getStartIndex(), is(1));
+    assertThat(gazetteerIndex.isReady(), is(true));
+    assertThat(gazetteerIndex.getSuggestedNames("place", 2000).size(), is(1000));
+  }
+
+  @Test
+  public void testEntriesRemovedWithoutFrameworkAreReloaded() throws Exception {
+    givenCatalogContains(
+        gazetteerMetacard("1", "Boston", "PPLA", 617594L, "POINT (-71.0596 42.3577)"),
+        gazetteerMetacard("2", "Cambridge", "PPL", 105162L, "POINT (-71.1056 42.3751)"));
+    gazetteerIndex.setEnabled(true);
+
+    givenCatalogContains(
+        gazetteerMetacard("2", "Cambridge", "PPL", 105162L, "POINT (-71.1056 42.3751)"));
+    gazetteerIndex.handleEvent(
+        new Event(GeoCodingConstants.GAZETTEER_REMOVED_TOPIC, Collections.emptyMap()));
+
+    assertThat(gazetteerIndex.isReady(), is(true));
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("bos", 10)), is(empty()));
+    assertThat(suggestionIds(gazetteerIndex.getSuggestedNames("cam", 10)), contains("2"));
+  }
+
+  @Test
+  public void testIngestIgnoredWhenDisabled() throws Exception {
+    gazetteerIndex.process(
+        createResponse(gazetteerMetacard("1", "Boston", "PPLA", 617594L, "POINT (-71 42)")));
+
+    givenCatalogContains();
+    gazetteerIndex.setEnabled(true);
+
+    assertThat(gazetteerIndex.getSuggestedNames("bos", 10), is(empty()));
+  }
+
+  private void givenCatalogContains(Metacard... metacards) throws Exception {
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenReturn(
+            new QueryResponseImpl(
+                mock(QueryRequest.class),
+                Arrays.stream(metacards).map(ResultImpl::new).collect(Collectors.toList()),
+                metacards.length));
+  }
+
+  private static List<String> suggestionIds(List<Suggestion> suggestions) {
+    return suggestions.stream().map(Suggestion::getId).collect(Collectors.toList());
+  }
+
+  private static CreateResponse createResponse(Metacard... metacards) {
+    return new CreateResponseImpl(null, null, Arrays.asList(metacards));
+  }
+
+  private static UpdateResponse updateResponse(Metacard metacard) {
+    return new UpdateResponseImpl(
+        null, null, Collections.singletonList(new UpdateImpl(metacard, metacard)));
+  }
+
+  private static DeleteResponse deleteResponse(Metacard metacard) {
+    return new DeleteResponseImpl(null, null, Collections.singletonList(metacard));
+  }
+
+  private static Metacard gazetteerMetacard(
+      String id, String name, String featureCode, long population, String wkt) {
+    Metacard metacard = new MetacardImpl(GEO_ENTRY_METACARD_TYPE);
+    metacard.setAttribute(new AttributeImpl(Core.ID, id));
+    metacard.setAttribute(new AttributeImpl(Core.TITLE, name));
+    metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, "USA"));
+    metacard.setAttribute(
+        new AttributeImpl(GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME, featureCode));
+    metacard.setAttribute(
+        new AttributeImpl(GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME, population));
+    metacard.setAttribute(new AttributeImpl(Core.LOCATION, wkt));
+    metacard.setAttribute(new AttributeImpl(Core.METACARD_TAGS, GAZETTEER_METACARD_TAG));
+    return metacard;
+  }
+}
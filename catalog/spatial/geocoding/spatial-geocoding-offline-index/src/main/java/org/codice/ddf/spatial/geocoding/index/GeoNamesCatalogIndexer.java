@@ -46,6 +46,7 @@
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -70,6 +71,8 @@
 import org.locationtech.jts.io.WKTWriter;
 import org.opengis.filter.Filter;
 import org.opengis.filter.sort.SortBy;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -96,6 +99,8 @@ public class GeoNamesCatalogIndexer implements GeoEntryIndexer {
 
   private FilterBuilder filterBuilder;
 
+  private EventAdmin eventAdmin;
+
   public GeoNamesCatalogIndexer(
       CatalogFramework catalogFramework,
       UuidGenerator uuidGenerator,
@@ -121,6 +126,10 @@ public GeoNamesCatalogIndexer(
                 .text(GAZETTEER_METACARD_TAG));
   }
 
+  public void setEventAdmin(EventAdmin eventAdmin) {
+    this.eventAdmin = eventAdmin;
+  }
+
   private Metacard transformGeoEntryToMetacard(GeoEntry geoEntry) {
     if (!GeoCodingConstants.CITY_FEATURE_CODES.contains(geoEntry.getFeatureCode())) {
       return null;
@@ -235,40 +244,55 @@ private void removeGeoNamesMetacardsFromCatalog(
     extractionCallback.updateProgress(0);
 
     Optional<CatalogProvider> catalogProviderOptional = catalogProviders.stream().findFirst();
-    if (catalogProviderOptional.isPresent()) {
-      CatalogProvider catalogProvider = catalogProviderOptional.get();
-
-      if (StringUtils.isNotBlank(resource)) {
-        filter =
-            filterBuilder.allOf(
-                filterBuilder
-                    .attribute(GeoEntryAttributes.IMPORT_LOCATION)
-                    .is()
-                    .equalTo()
-                    .text(resource),
-                filter);
-      }
-
-      while (true) {
-        Query query =
-            new QueryImpl(
-                filter, 1, BATCH_SIZE, SortBy.NATURAL_ORDER, false, TimeUnit.SECONDS.toMillis(90));
-        QueryRequest queryRequest = new QueryRequestImpl(query);
-        LOGGER.trace("Removing existing geonames data with filter: {}", filter);
-
-        QueryResponse response = catalogFramework.query(queryRequest);
-        List<Serializable> metacardsToDelete =
-            response.getResults().stream()
-                .map(Result::getMetacard)
-                .map(Metacard::getId)
-                .collect(Collectors.toList());
-
-        if (CollectionUtils.isEmpty(metacardsToDelete)) {
-          break;
+    boolean removed = false;
+    try {
+      if (catalogProviderOptional.isPresent()) {
+        CatalogProvider catalogProvider = catalogProviderOptional.get();
+
+        if (StringUtils.isNotBlank(resource)) {
+          filter =
+              filterBuilder.allOf(
+                  filterBuilder
+                      .attribute(GeoEntryAttributes.IMPORT_LOCATION)
+                      .is()
+                      .equalTo()
+                      .text(resource),
+                  filter);
         }
 
-        LOGGER.trace("Deleting {} GeoNames metacards", metacardsToDelete.size());
-        removeMetacards(catalogProvider, extractionCallback, metacardsToDelete);
+        while (true) {
+          Query query =
+              new QueryImpl(
+                  filter,
+                  1,
+                  BATCH_SIZE,
+                  SortBy.NATURAL_ORDER,
+                  false,
+                  TimeUnit.SECONDS.toMillis(90));
+          QueryRequest queryRequest = new QueryRequestImpl(query);
+          LOGGER.trace("Removing existing geonames data with filter: {}", filter);
+
+          QueryResponse response = catalogFramework.query(queryRequest);
+          List<Serializable> metacardsToDelete =
+              response.getResults().stream()
+                  .map(Result::getMetacard)
+                  .map(Metacard::getId)
+                  .collect(Collectors.toList());
+
+          if (CollectionUtils.isEmpty(metacardsToDelete)) {
+            break;
+          }
+
+          LOGGER.trace("Deleting {} GeoNames metacards", metacardsToDelete.size());
+          removed = true;
+          removeMetacards(catalogProvider, extractionCallback, metacardsToDelete);
+        }
+      }
+    } finally {
+      if (removed) {
+        // the metacards were deleted without going through the catalog framework and its plugins
+        eventAdmin.postEvent(
+            new Event(GeoCodingConstants.GAZETTEER_REMOVED_TOPIC, Collections.emptyMap()));
       }
     }
     extractionCallback.updateProgress(50);
@@ -53,6 +53,8 @@
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
 
 public class GeoNamesCatalogIndexerTest {
 
@@ -99,6 +101,8 @@ public class GeoNamesCatalogIndexerTest {
 
   private UuidGenerator uuidGenerator;
 
+  private EventAdmin eventAdmin;
+
   @Before
   public void setUp() throws Exception {
 
@@ -132,6 +136,8 @@ public void setUp() throws Exception {
             new GeoEntryAttributes(),
             new GeotoolsFilterBuilder(),
             Collections.singletonList(catalogProvider));
+    eventAdmin = mock(EventAdmin.class);
+    geoNamesCatalogIndexer.setEventAdmin(eventAdmin);
   }
 
   @After
@@ -171,6 +177,10 @@ public void testUpdateIndexWithCreate() throws Exception {
     verify(catalogFramework, times(1)).create(any(CreateRequest.class));
     verify(catalogProvider, times(1)).delete(any(DeleteRequest.class));
     verify(catalogFramework, times(2)).query(any(QueryRequest.class));
+
+    ArgumentCaptor<Event> event = ArgumentCaptor.forClass(Event.class);
+    verify(eventAdmin, times(1)).postEvent(event.capture());
+    assertThat(event.getValue().getTopic(), is(GeoCodingConstants.GAZETTEER_REMOVED_TOPIC));
   }
 
   @Test
@@ -205,6 +215,7 @@ public void testUpdateIndexWithCreateNoResults() throws Exception {
     verify(catalogFramework, times(1)).create(any(CreateRequest.class));
     verify(catalogProvider, times(0)).delete(any(DeleteRequest.class));
     verify(catalogFramework, times(1)).query(any(QueryRequest.class));
+    verify(eventAdmin, never()).postEvent(any(Event.class));
   }
 
   @SuppressWarnings("unchecked")
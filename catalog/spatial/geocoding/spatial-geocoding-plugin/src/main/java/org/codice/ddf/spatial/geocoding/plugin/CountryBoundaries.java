@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.plugin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Country boundaries read from a GeoJSON feature collection whose feature ids are ISO 3166-1
+ * alpha-3 country codes, such as the {@code data/countries.geo.json} file of the distribution.
+ *
+ * <p>The boundaries of that file are simplified, so an area is only given a country when it lies
+ * within the boundary of that country by more than a margin, and areas near a border or a coast
+ * have to be looked up otherwise.
+ */
+class CountryBoundaries {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CountryBoundaries.class);
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private static final Pattern COUNTRY_CODE = Pattern.compile("[A-Z]{3}");
+
+  private static final double KM_PER_DEGREE = 111.2;
+
+  static final CountryBoundaries NONE = new CountryBoundaries(new ArrayList<>());
+
+  private final STRtree tree = new STRtree();
+
+  private CountryBoundaries(List<Country> countries) {
+    for (Country country : countries) {
+      tree.insert(country.boundary.getGeometry().getEnvelopeInternal(), country);
+    }
+    tree.build();
+  }
+
+  /**
+   * Reads the country boundaries of a GeoJSON file.
+   *
+   * @param file the GeoJSON feature collection
+   * @return the boundaries, or {@link #NONE} if the file cannot be read
+   */
+  static CountryBoundaries load(Path file) {
+    if (!Files.isReadable(file)) {
+      LOGGER.debug("No country boundaries at {}, all country codes will be geocoded.", file);
+      return NONE;
+    }
+
+    List<Country> countries = new ArrayList<>();
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      JsonArray features =
+          JsonParser.parseReader(reader).getAsJsonObject().getAsJsonArray("features");
+      for (JsonElement feature : features) {
+        Country country = toCountry(feature.getAsJsonObject());
+        if (country != null) {
+          countries.add(country);
+        }
+      }
+    } catch (IOException
+        | JsonParseException
+        | IllegalArgumentException
+        | IllegalStateException
+        | ClassCastException e) {
+      LOGGER.info(
+          "Unable to read the country boundaries of {}, all country codes will be geocoded.",
+          file,
+          e);
+      return NONE;
+    }
+
+    LOGGER.debug("Read the boundaries of {} countries from {}", countries.size(), file);
+    return new CountryBoundaries(countries);
+  }
+
+  /**
+   * @param envelope the area, in degrees
+   * @param marginInKm how far within the boundary of a country the area has to be
+   * @return the code of the country the area lies within by more than the margin, or empty if
+   *     there is no such country
+   */
+  Optional<String> getCountryCode(Envelope envelope, double marginInKm) {
+    if (tree.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Envelope area = new Envelope(envelope);
+    double latitudeMargin = marginInKm / KM_PER_DEGREE;
+    double maxLatitude = Math.max(Math.abs(area.getMinY()), Math.abs(area.getMaxY()));
+    if (maxLatitude + latitudeMargin >= 90) {
+      return Optional.empty();
+    }
+    area.expandBy(
+        latitudeMargin / Math.cos(Math.toRadians(maxLatitude + latitudeMargin)), latitudeMargin);
+    Geometry areaGeometry = GEOMETRY_FACTORY.toGeometry(area);
+
+    @SuppressWarnings("unchecked")
+    List<Country> candidates = tree.query(area);
+    return candidates.stream()
+        .filter(country -> country.boundary.contains(areaGeometry))
+        .map(country -> country.code)
+        .findFirst();
+  }
+
+  private static Country toCountry(JsonObject feature) {
+    JsonElement id = feature.get("id");
+    JsonElement geometry = feature.get("geometry");
+    if (id == null
+        || !id.isJsonPrimitive()
+        || !COUNTRY_CODE.matcher(id.getAsString()).matches()
+        || geometry == null
+        || !geometry.isJsonObject()) {
+      return null;
+    }
+
+    JsonObject geometryObject = geometry.getAsJsonObject();
+    JsonArray coordinates = geometryObject.getAsJsonArray("coordinates");
+    JsonElement type = geometryObject.get("type");
+    if (coordinates == null || type == null) {
+      return null;
+    }
+
+    List<Polygon> polygons = new ArrayList<>();
+    switch (type.getAsString()) {
+      case "Polygon":
+        polygons.add(toPolygon(coordinates));
+        break;
+      case "MultiPolygon":
+        for (JsonElement polygon : coordinates) {
+          polygons.add(toPolygon(polygon.getAsJsonArray()));
+        }
+        break;
+      default:
+        return null;
+    }
+
+    Geometry boundary =
+        GEOMETRY_FACTORY.createMultiPolygon(polygons.toArray(new Polygon[0])).buffer(0);
+    return new Country(id.getAsString(), PreparedGeometryFactory.prepare(boundary));
+  }
+
+  private static Polygon toPolygon(JsonArray rings) {
+    LinearRing shell = toRing(rings.get(0).getAsJsonArray());
+    LinearRing[] holes = new LinearRing[rings.size() - 1];
+    for (int i = 1; i < rings.size(); i++) {
+      holes[i - 1] = toRing(rings.get(i).getAsJsonArray());
+    }
+    return GEOMETRY_FACTORY.createPolygon(shell, holes);
+  }
+
+  private static LinearRing toRing(JsonArray positions) {
+    Coordinate[] coordinates = new Coordinate[positions.size()];
+    for (int i = 0; i < coordinates.length; i++) {
+      JsonArray position = positions.get(i).getAsJsonArray();
+      coordinates[i] =
+          new Coordinate(position.get(0).getAsDouble(), position.get(1).getAsDouble());
+    }
+    return GEOMETRY_FACTORY.createLinearRing(coordinates);
+  }
+
+  private static class Country {
+
+    private final String code;
+
+    private final PreparedGeometry boundary;
+
+    private Country(String code, PreparedGeometry boundary) {
+      this.code = code;
+      this.boundary = boundary;
+    }
+  }
+}
@@ -23,15 +23,30 @@
 import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.impl.ServiceSelector;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.codice.ddf.spatial.geocoder.GeoCoder;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The {@code GeoCoderPlugin} is responsible for adding a {@link Location#COUNTRY_CODE} in ISO
  * 3166-1 format to {@code Metacard}s that have the {@link Metacard#GEOGRAPHY} attribute.
+ *
+ * <p>The metacards of a request are grouped by the geohash cell of the center of their locations
+ * and the country code is looked up once per cell. A cell that lies well within the boundary of a
+ * country of the local country boundaries is given that country without asking the {@link
+ * GeoCoder}. Country codes found are cached by cell for later requests.
  */
 public class GeoCoderPlugin implements PreIngestPlugin {
 
@@ -39,17 +54,57 @@ public class GeoCoderPlugin implements PreIngestPlugin {
 
   public static final String RADIUS_IN_KM = "radiusInKm";
 
+  public static final String CACHE_SIZE = "cacheSize";
+
+  /** Geohash cells of about 1.2 by 0.6 km. */
+  private static final int CELL_PRECISION = 6;
+
+  /**
+   * How far the simplified country boundaries can be from the actual borders and coasts. A cell
+   * gets its country from the boundaries if it lies within a country by this plus the search
+   * radius, since the geocoder then finds the same country.
+   */
+  private static final int BOUNDARY_ERROR_IN_KM = 15;
+
+  private static final ThreadLocal<WKTReader> WKT_READER_THREAD_LOCAL =
+      ThreadLocal.withInitial(WKTReader::new);
+
   private ServiceSelector<GeoCoder> geoCoderFactory;
 
+  private final Path countryBoundariesFile;
+
+  private volatile CountryBoundaries countryBoundaries;
+
   private int radiusInKm = 10;
 
+  private int cacheSize = 10000;
+
+  /** Country codes by geohash cell, least recently used first. Guarded by itself. */
+  private final Map<String, String> cache =
+      new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+          return size() > cacheSize;
+        }
+      };
+
+  /** The geocoder the cached country codes were found with. Guarded by {@link #cache}. */
+  private GeoCoder cachedGeoCoder;
+
   public GeoCoderPlugin(ServiceSelector<GeoCoder> geoCoderFactory) {
+    this(
+        geoCoderFactory,
+        Paths.get(System.getProperty("ddf.home", ""), "data", "countries.geo.json"));
+  }
+
+  GeoCoderPlugin(ServiceSelector<GeoCoder> geoCoderFactory, Path countryBoundariesFile) {
     if (geoCoderFactory == null) {
       throw new IllegalArgumentException(
           "GeoCoderPlugin(): constructor argument 'geoCoderFactory' may not be null.");
     }
 
     this.geoCoderFactory = geoCoderFactory;
+    this.countryBoundariesFile = countryBoundariesFile;
   }
 
   @Override
@@ -61,7 +116,7 @@ public CreateRequest process(CreateRequest input)
 
     try {
       GeoCoder geoCoder = geoCoderFactory.getService();
-      input.getMetacards().forEach(metacard -> setCountryCode(metacard, geoCoder));
+      setCountryCodes(input.getMetacards(), geoCoder);
     } catch (Exception e) {
       throw new PluginExecutionException("Unable to determine country code for data", e);
     }
@@ -78,9 +133,9 @@ public UpdateRequest process(UpdateRequest input)
 
     GeoCoder geoCoder = geoCoderFactory.getService();
     try {
-      input.getUpdates().stream()
-          .map(Map.Entry::getValue)
-          .forEach(metacard -> setCountryCode(metacard, geoCoder));
+      setCountryCodes(
+          input.getUpdates().stream().map(Map.Entry::getValue).collect(Collectors.toList()),
+          geoCoder);
     } catch (Exception e) {
       throw new PluginExecutionException("Unable to determine country code for data", e);
     }
@@ -102,41 +157,143 @@ public void updateConfiguration(Map<String, Object> properties) {
         .filter(Integer.class::isInstance)
         .map(Integer.class::cast)
         .ifPresent(this::setRadiusInKm);
+
+    Optional.ofNullable(properties)
+        .map(p -> p.get(CACHE_SIZE))
+        .filter(Integer.class::isInstance)
+        .map(Integer.class::cast)
+        .ifPresent(this::setCacheSize);
   }
 
   public void setRadiusInKm(int radius) {
-    this.radiusInKm = radius;
+    synchronized (cache) {
+      this.radiusInKm = radius;
+      cache.clear();
+    }
   }
 
   public int getRadius() {
     return radiusInKm;
   }
 
+  /** @param cacheSize the maximum number of geohash cells to cache country codes for */
+  public void setCacheSize(int cacheSize) {
+    synchronized (cache) {
+      this.cacheSize = Math.max(cacheSize, 0);
+      cache.clear();
+    }
+  }
+
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
   /**
-   * Sets the country code attribute of the {@param metacard} when the {@param metacard} has a
-   * location and there is not already a country code attribute. Does not update the country code if
-   * the country code attribute is already set.
-   *
-   * @param metacard
+   * Sets the country code attribute of the metacards that have a location and no country code
+   * attribute yet. Metacards whose locations have their centers in the same geohash cell are given
+   * the country code of the first of them.
    */
-  private void setCountryCode(Metacard metacard, GeoCoder geoCoder) {
-    Optional<String> wktLocation = Optional.ofNullable(metacard.getLocation());
+  private void setCountryCodes(Collection<Metacard> metacards, GeoCoder geoCoder) {
+    if (geoCoder == null) {
+      return;
+    }
 
-    if (geoCoder != null && wktLocation.isPresent() && !hasCountryCode(metacard)) {
-      Optional<String> alpha3CountryCode = geoCoder.getCountryCode(wktLocation.get(), radiusInKm);
+    Map<String, List<Metacard>> metacardsByCell = new LinkedHashMap<>();
+    Map<String, GeohashCell> cells = new LinkedHashMap<>();
+    for (Metacard metacard : metacards) {
+      String wktLocation = metacard.getLocation();
+      if (wktLocation == null || hasCountryCode(metacard)) {
+        continue;
+      }
 
-      alpha3CountryCode.ifPresent(
-          countryCode -> {
-            LOGGER.trace(
-                "Setting metacard country code to {} for metacard with id {}",
-                countryCode,
-                metacard.getId());
+      GeohashCell cell = getCell(wktLocation);
+      if (cell == null) {
+        setCountryCode(metacard, geoCoder.getCountryCode(wktLocation, radiusInKm));
+      } else {
+        cells.putIfAbsent(cell.getHash(), cell);
+        metacardsByCell.computeIfAbsent(cell.getHash(), hash -> new ArrayList<>()).add(metacard);
+      }
+    }
 
-            metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, countryCode));
-          });
+    for (Map.Entry<String, List<Metacard>> entry : metacardsByCell.entrySet()) {
+      List<Metacard> cellMetacards = entry.getValue();
+      Optional<String> countryCode =
+          getCountryCode(cells.get(entry.getKey()), cellMetacards.get(0).getLocation(), geoCoder);
+      cellMetacards.forEach(metacard -> setCountryCode(metacard, countryCode));
     }
   }
 
+  private Optional<String> getCountryCode(GeohashCell cell, String wktLocation, GeoCoder geoCoder) {
+    int radius;
+    synchronized (cache) {
+      if (geoCoder != cachedGeoCoder) {
+        cache.clear();
+        cachedGeoCoder = geoCoder;
+      }
+      String cached = cache.get(cell.getHash());
+      if (cached != null) {
+        return Optional.of(cached);
+      }
+      radius = radiusInKm;
+    }
+
+    Optional<String> countryCode =
+        getCountryBoundaries().getCountryCode(cell.getEnvelope(), radius + BOUNDARY_ERROR_IN_KM);
+    if (!countryCode.isPresent()) {
+      countryCode = geoCoder.getCountryCode(wktLocation, radius);
+    }
+
+    // Locations without a country are looked up again, since the gazetteer may not be loaded yet
+    countryCode.ifPresent(
+        code -> {
+          synchronized (cache) {
+            if (geoCoder == cachedGeoCoder && radius == radiusInKm) {
+              cache.put(cell.getHash(), code);
+            }
+          }
+        });
+    return countryCode;
+  }
+
+  /** @return the geohash cell of the center of the location, or null if it has none */
+  private static GeohashCell getCell(String wktLocation) {
+    try {
+      Point center = WKT_READER_THREAD_LOCAL.get().read(wktLocation).getCentroid();
+      if (center.isEmpty()) {
+        return null;
+      }
+      return GeohashCell.of(center.getX(), center.getY(), CELL_PRECISION);
+    } catch (ParseException e) {
+      LOGGER.debug("Unable to parse location {}", wktLocation, e);
+      return null;
+    }
+  }
+
+  private CountryBoundaries getCountryBoundaries() {
+    CountryBoundaries boundaries = countryBoundaries;
+    if (boundaries == null) {
+      synchronized (this) {
+        if (countryBoundaries == null) {
+          countryBoundaries = CountryBoundaries.load(countryBoundariesFile);
+        }
+        boundaries = countryBoundaries;
+      }
+    }
+    return boundaries;
+  }
+
+  private void setCountryCode(Metacard metacard, Optional<String> alpha3CountryCode) {
+    alpha3CountryCode.ifPresent(
+        countryCode -> {
+          LOGGER.trace(
+              "Setting metacard country code to {} for metacard with id {}",
+              countryCode,
+              metacard.getId());
+
+          metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, countryCode));
+        });
+  }
+
   private boolean hasCountryCode(Metacard metacard) {
     return metacard.getAttribute(Location.COUNTRY_CODE) != null;
   }
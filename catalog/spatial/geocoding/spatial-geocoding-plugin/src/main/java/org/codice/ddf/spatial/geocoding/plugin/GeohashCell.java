@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.plugin;
+
+import org.locationtech.jts.geom.Envelope;
+
+/** The geohash cell of a location, with the bounds of the cell. */
+class GeohashCell {
+
+  private static final char[] BASE_32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+  private static final int BITS_PER_CHARACTER = 5;
+
+  private final String hash;
+
+  private final Envelope envelope;
+
+  private GeohashCell(String hash, Envelope envelope) {
+    this.hash = hash;
+    this.envelope = envelope;
+  }
+
+  /**
+   * @param longitude the longitude of the location, in degrees
+   * @param latitude the latitude of the location, in degrees
+   * @param precision the number of characters of the geohash
+   * @return the cell containing the location, or null if the location is not a valid longitude and
+   *     latitude
+   */
+  static GeohashCell of(double longitude, double latitude, int precision) {
+    if (!(Math.abs(longitude) <= 180 && Math.abs(latitude) <= 90)) {
+      return null;
+    }
+
+    double minX = -180;
+    double maxX = 180;
+    double minY = -90;
+    double maxY = 90;
+    boolean isLongitudeBit = true;
+    StringBuilder hash = new StringBuilder(precision);
+    for (int i = 0; i < precision; i++) {
+      int character = 0;
+      for (int bit = 0; bit < BITS_PER_CHARACTER; bit++) {
+        character <<= 1;
+        if (isLongitudeBit) {
+          double middle = (minX + maxX) / 2;
+          if (longitude >= middle) {
+            character |= 1;
+            minX = middle;
+          } else {
+            maxX = middle;
+          }
+        } else {
+          double middle = (minY + maxY) / 2;
+          if (latitude >= middle) {
+            character |= 1;
+            minY = middle;
+          } else {
+            maxY = middle;
+          }
+        }
+        isLongitudeBit = !isLongitudeBit;
+      }
+      hash.append(BASE_32[character]);
+    }
+    return new GeohashCell(hash.toString(), new Envelope(minX, maxX, minY, maxY));
+  }
+
+  String getHash() {
+    return hash;
+  }
+
+  Envelope getEnvelope() {
+    return envelope;
+  }
+}
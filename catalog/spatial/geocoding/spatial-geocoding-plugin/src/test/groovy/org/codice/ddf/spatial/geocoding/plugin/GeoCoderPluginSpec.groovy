@@ -28,6 +28,7 @@ import org.junit.platform.runner.JUnitPlatform
 import org.junit.runner.RunWith
 import spock.lang.Specification
 
+import java.nio.file.Paths
 import java.util.AbstractMap.SimpleEntry
 import java.util.Map.Entry
 
@@ -42,6 +43,10 @@ class GeoCoderPluginSpec extends Specification {
 
     private static String invalidLocationWkt = 'POINT(350.0 350.0)'
 
+    private static String nearbyLocationWKT = 'POINT(10.402440 63.418400)'
+
+    private static String equatorLocationWKT = 'POINT(1.0 1.0)'
+
     private CreateRequest createRequest
 
     private UpdateRequest updateRequest
@@ -258,6 +263,90 @@ class GeoCoderPluginSpec extends Specification {
         thrown(PluginExecutionException)
     }
 
+    def 'test metacards in the same cell are geocoded once CreateRequest'() {
+        setup:
+        GeoCoder geocoder = Mock(GeoCoder)
+        geoCoderPlugin = new GeoCoderPlugin(Mock(ServiceSelector) { getService() >> geocoder })
+        def metacards = getTestMetacards(new AttributeImpl(Core.LOCATION, locationWKT)) +
+                getTestMetacards(new AttributeImpl(Core.LOCATION, nearbyLocationWKT))
+        createRequest.getMetacards() >> metacards
+
+        when:
+        geoCoderPlugin.process(createRequest)
+
+        then:
+        1 * geocoder.getCountryCode(locationWKT, 10) >> countryCode
+        metacards.every { it.getAttribute(Location.COUNTRY_CODE).getValue() == countryCode.get() }
+    }
+
+    def 'test country code is cached between requests'() {
+        setup:
+        GeoCoder geocoder = Mock(GeoCoder)
+        geoCoderPlugin = new GeoCoderPlugin(Mock(ServiceSelector) { getService() >> geocoder })
+        def firstRequest = Mock(CreateRequest) {
+            getMetacards() >> getTestMetacards(new AttributeImpl(Core.LOCATION, locationWKT))
+        }
+        updateRequest.getUpdates() >> getTestUpdates(new AttributeImpl(Core.LOCATION, nearbyLocationWKT))
+
+        when:
+        geoCoderPlugin.process(firstRequest)
+        def response = geoCoderPlugin.process(updateRequest)
+
+        then:
+        1 * geocoder.getCountryCode(_ as String, _ as Integer) >> countryCode
+        response.getUpdates().get(0).getValue().getAttribute(Location.COUNTRY_CODE).getValue() == countryCode.get()
+    }
+
+    def 'test locations without a country code are not cached'() {
+        setup:
+        GeoCoder geocoder = Mock(GeoCoder)
+        geoCoderPlugin = new GeoCoderPlugin(Mock(ServiceSelector) { getService() >> geocoder })
+        createRequest.getMetacards() >> getTestMetacards(new AttributeImpl(Core.LOCATION, locationWKT))
+
+        when:
+        geoCoderPlugin.process(createRequest)
+        geoCoderPlugin.process(createRequest)
+
+        then:
+        2 * geocoder.getCountryCode(_ as String, _ as Integer) >> Optional.empty()
+    }
+
+    def 'test disabled cache'() {
+        setup:
+        GeoCoder geocoder = Mock(GeoCoder)
+        geoCoderPlugin = new GeoCoderPlugin(Mock(ServiceSelector) { getService() >> geocoder })
+        geoCoderPlugin.updateConfiguration([(GeoCoderPlugin.CACHE_SIZE): 0])
+        createRequest.getMetacards() >> getTestMetacards(new AttributeImpl(Core.LOCATION, locationWKT))
+
+        when:
+        geoCoderPlugin.process(createRequest)
+        geoCoderPlugin.process(createRequest)
+
+        then:
+        geoCoderPlugin.getCacheSize() == 0
+        2 * geocoder.getCountryCode(_ as String, _ as Integer) >> countryCode
+    }
+
+    def 'test country code from country boundaries'() {
+        setup:
+        GeoCoder geocoder = Mock(GeoCoder)
+        geoCoderPlugin = new GeoCoderPlugin(
+                Mock(ServiceSelector) { getService() >> geocoder },
+                Paths.get(getClass().getResource('/countries.geo.json').toURI()))
+        def metacards = getTestMetacards(new AttributeImpl(Core.LOCATION, locationWKT)) +
+                getTestMetacards(new AttributeImpl(Core.LOCATION, equatorLocationWKT))
+        createRequest.getMetacards() >> metacards
+
+        when:
+        geoCoderPlugin.process(createRequest)
+
+        then: "the location within the boundary of a country is not geocoded"
+        0 * geocoder.getCountryCode(locationWKT, _ as Integer)
+        1 * geocoder.getCountryCode(equatorLocationWKT, _ as Integer) >> Optional.of('GAB')
+        metacards[0].getAttribute(Location.COUNTRY_CODE).getValue() == 'NOR'
+        metacards[1].getAttribute(Location.COUNTRY_CODE).getValue() == 'GAB'
+    }
+
     def initGeoCoderPlugin(Optional<String> countryCode, boolean overrideDefaultGeocoder) {
         GeoCoder geocoder = (overrideDefaultGeocoder == true) ? null : Mock(GeoCoder) {
             getCountryCode(_ as String, _ as Integer) >> countryCode
@@ -15,17 +15,17 @@
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.XStreamException;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.xml.WstxDriver;
 import com.thoughtworks.xstream.security.NoTypePermission;
 import ddf.catalog.data.Metacard;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import javax.ws.rs.Consumes;
@@ -36,17 +36,10 @@
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.Provider;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
-import net.opengis.wfs.v_2_0_0.FeatureCollectionType;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang.StringUtils;
-import org.codice.ddf.log.sanitizer.LogSanitizer;
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.FeatureConverter;
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.GmlEnvelopeConverter;
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.GmlGeometryConverter;
@@ -56,6 +49,12 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Reads a WFS 2.0 GetFeature response without buffering it. The response is pulled from a single
+ * {@link XMLStreamReader}: the first element is checked for an OWS ExceptionReport, the number of
+ * matched and returned features are read from the attributes of the FeatureCollection, and each
+ * {@code wfs:member} is then converted by its registered {@link FeatureConverter} as it is reached.
+ */
 @Consumes({MediaType.TEXT_XML, MediaType.APPLICATION_XML, Wfs20Constants.GML_MIME_TYPE})
 @Provider
 public class FeatureCollectionMessageBodyReaderWfs20
@@ -64,7 +63,23 @@
   private static final Logger LOGGER =
       LoggerFactory.getLogger(FeatureCollectionMessageBodyReaderWfs20.class);
 
-  private static final JAXBContext JAXB_CONTEXT = initJaxbContext();
+  private static final String FEATURE_COLLECTION = "FeatureCollection";
+
+  private static final String EXCEPTION_REPORT = "ExceptionReport";
+
+  private static final String NUMBER_MATCHED = "numberMatched";
+
+  private static final String NUMBER_RETURNED = "numberReturned";
+
+  /**
+   * Number of bytes kept while the first element is read, so that an ExceptionReport can be
+   * returned to the caller as it was received.
+   */
+  private static final int FIRST_ELEMENT_READ_LIMIT = 64 * 1024;
+
+  private final WstxDriver driver = new WstxDriver();
+
+  private final XMLInputFactory xmlInputFactory;
 
   protected XStream xstream;
 
@@ -74,8 +89,14 @@
       new HashMap<String, FeatureConverter>();
 
   public FeatureCollectionMessageBodyReaderWfs20() {
-    xstream = new XStream(new WstxDriver());
+    xmlInputFactory = XMLInputFactory.newFactory();
+    xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+
+    xstream = new XStream(driver);
     xstream.addPermission(NoTypePermission.NONE);
+    xstream.allowTypeHierarchy(Wfs20FeatureCollection.class);
     xstream.setClassLoader(this.getClass().getClassLoader());
     xstream.registerConverter(new GmlGeometryConverter());
     xstream.registerConverter(new GmlEnvelopeConverter());
@@ -85,31 +106,6 @@ public FeatureCollectionMessageBodyReaderWfs20() {
     xstream.alias("FeatureCollection", Wfs20FeatureCollection.class);
   }
 
-  private static JAXBContext initJaxbContext() {
-    JAXBContext jaxbContext = null;
-
-    // JAXB context path
-    String contextPath =
-        StringUtils.join(
-            new String[] {
-              Wfs20Constants.OGC_WFS_PACKAGE,
-              Wfs20Constants.OGC_FILTER_PACKAGE,
-              Wfs20Constants.OGC_GML_PACKAGE,
-              Wfs20Constants.OGC_OWS_PACKAGE
-            },
-            ":");
-
-    try {
-      jaxbContext =
-          JAXBContext.newInstance(
-              contextPath, FeatureCollectionMessageBodyReaderWfs20.class.getClassLoader());
-    } catch (JAXBException e) {
-      LOGGER.info("Unable to create JAXB context using contextPath: {}.", contextPath, e);
-    }
-
-    return jaxbContext;
-  }
-
   @Override
   public boolean isReadable(
       Class<?> clazz, Type type, Annotation[] annotations, MediaType mediaType) {
@@ -119,10 +115,6 @@ public boolean isReadable(
     return Wfs20FeatureCollection.class.isAssignableFrom(clazz);
   }
 
-  @SuppressWarnings({
-    "unchecked",
-    "squid:S2093"
-  } /*instream declaration is a re-creation and as such cannot be put in a try-catch*/)
   @Override
   public Wfs20FeatureCollection readFrom(
       Class<Wfs20FeatureCollection> clazz,
@@ -133,89 +125,85 @@ public Wfs20FeatureCollection readFrom(
       InputStream inStream)
       throws IOException, WebApplicationException {
 
-    // Save original input stream for any exception message that might need to be
-    // created and additional attributes
-    String originalInputStream = IOUtils.toString(inStream, "UTF-8");
-    LOGGER.debug("{}", LogSanitizer.sanitize(originalInputStream));
+    // The start of the response is kept so that an ExceptionReport can be returned as it was read
+    BufferedInputStream bufferedStream = new BufferedInputStream(inStream);
+    bufferedStream.mark(FIRST_ELEMENT_READ_LIMIT);
 
     ClassLoader ccl = Thread.currentThread().getContextClassLoader();
+    XMLStreamReader xmlStreamReader = null;
 
     try {
       Thread.currentThread()
           .setContextClassLoader(FeatureCollectionMessageBodyReaderWfs20.class.getClassLoader());
-      // Fetch FeatureCollection attributes
-      Unmarshaller unmarshaller = null;
-      JAXBElement<FeatureCollectionType> wfsFeatureCollectionType = null;
-      xstream.allowTypeHierarchy(Wfs20FeatureCollection.class);
-      try {
-        unmarshaller = JAXB_CONTEXT.createUnmarshaller();
-        XMLInputFactory xmlInputFactory = XMLInputFactory.newFactory();
-        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-        xmlInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
-        XMLStreamReader xmlStreamReader =
-            xmlInputFactory.createXMLStreamReader(new StringReader(originalInputStream));
-        wfsFeatureCollectionType =
-            (JAXBElement<FeatureCollectionType>) unmarshaller.unmarshal(xmlStreamReader);
-      } catch (ClassCastException e1) {
-        LOGGER.debug(
-            "Exception unmarshalling {}, could be an OWS Exception Report from server.",
-            e1.getMessage());
+
+      xmlStreamReader = xmlInputFactory.createXMLStreamReader(bufferedStream);
+      // Moves the reader to the first element of the response
+      HierarchicalStreamReader reader = driver.createStaxReader(xmlStreamReader);
+      String rootName = reader.getNodeName();
+
+      if (EXCEPTION_REPORT.equals(rootName)) {
+        LOGGER.debug("Received an OWS Exception Report from server.");
 
         // If an ExceptionReport is sent from the remote WFS site it will be sent with an
         // JAX-RS "OK" status, hence the ErrorResponse exception mapper will not fire.
-        // Instead the ServiceExceptionReport will come here and be treated like a GetFeature
-        // response, resulting in an XStreamException since ExceptionReport cannot be
-        // unmarshalled. So this catch clause is responsible for catching that XStream
-        // exception and creating a JAX-RS response containing the original stream
-        // (with the ExceptionReport) and rethrowing it as a WebApplicationException,
-        // which CXF will wrap as a ClientException that the WfsSource catches, converts
-        // to a WfsException, and logs.
-
-        ByteArrayInputStream bis =
-            new ByteArrayInputStream(originalInputStream.getBytes(StandardCharsets.UTF_8));
-        ResponseBuilder responseBuilder = Response.ok(bis);
+        // Instead the ExceptionReport will come here and be treated like a GetFeature
+        // response. So this reader is responsible for creating a JAX-RS response containing
+        // the original stream (with the ExceptionReport) and throwing it as a
+        // WebApplicationException, which CXF will wrap as a ClientException that the WfsSource
+        // catches, converts to a WfsException, and logs.
+        bufferedStream.reset();
+        ResponseBuilder responseBuilder =
+            Response.ok(new ByteArrayInputStream(IOUtils.toByteArray(bufferedStream)));
         responseBuilder.type("text/xml");
-        Response response = responseBuilder.build();
-        throw new WebApplicationException(e1, response);
-      } catch (VirtualMachineError e) {
-        throw e;
-      } catch (JAXBException | XMLStreamException e1) {
-        LOGGER.debug("Error in retrieving feature collection.", e1);
-      } catch (RuntimeException e) {
-        LOGGER.debug("Error processing collection", e);
-        throw e;
+        throw new WebApplicationException(
+            "Received an OWS Exception Report", responseBuilder.build());
       }
 
-      Wfs20FeatureCollection featureCollection = null;
-
-      if (null != wfsFeatureCollectionType && null != wfsFeatureCollectionType.getValue()) {
-        BigInteger numberReturned = wfsFeatureCollectionType.getValue().getNumberReturned();
-        String numberMatched = wfsFeatureCollectionType.getValue().getNumberMatched();
-
-        // Re-create the input stream (since it has already been read for potential
-        // exception message creation)
-        inStream = new ByteArrayInputStream(originalInputStream.getBytes("UTF-8"));
-
-        try {
-          xstream.allowTypeHierarchy(Wfs20FeatureCollection.class);
-          featureCollection = (Wfs20FeatureCollection) xstream.fromXML(inStream);
-          featureCollection.setNumberMatched(numberMatched);
-          featureCollection.setNumberReturned(numberReturned);
-
-        } catch (XStreamException e) {
-          LOGGER.debug("Exception unmarshalling", e);
-        } finally {
-          IOUtils.closeQuietly(inStream);
-        }
+      if (!FEATURE_COLLECTION.equals(rootName)) {
+        LOGGER.debug("Response is not a feature collection. Root element was {}.", rootName);
+        return null;
       }
 
+      String numberMatched = reader.getAttribute(NUMBER_MATCHED);
+      BigInteger numberReturned = parseNumberReturned(reader.getAttribute(NUMBER_RETURNED));
+
+      // The members are pulled from the reader and converted one at a time
+      Wfs20FeatureCollection featureCollection =
+          (Wfs20FeatureCollection) xstream.unmarshal(reader);
+      featureCollection.setNumberMatched(numberMatched);
+      featureCollection.setNumberReturned(numberReturned);
       return featureCollection;
+    } catch (XMLStreamException | XStreamException e) {
+      LOGGER.debug("Error in retrieving feature collection.", e);
+      return null;
     } finally {
+      closeQuietly(xmlStreamReader);
       Thread.currentThread().setContextClassLoader(ccl);
     }
   }
 
+  private BigInteger parseNumberReturned(String numberReturned) {
+    if (numberReturned == null) {
+      return null;
+    }
+    try {
+      return new BigInteger(numberReturned);
+    } catch (NumberFormatException e) {
+      LOGGER.debug("Received invalid number of returned features: {}", numberReturned, e);
+      return null;
+    }
+  }
+
+  private void closeQuietly(XMLStreamReader xmlStreamReader) {
+    if (xmlStreamReader != null) {
+      try {
+        xmlStreamReader.close();
+      } catch (XMLStreamException e) {
+        LOGGER.debug("Failed to close the feature collection reader.", e);
+      }
+    }
+  }
+
   public void registerConverter(FeatureConverter converter) {
     featureConverterMap.put(converter.getMetacardType().getName(), converter);
     xstream.registerConverter(converter);
@@ -14,17 +14,53 @@
 package org.codice.ddf.spatial.ogc.wfs.v2_0_0.catalog.source.reader;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.MetacardImpl;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
 import javax.ws.rs.WebApplicationException;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.spatial.ogc.wfs.catalog.converter.FeatureConverter;
 import org.codice.ddf.spatial.ogc.wfs.v2_0_0.catalog.common.Wfs20FeatureCollection;
 import org.junit.Test;
 
 public class FeatureCollectionMessageBodyReaderWfs20Test {
+
+  private static final String FEATURE_COLLECTION =
+      "<wfs:FeatureCollection xmlns:wfs=\"http://www.opengis.net/wfs/2.0\""
+          + " xmlns:sf=\"http://www.openplans.org/spearfish\""
+          + " numberMatched=\"12\" numberReturned=\"3\">"
+          + "<wfs:member><sf:roads><sf:id>1</sf:id></sf:roads></wfs:member>"
+          + "<wfs:member><wfs:FeatureCollection>"
+          + "<wfs:member><sf:roads><sf:id>2</sf:id></sf:roads></wfs:member>"
+          + "<wfs:member><sf:roads><sf:id>3</sf:id></sf:roads></wfs:member>"
+          + "</wfs:FeatureCollection></wfs:member>"
+          + "</wfs:FeatureCollection>";
+
+  private static final String EXCEPTION_REPORT =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+          + "<ows:ExceptionReport xmlns:ows=\"http://www.opengis.net/ows/1.1\" version=\"2.0.0\">"
+          + "<ows:Exception exceptionCode=\"InvalidParameterValue\">"
+          + "<ows:ExceptionText>Unknown type</ows:ExceptionText>"
+          + "</ows:Exception>"
+          + "</ows:ExceptionReport>";
   /** Positive test case to assure valid objects are unmarshalled */
   @Test
   public void testAllowedDeserialization() throws WebApplicationException, IOException {
@@ -47,6 +83,57 @@ public void testForbiddenDeserialization() throws WebApplicationException, IOExc
     dynamicProxySerializedXml.close();
     assertThat(response, nullValue());
   }
+  @Test
+  public void testMembersAreConvertedInOrder() throws IOException {
+    FeatureCollectionMessageBodyReaderWfs20 reader = new FeatureCollectionMessageBodyReaderWfs20();
+    reader.registerConverter(mockRoadsConverter());
+
+    Wfs20FeatureCollection response =
+        reader.readFrom(null, null, null, null, null, stream(FEATURE_COLLECTION));
+
+    assertThat(response.getNumberMatched(), is("12"));
+    assertThat(response.getNumberReturned(), is(BigInteger.valueOf(3)));
+    assertThat(
+        response.getMembers().stream().map(Metacard::getId).collect(Collectors.toList()),
+        contains("1", "2", "3"));
+  }
+
+  @Test
+  public void testExceptionReportIsReturnedToCaller() throws IOException {
+    FeatureCollectionMessageBodyReaderWfs20 reader = new FeatureCollectionMessageBodyReaderWfs20();
+
+    try {
+      reader.readFrom(null, null, null, null, null, stream(EXCEPTION_REPORT));
+      fail("Expected a WebApplicationException for the ExceptionReport");
+    } catch (WebApplicationException e) {
+      InputStream entity = (InputStream) e.getResponse().getEntity();
+      assertThat(IOUtils.toString(entity, StandardCharsets.UTF_8), is(EXCEPTION_REPORT));
+    }
+  }
+
+  private FeatureConverter mockRoadsConverter() {
+    MetacardType metacardType = mock(MetacardType.class);
+    when(metacardType.getName()).thenReturn("roads");
+
+    FeatureConverter converter = mock(FeatureConverter.class);
+    when(converter.getMetacardType()).thenReturn(metacardType);
+    when(converter.unmarshal(any(HierarchicalStreamReader.class), any(UnmarshallingContext.class)))
+        .thenAnswer(
+            invocation -> {
+              HierarchicalStreamReader featureReader = invocation.getArgument(0);
+              featureReader.moveDown();
+              MetacardImpl metacard = new MetacardImpl();
+              metacard.setId(featureReader.getValue());
+              featureReader.moveUp();
+              return metacard;
+            });
+    return converter;
+  }
+
+  private InputStream stream(String xml) {
+    return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+  }
+
   /** Helper method to open streams from resource */
   private InputStream open(String name) {
     return new BufferedInputStream(
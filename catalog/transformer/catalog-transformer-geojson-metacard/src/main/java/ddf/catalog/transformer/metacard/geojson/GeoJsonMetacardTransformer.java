@@ -13,9 +13,9 @@
  */
 package ddf.catalog.transformer.metacard.geojson;
 
+import com.google.gson.stream.JsonWriter;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
-import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
@@ -24,22 +24,15 @@
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.geo.formatter.CompositeGeometry;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
 import java.util.Map;
-import java.util.TimeZone;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import javax.xml.bind.DatatypeConverter;
 import org.json.simple.JSONObject;
-import org.json.simple.JSONValue;
-import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.io.ParseException;
-import org.locationtech.jts.io.WKTReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,8 +55,6 @@ public class GeoJsonMetacardTransformer implements MetacardTransformer {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GeoJsonMetacardTransformer.class);
 
-  private static final String SOURCE_ID_PROPERTY = "source-id";
-
   protected static final MimeType DEFAULT_MIME_TYPE = new MimeType();
 
   static {
@@ -76,6 +67,10 @@ public class GeoJsonMetacardTransformer implements MetacardTransformer {
     }
   }
 
+  /**
+   * Converts a metacard to a GeoJSON feature object. {@link #transform(Metacard, Map)} writes the
+   * feature with {@link GeoJsonWriter} instead of building this object.
+   */
   public static JSONObject convertToJSON(Metacard metacard) throws CatalogTransformerException {
     if (metacard == null) {
       throw new CatalogTransformerException("Cannot transform null metacard.");
@@ -90,7 +85,7 @@ public static JSONObject convertToJSON(Metacard metacard) throws CatalogTransfor
 
       Attribute attribute = metacard.getAttribute(ad.getName());
       if (attribute != null) {
-        Object value = convertAttribute(attribute, ad);
+        Object value = GeoJsonWriter.convertAttribute(attribute, ad);
         if (value != null) {
           if (Metacard.GEOGRAPHY.equals(attribute.getName())) {
             rootObject.put(CompositeGeometry.GEOMETRY_KEY, value);
@@ -108,7 +103,7 @@ public static JSONObject convertToJSON(Metacard metacard) throws CatalogTransfor
     properties.put(MetacardType.METACARD_TYPE, metacard.getMetacardType().getName());
 
     if (metacard.getSourceId() != null && !"".equals(metacard.getSourceId())) {
-      properties.put(SOURCE_ID_PROPERTY, metacard.getSourceId());
+      properties.put(GeoJsonWriter.SOURCE_ID_PROPERTY, metacard.getSourceId());
     }
 
     rootObject.put(CompositeGeometry.PROPERTIES_KEY, properties);
@@ -119,12 +114,20 @@ public static JSONObject convertToJSON(Metacard metacard) throws CatalogTransfor
   public BinaryContent transform(Metacard metacard, Map<String, Serializable> arguments)
       throws CatalogTransformerException {
 
-    JSONObject rootObject = convertToJSON(metacard);
+    if (metacard == null) {
+      throw new CatalogTransformerException("Cannot transform null metacard.");
+    }
 
-    String jsonText = JSONValue.toJSONString(rootObject);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (JsonWriter writer =
+        new JsonWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+      GeoJsonWriter.writeFeature(writer, metacard);
+    } catch (IOException e) {
+      throw new CatalogTransformerException("Unable to write metacard as GeoJSON", e);
+    }
 
     return new BinaryContentImpl(
-        new ByteArrayInputStream(jsonText.getBytes(StandardCharsets.UTF_8)), DEFAULT_MIME_TYPE);
+        new ByteArrayInputStream(outputStream.toByteArray()), DEFAULT_MIME_TYPE);
   }
 
   @Override
@@ -138,64 +141,4 @@ public String toString() {
         + DEFAULT_MIME_TYPE
         + "}";
   }
-
-  private static Object convertAttribute(Attribute attribute, AttributeDescriptor descriptor)
-      throws CatalogTransformerException {
-    if (descriptor.isMultiValued()) {
-      List<Object> values = new ArrayList<>();
-      for (Serializable value : attribute.getValues()) {
-        values.add(convertValue(value, descriptor.getType().getAttributeFormat()));
-      }
-      return values;
-    } else {
-      return convertValue(attribute.getValue(), descriptor.getType().getAttributeFormat());
-    }
-  }
-
-  private static Object convertValue(Serializable value, AttributeType.AttributeFormat format)
-      throws CatalogTransformerException {
-    if (value == null) {
-      return null;
-    }
-
-    switch (format) {
-      case BOOLEAN:
-        return value;
-      case DATE:
-        SimpleDateFormat dateFormat = new SimpleDateFormat(ISO_8601_DATE_FORMAT);
-        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-
-        return dateFormat.format((Date) value);
-      case BINARY:
-        byte[] bytes = (byte[]) value;
-        String base64 = DatatypeConverter.printBase64Binary(bytes);
-
-        return base64;
-      case DOUBLE:
-      case LONG:
-      case FLOAT:
-      case INTEGER:
-      case SHORT:
-      case STRING:
-      case XML:
-        return value.toString();
-      case GEOMETRY:
-        WKTReader reader = new WKTReader();
-        try {
-          Geometry geometry = reader.read(value.toString());
-          CompositeGeometry geoJsonGeometry = CompositeGeometry.getCompositeGeometry(geometry);
-          if (geoJsonGeometry == null) {
-            throw new CatalogTransformerException(
-                "Could not perform transform: unsupported geometry [" + value + "]");
-          }
-          return geoJsonGeometry.toJsonMap();
-        } catch (ParseException e) {
-          throw new CatalogTransformerException(
-              "Could not perform transform: could not parse geometry [" + value + "]", e);
-        }
-      case OBJECT:
-      default:
-        return null;
-    }
-  }
 }
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.metacard.geojson;
+
+import com.google.gson.stream.JsonWriter;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.geo.formatter.CompositeGeometry;
+import java.io.IOException;
+import java.io.Serializable;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import javax.xml.bind.DatatypeConverter;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * Writes {@link Metacard}s as GeoJSON features to a streaming {@link JsonWriter}, without building
+ * a JSON object for the feature first. The GeoJSON metacard and query response transformers both
+ * write their features with this class.
+ */
+public final class GeoJsonWriter {
+
+  static final String SOURCE_ID_PROPERTY = "source-id";
+
+  private GeoJsonWriter() {}
+
+  /**
+   * Writes a metacard as a GeoJSON feature. The value of {@link Metacard#GEOGRAPHY} is written as
+   * the geometry of the feature and the other attributes as its properties.
+   *
+   * @param writer writer the feature is written to
+   * @param metacard metacard to write
+   * @throws CatalogTransformerException if the metacard is null or one of its geometries cannot be
+   *     converted to GeoJSON
+   * @throws IOException if the feature cannot be written
+   */
+  public static void writeFeature(JsonWriter writer, Metacard metacard)
+      throws CatalogTransformerException, IOException {
+    if (metacard == null) {
+      throw new CatalogTransformerException("Cannot transform null metacard.");
+    }
+
+    String sourceId = metacard.getSourceId();
+    boolean hasSourceId = sourceId != null && !"".equals(sourceId);
+    Object geometry = null;
+
+    writer.beginObject();
+    writer.name("type").value("Feature");
+    writer.name(CompositeGeometry.PROPERTIES_KEY).beginObject();
+
+    for (AttributeDescriptor ad : metacard.getMetacardType().getAttributeDescriptors()) {
+      Attribute attribute = metacard.getAttribute(ad.getName());
+      if (attribute == null) {
+        continue;
+      }
+
+      Object value = convertAttribute(attribute, ad);
+      if (value == null) {
+        continue;
+      }
+
+      if (Metacard.GEOGRAPHY.equals(attribute.getName())) {
+        geometry = value;
+      } else if (!MetacardType.METACARD_TYPE.equals(attribute.getName())
+          && !(hasSourceId && SOURCE_ID_PROPERTY.equals(attribute.getName()))) {
+        writer.name(attribute.getName());
+        writeValue(writer, value);
+      }
+    }
+
+    writer.name(MetacardType.METACARD_TYPE).value(metacard.getMetacardType().getName());
+    if (hasSourceId) {
+      writer.name(SOURCE_ID_PROPERTY).value(sourceId);
+    }
+    writer.endObject();
+
+    writer.name(CompositeGeometry.GEOMETRY_KEY);
+    writeValue(writer, geometry);
+    writer.endObject();
+  }
+
+  /**
+   * Writes a value made of {@link Map}s, {@link Iterable}s, {@link Number}s, {@link Boolean}s and
+   * strings, such as the value returned by {@link CompositeGeometry#toJsonMap()}.
+   */
+  private static void writeValue(JsonWriter writer, Object value) throws IOException {
+    if (value == null) {
+      writer.nullValue();
+    } else if (value instanceof Map) {
+      writer.beginObject();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        writer.name(String.valueOf(entry.getKey()));
+        writeValue(writer, entry.getValue());
+      }
+      writer.endObject();
+    } else if (value instanceof Iterable) {
+      writer.beginArray();
+      for (Object element : (Iterable<?>) value) {
+        writeValue(writer, element);
+      }
+      writer.endArray();
+    } else if (value instanceof Number) {
+      writer.value((Number) value);
+    } else if (value instanceof Boolean) {
+      writer.value((Boolean) value);
+    } else {
+      writer.value(value.toString());
+    }
+  }
+
+  static Object convertAttribute(Attribute attribute, AttributeDescriptor descriptor)
+      throws CatalogTransformerException {
+    if (descriptor.isMultiValued()) {
+      List<Object> values = new ArrayList<>();
+      for (Serializable value : attribute.getValues()) {
+        values.add(convertValue(value, descriptor.getType().getAttributeFormat()));
+      }
+      return values;
+    } else {
+      return convertValue(attribute.getValue(), descriptor.getType().getAttributeFormat());
+    }
+  }
+
+  private static Object convertValue(Serializable value, AttributeType.AttributeFormat format)
+      throws CatalogTransformerException {
+    if (value == null) {
+      return null;
+    }
+
+    switch (format) {
+      case BOOLEAN:
+        return value;
+      case DATE:
+        SimpleDateFormat dateFormat =
+            new SimpleDateFormat(GeoJsonMetacardTransformer.ISO_8601_DATE_FORMAT);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        return dateFormat.format((Date) value);
+      case BINARY:
+        byte[] bytes = (byte[]) value;
+        String base64 = DatatypeConverter.printBase64Binary(bytes);
+
+        return base64;
+      case DOUBLE:
+      case LONG:
+      case FLOAT:
+      case INTEGER:
+      case SHORT:
+      case STRING:
+      case XML:
+        return value.toString();
+      case GEOMETRY:
+        WKTReader reader = new WKTReader();
+        try {
+          Geometry geometry = reader.read(value.toString());
+          CompositeGeometry geoJsonGeometry = CompositeGeometry.getCompositeGeometry(geometry);
+          if (geoJsonGeometry == null) {
+            throw new CatalogTransformerException(
+                "Could not perform transform: unsupported geometry [" + value + "]");
+          }
+          return geoJsonGeometry.toJsonMap();
+        } catch (ParseException e) {
+          throw new CatalogTransformerException(
+              "Could not perform transform: could not parse geometry [" + value + "]", e);
+        }
+      case OBJECT:
+      default:
+        return null;
+    }
+  }
+}
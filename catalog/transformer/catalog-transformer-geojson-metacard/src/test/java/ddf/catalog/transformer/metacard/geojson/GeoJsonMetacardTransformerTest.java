@@ -178,6 +178,19 @@ public void testwithPointGeo() throws CatalogTransformerException, IOException,
     verifyBasicMetacardJson(now, obj2);
   }
 
+  @Test
+  public void testWrittenFeatureMatchesConvertedFeature()
+      throws CatalogTransformerException, IOException, ParseException {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setLocation(DEFAULT_LOCATION);
+    setupBasicMetacard(new Date(), metacard);
+
+    BinaryContent content = new GeoJsonMetacardTransformer().transform(metacard, null);
+
+    Object written = PARSER.parse(new String(content.getByteArray()));
+    assertThat(written, is(GeoJsonMetacardTransformer.convertToJSON(metacard)));
+  }
+
   /**
    * Tests that a LineString Geography can be returned in JSON
    *
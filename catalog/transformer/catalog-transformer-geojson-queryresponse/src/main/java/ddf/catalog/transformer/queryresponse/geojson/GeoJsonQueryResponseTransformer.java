@@ -13,6 +13,7 @@
  */
 package ddf.catalog.transformer.queryresponse.geojson;
 
+import com.google.gson.stream.JsonWriter;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -21,26 +22,28 @@
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transform.QueryResponseTransformer;
-import java.io.ByteArrayInputStream;
+import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
+import ddf.catalog.transformer.metacard.geojson.GeoJsonWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import net.minidev.json.JSONArray;
-import net.minidev.json.JSONObject;
-import net.minidev.json.JSONValue;
-import net.minidev.json.parser.JSONParser;
-import net.minidev.json.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Implements the {@link QueryResponseTransformer} interface to transform a {@link SourceResponse}
- * instance to GeoJSON. This class creates JSON objects for the list of {@link
- * ddf.catalog.data.Metacard}s that are the results from a query. This class leverages the {@link
- * GeoJsonMetacardTransformer} to convert metacards to JSON.
+ * instance to GeoJSON. The results of the query are written to the returned stream one at a time,
+ * as it is read. The metacards are written with the {@link GeoJsonWriter} of the {@link
+ * GeoJsonMetacardTransformer}; the content of any other metacard transformer is copied as is.
  *
  * @see GeoJsonMetacardTransformer
  * @see QueryResponseTransformer
@@ -72,34 +75,35 @@ public GeoJsonQueryResponseTransformer(MetacardTransformer metacardTransformer)
     this.metacardTransformer = metacardTransformer;
   }
 
-  private JSONObject convertToJSON(Result result) throws CatalogTransformerException {
-    JSONObject rootObject = new JSONObject();
+  private void writeResult(JsonWriter writer, Result result)
+      throws CatalogTransformerException, IOException {
+    writer.beginObject();
 
-    addNonNullObject(rootObject, "distance", result.getDistanceInMeters());
-    addNonNullObject(rootObject, "relevance", result.getRelevanceScore());
-    addNonNullObject(rootObject, "metacard", createGeoJSON(result.getMetacard()));
-
-    return rootObject;
-  }
-
-  private Object createGeoJSON(Metacard metacard) throws CatalogTransformerException {
-    if (metacardTransformer == null) {
-      throw new CatalogTransformerException("The metacard transformer cannot be null");
+    if (result.getDistanceInMeters() != null) {
+      writer.name("distance").value(result.getDistanceInMeters());
     }
-
-    BinaryContent rawContent = metacardTransformer.transform(metacard, null);
-    JSONParser jsonParser = new JSONParser(JSONParser.DEFAULT_PERMISSIVE_MODE);
-    try {
-      return jsonParser.parse(rawContent.getInputStream());
-    } catch (ParseException | UnsupportedEncodingException e) {
-      throw new CatalogTransformerException(
-          "Unable to parse transformed metacard content as JSON", e);
+    if (result.getRelevanceScore() != null) {
+      writer.name("relevance").value(result.getRelevanceScore());
     }
+    writer.name("metacard");
+    writeGeoJSON(writer, result.getMetacard());
+
+    writer.endObject();
   }
 
-  private static void addNonNullObject(JSONObject obj, String name, Object value) {
-    if (value != null) {
-      obj.put(name, value);
+  private void writeGeoJSON(JsonWriter writer, Metacard metacard)
+      throws CatalogTransformerException, IOException {
+    if (metacardTransformer instanceof GeoJsonMetacardTransformer) {
+      GeoJsonWriter.writeFeature(writer, metacard);
+    } else {
+      // the content of other transformers is copied as is instead of being parsed
+      BinaryContent rawContent = metacardTransformer.transform(metacard, null);
+      String json = new String(rawContent.getByteArray(), StandardCharsets.UTF_8);
+      if (json.trim().isEmpty()) {
+        writer.nullValue();
+      } else {
+        writer.jsonValue(json);
+      }
     }
   }
 
@@ -112,26 +116,28 @@ public BinaryContent transform(
           "Cannot transform null " + SourceResponse.class.getName());
     }
 
-    JSONObject rootObject = new JSONObject();
-
-    addNonNullObject(rootObject, "hits", upstreamResponse.getHits());
+    List<Result> results =
+        upstreamResponse.getResults() != null
+            ? upstreamResponse.getResults()
+            : Collections.emptyList();
 
-    JSONArray resultsList = new JSONArray();
-
-    if (upstreamResponse.getResults() != null) {
-      for (Result result : upstreamResponse.getResults()) {
-        if (result == null) {
-          throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
-        }
-        resultsList.add(convertToJSON(result));
+    // checked before the response is streamed, so that the transform fails instead of the stream
+    for (Result result : results) {
+      if (result == null) {
+        throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
+      }
+      if (metacardTransformer == null) {
+        throw new CatalogTransformerException("The metacard transformer cannot be null");
+      }
+      if (result.getMetacard() == null
+          && metacardTransformer instanceof GeoJsonMetacardTransformer) {
+        throw new CatalogTransformerException("Cannot transform null metacard.");
       }
     }
-    addNonNullObject(rootObject, "results", resultsList);
-
-    String jsonText = JSONValue.toJSONString(rootObject);
 
     return new BinaryContentImpl(
-        new ByteArrayInputStream(jsonText.getBytes(StandardCharsets.UTF_8)), DEFAULT_MIME_TYPE);
+        new ResponseInputStream(upstreamResponse.getHits(), results.iterator()),
+        DEFAULT_MIME_TYPE);
   }
 
   @Override
@@ -145,4 +151,90 @@ public String toString() {
         + DEFAULT_MIME_TYPE
         + "}";
   }
+
+  /**
+   * Writes the response as it is read: the hits and the opening of the results first, then one
+   * result each time the previous one has been read, then the closing of the results. Only the
+   * result being read is held in memory.
+   */
+  private class ResponseInputStream extends InputStream {
+
+    private final long hits;
+
+    private final Iterator<Result> results;
+
+    private final Buffer buffer = new Buffer();
+
+    private final JsonWriter writer =
+        new JsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+
+    private int position;
+
+    private boolean started;
+
+    private boolean finished;
+
+    ResponseInputStream(long hits, Iterator<Result> results) {
+      this.hits = hits;
+      this.results = results;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      while (position == buffer.size()) {
+        if (!fill()) {
+          return -1;
+        }
+      }
+      int count = Math.min(len, buffer.size() - position);
+      System.arraycopy(buffer.bytes(), position, b, off, count);
+      position += count;
+      return count;
+    }
+
+    private boolean fill() throws IOException {
+      if (finished) {
+        return false;
+      }
+
+      buffer.reset();
+      position = 0;
+
+      if (!started) {
+        writer.beginObject();
+        writer.name("hits").value(hits);
+        writer.name("results").beginArray();
+        started = true;
+      } else if (results.hasNext()) {
+        try {
+          writeResult(writer, results.next());
+        } catch (CatalogTransformerException e) {
+          throw new IOException("Unable to transform result to GeoJSON", e);
+        }
+      } else {
+        writer.endArray();
+        writer.endObject();
+        finished = true;
+      }
+
+      writer.flush();
+      return true;
+    }
+  }
+
+  private static class Buffer extends ByteArrayOutputStream {
+
+    byte[] bytes() {
+      return buf;
+    }
+  }
 }
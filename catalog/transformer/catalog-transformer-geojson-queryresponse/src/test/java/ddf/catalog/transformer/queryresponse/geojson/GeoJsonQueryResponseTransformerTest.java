@@ -30,7 +30,9 @@
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -155,6 +157,44 @@ public void testCustomTransformerWithJsonArray()
     assertThat(((JSONObject) metacard.get(1)).get("id"), is("1"));
   }
 
+  @Test
+  public void testReadOneByteAtATime()
+      throws CatalogTransformerException, IOException, ParseException {
+    SourceResponse sourceResponse = setupResponse(3, 12L);
+    InputStream inputStream =
+        geoJsonQueryResponseTransformer.transform(sourceResponse, null).getInputStream();
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    int b;
+    while ((b = inputStream.read()) != -1) {
+      outputStream.write(b);
+    }
+
+    JSONObject obj =
+        (JSONObject) PARSER.parse(new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    verifyResponse(obj, 3, 12L);
+  }
+
+  @Test(expected = IOException.class)
+  public void testBadGeometryFailsTheStream() throws CatalogTransformerException, IOException {
+    SourceResponse sourceResponse = setupResponse(2, 2L);
+    ((MetacardImpl) sourceResponse.getResults().get(1).getMetacard()).setLocation("POINT (1 0");
+
+    geoJsonQueryResponseTransformer.transform(sourceResponse, null).getByteArray();
+  }
+
+  @Test
+  public void testCustomTransformerWithEmptyContent()
+      throws ParseException, IOException, CatalogTransformerException {
+    GeoJsonQueryResponseTransformer geoJsonQRT =
+        new GeoJsonQueryResponseTransformer(createCustomMetacardTransformer(""));
+
+    JSONObject json = transform(setupResponse(1, 1L), geoJsonQRT);
+
+    JSONArray results = (JSONArray) json.get("results");
+    assertThat(((JSONObject) results.get(0)).get("metacard"), nullValue());
+  }
+
   private MetacardTransformer createCustomMetacardTransformer(String binContent) {
     return (metacard, arguments) ->
         new BinaryContentImpl(IOUtils.toInputStream(binContent, StandardCharsets.UTF_8));
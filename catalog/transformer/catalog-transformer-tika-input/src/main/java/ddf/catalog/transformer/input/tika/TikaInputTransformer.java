@@ -15,6 +15,8 @@
 
 import com.github.jaiimageio.impl.plugins.tiff.TIFFImageReaderSpi;
 import com.github.jaiimageio.jpeg2000.impl.J2KImageReaderSpi;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
 import ddf.catalog.content.operation.ContentMetadataExtractor;
 import ddf.catalog.content.operation.MetadataExtractor;
 import ddf.catalog.data.Attribute;
@@ -38,6 +40,7 @@
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -60,6 +63,7 @@
 import org.apache.commons.lang.Validate;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.io.CloseShieldInputStream;
+import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.mime.MediaTypeRegistry;
@@ -351,6 +355,15 @@ public Metacard transform(InputStream input, String id)
       throw new CatalogTransformerException("Cannot transform null input.");
     }
 
+    // Content that is already in a file, such as the content of an ingest, is read from that file
+    // instead of being copied to another one
+    if (TikaInputStream.isTikaInputStream(input)
+        && ((TikaInputStream) input).hasFile()
+        && ((TikaInputStream) input).getPosition() == 0) {
+      File file = ((TikaInputStream) input).getFile();
+      return transform(Files.asByteSource(file), file.length(), id);
+    }
+
     try (TemporaryFileBackedOutputStream fileBackedOutputStream =
         new TemporaryFileBackedOutputStream()) {
       try {
@@ -359,54 +372,58 @@ public Metacard transform(InputStream input, String id)
         throw new CatalogTransformerException("Could not copy bytes of content message.", e);
       }
 
-      Metadata metadata;
-      String bodyText = null;
-      String metadataText;
-      Metacard metacard = new MetacardImpl(commonTikaMetacardType);
-      String contentType = DataType.DATASET.name();
-      TikaMetadataExtractor extractor = null;
-      try (InputStream inputStreamCopy = fileBackedOutputStream.asByteSource().openStream()) {
-        extractor = new TikaMetadataExtractor(inputStreamCopy, previewMaxLength, metadataMaxLength);
-
-      } catch (TikaException | RuntimeException t) {
-        LOGGER.debug("Unable to extract tika metadata", t);
-      }
+      return transform(fileBackedOutputStream.asByteSource(), bytes, id);
+    }
+  }
 
-      if (extractor != null) {
-        metadataText = getMetadataXml(extractor.getMetadataXml());
-        Attribute validationAttribute = null;
-        if (metadataText.equals(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG)) {
-          validationAttribute =
-              new AttributeImpl(
-                  Validation.VALIDATION_WARNINGS, Collections.singletonList(metadataText));
-          metadataText = "";
-        }
-        bodyText = extractor.getBodyText();
-        metadata = extractor.getMetadata();
-        contentType = metadata.get(Metadata.CONTENT_TYPE);
-        MetacardType metacardType = mergeAttributes(getMetacardType(contentType));
-        metacard =
-            MetacardCreator.createMetacard(
-                metadata, id, metadataText, metacardType, useResourceTitleAsTitle);
-        if (StringUtils.isNotBlank(bodyText)) {
-          metacard.setAttribute(new AttributeImpl(Extracted.EXTRACTED_TEXT, bodyText));
-          processContentMetadataExtractors(bodyText, metacard);
-        }
+  private Metacard transform(ByteSource content, long bytes, String id) throws IOException {
+    Metadata metadata;
+    String bodyText = null;
+    String metadataText;
+    Metacard metacard = new MetacardImpl(commonTikaMetacardType);
+    String contentType = DataType.DATASET.name();
+    TikaMetadataExtractor extractor = null;
+    try (InputStream inputStreamCopy = content.openStream()) {
+      extractor = new TikaMetadataExtractor(inputStreamCopy, previewMaxLength, metadataMaxLength);
 
-        if (StringUtils.isNotBlank(metadataText)) {
-          processMetadataExtractors(metadataText, metacard);
-        }
+    } catch (TikaException | RuntimeException t) {
+      LOGGER.debug("Unable to extract tika metadata", t);
+    }
 
-        if (validationAttribute != null) {
-          metacard.setAttribute(validationAttribute);
-        }
+    if (extractor != null) {
+      metadataText = getMetadataXml(extractor.getMetadataXml());
+      Attribute validationAttribute = null;
+      if (metadataText.equals(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG)) {
+        validationAttribute =
+            new AttributeImpl(
+                Validation.VALIDATION_WARNINGS, Collections.singletonList(metadataText));
+        metadataText = "";
+      }
+      bodyText = extractor.getBodyText();
+      metadata = extractor.getMetadata();
+      contentType = metadata.get(Metadata.CONTENT_TYPE);
+      MetacardType metacardType = mergeAttributes(getMetacardType(contentType));
+      metacard =
+          MetacardCreator.createMetacard(
+              metadata, id, metadataText, metacardType, useResourceTitleAsTitle);
+      if (StringUtils.isNotBlank(bodyText)) {
+        metacard.setAttribute(new AttributeImpl(Extracted.EXTRACTED_TEXT, bodyText));
+        processContentMetadataExtractors(bodyText, metacard);
       }
 
-      enrichMetacard(fileBackedOutputStream, contentType, bytes, metacard);
+      if (StringUtils.isNotBlank(metadataText)) {
+        processMetadataExtractors(metadataText, metacard);
+      }
 
-      LOGGER.debug("Finished transforming input stream using Tika.");
-      return metacard;
+      if (validationAttribute != null) {
+        metacard.setAttribute(validationAttribute);
+      }
     }
+
+    enrichMetacard(content, contentType, bytes, metacard);
+
+    LOGGER.debug("Finished transforming input stream using Tika.");
+    return metacard;
   }
 
   private String getMetadataXml(String extractorMetadataXml) {
@@ -501,7 +518,7 @@ protected MetacardType mergeAttributes(MetacardType metacardType) {
   }
 
   protected void enrichMetacard(
-      TemporaryFileBackedOutputStream fileBackedOutputStream,
+      ByteSource content,
       String metacardContentType,
       long bytes,
       Metacard metacard)
@@ -512,7 +529,7 @@ protected void enrichMetacard(
     }
 
     if (StringUtils.startsWith(metacardContentType, "image")) {
-      try (InputStream inputStreamCopy = fileBackedOutputStream.asByteSource().openStream()) {
+      try (InputStream inputStreamCopy = content.openStream()) {
         createThumbnail(inputStreamCopy, metacard);
       }
     }
@@ -15,6 +15,7 @@
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -25,23 +26,23 @@
 import ddf.catalog.transformer.api.MetacardMarshaller;
 import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveTask;
-import java.util.concurrent.atomic.AtomicBoolean;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import javax.xml.bind.DataBindingException;
 import org.codice.ddf.parser.Parser;
 import org.codice.ddf.platform.util.ForkJoinPoolFactory;
+import org.codice.ddf.platform.util.OrderedChunkInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xmlpull.v1.XmlPullParserException;
@@ -55,116 +56,22 @@ public class XmlResponseQueueTransformer extends AbstractXmlTransformer
 
   public static final int BUFFER_SIZE = 1024;
 
-  private static class MetacardForkTask extends RecursiveTask<StringWriter> {
-    private static final long serialVersionUID = 1L;
+  private static final int DEFAULT_THRESHOLD = 50;
 
-    private final transient ImmutableList<Result> resultList;
+  private static final int DEFAULT_WINDOW_SIZE = 8;
 
-    private final transient ForkJoinPool fjp;
-
-    private final transient GeometryTransformer geometryTransformer;
-
-    private final int threshold;
-
-    private final AtomicBoolean cancelOperation;
-
-    private final transient MetacardMarshaller metacardMarshaller;
-
-    MetacardForkTask(
-        ImmutableList<Result> resultList,
-        ForkJoinPool fjp,
-        GeometryTransformer geometryTransformer,
-        int threshold,
-        MetacardMarshaller mcm) {
-      this(resultList, fjp, geometryTransformer, threshold, new AtomicBoolean(false), mcm);
-    }
-
-    private MetacardForkTask(
-        ImmutableList<Result> resultList,
-        ForkJoinPool fjp,
-        GeometryTransformer geometryTransformer,
-        int threshold,
-        AtomicBoolean cancelOperation,
-        MetacardMarshaller mcm) {
-      this.resultList = resultList;
-      this.fjp = fjp;
-      this.geometryTransformer = geometryTransformer;
-      this.threshold = threshold;
-      this.cancelOperation = cancelOperation;
-      this.metacardMarshaller = mcm;
-    }
-
-    @Override
-    protected StringWriter compute() {
-      if (cancelOperation.get()) {
-        return null;
-      }
-
-      if (resultList.size() < threshold) {
-        return doCompute();
-      } else {
-        int half = resultList.size() / 2;
-
-        MetacardForkTask fLeft =
-            new MetacardForkTask(
-                resultList.subList(0, half),
-                fjp,
-                geometryTransformer,
-                threshold,
-                cancelOperation,
-                metacardMarshaller);
-        fLeft.fork();
-        MetacardForkTask fRight =
-            new MetacardForkTask(
-                resultList.subList(half, resultList.size()),
-                fjp,
-                geometryTransformer,
-                threshold,
-                cancelOperation,
-                metacardMarshaller);
-        StringWriter rightList = fRight.compute();
-        StringWriter leftList = fLeft.join();
-
-        leftList.append(rightList.getBuffer());
-        return leftList;
-      }
-    } // end compute()
-
-    private StringWriter doCompute() {
-      StringWriter sw = new StringWriter(BUFFER_SIZE);
-      Map<String, Serializable> args = new HashMap<>();
-      args.put(MetacardMarshallerImpl.OMIT_XML_DECL, Boolean.TRUE);
-      try {
-        for (Result result : resultList) {
-          Metacard metacard = result.getMetacard();
-          String xmlString = metacardMarshaller.marshal(metacard, args);
-          sw.append(xmlString);
-        }
-      } catch (XmlPullParserException | IOException | CatalogTransformerException e) {
-        cancelOperation.set(true);
-        throw new DataBindingException("Failure to write node; operation aborted", e);
-      }
-      return sw;
-    }
-
-    private void writeObject(ObjectOutputStream stream) throws IOException {
-      stream.defaultWriteObject();
-    }
-
-    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
-      stream.defaultReadObject();
-    }
-  } // end MetacardForkTask class
+  /** Marks where the metacards are written in the envelope. It cannot be part of valid XML. */
+  private static final String CONTENT_PLACEHOLDER = "\u0000";
 
   private final ForkJoinPool fjp;
 
-  private final GeometryTransformer geometryTransformer;
-
   private final PrintWriterProvider printWriterProvider;
 
   private final MetacardMarshaller metacardMarshaller;
 
-  private int threshold;
+  private int threshold = DEFAULT_THRESHOLD;
+
+  private int windowSize = DEFAULT_WINDOW_SIZE;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(XmlResponseQueueTransformer.class);
 
@@ -189,17 +96,13 @@ private void readObject(ObjectInputStream stream) throws IOException, ClassNotFo
 
   /**
    * Constructs a transformer that will convert query responses to XML. The {@code ForkJoinPool} is
-   * used for splitting large collections of {@link Metacard}s into smaller collections for
-   * concurrent processing. Currently injected through Blueprint, if we choose to use fork-join for
-   * other tasks in the application, we should move the construction of the pool from its current
-   * location. Conversely, if we move to Java 8 we can simply use the new {@code commonPool} static
-   * method provided on {@code ForkJoinPool}.
+   * used for marshalling chunks of large collections of {@link Metacard}s concurrently while the
+   * response is being read.
    */
   public XmlResponseQueueTransformer(
       Parser parser, PrintWriterProvider pwp, MetacardMarshaller mcm, MimeType mimeType) {
     super(parser);
     this.fjp = ForkJoinPoolFactory.getNewForkJoinPool(null, false);
-    geometryTransformer = new GeometryTransformer(parser);
     this.printWriterProvider = pwp;
     this.metacardMarshaller = mcm;
     this.mimeType = mimeType;
@@ -220,6 +123,20 @@ public void setThreshold(int threshold) {
     this.threshold = threshold <= 1 ? 2 : threshold;
   }
 
+  /**
+   * @param windowSize the maximum number of threshold-sized chunks that are marshalled ahead of the
+   *     chunk being written to the response
+   */
+  public void setWindowSize(int windowSize) {
+    this.windowSize = windowSize < 1 ? 1 : windowSize;
+  }
+
+  /**
+   * Returns the XML as content that is produced while it is read: the metacards are marshalled in
+   * threshold-sized chunks, in parallel, and written in the order of the results. Failures to
+   * marshal the first chunk are reported by this method, while later failures are reported when
+   * the content is read.
+   */
   @Override
   public BinaryContent transform(SourceResponse response, Map<String, Serializable> args)
       throws CatalogTransformerException {
@@ -231,29 +148,56 @@ public BinaryContent transform(SourceResponse response, Map<String, Serializable
       for (Map.Entry<String, String> nsRow : NAMESPACE_MAP.entrySet()) {
         writer.addAttribute(nsRow.getKey(), nsRow.getValue());
       }
+      writer.setRawValue(CONTENT_PLACEHOLDER);
+      writer.endNode(); // metacards
 
-      if (response.getResults() != null && !response.getResults().isEmpty()) {
-        StringWriter metacardContent =
-            fjp.invoke(
-                new MetacardForkTask(
-                    ImmutableList.copyOf(response.getResults()),
-                    fjp,
-                    geometryTransformer,
-                    threshold,
-                    metacardMarshaller));
-
-        writer.setRawValue(metacardContent.getBuffer().toString());
+      String envelope = writer.makeString();
+      int contentIndex = envelope.indexOf(CONTENT_PLACEHOLDER);
+      byte[] header = envelope.substring(0, contentIndex).getBytes(StandardCharsets.UTF_8);
+      byte[] footer =
+          envelope
+              .substring(contentIndex + CONTENT_PLACEHOLDER.length())
+              .getBytes(StandardCharsets.UTF_8);
+
+      List<List<Result>> chunks =
+          response.getResults() == null
+              ? Collections.emptyList()
+              : Lists.partition(ImmutableList.copyOf(response.getResults()), threshold);
+      List<byte[]> leading = new ArrayList<>();
+      leading.add(header);
+      if (!chunks.isEmpty()) {
+        // the first chunk is marshalled here so that it is ready to be written immediately
+        leading.add(marshal(chunks.get(0)));
       }
 
-      writer.endNode(); // metacards
+      Iterator<Callable<byte[]>> producers =
+          chunks
+              .stream()
+              .skip(1)
+              .map(chunk -> (Callable<byte[]>) () -> marshal(chunk))
+              .iterator();
 
-      ByteArrayInputStream bais =
-          new ByteArrayInputStream(writer.makeString().getBytes(StandardCharsets.UTF_8));
-
-      return new BinaryContentImpl(bais, mimeType);
+      return new BinaryContentImpl(
+          new OrderedChunkInputStream(leading, producers, footer, fjp, windowSize), mimeType);
     } catch (Exception e) {
       LOGGER.info("Failed Query response transformation", e);
       throw new CatalogTransformerException("Failed Query response transformation");
     }
   }
+
+  private byte[] marshal(List<Result> results) throws CatalogTransformerException {
+    StringWriter sw = new StringWriter(BUFFER_SIZE);
+    Map<String, Serializable> args = new HashMap<>();
+    args.put(MetacardMarshallerImpl.OMIT_XML_DECL, Boolean.TRUE);
+    try {
+      for (Result result : results) {
+        Metacard metacard = result.getMetacard();
+        String xmlString = metacardMarshaller.marshal(metacard, args);
+        sw.append(xmlString);
+      }
+    } catch (XmlPullParserException | IOException e) {
+      throw new CatalogTransformerException("Failure to write node; operation aborted", e);
+    }
+    return sw.toString().getBytes(StandardCharsets.UTF_8);
+  }
 }
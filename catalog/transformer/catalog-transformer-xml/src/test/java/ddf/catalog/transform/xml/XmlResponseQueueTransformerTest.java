@@ -502,6 +502,61 @@ public void testMetacardMarshallThrowsXmlPullParserException()
     // then exception
   }
 
+  @Test
+  public void testMetacardOrderWithWindow()
+      throws CatalogTransformerException, IOException, XpathException, SAXException {
+    // given
+    transformer.setThreshold(2);
+    transformer.setWindowSize(2);
+
+    Metacard[] metacards = new Metacard[21];
+    for (int i = 0; i < metacards.length; i++) {
+      metacards[i] = new MetacardStub("source" + i, "id" + i);
+    }
+    SourceResponse response = givenSourceResponse(metacards);
+
+    // when
+    BinaryContent binaryContent = transformer.transform(response, null);
+
+    // then
+    String output = new String(binaryContent.getByteArray());
+
+    assertXpathEvaluatesTo("21", "count(/mc:metacards/mc:metacard)", output);
+    for (int i = 0; i < metacards.length; i++) {
+      assertXpathEvaluatesTo(
+          "id" + i, "/mc:metacards/mc:metacard[" + (i + 1) + "]/@gml:id", output);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testMetacardMarshallThrowsAfterFirstChunk()
+      throws IOException, CatalogTransformerException, XmlPullParserException,
+          MimeTypeParseException {
+    SourceResponse response =
+        givenSourceResponse(
+            new MetacardStub("source1", "id1"),
+            new MetacardStub("source2", "id2"),
+            new MetacardStub("source3", "id3"));
+
+    PrintWriterProvider pwp = new PrintWriterProviderImpl();
+    MetacardMarshaller mockMetacardMarshaller = mock(MetacardMarshaller.class);
+
+    when(mockMetacardMarshaller.marshal(any(Metacard.class), any(Map.class)))
+        .thenReturn("<metacard/>")
+        .thenReturn("<metacard/>")
+        .thenThrow(new XmlPullParserException(""));
+
+    XmlResponseQueueTransformer xrqt =
+        new XmlResponseQueueTransformer(parser, pwp, mockMetacardMarshaller, getMimeType());
+    xrqt.setThreshold(2);
+
+    BinaryContent binaryContent = xrqt.transform(response, null);
+
+    binaryContent.getByteArray();
+
+    // then exception
+  }
+
   /** @return */
   private MetacardType getMetacardTypeStub(String name, Set<AttributeDescriptor> descriptors) {
 
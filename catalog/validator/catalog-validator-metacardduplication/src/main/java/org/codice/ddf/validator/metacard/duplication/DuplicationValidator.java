@@ -14,9 +14,14 @@
 package org.codice.ddf.validator.metacard.duplication;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.operation.QueryRequest;
@@ -25,6 +30,9 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.util.impl.CatalogQueryException;
+import ddf.catalog.util.impl.ResultIterable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ReportingMetacardValidator;
 import ddf.catalog.validation.ValidationException;
@@ -35,13 +43,21 @@
 import ddf.catalog.validation.violation.ValidationViolation;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.collections.CollectionUtils;
@@ -52,6 +68,7 @@
 
 public class DuplicationValidator
     implements MetacardValidator,
+        BatchMetacardValidator,
         ReportingMetacardValidator,
         ddf.catalog.util.Describable,
         org.codice.ddf.platform.services.common.Describable {
@@ -63,6 +80,11 @@
 
   private static final String VERSION = "version";
 
+  /** Maximum number of attribute values checked by one query of a batch. */
+  private static final int BATCH_QUERY_VALUES = 256;
+
+  private static final int BATCH_QUERY_PAGE_SIZE = 250;
+
   private static Properties describableProperties = new Properties();
 
   static {
@@ -82,6 +104,15 @@
 
   private String[] warnOnDuplicateAttributes;
 
+  /**
+   * The id of the last metacard of a batch that had each stored attribute value, for values
+   * validated in the last {@link #recentValuesCacheSeconds} seconds. Metacards without an id are
+   * not remembered. {@code null} when disabled.
+   */
+  private Cache<Map.Entry<String, String>, String> recentValues;
+
+  private long recentValuesCacheSeconds = 0;
+
   public DuplicationValidator(CatalogFramework catalogFramework, FilterBuilder filterBuilder) {
     this.catalogFramework = catalogFramework;
     this.filterBuilder = filterBuilder;
@@ -113,6 +144,26 @@ public void setWarnOnDuplicateAttributes(String[] attributeStrings) {
     }
   }
 
+  /**
+   * Setter for the number of seconds that the attribute values of validated batches are remembered.
+   * A metacard of a later batch with one of these values is reported as a duplicate, even if the
+   * metacard with the value cannot be found in the local catalog yet. Only the values of metacards
+   * that already have an id are remembered, which excludes the metacards of a create request unless
+   * their ids were given. 0 disables it.
+   *
+   * @param seconds
+   */
+  public void setRecentValuesCacheSeconds(long seconds) {
+    if (seconds == recentValuesCacheSeconds) {
+      return;
+    }
+    this.recentValuesCacheSeconds = seconds;
+    this.recentValues =
+        seconds > 0
+            ? CacheBuilder.newBuilder().expireAfterWrite(seconds, TimeUnit.SECONDS).build()
+            : null;
+  }
+
   @Override
   public Optional<MetacardValidationReport> validateMetacard(Metacard metacard) {
     Preconditions.checkArgument(metacard != null, "The metacard cannot be null.");
@@ -126,32 +177,248 @@ public void validate(Metacard metacard) throws ValidationException {
     final Optional<MetacardValidationReport> report = validateMetacard(metacard);
 
     if (report.isPresent()) {
-      final List<String> errors =
-          report.get().getMetacardValidationViolations().stream()
-              .filter(
-                  validationViolation ->
-                      validationViolation.getSeverity().equals(ValidationViolation.Severity.ERROR))
-              .map(ValidationViolation::getMessage)
-              .collect(Collectors.toList());
-      final List<String> warnings =
-          report.get().getMetacardValidationViolations().stream()
-              .filter(
-                  validationViolation ->
-                      validationViolation
-                          .getSeverity()
-                          .equals(ValidationViolation.Severity.WARNING))
-              .map(ValidationViolation::getMessage)
-              .collect(Collectors.toList());
-
-      String message =
-          String.format("Duplicate data found in catalog for ID {%s}.", metacard.getId());
-      final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
-      exception.setErrors(errors);
-      exception.setWarnings(warnings);
-      throw exception;
+      throw createException(metacard, report.get());
+    }
+  }
+
+  /**
+   * Validates the metacards of a batch with one query of the local catalog per {@value
+   * #BATCH_QUERY_VALUES} attribute values, instead of one query per metacard. A metacard is also
+   * reported as a duplicate of the metacards before it in the batch with the same attribute values.
+   */
+  @Override
+  public List<ValidationException> validateBatch(List<Metacard> metacards) {
+    Preconditions.checkArgument(metacards != null, "The metacards cannot be null.");
+
+    List<Set<ValidationViolation>> violations = reportDuplicates(metacards);
+
+    List<ValidationException> exceptions = new ArrayList<>(metacards.size());
+    for (int i = 0; i < metacards.size(); i++) {
+      Metacard metacard = metacards.get(i);
+      exceptions.add(
+          getReport(violations.get(i))
+              .map(report -> createException(metacard, report))
+              .orElse(null));
+    }
+    return exceptions;
+  }
+
+  private ValidationException createException(
+      Metacard metacard, MetacardValidationReport report) {
+    final List<String> errors =
+        report.getMetacardValidationViolations().stream()
+            .filter(
+                validationViolation ->
+                    validationViolation.getSeverity().equals(ValidationViolation.Severity.ERROR))
+            .map(ValidationViolation::getMessage)
+            .collect(Collectors.toList());
+    final List<String> warnings =
+        report.getMetacardValidationViolations().stream()
+            .filter(
+                validationViolation ->
+                    validationViolation.getSeverity().equals(ValidationViolation.Severity.WARNING))
+            .map(ValidationViolation::getMessage)
+            .collect(Collectors.toList());
+
+    String message =
+        String.format("Duplicate data found in catalog for ID {%s}.", metacard.getId());
+    final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
+    exception.setErrors(errors);
+    exception.setWarnings(warnings);
+    return exception;
+  }
+
+  private List<Set<ValidationViolation>> reportDuplicates(final List<Metacard> metacards) {
+
+    List<Set<ValidationViolation>> violations = new ArrayList<>(metacards.size());
+    metacards.forEach(metacard -> violations.add(new HashSet<>()));
+
+    Set<String> attributeNames = new HashSet<>();
+    if (ArrayUtils.isNotEmpty(warnOnDuplicateAttributes)) {
+      attributeNames.addAll(Arrays.asList(warnOnDuplicateAttributes));
+    }
+    if (ArrayUtils.isNotEmpty(errorOnDuplicateAttributes)) {
+      attributeNames.addAll(Arrays.asList(errorOnDuplicateAttributes));
+    }
+    if (attributeNames.isEmpty()) {
+      return violations;
+    }
+
+    // The positions of the metacards with each value that their duplicates are queried by
+    Map<Map.Entry<String, String>, List<Integer>> owners = new LinkedHashMap<>();
+    // The positions of the metacards with each value as it will be stored
+    Map<Map.Entry<String, String>, List<Integer>> storedOwners = new HashMap<>();
+    for (int i = 0; i < metacards.size(); i++) {
+      for (Map.Entry<String, String> value : getQueryValues(metacards.get(i), attributeNames)) {
+        owners.computeIfAbsent(value, key -> new ArrayList<>()).add(i);
+      }
+      for (Map.Entry<String, String> value : getStoredValues(metacards.get(i), attributeNames)) {
+        storedOwners.computeIfAbsent(value, key -> new ArrayList<>()).add(i);
+      }
+    }
+
+    // The references to the duplicates of each metacard, by attribute name
+    List<Map<String, Set<String>>> duplicates = new ArrayList<>(metacards.size());
+    metacards.forEach(metacard -> duplicates.add(new HashMap<>()));
+
+    LOGGER.debug(
+        "Checking {} metacards for duplicates against attributes [{}]",
+        metacards.size(),
+        collectionToString(attributeNames));
+
+    for (List<Map.Entry<String, String>> values :
+        Iterables.partition(owners.keySet(), BATCH_QUERY_VALUES)) {
+      for (Result result : query(values)) {
+        Metacard match = result.getMetacard();
+        for (Map.Entry<String, String> value : getStoredValues(match, attributeNames)) {
+          for (int position : owners.getOrDefault(value, List.of())) {
+            addDuplicate(metacards.get(position), duplicates.get(position), value, match.getId());
+          }
+        }
+      }
+    }
+
+    for (Map.Entry<Map.Entry<String, String>, List<Integer>> owner : owners.entrySet()) {
+      Map.Entry<String, String> value = owner.getKey();
+      List<Integer> positions = owner.getValue();
+      List<Integer> storedPositions = storedOwners.getOrDefault(value, List.of());
+
+      // Metacards of the batch are duplicates of the metacards before them that they would match
+      // once those are stored. The metacards of a create request have no id yet, so they are
+      // compared by position.
+      for (int position : positions) {
+        for (int storedPosition : storedPositions) {
+          if (storedPosition < position) {
+            duplicates
+                .get(position)
+                .computeIfAbsent(value.getKey(), name -> new HashSet<>())
+                .add(getReference(metacards, storedPosition));
+          }
+        }
+      }
+
+      if (recentValues != null) {
+        String recentId = recentValues.getIfPresent(value);
+        for (int position : positions) {
+          addDuplicate(metacards.get(position), duplicates.get(position), value, recentId);
+        }
+      }
+    }
+
+    if (recentValues != null) {
+      for (Map.Entry<Map.Entry<String, String>, List<Integer>> owner : storedOwners.entrySet()) {
+        owner.getValue().stream()
+            .map(position -> metacards.get(position).getId())
+            .filter(Objects::nonNull)
+            .reduce((first, second) -> second)
+            .ifPresent(id -> recentValues.put(owner.getKey(), id));
+      }
+    }
+
+    for (int i = 0; i < metacards.size(); i++) {
+      if (ArrayUtils.isNotEmpty(warnOnDuplicateAttributes)) {
+        addViolation(
+            metacards.get(i),
+            duplicates.get(i),
+            warnOnDuplicateAttributes,
+            ValidationViolation.Severity.WARNING,
+            violations.get(i));
+      }
+      if (ArrayUtils.isNotEmpty(errorOnDuplicateAttributes)) {
+        addViolation(
+            metacards.get(i),
+            duplicates.get(i),
+            errorOnDuplicateAttributes,
+            ValidationViolation.Severity.ERROR,
+            violations.get(i));
+      }
+    }
+
+    return violations;
+  }
+
+  /**
+   * Adds the metacard with the given id as a duplicate of the metacard, unless it is the metacard
+   * itself.
+   */
+  private void addDuplicate(
+      Metacard metacard,
+      Map<String, Set<String>> duplicates,
+      Map.Entry<String, String> value,
+      String duplicateId) {
+    if (duplicateId != null && !duplicateId.equals(metacard.getId())) {
+      duplicates.computeIfAbsent(value.getKey(), name -> new HashSet<>()).add(duplicateId);
+    }
+  }
+
+  /** @return the id of the metacard of the batch, or its position if it has no id yet */
+  private String getReference(List<Metacard> metacards, int position) {
+    String id = metacards.get(position).getId();
+    return id != null ? id : String.format("metacard %d of the request", position + 1);
+  }
+
+  private void addViolation(
+      Metacard metacard,
+      Map<String, Set<String>> duplicatesByAttribute,
+      String[] attributeNames,
+      ValidationViolation.Severity severity,
+      Set<ValidationViolation> violations) {
+    final Set<String> uniqueAttributeNames =
+        Stream.of(attributeNames)
+            .filter(attribute -> metacard.getAttribute(attribute) != null)
+            .collect(Collectors.toSet());
+
+    Set<String> duplicates = new HashSet<>();
+    uniqueAttributeNames.stream()
+        .map(duplicatesByAttribute::get)
+        .filter(ids -> ids != null)
+        .forEach(duplicates::addAll);
+
+    if (!duplicates.isEmpty()) {
+      ValidationViolation violation = createViolation(uniqueAttributeNames, duplicates, severity);
+      LOGGER.debug(violation.getMessage());
+      violations.add(violation);
     }
   }
 
+  /**
+   * Returns the name and the query literal of each value of the metacard's attributes. Like the
+   * query of a single metacard, the literal is the trimmed string value, which the catalog matches
+   * exactly and case-sensitively against the stored values. Unlike it, blank values are skipped,
+   * since an empty literal matches the metacards that do not have the attribute at all.
+   */
+  private Set<Map.Entry<String, String>> getQueryValues(
+      Metacard metacard, Set<String> attributeNames) {
+    Set<Map.Entry<String, String>> values = new HashSet<>();
+    for (Map.Entry<String, String> value : getStoredValues(metacard, attributeNames)) {
+      String literal = value.getValue().trim();
+      if (!literal.isEmpty()) {
+        values.add(new SimpleImmutableEntry<>(value.getKey(), literal));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns the name and string value of each value of the metacard's attributes, as stored in the
+   * catalog and compared with the query literals.
+   */
+  private Set<Map.Entry<String, String>> getStoredValues(
+      Metacard metacard, Set<String> attributeNames) {
+    Set<Map.Entry<String, String>> values = new HashSet<>();
+    for (String attributeName : attributeNames) {
+      Attribute attribute = metacard.getAttribute(attributeName);
+      if (attribute != null && attribute.getValues() != null) {
+        for (Serializable value : attribute.getValues()) {
+          if (value != null) {
+            values.add(new SimpleImmutableEntry<>(attributeName, value.toString()));
+          }
+        }
+      }
+    }
+    return values;
+  }
+
   private Set<ValidationViolation> reportDuplicates(final Metacard metacard) {
 
     Set<ValidationViolation> violations = new HashSet<>();
@@ -225,6 +492,38 @@ private Filter[] buildFilters(Set<Attribute> attributes) {
         .toArray(Filter[]::new);
   }
 
+  private Iterable<Result> query(List<Map.Entry<String, String>> values) {
+
+    final Filter filter =
+        filterBuilder.allOf(
+            filterBuilder.anyOf(
+                values.stream()
+                    .map(
+                        value ->
+                            filterBuilder
+                                .attribute(value.getKey())
+                                .equalTo()
+                                .text(value.getValue()))
+                    .toArray(Filter[]::new)));
+
+    LOGGER.debug("filter {}", filter);
+
+    QueryImpl query = new QueryImpl(filter);
+    query.setPageSize(BATCH_QUERY_PAGE_SIZE);
+    QueryRequest request = new QueryRequestImpl(query);
+
+    // Returns at most as many results per value as a query for a single metacard
+    List<Result> results = new ArrayList<>();
+    try {
+      ResultIterable.resultIterable(
+              catalogFramework, request, values.size() * Constants.DEFAULT_PAGE_SIZE)
+          .forEach(results::add);
+    } catch (CatalogQueryException e) {
+      LOGGER.debug("Query failed ", e);
+    }
+    return results;
+  }
+
   private SourceResponse query(Set<Attribute> attributes) {
 
     final Filter filter = filterBuilder.allOf(filterBuilder.anyOf(buildFilters(attributes)));
@@ -14,6 +14,7 @@
 
 package org.codice.ddf.validator.metacard.duplication;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
@@ -45,6 +46,7 @@
 import ddf.catalog.validation.report.MetacardValidationReport;
 import ddf.catalog.validation.violation.ValidationViolation;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -83,11 +85,13 @@ public class DuplicationValidatorTest {
 
   private Set tags = new HashSet<>(Arrays.asList(TAG1, TAG2));
 
+  private QueryResponse response;
+
   @Before
   public void setup()
       throws UnsupportedQueryException, SourceUnavailableException, FederationException {
 
-    QueryResponse response = mock(QueryResponse.class);
+    response = mock(QueryResponse.class);
 
     when(mockFramework.query(any(QueryRequest.class))).thenReturn(response);
 
@@ -241,4 +245,109 @@ public void testValidateMetacardWithMultiValuedAttribute()
               assertThat(violation.getMessage(), containsString(Metacard.TAGS));
             });
   }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValidateBatchNullInput() {
+    validator.validateBatch(null);
+  }
+
+  @Test
+  public void testValidateBatchWithValidationErrorAndWarning() throws Exception {
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+    validator.setErrorOnDuplicateAttributes(new String[] {Metacard.ID});
+
+    MetacardImpl otherMetacard = new MetacardImpl();
+    otherMetacard.setId("other metacard ID");
+    otherMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "other-checksum-value"));
+
+    List<ValidationException> exceptions =
+        validator.validateBatch(Arrays.asList(testMetacard, otherMetacard));
+
+    assertThat(exceptions, hasSize(2));
+    assertThat(exceptions.get(0).getWarnings(), hasSize(1));
+    assertThat(exceptions.get(0).getWarnings().get(0), containsString(ID));
+    assertThat(exceptions.get(0).getWarnings().get(0), containsString(Metacard.CHECKSUM));
+    assertThat(exceptions.get(0).getErrors(), is(Collections.emptyList()));
+    assertThat(exceptions.get(1), is(nullValue()));
+    verify(mockFramework).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testValidateBatchDuplicatesInBatch() {
+    when(response.getResults()).thenReturn(Collections.emptyList());
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    MetacardImpl duplicateMetacard = new MetacardImpl();
+    duplicateMetacard.setId("duplicate metacard ID");
+    duplicateMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, " checksum-value "));
+
+    List<ValidationException> exceptions =
+        validator.validateBatch(Arrays.asList(testMetacard, duplicateMetacard));
+
+    assertThat(exceptions, hasSize(2));
+    assertThat(exceptions.get(0), is(nullValue()));
+    assertThat(exceptions.get(1).getWarnings(), hasSize(1));
+    assertThat(exceptions.get(1).getWarnings().get(0), containsString(testMetacard.getId()));
+  }
+
+  @Test
+  public void testValidateBatchDuplicatesWithoutIdsInBatch() {
+    when(response.getResults()).thenReturn(Collections.emptyList());
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+    validator.setRecentValuesCacheSeconds(60);
+
+    MetacardImpl firstMetacard = new MetacardImpl();
+    firstMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "checksum-value"));
+    MetacardImpl secondMetacard = new MetacardImpl();
+    secondMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "checksum-value"));
+
+    List<ValidationException> exceptions =
+        validator.validateBatch(Arrays.asList(firstMetacard, secondMetacard));
+
+    assertThat(exceptions, hasSize(2));
+    assertThat(exceptions.get(0), is(nullValue()));
+    assertThat(exceptions.get(1).getWarnings(), hasSize(1));
+    assertThat(exceptions.get(1).getWarnings().get(0), containsString("metacard 1 of the request"));
+    assertThat(
+        validator.validateBatch(Collections.singletonList(testMetacard)), contains(nullValue()));
+  }
+
+  @Test
+  public void testValidateBatchStoredValuesNotTrimmed() {
+    MetacardImpl storedMetacard = new MetacardImpl();
+    storedMetacard.setId(ID);
+    storedMetacard.setAttribute(
+        new AttributeImpl(Metacard.CHECKSUM, Arrays.asList(" checksum-value", "other-value")));
+    when(response.getResults())
+        .thenReturn(Collections.singletonList(new ResultImpl(storedMetacard)));
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    MetacardImpl otherMetacard = new MetacardImpl();
+    otherMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "other-value"));
+
+    List<ValidationException> exceptions =
+        validator.validateBatch(Arrays.asList(testMetacard, otherMetacard));
+
+    assertThat(exceptions.get(0), is(nullValue()));
+    assertThat(exceptions.get(1).getWarnings().get(0), containsString(ID));
+  }
+
+  @Test
+  public void testValidateBatchRecentValues() {
+    when(response.getResults()).thenReturn(Collections.emptyList());
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+    validator.setRecentValuesCacheSeconds(60);
+
+    MetacardImpl duplicateMetacard = new MetacardImpl();
+    duplicateMetacard.setId("duplicate metacard ID");
+    duplicateMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "checksum-value"));
+
+    assertThat(
+        validator.validateBatch(Collections.singletonList(testMetacard)), contains(nullValue()));
+
+    List<ValidationException> exceptions =
+        validator.validateBatch(Collections.singletonList(duplicateMetacard));
+    assertThat(exceptions.get(0).getWarnings(), hasSize(1));
+    assertThat(exceptions.get(0).getWarnings().get(0), containsString(testMetacard.getId()));
+  }
 }
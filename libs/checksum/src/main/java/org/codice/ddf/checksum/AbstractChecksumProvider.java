@@ -15,14 +15,44 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.NoSuchAlgorithmException;
+import java.util.function.Consumer;
 
 public abstract class AbstractChecksumProvider implements ChecksumProvider {
 
+  /** Size of the buffer the content of a file is read into. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   @Override
   public abstract String calculateChecksum(InputStream inputStream)
       throws IOException, NoSuchAlgorithmException;
 
   @Override
   public abstract String getChecksumAlgorithm();
+
+  /**
+   * Passes the content of a file to a consumer in order, one buffer at a time. The buffer is reused
+   * for the next read once the consumer returns, so the consumer must not keep a reference to it.
+   *
+   * @param path file to read
+   * @param consumer consumer of the content of the file
+   */
+  protected static void forEachBuffer(Path path, Consumer<ByteBuffer> consumer) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null");
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        consumer.accept(buffer);
+        buffer.clear();
+      }
+    }
+  }
 }
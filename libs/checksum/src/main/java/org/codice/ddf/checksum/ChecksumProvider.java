@@ -15,6 +15,8 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 
 public interface ChecksumProvider {
@@ -27,6 +29,23 @@ public interface ChecksumProvider {
    */
   String calculateChecksum(InputStream inputStream) throws IOException, NoSuchAlgorithmException;
 
+  /**
+   * Calculates checksum of a file. Providers can override this to read the file without copying
+   * it through a stream.
+   *
+   * @param path file to process
+   * @return calculated checksum value
+   */
+  default String calculateFileChecksum(Path path) throws IOException, NoSuchAlgorithmException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null");
+    }
+
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      return calculateChecksum(inputStream);
+    }
+  }
+
   /**
    * Returns identifier for check sum algorithm
    *
@@ -15,6 +15,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.zip.Adler32;
 import java.util.zip.CheckedInputStream;
@@ -47,6 +48,13 @@ public String calculateChecksum(InputStream inputStream)
     return Long.toHexString(checksumValue);
   }
 
+  @Override
+  public String calculateFileChecksum(Path path) throws IOException {
+    Adler32 adler32 = new Adler32();
+    forEachBuffer(path, adler32::update);
+    return Long.toHexString(adler32.getValue());
+  }
+
   @Override
   public String getChecksumAlgorithm() {
     return DIGEST_ALGORITHM;
@@ -15,7 +15,10 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.codice.ddf.checksum.AbstractChecksumProvider;
 
@@ -33,6 +36,13 @@ public String calculateChecksum(InputStream inputStream)
     return DigestUtils.sha256Hex(inputStream);
   }
 
+  @Override
+  public String calculateFileChecksum(Path path) throws IOException {
+    MessageDigest digest = DigestUtils.getSha256Digest();
+    forEachBuffer(path, digest::update);
+    return Hex.encodeHexString(digest.digest());
+  }
+
   @Override
   public String getChecksumAlgorithm() {
     return DIGEST_ALGORITHM;
@@ -21,15 +21,21 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import org.codice.ddf.checksum.impl.Adler32ChecksumProvider;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class Adler32ChecksumProviderTest {
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private ChecksumProvider checksumProvider;
 
   @Before
@@ -88,6 +94,34 @@ public void testCalculateChecksumWithNullInputStream()
     checksumProvider.calculateChecksum(null);
   }
 
+  @Test
+  public void testCalculateFileChecksum() throws IOException, NoSuchAlgorithmException {
+    byte[] bytes = new byte[1024 * 100];
+    Arrays.fill(bytes, (byte) 'a');
+    Path path = temporaryFolder.newFile().toPath();
+    Files.write(path, bytes);
+
+    String checksumValue = checksumProvider.calculateFileChecksum(path);
+
+    // the checksum of the file should match the checksum of the same bytes read from a stream
+    assertThat(
+        checksumValue, is(checksumProvider.calculateChecksum(new ByteArrayInputStream(bytes))));
+  }
+
+  @Test
+  public void testCalculateFileChecksumOfEmptyFile() throws IOException, NoSuchAlgorithmException {
+    Path path = temporaryFolder.newFile().toPath();
+
+    assertThat(
+        checksumProvider.calculateFileChecksum(path),
+        is(checksumProvider.calculateChecksum(new ByteArrayInputStream(new byte[0]))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCalculateFileChecksumWithNullPath() throws IOException, NoSuchAlgorithmException {
+    checksumProvider.calculateFileChecksum(null);
+  }
+
   @Test
   public void testGetChecksumAlgorithm() {
 
@@ -19,8 +19,10 @@
 import ddf.security.impl.SubjectImpl;
 import ddf.security.service.SecurityManager;
 import ddf.security.service.SecurityServiceException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
@@ -28,6 +30,9 @@
 import org.apache.shiro.authc.UnknownAccountException;
 import org.apache.shiro.authc.pam.AbstractAuthenticationStrategy;
 import org.apache.shiro.authc.pam.ModularRealmAuthenticator;
+import org.apache.shiro.authz.Authorizer;
+import org.apache.shiro.authz.ModularRealmAuthorizer;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.mgt.DefaultSecurityManager;
 import org.apache.shiro.realm.Realm;
 import org.apache.shiro.session.mgt.SimpleSession;
@@ -52,6 +57,7 @@ public SecurityManagerImpl(SecurityLogger securityLogger) {
     internalManager = new DefaultSecurityManager();
     ((ModularRealmAuthenticator) internalManager.getAuthenticator())
         .setAuthenticationStrategy(new AllSuccessfulStrategy());
+    internalManager.setAuthorizer(new BatchingRealmAuthorizer());
   }
 
   /** @param realms The realms used for the backing authZ and authN operations. */
@@ -174,4 +180,47 @@ public AuthenticationInfo afterAttempt(
       return aggregate;
     }
   }
+
+  /**
+   * Checks a list of permissions by passing the permissions that are not permitted yet to each
+   * realm together, instead of one permission at a time, so that a realm can decide them in a
+   * single batch.
+   */
+  static class BatchingRealmAuthorizer extends ModularRealmAuthorizer {
+
+    @Override
+    public boolean[] isPermitted(PrincipalCollection principals, List<Permission> permissions) {
+      assertRealmsConfigured();
+      if (permissions == null || permissions.isEmpty()) {
+        return new boolean[0];
+      }
+
+      boolean[] permitted = new boolean[permissions.size()];
+      for (Realm realm : getRealms()) {
+        if (!(realm instanceof Authorizer)) {
+          continue;
+        }
+
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<Permission> pendingPermissions = new ArrayList<>();
+        for (int i = 0; i < permitted.length; i++) {
+          if (!permitted[i]) {
+            pendingIndexes.add(i);
+            pendingPermissions.add(permissions.get(i));
+          }
+        }
+        if (pendingPermissions.isEmpty()) {
+          break;
+        }
+
+        boolean[] realmPermitted = ((Authorizer) realm).isPermitted(principals, pendingPermissions);
+        for (int i = 0; i < realmPermitted.length; i++) {
+          if (realmPermitted[i]) {
+            permitted[pendingIndexes.get(i)] = true;
+          }
+        }
+      }
+      return permitted;
+    }
+  }
 }
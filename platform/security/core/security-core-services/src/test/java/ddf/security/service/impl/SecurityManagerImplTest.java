@@ -13,18 +13,29 @@
  */
 package ddf.security.service.impl;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.security.Subject;
 import ddf.security.audit.SecurityLogger;
 import ddf.security.service.SecurityServiceException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import org.apache.cxf.ws.security.tokenstore.SecurityToken;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.realm.Realm;
+import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.subject.SimplePrincipalCollection;
 import org.junit.Rule;
 import org.junit.Test;
@@ -95,4 +106,48 @@ public void testAuthToken() throws SecurityServiceException {
     Subject subject = manager.getSubject(authToken);
     assertNotNull(subject);
   }
+
+  @Test
+  public void testPermissionsCheckedTogetherByEachRealm() {
+    PrincipalCollection principals = new SimplePrincipalCollection("user", REALM_NAME);
+    Permission first = mock(Permission.class);
+    Permission second = mock(Permission.class);
+    Permission third = mock(Permission.class);
+
+    AuthorizingRealm firstRealm = mock(AuthorizingRealm.class);
+    when(firstRealm.isPermitted(principals, Arrays.asList(first, second, third)))
+        .thenReturn(new boolean[] {true, false, false});
+    AuthorizingRealm secondRealm = mock(AuthorizingRealm.class);
+    when(secondRealm.isPermitted(principals, Arrays.asList(second, third)))
+        .thenReturn(new boolean[] {false, true});
+
+    SecurityManagerImpl.BatchingRealmAuthorizer authorizer =
+        new SecurityManagerImpl.BatchingRealmAuthorizer();
+    authorizer.setRealms(Arrays.asList(firstRealm, secondRealm));
+
+    boolean[] permitted = authorizer.isPermitted(principals, Arrays.asList(first, second, third));
+
+    assertThat(permitted[0], is(true));
+    assertThat(permitted[1], is(false));
+    assertThat(permitted[2], is(true));
+    verify(firstRealm, never()).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+    verify(secondRealm, never()).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+  }
+
+  @Test
+  public void testRealmsNotCalledOncePermitted() {
+    PrincipalCollection principals = new SimplePrincipalCollection("user", REALM_NAME);
+    List<Permission> permissions = Collections.singletonList(mock(Permission.class));
+
+    AuthorizingRealm firstRealm = mock(AuthorizingRealm.class);
+    when(firstRealm.isPermitted(principals, permissions)).thenReturn(new boolean[] {true});
+    AuthorizingRealm secondRealm = mock(AuthorizingRealm.class);
+
+    SecurityManagerImpl.BatchingRealmAuthorizer authorizer =
+        new SecurityManagerImpl.BatchingRealmAuthorizer();
+    authorizer.setRealms(Arrays.asList(firstRealm, secondRealm));
+
+    assertThat(authorizer.isPermitted(principals, permissions)[0], is(true));
+    verify(secondRealm, never()).isPermitted(any(PrincipalCollection.class), anyList());
+  }
 }
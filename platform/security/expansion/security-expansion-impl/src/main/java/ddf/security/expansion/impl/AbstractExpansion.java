@@ -13,6 +13,8 @@
  */
 package ddf.security.expansion.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import ddf.security.expansion.Expansion;
 import java.io.BufferedReader;
 import java.io.File;
@@ -22,6 +24,7 @@
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,6 +42,10 @@
  * Base class for all expansion services. Provides the generic setting/getting for attribute
  * separator as well as the actual map of expansion rules. Defines an abstrace <code>doExpansion
  * </code> method to be overridden with the appropriate logic.
+ *
+ * <p>Expansion results are cached by attribute name and values, and the cache is cleared whenever
+ * the rules or the attribute separator are changed through this class. The rule lists must not be
+ * modified directly once values have been expanded.
  */
 public abstract class AbstractExpansion implements Expansion {
   /** Default string that separates individual attributes in the replacement strings. */
@@ -65,6 +72,8 @@ public abstract class AbstractExpansion implements Expansion {
 
   private static final String EXPANSION_FILE_NAME = "expansionFileName";
 
+  private static final int EXPANSION_CACHE_SIZE = 1000;
+
   protected Pattern rulePattern = Pattern.compile(RULE_SPLIT_REGEX); // ("\\[(.+)\\|(.*)\\]");
 
   protected Map<String, List<String[]>> expansionTable;
@@ -73,6 +82,12 @@ public abstract class AbstractExpansion implements Expansion {
 
   private String expansionFilename = DEFAULT_CONFIG_FILE_NAME;
 
+  /**
+   * The cached expansion results. It is replaced, instead of cleared, when the rules change so that
+   * expansions in progress cannot add stale results to the new cache.
+   */
+  private volatile Cache<List<Object>, Set<String>> expansionCache = createExpansionCache();
+
   /*
    * @see ddf.security.expansion.Expansion#expand(Map<String, Set<String>>)
    */
@@ -119,6 +134,35 @@ public Set<String> expand(String key, Set<String> values) {
       return values;
     }
 
+    Cache<List<Object>, Set<String>> cache = expansionCache;
+    List<Object> cacheKey = Arrays.asList(key, new HashSet<>(values));
+    Set<String> currentSet;
+    Set<String> cachedSet = cache.getIfPresent(cacheKey);
+    if (cachedSet != null) {
+      currentSet = new HashSet<>(cachedSet);
+    } else {
+      LOGGER.debug("Original key of {} with value[s]: {}", key, values);
+      currentSet = expand(key, mappingRuleList, values);
+      cache.put(cacheKey, Collections.unmodifiableSet(new HashSet<>(currentSet)));
+    }
+
+    LOGGER.debug("Expanded result for key {} is {}", key, currentSet);
+    // update the original set passed in for expansion
+    values.clear();
+    values.addAll(currentSet);
+    return currentSet;
+  }
+
+  /**
+   * Applies the rules of an attribute to its values. Each value is expanded independently of the
+   * others, so implementations may expand them separately.
+   *
+   * @param key the attribute the rules apply to
+   * @param mappingRuleList the rules of the attribute
+   * @param values the values to be expanded, which must not be modified
+   * @return a new set containing the expanded values
+   */
+  protected Set<String> expand(String key, List<String[]> mappingRuleList, Set<String> values) {
     /*
      * This expansion loop builds on itself, so the order of the rules is important - the
      * expanded set of strings is processed for expansion by subsequent rules.
@@ -134,7 +178,6 @@ public Set<String> expand(String key, Set<String> values) {
     Set<String> expandedSet = new HashSet<String>();
     Set<String> currentSet = new HashSet<String>();
     currentSet.addAll(values);
-    LOGGER.debug("Original key of {} with value[s]: {}", key, values);
     for (String[] rule : mappingRuleList) {
       expandedSet.clear();
       if ((rule != null) && (rule.length == 2)) {
@@ -155,14 +198,30 @@ public Set<String> expand(String key, Set<String> values) {
       currentSet = expandedSet;
       expandedSet = temp;
     }
-
-    LOGGER.debug("Expanded result for key {} is {}", key, currentSet);
-    // update the original set passed in for expansion
-    values.clear();
-    values.addAll(currentSet);
     return currentSet;
   }
 
+  /**
+   * Called whenever the rules or the attribute separator change, to discard the cached expansion
+   * results. Implementations that derive state from the rules must discard it as well.
+   */
+  protected void rulesChanged() {
+    expansionCache = createExpansionCache();
+  }
+
+  private static Cache<List<Object>, Set<String>> createExpansionCache() {
+    return CacheBuilder.newBuilder().maximumSize(EXPANSION_CACHE_SIZE).build();
+  }
+
+  /**
+   * Gets the string that separates individual attributes in the replacement strings.
+   *
+   * @return the attribute separator
+   */
+  protected String getAttributeSeparator() {
+    return attributeSeparator;
+  }
+
   /**
    * This is the method that will do the actual expansion - interpreting the rules and expanding the
    * values. It is abstract and will be overridden by each concrete implementation.
@@ -198,6 +257,7 @@ public void setExpansionMap(Map<String, List<String[]>> table) {
     } else {
       expansionTable = table;
     }
+    rulesChanged();
   }
 
   /**
@@ -231,6 +291,7 @@ public void addExpansionRule(String key, String[] rule) {
     }
 
     list.add(rule);
+    rulesChanged();
   }
 
   /**
@@ -257,6 +318,7 @@ public boolean removeExpansionRule(String key, String[] rule) {
       if (list.isEmpty()) {
         expansionTable.remove(key);
       }
+      rulesChanged();
     }
     return result;
   }
@@ -297,6 +359,7 @@ public void setExpansionRules(List<String> rulesList) {
 
     if ((rulesList == null) || (rulesList.isEmpty())) {
       expansionTable.clear();
+      rulesChanged();
     } else {
       String key;
       String[] rule;
@@ -374,6 +437,7 @@ public void setAttributeSeparator(String separator) {
     } else {
       attributeSeparator = separator;
     }
+    rulesChanged();
   }
 
   /**
@@ -392,6 +456,7 @@ public void setExpansionFileName(String filename) {
       LOGGER.warn(
           "Null or empty mapping configuration file name: {} - clearing existing map.", filename);
       expansionTable.clear();
+      rulesChanged();
     }
   }
 
@@ -460,5 +525,6 @@ protected void loadConfiguration(String filename) {
       LOGGER.warn("Unexpected exception reading mapping configuration file {}", filename, e);
       setExpansionMap(null);
     }
+    rulesChanged();
   }
 }
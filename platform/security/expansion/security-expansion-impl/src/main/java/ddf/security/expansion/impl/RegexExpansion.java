@@ -13,7 +13,18 @@
  */
 package ddf.security.expansion.impl;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
 public class RegexExpansion extends AbstractExpansion {
+
+  /**
+   * The compiled regular expressions of the rules. It is replaced when the rules change so that
+   * patterns of removed rules are not kept.
+   */
+  private volatile Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+
   public RegexExpansion() {}
 
   /**
@@ -29,7 +40,14 @@ public RegexExpansion() {}
   @Override
   protected String doExpansion(String original, String[] rule) {
     String expandedValue;
-    expandedValue = original.replaceAll(rule[0], rule[1]);
+    Pattern pattern = patterns.computeIfAbsent(rule[0], Pattern::compile);
+    expandedValue = pattern.matcher(original).replaceAll(rule[1]);
     return expandedValue;
   }
+
+  @Override
+  protected void rulesChanged() {
+    patterns = new ConcurrentHashMap<>();
+    super.rulesChanged();
+  }
 }
@@ -13,8 +13,31 @@
  */
 package ddf.security.expansion.impl;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expands values that are equal to the search string of a rule. The rules of each attribute are
+ * compiled into a lookup table from the search strings to their fully expanded values, so that
+ * values are expanded with a single lookup instead of applying every rule.
+ */
 public class StraightExpansionImpl extends AbstractExpansion {
 
+  /**
+   * The lookup tables of the attributes, which are empty for attributes whose rules cannot be
+   * compiled. It is replaced, instead of cleared, when the rules change so that tables of the
+   * previous rules cannot be added to it.
+   */
+  private volatile Map<String, Optional<Map<String, Set<String>>>> lookupTables =
+      new ConcurrentHashMap<>();
+
   public StraightExpansionImpl() {}
 
   /**
@@ -35,4 +58,63 @@ protected String doExpansion(String original, String[] rule) {
     }
     return expandedValue;
   }
+
+  @Override
+  protected Set<String> expand(String key, List<String[]> mappingRuleList, Set<String> values) {
+    Map<String, Optional<Map<String, Set<String>>>> tables = lookupTables;
+    Optional<Map<String, Set<String>>> lookupTable =
+        tables.computeIfAbsent(key, k -> createLookupTable(k, mappingRuleList));
+    if (!lookupTable.isPresent()) {
+      return super.expand(key, mappingRuleList, values);
+    }
+
+    Set<String> expandedSet = new HashSet<>();
+    for (String value : values) {
+      Set<String> expandedValues = lookupTable.get().get(value);
+      if (expandedValues != null) {
+        expandedSet.addAll(expandedValues);
+      } else if (isSingleValue(value)) {
+        // no rule matches the value, and splitting it doesn't create other values to match
+        expandedSet.add(value);
+      } else {
+        expandedSet.addAll(super.expand(key, mappingRuleList, Collections.singleton(value)));
+      }
+    }
+    return expandedSet;
+  }
+
+  @Override
+  protected void rulesChanged() {
+    lookupTables = new ConcurrentHashMap<>();
+    super.rulesChanged();
+  }
+
+  /**
+   * Creates the lookup table of an attribute, mapping the search string of each rule to the values
+   * it is expanded to by all of the rules.
+   */
+  private Optional<Map<String, Set<String>>> createLookupTable(
+      String key, List<String[]> mappingRuleList) {
+    Map<String, Set<String>> lookupTable = new HashMap<>();
+    for (String[] rule : mappingRuleList) {
+      if ((rule == null) || (rule.length != 2) || (rule[0] == null) || (rule[0].isEmpty())) {
+        // invalid rules remove every value, which the lookup table cannot express
+        return Optional.empty();
+      }
+      lookupTable.put(rule[0], null);
+    }
+
+    for (Map.Entry<String, Set<String>> entry : lookupTable.entrySet()) {
+      entry.setValue(
+          Collections.unmodifiableSet(
+              super.expand(key, mappingRuleList, Collections.singleton(entry.getKey()))));
+    }
+    LOGGER.debug("Compiled {} expansion rules of {} into a lookup table.", lookupTable.size(), key);
+    return Optional.of(lookupTable);
+  }
+
+  private boolean isSingleValue(String value) {
+    Collection<String> splitValues = split(value, getAttributeSeparator());
+    return splitValues.size() == 1 && splitValues.contains(value);
+  }
 }
@@ -183,4 +183,30 @@ public void testExpandMap() throws Exception {
     assert (result.size() == 1);
     assert (result.contains("AZTEC"));
   }
+
+  @Test
+  public void testExpandAfterRulesChange() throws Exception {
+    AbstractExpansion exp = new RegexExpansion();
+    exp.addExpansionRule("role", new String[] {"\\Astaff\\z", "$0 employee"});
+
+    HashSet<String> testSet = new HashSet<String>();
+    testSet.add("staff");
+    exp.expand("role", testSet);
+    assert (testSet.size() == 2);
+
+    // cached results must not be used once the rules change
+    exp.addExpansionRule("role", new String[] {"\\Aemployee\\z", "$0 person"});
+    testSet.clear();
+    testSet.add("staff");
+    exp.expand("role", testSet);
+    assert (testSet.size() == 3);
+    assert (testSet.contains("person"));
+
+    exp.setAttributeSeparator(",");
+    testSet.clear();
+    testSet.add("staff");
+    exp.expand("role", testSet);
+    assert (testSet.size() == 1);
+    assert (testSet.contains("staff employee"));
+  }
 }
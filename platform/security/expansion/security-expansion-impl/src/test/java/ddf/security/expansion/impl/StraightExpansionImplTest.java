@@ -218,4 +218,45 @@ public void testExpandMap() throws Exception {
     assert (result.size() == 1);
     assert (result.contains("AZTEC"));
   }
+
+  @Test
+  public void testExpandSeparatedValue() throws Exception {
+    StraightExpansionImpl exp = new StraightExpansionImpl();
+    exp.setExpansionMap(testmap);
+
+    // the value is split by the first rule, so only the later rules apply to its parts
+    HashSet<String> testSet = new HashSet<String>();
+    testSet.add("VP-Sales Manager");
+    exp.expand("role", testSet);
+    assert (testSet.size() == 3);
+    assert (testSet.contains("VP-Sales"));
+    assert (testSet.contains("Manager"));
+    assert (testSet.contains("Employee"));
+  }
+
+  @Test
+  public void testExpandAfterRulesChange() throws Exception {
+    AbstractExpansion exp = new StraightExpansionImpl();
+    exp.addExpansionRule("role", new String[] {"staff", "staff employee"});
+
+    HashSet<String> testSet = new HashSet<String>();
+    testSet.add("staff");
+    exp.expand("role", testSet);
+    assert (testSet.size() == 2);
+
+    // cached results must not be used once the rules change
+    exp.addExpansionRule("role", new String[] {"employee", "employee person"});
+    testSet.clear();
+    testSet.add("staff");
+    exp.expand("role", testSet);
+    assert (testSet.size() == 3);
+    assert (testSet.contains("person"));
+
+    exp.setAttributeSeparator(",");
+    testSet.clear();
+    testSet.add("staff");
+    exp.expand("role", testSet);
+    assert (testSet.size() == 1);
+    assert (testSet.contains("staff employee"));
+  }
 }
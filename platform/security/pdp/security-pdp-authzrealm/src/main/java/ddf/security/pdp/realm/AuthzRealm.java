@@ -13,25 +13,36 @@
  */
 package ddf.security.pdp.realm;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import ddf.security.audit.SecurityLogger;
+import ddf.security.expansion.Expansion;
 import ddf.security.pdp.realm.xacml.XacmlPdp;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
 import ddf.security.permission.KeyValuePermission;
+import ddf.security.permission.SecurityConstraintProvider;
 import ddf.security.permission.impl.CollectionPermissionImpl;
 import ddf.security.permission.impl.KeyValueCollectionPermissionImpl;
 import ddf.security.permission.impl.KeyValuePermissionImpl;
 import ddf.security.permission.impl.MatchOneCollectionPermission;
 import ddf.security.policy.extension.PolicyExtension;
 import ddf.security.service.impl.AbstractAuthorizingRealm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.DecisionType;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
@@ -42,6 +53,7 @@
 import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.util.CollectionUtils;
 import org.codice.ddf.parser.Parser;
+import org.osgi.framework.ServiceReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,9 +62,15 @@
  * to check permissions without making calls out to an external PDP. {@link Permission} objects are
  * checked against each other to ensure that the subject permissions imply the resource permissions.
  *
+ * <p>Decisions are cached by the subject's authorization information and the checked permission,
+ * so that resources with the same security markings are only evaluated once for a subject. The
+ * cache is cleared when the configuration of the realm, its policy extensions or expansions, or the
+ * XACML policies change.
+ * Permissions that the XACML PDP could not evaluate are denied, but their decisions are not cached.
+ *
  * @author tustisos
  */
-public class AuthzRealm extends AbstractAuthorizingRealm {
+public class AuthzRealm extends AbstractAuthorizingRealm implements SecurityConstraintProvider {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AuthzRealm.class);
 
@@ -63,6 +81,12 @@ public class AuthzRealm extends AbstractAuthorizingRealm {
   private static final String POLICY_EXTENSION_WARNING_MSG =
       "Policy Extension plugin did not complete correctly. This could allow access to a resource.";
 
+  private static final String DECISION_CACHE_METRIC = "ddf.security.pdp.decision.cache";
+
+  private static final int DEFAULT_DECISION_CACHE_SIZE = 10000;
+
+  private static final long DEFAULT_DECISION_CACHE_EXPIRATION_SECONDS = 300;
+
   private final String dirPath;
 
   private final Parser parser;
@@ -79,6 +103,30 @@ public class AuthzRealm extends AbstractAuthorizingRealm {
 
   private SecurityLogger securityLogger;
 
+  private int decisionCacheSize = DEFAULT_DECISION_CACHE_SIZE;
+
+  private long decisionCacheExpirationSeconds = DEFAULT_DECISION_CACHE_EXPIRATION_SECONDS;
+
+  /**
+   * The cached decisions, or {@code null} if decisions are not cached. It is replaced, instead of
+   * cleared, when the decisions become stale so that evaluations in progress cannot add stale
+   * decisions to the new cache.
+   */
+  private volatile Cache<List<Object>, Boolean> decisionCache =
+      createDecisionCache(decisionCacheSize, decisionCacheExpirationSeconds);
+
+  private final Counter decisionCacheHits =
+      Counter.builder(DECISION_CACHE_METRIC)
+          .tag("result", "hit")
+          .description("Authorization decisions found in the decision cache.")
+          .register(Metrics.globalRegistry);
+
+  private final Counter decisionCacheMisses =
+      Counter.builder(DECISION_CACHE_METRIC)
+          .tag("result", "miss")
+          .description("Authorization decisions evaluated because they were not cached.")
+          .register(Metrics.globalRegistry);
+
   public AuthzRealm(String dirPath, Parser parser) throws PdpException {
     super();
 
@@ -193,31 +241,125 @@ public boolean[] isPermitted(PrincipalCollection subjectPrincipal, List<Permissi
     boolean[] results = new boolean[permissions.size()];
     AuthorizationInfo authorizationInfo = getAuthorizationInfo(subjectPrincipal);
     List<Permission> expandedPermissions = expandPermissions(permissions);
-    int i = 0;
-    for (Permission permission : expandedPermissions) {
-      results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
+    Collection<Permission> perms = getPermissions(authorizationInfo);
+    String curUser = getPrimaryPrincipalName(subjectPrincipal);
+    Cache<List<Object>, Boolean> decisions = decisionCache;
+    Object subjectKey =
+        decisions == null ? null : getSubjectKey(subjectPrincipal, authorizationInfo);
+
+    List<List<Object>> keys = new ArrayList<>(Collections.nCopies(results.length, null));
+    List<Integer> xacmlIndexes = new ArrayList<>();
+    List<KeyValueCollectionPermission> xacmlPermissions = new ArrayList<>();
+    for (int i = 0; i < results.length; i++) {
+      Permission permission = expandedPermissions.get(i);
+      Object permissionKey = subjectKey == null ? null : getPermissionKey(permission);
+      if (permissionKey != null) {
+        List<Object> key = Arrays.asList(subjectKey, permissionKey);
+        Boolean decision = decisions.getIfPresent(key);
+        if (decision != null) {
+          decisionCacheHits.increment();
+          if (!decision) {
+            auditNotImplied(curUser, permission, "");
+          }
+          results[i] = decision;
+          continue;
+        }
+        decisionCacheMisses.increment();
+        keys.set(i, key);
+      }
+
+      LocalDecision localDecision = isPermitted(curUser, permission, perms);
+      results[i] = localDecision.permitted;
+      if (localDecision.xacmlPermission != null) {
+        xacmlIndexes.add(i);
+        xacmlPermissions.add(localDecision.xacmlPermission);
+      }
+    }
+
+    // the permissions that could not be implied automatically are evaluated by XACML together
+    if (!xacmlPermissions.isEmpty()) {
+      configureXacmlPdp();
+      DecisionType[] xacmlResults =
+          isPermittedByXacml(curUser, authorizationInfo, xacmlPermissions);
+      for (int j = 0; j < xacmlIndexes.size(); j++) {
+        int i = xacmlIndexes.get(j);
+        boolean permitted = xacmlResults[j] == DecisionType.PERMIT;
+        if (!permitted) {
+          auditNotImplied(curUser, expandedPermissions.get(i), " via XACML");
+        }
+        results[i] = results[i] && permitted;
+        if (xacmlResults[j] == DecisionType.INDETERMINATE) {
+          // the permission is denied until the PDP can evaluate it again
+          keys.set(i, null);
+        }
+      }
     }
 
+    for (int i = 0; i < results.length; i++) {
+      if (keys.get(i) != null) {
+        decisions.put(keys.get(i), results[i]);
+      }
+    }
     return results;
   }
 
+  /**
+   * Returns the constraints of the "match all" and "match one" mappings for the subject. A resource
+   * is only permitted if, for each mapped security attribute it has values for, the subject's
+   * mapped attribute has at least one of them.
+   *
+   * <p>The constraints cannot be determined when policy extensions or metacard expansions are
+   * configured, since they can permit resources with values the subject does not have, or when the
+   * subject has permissions other than key value permissions.
+   */
+  @Override
+  public Map<String, Set<String>> getSecurityConstraints(PrincipalCollection principals) {
+    if (!CollectionUtils.isEmpty(policyExtensions) || !metacardExpansionServices.isEmpty()) {
+      return null;
+    }
+
+    Map<String, Set<String>> subjectValues = new HashMap<>();
+    for (Permission permission : getPermissions(getAuthorizationInfo(principals))) {
+      if (!(permission instanceof KeyValuePermission)) {
+        return null;
+      }
+      KeyValuePermission keyValuePermission = (KeyValuePermission) permission;
+      Set<String> values =
+          subjectValues.computeIfAbsent(keyValuePermission.getKey(), key -> new HashSet<>());
+      // permission values are compared as case insensitive, comma separated wildcard parts
+      for (String value : keyValuePermission.getValues()) {
+        for (String part : value.split(",")) {
+          values.add(part.trim().toLowerCase(Locale.ROOT));
+        }
+      }
+    }
+
+    Map<String, String> mappings = new HashMap<>(matchOneMap);
+    mappings.putAll(matchAllMap);
+    Map<String, Set<String>> constraints = new HashMap<>();
+    for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+      Set<String> values = subjectValues.getOrDefault(mapping.getValue(), Collections.emptySet());
+      if (!values.contains("*")) {
+        constraints.put(mapping.getKey(), values);
+      }
+    }
+    return constraints;
+  }
+
   /**
    * Checks if the corresponding Subject/user contained within the AuthorizationInfo object implies
    * the given Permission.
    *
+   * <p>Key value collection permissions whose attributes cannot all be implied automatically must
+   * also be permitted by XACML, which is left to the caller so that it can evaluate them together.
+   *
+   * @param curUser the name of the subject/user
    * @param permission the permission being checked.
-   * @param authorizationInfo the application-specific subject/user identifier.
-   * @return true if the user is permitted
+   * @param perms the permissions of the subject/user
+   * @return the decision, without the XACML evaluation
    */
-  private boolean isPermitted(
-      PrincipalCollection subjectPrincipal,
-      Permission permission,
-      AuthorizationInfo authorizationInfo) {
-    Collection<Permission> perms = getPermissions(authorizationInfo);
-    String curUser = "<user>";
-    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
-      curUser = subjectPrincipal.getPrimaryPrincipal().toString();
-    }
+  private LocalDecision isPermitted(
+      String curUser, Permission permission, Collection<Permission> perms) {
     if (!CollectionUtils.isEmpty(perms)) {
       if (permission instanceof KeyValuePermission) {
         permission =
@@ -281,52 +423,142 @@ private boolean isPermitted(
         boolean matchAllXacml = subjectAllCollection.implies(matchAllPreXacmlCollection);
         boolean matchOne = subjectOneCollection.implies(matchOneCollection);
         if (!matchAll || !matchOne) {
-          securityLogger.audit(
-              PERMISSION_FINISH_1_MSG
-                  + curUser
-                  + PERMISSION_FINISH_2_MSG
-                  + permission
-                  + "] is not implied.");
+          auditNotImplied(curUser, permission, "");
         }
 
         // if we weren't able to automatically imply these permissions, call out to XACML
+        KeyValueCollectionPermission xacmlPermissions = null;
         if (!matchAllXacml) {
-          KeyValueCollectionPermission xacmlPermissions =
+          xacmlPermissions =
               new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchAllPreXacmlPermissions);
-          configureXacmlPdp();
-          matchAllXacml = xacmlPdp.isPermitted(curUser, authorizationInfo, xacmlPermissions);
-          if (!matchAllXacml) {
-            securityLogger.audit(
-                PERMISSION_FINISH_1_MSG
-                    + curUser
-                    + PERMISSION_FINISH_2_MSG
-                    + permission
-                    + "] is not implied via XACML.");
-          }
         }
-        return matchAll && matchOne && matchAllXacml;
+        return new LocalDecision(matchAll && matchOne, xacmlPermissions);
       }
 
       for (Permission perm : perms) {
         if (permission != null && perm.implies(permission)) {
-          return true;
+          return new LocalDecision(true, null);
         }
       }
     }
 
+    auditNotImplied(curUser, permission, "");
+    return new LocalDecision(false, null);
+  }
+
+  private DecisionType[] isPermittedByXacml(
+      String curUser,
+      AuthorizationInfo authorizationInfo,
+      List<KeyValueCollectionPermission> xacmlPermissions) {
+    if (xacmlPdp == null) {
+      // the permissions cannot be implied without the XACML PDP
+      DecisionType[] indeterminate = new DecisionType[xacmlPermissions.size()];
+      Arrays.fill(indeterminate, DecisionType.INDETERMINATE);
+      return indeterminate;
+    }
+    return xacmlPdp.getDecisions(curUser, authorizationInfo, xacmlPermissions);
+  }
+
+  private void auditNotImplied(String curUser, Permission permission, String source) {
     securityLogger.audit(
         PERMISSION_FINISH_1_MSG
             + curUser
             + PERMISSION_FINISH_2_MSG
             + permission
-            + "] is not implied.");
-    return false;
+            + "] is not implied"
+            + source
+            + ".");
+  }
+
+  private String getPrimaryPrincipalName(PrincipalCollection subjectPrincipal) {
+    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
+      return subjectPrincipal.getPrimaryPrincipal().toString();
+    }
+    return "<user>";
+  }
+
+  /**
+   * Returns a value that is equal for subjects that are given the same decisions: the name of the
+   * primary principal, which is passed to XACML, and the roles and permissions of the subject.
+   *
+   * @return the key, or {@code null} if the subject has permissions that cannot be compared
+   */
+  private Object getSubjectKey(
+      PrincipalCollection subjectPrincipal, AuthorizationInfo authorizationInfo) {
+    if (authorizationInfo == null) {
+      return getPrimaryPrincipalName(subjectPrincipal);
+    }
+
+    Set<Object> objectPermissions = new HashSet<>();
+    if (authorizationInfo.getObjectPermissions() != null) {
+      for (Permission permission : authorizationInfo.getObjectPermissions()) {
+        Object permissionKey = getPermissionKey(permission);
+        if (permissionKey == null) {
+          return null;
+        }
+        objectPermissions.add(permissionKey);
+      }
+    }
+
+    return Arrays.asList(
+        getPrimaryPrincipalName(subjectPrincipal),
+        toSet(authorizationInfo.getRoles()),
+        toSet(authorizationInfo.getStringPermissions()),
+        objectPermissions);
+  }
+
+  /**
+   * Returns a value that is equal for the permissions with the same action, keys and values.
+   *
+   * @return the key, or {@code null} if the permission is not a key value permission
+   */
+  private Object getPermissionKey(Permission permission) {
+    if (permission instanceof KeyValuePermission) {
+      KeyValuePermission keyValuePermission = (KeyValuePermission) permission;
+      return Arrays.asList(keyValuePermission.getKey(), toSet(keyValuePermission.getValues()));
+    }
+    if (permission instanceof KeyValueCollectionPermission) {
+      KeyValueCollectionPermission collection = (KeyValueCollectionPermission) permission;
+      Set<Object> keyValuePermissions = new HashSet<>();
+      for (Object keyValuePermission : collection.getKeyValuePermissionList()) {
+        Object permissionKey = getPermissionKey((Permission) keyValuePermission);
+        if (permissionKey == null) {
+          return null;
+        }
+        keyValuePermissions.add(permissionKey);
+      }
+      return Arrays.asList(collection.getAction(), keyValuePermissions);
+    }
+    return null;
+  }
+
+  private static Set<String> toSet(Collection<String> values) {
+    return values == null ? Collections.emptySet() : new HashSet<>(values);
+  }
+
+  private static Cache<List<Object>, Boolean> createDecisionCache(
+      int size, long expirationSeconds) {
+    if (size <= 0 || expirationSeconds <= 0) {
+      return null;
+    }
+    return CacheBuilder.newBuilder()
+        .maximumSize(size)
+        .expireAfterWrite(expirationSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /** Discards the cached decisions, which may no longer be the decisions of the realm. */
+  public void clearDecisionCache() {
+    LOGGER.debug("Clearing the authorization decision cache");
+    decisionCache = createDecisionCache(decisionCacheSize, decisionCacheExpirationSeconds);
   }
 
   private void configureXacmlPdp() {
     if (xacmlPdp == null) {
       try {
-        xacmlPdp = new XacmlPdp(dirPath, parser, environmentAttributes, securityLogger);
+        xacmlPdp =
+            new XacmlPdp(
+                dirPath, parser, environmentAttributes, securityLogger, this::clearDecisionCache);
       } catch (PdpException e) {
         LOGGER.warn("Unable to create XACML PDP.", e);
       }
@@ -458,20 +690,61 @@ private Collection<Permission> resolveRolePermissions(Collection<String> roleNam
    */
   public void setPolicyExtensions(List<PolicyExtension> policyExtensions) {
     this.policyExtensions = policyExtensions;
+    clearDecisionCache();
   }
 
   public void addPolicyExtension(PolicyExtension policyExtension) {
     if (policyExtensions != null) {
       policyExtensions.add(policyExtension);
+      clearDecisionCache();
     }
   }
 
   public void removePolicyExtension(PolicyExtension policyExtension) {
     if (policyExtensions != null) {
       policyExtensions.remove(policyExtension);
+      clearDecisionCache();
     }
   }
 
+  @Override
+  public void addUserExpansion(
+      ServiceReference<Expansion> expansionServiceRef, Expansion expansion) {
+    super.addUserExpansion(expansionServiceRef, expansion);
+    clearDecisionCache();
+  }
+
+  @Override
+  public void removeUserExpansion(ServiceReference<Expansion> expansionServiceRef) {
+    super.removeUserExpansion(expansionServiceRef);
+    clearDecisionCache();
+  }
+
+  @Override
+  public void addMetacardExpansion(
+      ServiceReference<Expansion> expansionServiceRef, Expansion expansion) {
+    super.addMetacardExpansion(expansionServiceRef, expansion);
+    clearDecisionCache();
+  }
+
+  @Override
+  public void removeMetacardExpansion(ServiceReference<Expansion> expansionServiceRef) {
+    super.removeMetacardExpansion(expansionServiceRef);
+    clearDecisionCache();
+  }
+
+  @Override
+  public void setPermissionResolver(PermissionResolver permissionResolver) {
+    super.setPermissionResolver(permissionResolver);
+    clearDecisionCache();
+  }
+
+  @Override
+  public void setRolePermissionResolver(RolePermissionResolver permissionRoleResolver) {
+    super.setRolePermissionResolver(permissionRoleResolver);
+    clearDecisionCache();
+  }
+
   /**
    * Sets the mappings used by the "match all" evaluation to determine if this user should be
    * authorized to access requested data.
@@ -502,6 +775,7 @@ public void setMatchAllMappings(List<String> list) {
         }
       }
     }
+    clearDecisionCache();
   }
 
   /**
@@ -534,14 +808,50 @@ public void setMatchOneMappings(List<String> list) {
         }
       }
     }
+    clearDecisionCache();
   }
 
   public void setEnvironmentAttributes(List<String> environmentAttributes) {
     this.environmentAttributes.clear();
     this.environmentAttributes.addAll(environmentAttributes);
+    clearDecisionCache();
+  }
+
+  /**
+   * Sets the maximum number of cached authorization decisions. 0 disables the cache.
+   *
+   * @param decisionCacheSize maximum number of decisions
+   */
+  public void setDecisionCacheSize(int decisionCacheSize) {
+    this.decisionCacheSize = decisionCacheSize;
+    clearDecisionCache();
+  }
+
+  /**
+   * Sets the number of seconds that authorization decisions are cached. 0 disables the cache.
+   *
+   * @param decisionCacheExpirationSeconds number of seconds
+   */
+  public void setDecisionCacheExpirationSeconds(long decisionCacheExpirationSeconds) {
+    this.decisionCacheExpirationSeconds = decisionCacheExpirationSeconds;
+    clearDecisionCache();
   }
 
   public void setSecurityLogger(SecurityLogger securityLogger) {
     this.securityLogger = securityLogger;
   }
+
+  /** The decision for a permission made from the permissions of a subject. */
+  private static class LocalDecision {
+
+    private final boolean permitted;
+
+    /** The permission that must also be permitted by XACML, or {@code null} if there is none. */
+    private final KeyValueCollectionPermission xacmlPermission;
+
+    LocalDecision(boolean permitted, KeyValueCollectionPermission xacmlPermission) {
+      this.permitted = permitted;
+      this.xacmlPermission = xacmlPermission;
+    }
+  }
 }
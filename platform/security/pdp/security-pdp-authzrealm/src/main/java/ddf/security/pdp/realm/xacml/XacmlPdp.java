@@ -20,14 +20,21 @@
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
 import ddf.security.permission.KeyValuePermission;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeValueType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributesType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.DecisionType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.RequestType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.ResponseType;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.ResultType;
 import org.apache.commons.validator.routines.CalendarValidator;
 import org.apache.commons.validator.routines.DateValidator;
 import org.apache.commons.validator.routines.DoubleValidator;
@@ -43,7 +50,12 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Performs authorization backed by a XACML-based PDP. */
+/**
+ * Performs authorization backed by a XACML-based PDP.
+ *
+ * <p>Several permissions can be evaluated in a single request of the XACML Multiple Decision
+ * Profile, with one resource category per permission.
+ */
 public class XacmlPdp {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(XacmlPdp.class);
@@ -92,6 +104,12 @@ public class XacmlPdp {
 
   private static final String SUBJECT_ID = "urn:oasis:names:tc:xacml:1.0:subject:subject-id";
 
+  /**
+   * Identifies the resource of a multiple decision request that a result is for. It is included in
+   * the results and is not expected to be used by policies.
+   */
+  private static final String REQUEST_INDEX_ID = "urn:codice:ddf:xacml:resource:request-index";
+
   private static final String FILTER_ACTION = "filter";
 
   private static final String AUDIT_MSG_FORMAT = "XACML %s [%s] access for action %s";
@@ -109,59 +127,172 @@ public XacmlPdp(
       List<String> environmentAttributes,
       SecurityLogger securityLogger)
       throws PdpException {
+    this(dirPath, parser, environmentAttributes, securityLogger, () -> {});
+  }
+
+  /**
+   * Creates a general
+   *
+   * @param policyChangeListener run after the XACML policies change
+   */
+  public XacmlPdp(
+      String dirPath,
+      Parser parser,
+      List<String> environmentAttributes,
+      SecurityLogger securityLogger,
+      Runnable policyChangeListener)
+      throws PdpException {
     super();
     this.securityLogger = securityLogger;
-    pdp = new XacmlClient(dirPath, parser, securityLogger);
+    pdp =
+        new XacmlClient(
+            dirPath,
+            parser,
+            securityLogger,
+            policyChangeListener);
     this.environmentAttributes = environmentAttributes;
     LOGGER.debug("Creating new PDP-backed Authorizing Realm");
   }
 
+  XacmlPdp(XacmlClient pdp, List<String> environmentAttributes, SecurityLogger securityLogger) {
+    this.pdp = pdp;
+    this.environmentAttributes = environmentAttributes;
+    this.securityLogger = securityLogger;
+  }
+
   public boolean isPermitted(
       String primaryPrincipal, AuthorizationInfo info, KeyValueCollectionPermission curPermission) {
-    boolean curResponse;
-    LOGGER.debug(
-        "Checking if {} has access for action {}", primaryPrincipal, curPermission.getAction());
-
-    if (CollectionUtils.isEmpty(info.getObjectPermissions())
-        && CollectionUtils.isEmpty(info.getStringPermissions())
-        && CollectionUtils.isEmpty(info.getRoles())
-        && !CollectionUtils.isEmpty(curPermission.getKeyValuePermissionList())) {
-      securityLogger.audit(
-          String.format(
-              AUDIT_MSG_FORMAT,
-              "short-circuit denied",
-              primaryPrincipal,
-              curPermission.getAction()));
-      return false;
+    return isPermitted(primaryPrincipal, info, Collections.singletonList(curPermission))[0];
+  }
+
+  /**
+   * Checks the given permissions for the subject.
+   *
+   * @param primaryPrincipal the name of the subject
+   * @param info the authorization information of the subject
+   * @param permissions the permissions being checked
+   * @return the decisions, in the order of the permissions
+   * @see #getDecisions(String, AuthorizationInfo, List)
+   */
+  public boolean[] isPermitted(
+      String primaryPrincipal,
+      AuthorizationInfo info,
+      List<KeyValueCollectionPermission> permissions) {
+    DecisionType[] decisions = getDecisions(primaryPrincipal, info, permissions);
+    boolean[] results = new boolean[decisions.length];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = decisions[i] == DecisionType.PERMIT;
     }
+    return results;
+  }
 
-    if ((!CollectionUtils.isEmpty(info.getObjectPermissions())
-            || !CollectionUtils.isEmpty(info.getStringPermissions())
-            || !CollectionUtils.isEmpty(info.getRoles()))
-        && CollectionUtils.isEmpty(curPermission.getKeyValuePermissionList())) {
-      securityLogger.audit(
-          String.format(
-              AUDIT_MSG_FORMAT,
-              "short-circuit permitted",
-              primaryPrincipal,
-              curPermission.getAction()));
-      return true;
+  /**
+   * Decides the given permissions for the subject. The permissions that cannot be decided from the
+   * authorization information alone are evaluated by the PDP in as few requests as possible.
+   *
+   * @param primaryPrincipal the name of the subject
+   * @param info the authorization information of the subject
+   * @param permissions the permissions being checked
+   * @return the decisions, in the order of the permissions. A decision is {@link
+   *     DecisionType#INDETERMINATE} if the PDP could not evaluate it, in which case it must be
+   *     treated as a denial but is not a decision of the policies.
+   */
+  public DecisionType[] getDecisions(
+      String primaryPrincipal,
+      AuthorizationInfo info,
+      List<KeyValueCollectionPermission> permissions) {
+    DecisionType[] results = new DecisionType[permissions.size()];
+    Map<String, List<Integer>> pendingByAction = new LinkedHashMap<>();
+
+    for (int i = 0; i < results.length; i++) {
+      KeyValueCollectionPermission curPermission = permissions.get(i);
+      LOGGER.debug(
+          "Checking if {} has access for action {}", primaryPrincipal, curPermission.getAction());
+
+      if (CollectionUtils.isEmpty(info.getObjectPermissions())
+          && CollectionUtils.isEmpty(info.getStringPermissions())
+          && CollectionUtils.isEmpty(info.getRoles())
+          && !CollectionUtils.isEmpty(curPermission.getKeyValuePermissionList())) {
+        securityLogger.audit(
+            String.format(
+                AUDIT_MSG_FORMAT,
+                "short-circuit denied",
+                primaryPrincipal,
+                curPermission.getAction()));
+        results[i] = DecisionType.DENY;
+        continue;
+      }
+
+      if ((!CollectionUtils.isEmpty(info.getObjectPermissions())
+              || !CollectionUtils.isEmpty(info.getStringPermissions())
+              || !CollectionUtils.isEmpty(info.getRoles()))
+          && CollectionUtils.isEmpty(curPermission.getKeyValuePermissionList())) {
+        securityLogger.audit(
+            String.format(
+                AUDIT_MSG_FORMAT,
+                "short-circuit permitted",
+                primaryPrincipal,
+                curPermission.getAction()));
+        results[i] = DecisionType.PERMIT;
+        continue;
+      }
+
+      pendingByAction
+          .computeIfAbsent(curPermission.getAction(), action -> new ArrayList<>())
+          .add(i);
     }
 
-    LOGGER.debug("Received authZ info, creating XACML request.");
-    RequestType curRequest = createXACMLRequest(primaryPrincipal, info, curPermission);
-    LOGGER.debug("Created XACML request, calling PDP.");
+    // a multiple decision request has a single action, so permissions are grouped by action
+    for (List<Integer> indexes : pendingByAction.values()) {
+      List<KeyValueCollectionPermission> pending = new ArrayList<>(indexes.size());
+      for (int i : indexes) {
+        pending.add(permissions.get(i));
+      }
+      DecisionType[] pendingResults = evaluate(primaryPrincipal, info, pending);
+      for (int j = 0; j < indexes.size(); j++) {
+        int i = indexes.get(j);
+        results[i] = pendingResults[j];
+        auditDecision(primaryPrincipal, permissions.get(i), results[i] == DecisionType.PERMIT);
+      }
+    }
 
-    curResponse = isPermitted(curRequest);
-    if (curResponse) {
-      securityLogger.audit(
-          String.format(
-              AUDIT_MSG_FORMAT, "permitted", primaryPrincipal, curPermission.getAction()));
-    } else {
-      securityLogger.audit(
-          String.format(AUDIT_MSG_FORMAT, "denied", primaryPrincipal, curPermission.getAction()));
+    return results;
+  }
+
+  private DecisionType[] evaluate(
+      String primaryPrincipal,
+      AuthorizationInfo info,
+      List<KeyValueCollectionPermission> permissions) {
+    if (permissions.size() == 1) {
+      LOGGER.debug("Received authZ info, creating XACML request.");
+      RequestType curRequest = createXACMLRequest(primaryPrincipal, info, permissions.get(0));
+      LOGGER.debug("Created XACML request, calling PDP.");
+      return new DecisionType[] {getDecision(curRequest)};
+    }
+
+    LOGGER.debug("Creating XACML request for {} resources.", permissions.size());
+    RequestType request = createXACMLRequest(primaryPrincipal, info, permissions);
+    DecisionType[] results = getDecisions(request, permissions.size());
+    if (results != null) {
+      return results;
     }
-    return curResponse;
+
+    LOGGER.debug("Unable to correlate the XACML results, evaluating the resources separately.");
+    results = new DecisionType[permissions.size()];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = getDecision(createXACMLRequest(primaryPrincipal, info, permissions.get(i)));
+    }
+    return results;
+  }
+
+  private void auditDecision(
+      String primaryPrincipal, KeyValueCollectionPermission curPermission, boolean permitted) {
+    securityLogger.audit(
+        String.format(
+            AUDIT_MSG_FORMAT,
+            permitted ? "permitted" : "denied",
+            primaryPrincipal,
+            curPermission.getAction()));
   }
 
   protected RequestType createXACMLRequest(
@@ -169,6 +300,54 @@ protected RequestType createXACMLRequest(
     LOGGER.debug(
         "Creating XACML request for subject: {} and metacard permissions {}", subject, permission);
 
+    RequestType xacmlRequestType = createXACMLRequest(subject, info, permission.getAction());
+
+    if (permission instanceof KeyValueCollectionPermission) {
+      xacmlRequestType
+          .getAttributes()
+          .add(createResourceAttributes((KeyValueCollectionPermission) permission));
+      addEnvironmentAttributes(xacmlRequestType);
+    } else {
+      LOGGER.warn(
+          "Permission on the resource need to be of type KeyValueCollectionPermission, cannot process this resource.");
+    }
+
+    return xacmlRequestType;
+  }
+
+  /**
+   * Creates a request of the XACML Multiple Decision Profile with a resource category for each of
+   * the permissions, which must all have the same action. Each resource category includes its index
+   * in the results so that they can be correlated with the permissions.
+   */
+  protected RequestType createXACMLRequest(
+      String subject, AuthorizationInfo info, List<KeyValueCollectionPermission> permissions) {
+    LOGGER.debug(
+        "Creating XACML request for subject: {} and metacard permissions {}",
+        subject,
+        permissions);
+
+    RequestType xacmlRequestType =
+        createXACMLRequest(subject, info, permissions.get(0).getAction());
+
+    for (int i = 0; i < permissions.size(); i++) {
+      AttributesType metadataAttributes = createResourceAttributes(permissions.get(i));
+      AttributeType indexAttribute = new AttributeType();
+      indexAttribute.setAttributeId(REQUEST_INDEX_ID);
+      indexAttribute.setIncludeInResult(true);
+      AttributeValueType indexValue = new AttributeValueType();
+      indexValue.setDataType(STRING_DATA_TYPE);
+      indexValue.getContent().add(String.valueOf(i));
+      indexAttribute.getAttributeValue().add(indexValue);
+      metadataAttributes.getAttribute().add(indexAttribute);
+      xacmlRequestType.getAttributes().add(metadataAttributes);
+    }
+    addEnvironmentAttributes(xacmlRequestType);
+
+    return xacmlRequestType;
+  }
+
+  private RequestType createXACMLRequest(String subject, AuthorizationInfo info, String action) {
     RequestType xacmlRequestType = new RequestType();
     xacmlRequestType.setCombinedDecision(false);
     xacmlRequestType.setReturnPolicyIdList(false);
@@ -182,7 +361,7 @@ protected RequestType createXACMLRequest(
     AttributeValueType actionValue = new AttributeValueType();
     actionValue.setDataType(STRING_DATA_TYPE);
     LOGGER.trace("Adding action: {} for subject: {}", FILTER_ACTION, subject);
-    actionValue.getContent().add(permission.getAction());
+    actionValue.getContent().add(action);
     actionAttribute.getAttributeValue().add(actionValue);
     actionAttributes.getAttribute().add(actionAttribute);
 
@@ -192,81 +371,144 @@ protected RequestType createXACMLRequest(
     AttributesType subjectAttributes = createSubjectAttributes(subject, info);
     xacmlRequestType.getAttributes().add(subjectAttributes);
 
+    return xacmlRequestType;
+  }
+
+  private AttributesType createResourceAttributes(KeyValueCollectionPermission permission) {
     // Adding permissions for the resource
     AttributesType metadataAttributes = new AttributesType();
     metadataAttributes.setCategory(RESOURCE_CATEGORY);
 
-    AttributesType environmentAttributesType = new AttributesType();
-    environmentAttributesType.setCategory(ENVIRONMENT_CATEGORY);
-    if (!CollectionUtils.isEmpty(environmentAttributes)) {
-      for (String envAttr : environmentAttributes) {
-        String[] attr = envAttr.split("=");
-        if (attr.length == 2) {
-          AttributeType attributeType = new AttributeType();
-          attributeType.setAttributeId(attr[0].trim());
-          String[] attrVals = attr[1].split(",");
-          for (String attrVal : attrVals) {
-            AttributeValueType attributeValueType = new AttributeValueType();
-            attributeValueType.setDataType(STRING_DATA_TYPE);
-            attributeValueType.getContent().add(attrVal.trim());
-            attributeType.getAttributeValue().add(attributeValueType);
-          }
-          environmentAttributesType.getAttribute().add(attributeType);
+    List<KeyValuePermission> tmpList = permission.getKeyValuePermissionList();
+    for (KeyValuePermission curPermission : tmpList) {
+      AttributeType resourceAttribute = new AttributeType();
+      resourceAttribute.setAttributeId(curPermission.getKey());
+      resourceAttribute.setIncludeInResult(false);
+      if (!curPermission.getValues().isEmpty()) {
+        for (String curPermValue : curPermission.getValues()) {
+          AttributeValueType resourceAttributeValue = new AttributeValueType();
+          resourceAttributeValue.setDataType(getXacmlDataType(curPermValue));
+          LOGGER.trace(
+              "Adding permission: {}:{} for incoming resource",
+              new Object[] {curPermission.getKey(), curPermValue});
+          resourceAttributeValue.getContent().add(curPermValue);
+          resourceAttribute.getAttributeValue().add(resourceAttributeValue);
         }
+        metadataAttributes.getAttribute().add(resourceAttribute);
       }
     }
+    return metadataAttributes;
+  }
 
-    if (permission instanceof KeyValueCollectionPermission) {
-      List<KeyValuePermission> tmpList =
-          ((KeyValueCollectionPermission) permission).getKeyValuePermissionList();
-      for (KeyValuePermission curPermission : tmpList) {
-        AttributeType resourceAttribute = new AttributeType();
-        resourceAttribute.setAttributeId(curPermission.getKey());
-        resourceAttribute.setIncludeInResult(false);
-        if (!curPermission.getValues().isEmpty()) {
-          for (String curPermValue : curPermission.getValues()) {
-            AttributeValueType resourceAttributeValue = new AttributeValueType();
-            resourceAttributeValue.setDataType(getXacmlDataType(curPermValue));
-            LOGGER.trace(
-                "Adding permission: {}:{} for incoming resource",
-                new Object[] {curPermission.getKey(), curPermValue});
-            resourceAttributeValue.getContent().add(curPermValue);
-            resourceAttribute.getAttributeValue().add(resourceAttributeValue);
-          }
-          metadataAttributes.getAttribute().add(resourceAttribute);
-        }
-      }
+  private void addEnvironmentAttributes(RequestType xacmlRequestType) {
+    if (CollectionUtils.isEmpty(environmentAttributes)) {
+      return;
+    }
 
-      xacmlRequestType.getAttributes().add(metadataAttributes);
-      if (!CollectionUtils.isEmpty(environmentAttributes)) {
-        xacmlRequestType.getAttributes().add(environmentAttributesType);
+    AttributesType environmentAttributesType = new AttributesType();
+    environmentAttributesType.setCategory(ENVIRONMENT_CATEGORY);
+    for (String envAttr : environmentAttributes) {
+      String[] attr = envAttr.split("=");
+      if (attr.length == 2) {
+        AttributeType attributeType = new AttributeType();
+        attributeType.setAttributeId(attr[0].trim());
+        String[] attrVals = attr[1].split(",");
+        for (String attrVal : attrVals) {
+          AttributeValueType attributeValueType = new AttributeValueType();
+          attributeValueType.setDataType(STRING_DATA_TYPE);
+          attributeValueType.getContent().add(attrVal.trim());
+          attributeType.getAttributeValue().add(attributeValueType);
+        }
+        environmentAttributesType.getAttribute().add(attributeType);
       }
-    } else {
-      LOGGER.warn(
-          "Permission on the resource need to be of type KeyValueCollectionPermission, cannot process this resource.");
     }
-
-    return xacmlRequestType;
+    xacmlRequestType.getAttributes().add(environmentAttributesType);
   }
 
   protected boolean isPermitted(RequestType xacmlRequest) {
-    boolean permitted;
+    return getDecision(xacmlRequest) == DecisionType.PERMIT;
+  }
+
+  /**
+   * Evaluates a request created by {@link #createXACMLRequest(String, AuthorizationInfo,
+   * CollectionPermission)}.
+   *
+   * @return the decision, or {@link DecisionType#INDETERMINATE} if the PDP could not evaluate the
+   *     request
+   */
+  protected DecisionType getDecision(RequestType xacmlRequest) {
+    DecisionType decision;
     ResponseType xacmlResponse;
 
     try {
       LOGGER.debug("Calling PDP to evaluate XACML request.");
       xacmlResponse = pdp.evaluate(xacmlRequest);
       LOGGER.debug("Received response from PDP.");
-      permitted =
-          xacmlResponse != null
-              && xacmlResponse.getResult().get(0).getDecision() == DecisionType.PERMIT;
-      LOGGER.debug("Permitted: {}", permitted);
+      decision =
+          xacmlResponse == null
+              ? DecisionType.INDETERMINATE
+              : xacmlResponse.getResult().get(0).getDecision();
+      LOGGER.debug("Decision: {}", decision);
+    } catch (PdpException e) {
+      LOGGER.debug(e.getMessage(), e);
+      decision = DecisionType.INDETERMINATE;
+    }
+
+    return decision;
+  }
+
+  /**
+   * Evaluates a multiple decision request created by {@link #createXACMLRequest(String,
+   * AuthorizationInfo, List)}.
+   *
+   * @return the decisions in the order of the resources, which are all {@link
+   *     DecisionType#INDETERMINATE} if the PDP could not evaluate the request, or {@code null} if
+   *     the results cannot be correlated with the resources
+   */
+  protected DecisionType[] getDecisions(RequestType xacmlRequest, int resourceCount) {
+    ResponseType xacmlResponse;
+    try {
+      LOGGER.debug("Calling PDP to evaluate XACML request.");
+      xacmlResponse = pdp.evaluate(xacmlRequest);
+      LOGGER.debug("Received response from PDP.");
     } catch (PdpException e) {
       LOGGER.debug(e.getMessage(), e);
-      permitted = false;
+      DecisionType[] indeterminate = new DecisionType[resourceCount];
+      Arrays.fill(indeterminate, DecisionType.INDETERMINATE);
+      return indeterminate;
+    }
+
+    if (xacmlResponse == null || xacmlResponse.getResult().size() != resourceCount) {
+      return null;
+    }
+
+    DecisionType[] decisions = new DecisionType[resourceCount];
+    for (ResultType result : xacmlResponse.getResult()) {
+      int index = getRequestIndex(result);
+      if (index < 0 || index >= resourceCount || decisions[index] != null) {
+        return null;
+      }
+      decisions[index] = result.getDecision();
     }
+    return decisions;
+  }
 
-    return permitted;
+  private int getRequestIndex(ResultType result) {
+    for (AttributesType attributes : result.getAttributes()) {
+      for (AttributeType attribute : attributes.getAttribute()) {
+        if (REQUEST_INDEX_ID.equals(attribute.getAttributeId())
+            && attribute.getAttributeValue().size() == 1) {
+          List<Serializable> content = attribute.getAttributeValue().get(0).getContent();
+          try {
+            return content.size() == 1 ? Integer.parseInt(content.get(0).toString().trim()) : -1;
+          } catch (NumberFormatException e) {
+            LOGGER.debug("Invalid request index in XACML result.", e);
+            return -1;
+          }
+        }
+      }
+    }
+    return -1;
   }
 
   private AttributesType createSubjectAttributes(String subject, AuthorizationInfo info) {
@@ -85,6 +85,8 @@ public class XacmlClient {
 
   private SecurityLogger securityLogger;
 
+  private final Runnable policyChangeListener;
+
   /**
    * Creates the proxy to the real XACML PDP.
    *
@@ -96,8 +98,27 @@ public class XacmlClient {
   public XacmlClient(
       String relativeXacmlPoliciesDirectoryPath, Parser parser, SecurityLogger securityLogger)
       throws PdpException {
+    this(relativeXacmlPoliciesDirectoryPath, parser, securityLogger, () -> {});
+  }
+
+  /**
+   * Creates the proxy to the real XACML PDP.
+   *
+   * @param relativeXacmlPoliciesDirectoryPath Relative directory path to the root of the DDF
+   *     installation.
+   * @param parser for marshal and unmarshal
+   * @param policyChangeListener run after the XACML policies change
+   * @throws PdpException
+   */
+  public XacmlClient(
+      String relativeXacmlPoliciesDirectoryPath,
+      Parser parser,
+      SecurityLogger securityLogger,
+      Runnable policyChangeListener)
+      throws PdpException {
     this.parser = parser;
     this.securityLogger = securityLogger;
+    this.policyChangeListener = policyChangeListener;
     if (StringUtils.isEmpty(relativeXacmlPoliciesDirectoryPath)) {
       throw new PdpException(NULL_DIRECTORY_EXCEPTION_MSG);
     }
@@ -181,7 +202,9 @@ private PDPConfig createPdpConfig() {
     attributeFinderModules.add(selectorModule);
     attributeFinderModules.add(currentEnvModule);
     attributeFinder.setModules(attributeFinderModules);
-    return new PDPConfig(attributeFinder, createPolicyFinder(), null, false);
+    // Handle requests of the Multiple Decision Profile, which repeat the resource category, with a
+    // result for each resource instead of a single indeterminate result
+    return new PDPConfig(attributeFinder, createPolicyFinder(), null, true);
   }
 
   /**
@@ -196,7 +219,10 @@ private PolicyFinder createPolicyFinder() {
     PolicyFinder policyFinder = new PolicyFinder();
     PollingPolicyFinderModule policyFinderModule =
         new PollingPolicyFinderModule(
-            xacmlPolicyDirectories, defaultPollingIntervalInSeconds, securityLogger);
+            xacmlPolicyDirectories,
+            defaultPollingIntervalInSeconds,
+            securityLogger,
+            policyChangeListener);
     policyFinderModule.start();
     Set<PolicyFinderModule> policyFinderModules = new HashSet<>(1);
     policyFinderModules.add(policyFinderModule);
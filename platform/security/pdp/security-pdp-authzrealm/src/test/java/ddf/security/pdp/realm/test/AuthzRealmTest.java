@@ -27,8 +27,13 @@
 import ddf.security.policy.extension.PolicyExtension;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import junit.framework.Assert;
 import org.apache.shiro.authz.AuthorizationInfo;
 import org.apache.shiro.authz.Permission;
@@ -299,4 +304,137 @@ public KeyValueCollectionPermission isPermittedMatchOne(
 
     testRealm.setPolicyExtensions(Arrays.asList(policyExtension));
   }
+
+  @Test
+  public void testDecisionCache() {
+    AtomicInteger evaluations = addCountingPolicyExtension(testRealm);
+    permissionList.clear();
+    permissionList.add(new KeyValueCollectionPermissionImpl("action", security));
+
+    Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertEquals(1, evaluations.get());
+
+    // a different action is a different decision
+    permissionList.set(0, new KeyValueCollectionPermissionImpl("other", security));
+    Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertEquals(2, evaluations.get());
+  }
+
+  @Test
+  public void testDecisionCacheClearedOnConfigurationChange() {
+    AtomicInteger evaluations = addCountingPolicyExtension(testRealm);
+    permissionList.clear();
+    permissionList.add(new KeyValueCollectionPermissionImpl("action", security));
+
+    Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    testRealm.setMatchOneMappings(Arrays.asList("FineAccessControls=country"));
+
+    Assert.assertFalse(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertEquals(2, evaluations.get());
+  }
+
+  @Test
+  public void testDecisionCacheDisabled() {
+    AtomicInteger evaluations = addCountingPolicyExtension(testRealm);
+    testRealm.setDecisionCacheSize(0);
+    permissionList.clear();
+    permissionList.add(new KeyValueCollectionPermissionImpl("action", security));
+
+    Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertEquals(2, evaluations.get());
+  }
+
+  @Test
+  public void testIndeterminateDecisionNotCached() throws PdpException {
+    // the XACML PDP cannot be created without a policies directory
+    AuthzRealm realm =
+        new AuthzRealm("", new XmlParser()) {
+          @Override
+          public AuthorizationInfo getAuthorizationInfo(PrincipalCollection principals) {
+            return testRealm.getAuthorizationInfo(principals);
+          }
+        };
+    realm.setSecurityLogger(mock(SecurityLogger.class));
+    AtomicInteger evaluations = addCountingPolicyExtension(realm);
+    permissionList.clear();
+    permissionList.add(
+        new KeyValueCollectionPermissionImpl(
+            "action", Collections.singletonMap("unmapped", Arrays.asList("X"))));
+
+    Assert.assertFalse(realm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertFalse(realm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertEquals(2, evaluations.get());
+  }
+
+  @Test
+  public void testSecurityConstraints() throws PdpException {
+    SimpleAuthorizationInfo authorizationInfo = new SimpleAuthorizationInfo();
+    authorizationInfo.addObjectPermission(
+        new KeyValuePermissionImpl("FineAccessControls", Arrays.asList("A", "b,C")));
+    authorizationInfo.addObjectPermission(
+        new KeyValuePermissionImpl("Releasability", Arrays.asList("*")));
+    AuthzRealm realm = createRealm(authorizationInfo);
+    realm.setMatchAllMappings(Arrays.asList("FineAccessControls=rule", "Releasability=rel"));
+    realm.setMatchOneMappings(Arrays.asList("CountryOfAffiliation=country"));
+
+    Map<String, Set<String>> constraints = realm.getSecurityConstraints(mockSubjectPrincipal);
+
+    Assert.assertEquals(2, constraints.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), constraints.get("rule"));
+    Assert.assertEquals(Collections.emptySet(), constraints.get("country"));
+  }
+
+  @Test
+  public void testSecurityConstraintsUnknown() throws PdpException {
+    // the subject has a string permission, which is resolved to a wildcard permission
+    Assert.assertNull(testRealm.getSecurityConstraints(mockSubjectPrincipal));
+
+    SimpleAuthorizationInfo authorizationInfo = new SimpleAuthorizationInfo();
+    authorizationInfo.addObjectPermission(
+        new KeyValuePermissionImpl("FineAccessControls", Arrays.asList("A")));
+    AuthzRealm realm = createRealm(authorizationInfo);
+    Assert.assertNotNull(realm.getSecurityConstraints(mockSubjectPrincipal));
+
+    realm.setPolicyExtensions(Arrays.asList(mock(PolicyExtension.class)));
+    Assert.assertNull(realm.getSecurityConstraints(mockSubjectPrincipal));
+  }
+
+  private AuthzRealm createRealm(AuthorizationInfo authorizationInfo) throws PdpException {
+    AuthzRealm realm =
+        new AuthzRealm("src/test/resources/policies", new XmlParser()) {
+          @Override
+          public AuthorizationInfo getAuthorizationInfo(PrincipalCollection principals) {
+            return authorizationInfo;
+          }
+        };
+    realm.setSecurityLogger(mock(SecurityLogger.class));
+    return realm;
+  }
+
+  /** @return the number of permissions evaluated by the realm */
+  private AtomicInteger addCountingPolicyExtension(AuthzRealm realm) {
+    AtomicInteger evaluations = new AtomicInteger();
+    realm.addPolicyExtension(
+        new PolicyExtension() {
+          @Override
+          public KeyValueCollectionPermission isPermittedMatchAll(
+              CollectionPermission subjectAllCollection,
+              KeyValueCollectionPermission matchAllCollection,
+              KeyValueCollectionPermission allPermissionsCollection) {
+            return matchAllCollection;
+          }
+
+          @Override
+          public KeyValueCollectionPermission isPermittedMatchOne(
+              CollectionPermission subjectAllCollection,
+              KeyValueCollectionPermission matchOneCollection,
+              KeyValueCollectionPermission allPermissionsCollection) {
+            evaluations.incrementAndGet();
+            return matchOneCollection;
+          }
+        });
+    return evaluations;
+  }
 }
@@ -17,10 +17,16 @@
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import ddf.security.audit.SecurityLogger;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
+import ddf.security.pdp.realm.xacml.processor.XacmlClient;
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
 import ddf.security.permission.KeyValuePermission;
@@ -39,7 +45,9 @@
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributesType;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.DecisionType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.RequestType;
 import org.apache.commons.io.IOUtils;
 import org.apache.shiro.authz.AuthorizationInfo;
@@ -79,6 +87,11 @@ public class XacmlPdpTest {
   private static final String X500_NAME_DATA_TYPE =
       "urn:oasis:names:tc:xacml:1.0:data-type:x500Name";
 
+  private static final String RESOURCE_CATEGORY =
+      "urn:oasis:names:tc:xacml:3.0:attribute-category:resource";
+
+  private static final String REQUEST_INDEX_ID = "urn:codice:ddf:xacml:resource:request-index";
+
   private static final String ENVIRONMENT_CATEGORY =
       "urn:oasis:names:tc:xacml:3.0:attribute-category:environment";
 
@@ -239,6 +252,82 @@ public void testResourceIsNotPermitted() {
     assertThat(testRealm.isPermitted(request), equalTo(false));
   }
 
+  @Test
+  public void testMultipleResourcesArePermitted() throws PdpException {
+    XacmlClient pdp =
+        spy(
+            new XacmlClient(
+                temporaryFolder.getRoot().getAbsolutePath(),
+                new XmlParser(),
+                mock(SecurityLogger.class)));
+    XacmlPdp xacmlPdp = new XacmlPdp(pdp, new ArrayList<>(), mock(SecurityLogger.class));
+    List<KeyValueCollectionPermission> permissions =
+        Arrays.asList(
+            createResourcePermissions(ACCESS_TYPE_A),
+            createResourcePermissions(ACCESS_TYPE_A, ACCESS_TYPE_B, ACCESS_TYPE_C),
+            createResourcePermissions(ACCESS_TYPE_A, ACCESS_TYPE_B));
+
+    boolean[] results =
+        xacmlPdp.isPermitted(USER_NAME, generateSubjectInfo(TEST_COUNTRY), permissions);
+
+    assertThat(results.length, is(3));
+    assertThat(results[0], is(true));
+    assertThat(results[1], is(false));
+    assertThat(results[2], is(true));
+    verify(pdp, times(1)).evaluate(any(RequestType.class));
+  }
+
+  @Test
+  public void testMultipleDecisionRequest() {
+    RequestType request =
+        testRealm.createXACMLRequest(
+            USER_NAME,
+            generateSubjectInfo(TEST_COUNTRY),
+            Arrays.asList(
+                createResourcePermissions(ACCESS_TYPE_A),
+                createResourcePermissions(ACCESS_TYPE_B)));
+
+    List<String> indexes = new ArrayList<>();
+    for (AttributesType attributes : request.getAttributes()) {
+      if (attributes.getCategory().equals(RESOURCE_CATEGORY)) {
+        for (AttributeType attribute : attributes.getAttribute()) {
+          if (attribute.getAttributeId().equals(REQUEST_INDEX_ID)) {
+            assertThat(attribute.isIncludeInResult(), is(true));
+            indexes.add((String) attribute.getAttributeValue().get(0).getContent().get(0));
+          }
+        }
+      }
+    }
+    assertThat(indexes, equalTo(Arrays.asList("0", "1")));
+  }
+
+  @Test
+  public void testPdpFailureIsIndeterminate() throws PdpException {
+    XacmlClient pdp = mock(XacmlClient.class);
+    when(pdp.evaluate(any(RequestType.class))).thenThrow(new PdpException("unavailable"));
+    XacmlPdp xacmlPdp = new XacmlPdp(pdp, new ArrayList<>(), mock(SecurityLogger.class));
+    AuthorizationInfo info = generateSubjectInfo(TEST_COUNTRY);
+
+    DecisionType[] decisions =
+        xacmlPdp.getDecisions(
+            USER_NAME, info, Arrays.asList(createResourcePermissions(ACCESS_TYPE_A)));
+    assertThat(decisions, equalTo(new DecisionType[] {DecisionType.INDETERMINATE}));
+
+    decisions =
+        xacmlPdp.getDecisions(
+            USER_NAME,
+            info,
+            Arrays.asList(
+                createResourcePermissions(ACCESS_TYPE_A),
+                createResourcePermissions(ACCESS_TYPE_B)));
+    assertThat(
+        decisions,
+        equalTo(new DecisionType[] {DecisionType.INDETERMINATE, DecisionType.INDETERMINATE}));
+    assertThat(
+        xacmlPdp.isPermitted(USER_NAME, info, createResourcePermissions(ACCESS_TYPE_A)),
+        is(false));
+  }
+
   @Test
   public void testParseAttributeTypeBoolean() {
     assertThat(testRealm.getXacmlDataType("true"), is(BOOLEAN_DATA_TYPE));
@@ -332,6 +421,12 @@ public void testEnvironmentVariables() {
     assertThat(environmentAttributes.getAttribute().get(2).getAttributeValue().size(), is(3));
   }
 
+  private KeyValueCollectionPermission createResourcePermissions(String... accessTypes) {
+    HashMap<String, List<String>> security = new HashMap<String, List<String>>();
+    security.put(RESOURCE_ACCESS, Arrays.asList(accessTypes));
+    return new KeyValueCollectionPermissionImpl(CollectionPermission.READ_ACTION, security);
+  }
+
   private AuthorizationInfo generateSubjectInfo(String country) {
     SimpleAuthorizationInfo info = new SimpleAuthorizationInfo();
     Set<Permission> permissions = new HashSet<Permission>();
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.permission;
+
+import java.util.Map;
+import java.util.Set;
+import org.apache.shiro.subject.PrincipalCollection;
+
+/**
+ * Service that describes, ahead of the permission checks, which security attribute values a
+ * subject can be permitted to access, so that resources the subject cannot access can be excluded
+ * before they are retrieved.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface SecurityConstraintProvider {
+
+  /**
+   * Returns the constraints every resource the subject is permitted to access satisfies. A
+   * resource satisfies the constraint of a security attribute if it has no value for the attribute
+   * or if at least one of its values, compared ignoring case, is in the constraint's values.
+   *
+   * <p>The constraints are necessary, not sufficient, conditions: resources that satisfy them must
+   * still be checked against the subject's permissions.
+   *
+   * @param principals the subject's principals
+   * @return a map from security attribute names to their permitted values, in lower case, or {@code
+   *     null} if the constraints cannot be determined for the subject
+   */
+  Map<String, Set<String>> getSecurityConstraints(PrincipalCollection principals);
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.cxf.client.interceptor;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+
+/**
+ * Adds the OpenTelemetry context of the calling thread, such as the W3C {@code traceparent}
+ * header, to the headers of outgoing requests so that the spans of the receiver join the trace of
+ * the caller. Nothing is added unless an OpenTelemetry SDK with propagators has been installed.
+ */
+public class TraceContextOutInterceptor extends AbstractPhaseInterceptor<Message> {
+
+  private static final TextMapSetter<Message> HEADER_SETTER =
+      (message, key, value) -> getHeaders(message).put(key, Collections.singletonList(value));
+
+  private final Supplier<TextMapPropagator> propagator;
+
+  public TraceContextOutInterceptor(String phase) {
+    this(phase, () -> GlobalOpenTelemetry.getPropagators().getTextMapPropagator());
+  }
+
+  TraceContextOutInterceptor(String phase, Supplier<TextMapPropagator> propagator) {
+    super(phase);
+    this.propagator = propagator;
+  }
+
+  @Override
+  public void handleMessage(Message message) throws Fault {
+    if (isRequestor(message)) {
+      propagator.get().inject(Context.current(), message, HEADER_SETTER);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, List<String>> getHeaders(Message message) {
+    Map<String, List<String>> headers =
+        (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+    if (headers == null) {
+      headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      message.put(Message.PROTOCOL_HEADERS, headers);
+    }
+    return headers;
+  }
+}
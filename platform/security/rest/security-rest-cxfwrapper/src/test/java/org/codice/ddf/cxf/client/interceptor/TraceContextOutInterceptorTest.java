@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.cxf.client.interceptor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import java.util.List;
+import java.util.Map;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.Phase;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TraceContextOutInterceptorTest {
+
+  private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+  private static final String SPAN_ID = "b7ad6b7169203331";
+
+  private TraceContextOutInterceptor interceptor;
+
+  private Message message;
+
+  private Span span;
+
+  @Before
+  public void setUp() {
+    interceptor =
+        new TraceContextOutInterceptor(Phase.POST_LOGICAL, W3CTraceContextPropagator::getInstance);
+    message = new MessageImpl();
+    message.put(Message.REQUESTOR_ROLE, Boolean.TRUE);
+    span =
+        Span.wrap(
+            SpanContext.create(TRACE_ID, SPAN_ID, TraceFlags.getSampled(), TraceState.getDefault()));
+  }
+
+  @Test
+  public void testTraceContextIsAddedToHeaders() {
+    try (Scope ignored = span.makeCurrent()) {
+      interceptor.handleMessage(message);
+    }
+
+    assertThat(getHeaders().get("traceparent"), contains("00-" + TRACE_ID + "-" + SPAN_ID + "-01"));
+  }
+
+  @Test
+  public void testNothingAddedWithoutSpan() {
+    interceptor.handleMessage(message);
+
+    assertThat(message.get(Message.PROTOCOL_HEADERS), nullValue());
+  }
+
+  @Test
+  public void testResponsesAreIgnored() {
+    message.put(Message.REQUESTOR_ROLE, Boolean.FALSE);
+    try (Scope ignored = span.makeCurrent()) {
+      interceptor.handleMessage(message);
+    }
+
+    assertThat(message.get(Message.PROTOCOL_HEADERS), nullValue());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, List<String>> getHeaders() {
+    return (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+  }
+}
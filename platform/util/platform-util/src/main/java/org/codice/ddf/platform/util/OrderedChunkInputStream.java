@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.platform.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * An {@link InputStream} over chunks of bytes that are produced in parallel and read in order.
+ * Only a bounded window of chunks is produced ahead of the chunk being read, so the memory used is
+ * proportional to the window rather than to the whole content. Closing the stream cancels the
+ * chunks that are still being produced.
+ */
+public final class OrderedChunkInputStream extends InputStream {
+
+  private final Iterator<Callable<byte[]>> producers;
+
+  private final ExecutorService executor;
+
+  private final Deque<byte[]> ready = new ArrayDeque<>();
+
+  private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+  private byte[] trailer;
+
+  private byte[] current;
+
+  private int position;
+
+  private boolean closed;
+
+  /**
+   * @param leading chunks that are already available, read before the produced chunks
+   * @param producers produce the remaining chunks, in order
+   * @param trailer the chunk read after the produced chunks
+   * @param executor runs the producers
+   * @param windowSize the maximum number of chunks produced ahead of the chunk being read
+   */
+  public OrderedChunkInputStream(
+      Iterable<byte[]> leading,
+      Iterator<Callable<byte[]>> producers,
+      byte[] trailer,
+      ExecutorService executor,
+      int windowSize) {
+    leading.forEach(ready::add);
+    this.producers = producers;
+    this.trailer = trailer;
+    this.executor = executor;
+    for (int i = 0; i < windowSize && producers.hasNext(); i++) {
+      pending.add(executor.submit(producers.next()));
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+  }
+
+  @Override
+  public synchronized int read(byte[] b, int off, int len) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (len == 0) {
+      return 0;
+    }
+
+    while (current == null || position == current.length) {
+      if (!nextChunk()) {
+        return -1;
+      }
+    }
+
+    int count = Math.min(len, current.length - position);
+    System.arraycopy(current, position, b, off, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public synchronized int available() {
+    return current == null ? 0 : current.length - position;
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    current = null;
+    for (Future<byte[]> future : pending) {
+      future.cancel(true);
+    }
+    pending.clear();
+  }
+
+  private boolean nextChunk() throws IOException {
+    position = 0;
+    if (!ready.isEmpty()) {
+      current = ready.poll();
+      return true;
+    }
+
+    Future<byte[]> next = pending.poll();
+    if (next != null) {
+      if (producers.hasNext()) {
+        pending.add(executor.submit(producers.next()));
+      }
+      try {
+        current = next.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new InterruptedIOException("Interrupted while waiting for content");
+      } catch (ExecutionException e) {
+        close();
+        throw new IOException("Failure to write node; operation aborted", e.getCause());
+      }
+      return true;
+    }
+
+    current = trailer;
+    trailer = null;
+    return current != null;
+  }
+}
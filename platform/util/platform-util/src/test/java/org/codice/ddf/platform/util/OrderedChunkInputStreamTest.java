@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.platform.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrderedChunkInputStreamTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testChunksAreReadInOrder() throws IOException {
+    List<Callable<byte[]>> producers = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      int chunk = i;
+      producers.add(
+          () -> {
+            // later chunks finish first
+            TimeUnit.MILLISECONDS.sleep(20 - chunk);
+            return bytes(chunk + ",");
+          });
+    }
+
+    InputStream inputStream =
+        new OrderedChunkInputStream(
+            Arrays.asList(bytes("<"), bytes("")), producers.iterator(), bytes(">"), executor, 3);
+
+    assertThat(
+        read(inputStream), is("<0,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,>"));
+  }
+
+  @Test
+  public void testProducersAreBoundedByWindow() throws IOException {
+    AtomicInteger started = new AtomicInteger();
+    List<Callable<byte[]>> producers = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      producers.add(
+          () -> {
+            started.incrementAndGet();
+            return bytes("a");
+          });
+    }
+
+    InputStream inputStream =
+        new OrderedChunkInputStream(
+            Collections.emptyList(), producers.iterator(), null, executor, 2);
+
+    assertThat(inputStream.read(), is((int) 'a'));
+    assertThat(started.get() <= 3, is(true));
+    assertThat(read(inputStream), is("aaaaaaaaa"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testProducerFailure() throws IOException {
+    List<Callable<byte[]>> producers =
+        Arrays.asList(
+            () -> bytes("a"),
+            () -> {
+              throw new IllegalStateException("failed");
+            });
+
+    read(
+        new OrderedChunkInputStream(
+            Collections.emptyList(), producers.iterator(), null, executor, 1));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String read(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4];
+    int count;
+    while ((count = inputStream.read(buffer)) != -1) {
+      outputStream.write(buffer, 0, count);
+    }
+    return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+  }
+}